@@ -1,5 +1,10 @@
 package com.mycompany.myapp.config;
 
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -9,4 +14,563 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  * See {@link tech.jhipster.config.JHipsterProperties} for a good example.
  */
 @ConfigurationProperties(prefix = "application", ignoreUnknownFields = false)
-public class ApplicationProperties {}
+public class ApplicationProperties {
+
+    private final Export export = new Export();
+
+    private final Cache cache = new Cache();
+
+    private final QueryCache queryCache = new QueryCache();
+
+    private final Bulk bulk = new Bulk();
+
+    private final Imports imports = new Imports();
+
+    private final UserPurge userPurge = new UserPurge();
+
+    private final Security security = new Security();
+
+    public Export getExport() {
+        return export;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public QueryCache getQueryCache() {
+        return queryCache;
+    }
+
+    public Bulk getBulk() {
+        return bulk;
+    }
+
+    public Imports getImports() {
+        return imports;
+    }
+
+    public UserPurge getUserPurge() {
+        return userPurge;
+    }
+
+    public Security getSecurity() {
+        return security;
+    }
+
+    public static class Export {
+
+        /**
+         * Number of rows fetched from the database at once while streaming an export. Not used on MySQL, where the
+         * export statements stream their rows one at a time.
+         */
+        private int fetchSize = 500;
+
+        /**
+         * Longest time an export may take to be written, instead of the container default for asynchronous requests.
+         */
+        private Duration timeout = Duration.ofMinutes(30);
+
+        public int getFetchSize() {
+            return fetchSize;
+        }
+
+        public void setFetchSize(int fetchSize) {
+            this.fetchSize = fetchSize;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+    }
+
+    public static class Cache {
+
+        /**
+         * Per cache overrides of the {@code jhipster.cache.caffeine} settings, keyed by cache (or Hibernate region) name.
+         */
+        private Map<String, Region> regions = new HashMap<>();
+
+        public Map<String, Region> getRegions() {
+            return regions;
+        }
+
+        public void setRegions(Map<String, Region> regions) {
+            this.regions = regions;
+        }
+
+        public static class Region {
+
+            private Long maxEntries;
+
+            private Long timeToLiveSeconds;
+
+            public Long getMaxEntries() {
+                return maxEntries;
+            }
+
+            public void setMaxEntries(Long maxEntries) {
+                this.maxEntries = maxEntries;
+            }
+
+            public Long getTimeToLiveSeconds() {
+                return timeToLiveSeconds;
+            }
+
+            public void setTimeToLiveSeconds(Long timeToLiveSeconds) {
+                this.timeToLiveSeconds = timeToLiveSeconds;
+            }
+        }
+    }
+
+    public static class QueryCache {
+
+        /**
+         * Cache the keyset slices of the entity criteria queries, until an entity they may contain is written.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Maximum number of rows held by each criteria query cache, whatever the number of slices holding them.
+         */
+        private long maxRows = 20000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getMaxRows() {
+            return maxRows;
+        }
+
+        public void setMaxRows(long maxRows) {
+            this.maxRows = maxRows;
+        }
+    }
+
+    public static class Bulk {
+
+        /**
+         * Maximum number of entities in one bulk create or update request.
+         */
+        private int maxItems = 5000;
+
+        /**
+         * Number of entities written before the persistence context is flushed and cleared, should be a multiple of
+         * {@code hibernate.jdbc.batch_size}.
+         */
+        private int flushSize = 500;
+
+        public int getMaxItems() {
+            return maxItems;
+        }
+
+        public void setMaxItems(int maxItems) {
+            this.maxItems = maxItems;
+        }
+
+        public int getFlushSize() {
+            return flushSize;
+        }
+
+        public void setFlushSize(int flushSize) {
+            this.flushSize = flushSize;
+        }
+    }
+
+    public static class Imports {
+
+        /**
+         * Number of imported rows written in one transaction.
+         */
+        private int chunkSize = 1000;
+
+        /**
+         * Maximum number of row errors kept in the report of an import.
+         */
+        private int maxErrors = 1000;
+
+        /**
+         * Time during which a finished import can still be queried.
+         */
+        private Duration retention = Duration.ofDays(1);
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+
+        public int getMaxErrors() {
+            return maxErrors;
+        }
+
+        public void setMaxErrors(int maxErrors) {
+            this.maxErrors = maxErrors;
+        }
+
+        public Duration getRetention() {
+            return retention;
+        }
+
+        public void setRetention(Duration retention) {
+            this.retention = retention;
+        }
+    }
+
+    public static class UserPurge {
+
+        /**
+         * Number of not activated users deleted in one transaction.
+         */
+        private int chunkSize = 500;
+
+        /**
+         * Time after which a purge stops after its current chunk, the next one resuming it.
+         */
+        private Duration maxDuration = Duration.ofMinutes(30);
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+
+        public Duration getMaxDuration() {
+            return maxDuration;
+        }
+
+        public void setMaxDuration(Duration maxDuration) {
+            this.maxDuration = maxDuration;
+        }
+    }
+
+    public static class Security {
+
+        private final TokenCache tokenCache = new TokenCache();
+
+        private final PasswordHashing passwordHashing = new PasswordHashing();
+
+        private final TokenRevocation tokenRevocation = new TokenRevocation();
+
+        private final RateLimiting rateLimiting = new RateLimiting();
+
+        private final RefreshToken refreshToken = new RefreshToken();
+
+        private final CompactToken compactToken = new CompactToken();
+
+        public TokenCache getTokenCache() {
+            return tokenCache;
+        }
+
+        public PasswordHashing getPasswordHashing() {
+            return passwordHashing;
+        }
+
+        public TokenRevocation getTokenRevocation() {
+            return tokenRevocation;
+        }
+
+        public RateLimiting getRateLimiting() {
+            return rateLimiting;
+        }
+
+        public RefreshToken getRefreshToken() {
+            return refreshToken;
+        }
+
+        public CompactToken getCompactToken() {
+            return compactToken;
+        }
+
+        public static class TokenCache {
+
+            /**
+             * Maximum number of verified JWT tokens kept with their authentication, {@code 0} to verify every token on each request.
+             */
+            private long maxEntries = 10000;
+
+            public long getMaxEntries() {
+                return maxEntries;
+            }
+
+            public void setMaxEntries(long maxEntries) {
+                this.maxEntries = maxEntries;
+            }
+        }
+
+        public static class PasswordHashing {
+
+            /**
+             * BCrypt work factor, the passwords hashed with another one are re-hashed when their user logs in.
+             */
+            private int strength = 10;
+
+            /**
+             * Number of threads hashing and checking passwords.
+             */
+            private int poolSize = Runtime.getRuntime().availableProcessors();
+
+            /**
+             * Number of password operations which may wait for a thread, the others are rejected.
+             */
+            private int queueCapacity = 100;
+
+            /**
+             * Delay sent in the {@code Retry-After} header of the rejected requests.
+             */
+            private Duration retryAfter = Duration.ofSeconds(1);
+
+            public int getStrength() {
+                return strength;
+            }
+
+            public void setStrength(int strength) {
+                this.strength = strength;
+            }
+
+            public int getPoolSize() {
+                return poolSize;
+            }
+
+            public void setPoolSize(int poolSize) {
+                this.poolSize = poolSize;
+            }
+
+            public int getQueueCapacity() {
+                return queueCapacity;
+            }
+
+            public void setQueueCapacity(int queueCapacity) {
+                this.queueCapacity = queueCapacity;
+            }
+
+            public Duration getRetryAfter() {
+                return retryAfter;
+            }
+
+            public void setRetryAfter(Duration retryAfter) {
+                this.retryAfter = retryAfter;
+            }
+        }
+
+        public static class TokenRevocation {
+
+            /**
+             * Number of revoked tokens the Bloom filter is sized for, it is rebuilt with more room when they outgrow it.
+             */
+            private int expectedEntries = 10000;
+
+            /**
+             * Share of the valid tokens which the Bloom filter sends to the exact lookup.
+             */
+            private double falsePositiveRate = 0.01;
+
+            public int getExpectedEntries() {
+                return expectedEntries;
+            }
+
+            public void setExpectedEntries(int expectedEntries) {
+                this.expectedEntries = expectedEntries;
+            }
+
+            public double getFalsePositiveRate() {
+                return falsePositiveRate;
+            }
+
+            public void setFalsePositiveRate(double falsePositiveRate) {
+                this.falsePositiveRate = falsePositiveRate;
+            }
+        }
+
+        public static class RateLimiting {
+
+            private boolean enabled = true;
+
+            /**
+             * Maximum number of buckets kept by each limit, beyond which the ones least likely to be used again are evicted.
+             */
+            private long maxBuckets = 100000;
+
+            /**
+             * Rate limited routes, keyed by the name used in the metrics.
+             */
+            private Map<String, Route> routes = new LinkedHashMap<>();
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public long getMaxBuckets() {
+                return maxBuckets;
+            }
+
+            public void setMaxBuckets(long maxBuckets) {
+                this.maxBuckets = maxBuckets;
+            }
+
+            public Map<String, Route> getRoutes() {
+                return routes;
+            }
+
+            public void setRoutes(Map<String, Route> routes) {
+                this.routes = routes;
+            }
+
+            public static class Route {
+
+                /**
+                 * Ant pattern of the limited request paths.
+                 */
+                private String path;
+
+                /**
+                 * JSON field of the request body holding the account, or {@code null} if the whole body is the account.
+                 */
+                private String accountField;
+
+                /**
+                 * Requests allowed per client IP address.
+                 */
+                private final Limit client = new Limit();
+
+                /**
+                 * Requests allowed per account, as read from the request body.
+                 */
+                private final Limit account = new Limit();
+
+                public String getPath() {
+                    return path;
+                }
+
+                public void setPath(String path) {
+                    this.path = path;
+                }
+
+                public String getAccountField() {
+                    return accountField;
+                }
+
+                public void setAccountField(String accountField) {
+                    this.accountField = accountField;
+                }
+
+                public Limit getClient() {
+                    return client;
+                }
+
+                public Limit getAccount() {
+                    return account;
+                }
+            }
+
+            public static class Limit {
+
+                /**
+                 * Number of requests allowed in a burst, {@code 0} to disable the limit.
+                 */
+                private int capacity;
+
+                /**
+                 * Time for an empty bucket to be full again.
+                 */
+                private Duration period = Duration.ofMinutes(1);
+
+                public int getCapacity() {
+                    return capacity;
+                }
+
+                public void setCapacity(int capacity) {
+                    this.capacity = capacity;
+                }
+
+                public Duration getPeriod() {
+                    return period;
+                }
+
+                public void setPeriod(Duration period) {
+                    this.period = period;
+                }
+            }
+        }
+
+        public static class RefreshToken {
+
+            /**
+             * Whether {@code /api/authenticate} issues refresh tokens with short-lived access tokens, the refresh tokens
+             * being valid for {@code jhipster.security.authentication.jwt.token-validity-in-seconds} (or the remember-me one).
+             * The clients must then refresh their access tokens, which the web client does not do.
+             */
+            private boolean enabled = false;
+
+            /**
+             * Validity of the access tokens issued with a refresh token.
+             */
+            private Duration accessTokenValidity = Duration.ofMinutes(15);
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public Duration getAccessTokenValidity() {
+                return accessTokenValidity;
+            }
+
+            public void setAccessTokenValidity(Duration accessTokenValidity) {
+                this.accessTokenValidity = accessTokenValidity;
+            }
+        }
+
+        public static class CompactToken {
+
+            /**
+             * Whether the JWT tokens are issued in the compact format: authorities as a bitmask, short claim names and
+             * an HS256 signature. The tokens in both formats are accepted either way.
+             */
+            private boolean enabled = false;
+
+            /**
+             * Authorities of each bit of the bitmask, by registry version: the first list is version {@code 1}. The tokens
+             * are issued with the last version, and decoded with the version they were issued with, so the existing
+             * versions must never be edited.
+             */
+            private List<List<String>> authorityRegistry = List.of();
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public List<List<String>> getAuthorityRegistry() {
+                return authorityRegistry;
+            }
+
+            public void setAuthorityRegistry(List<List<String>> authorityRegistry) {
+                this.authorityRegistry = authorityRegistry;
+            }
+        }
+    }
+}
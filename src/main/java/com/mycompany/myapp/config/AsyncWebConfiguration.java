@@ -0,0 +1,18 @@
+package com.mycompany.myapp.config;
+
+import com.mycompany.myapp.web.rest.util.AsyncTimeoutUtil;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Configure the asynchronous requests to use the timeouts set by their handlers.
+ */
+@Configuration
+public class AsyncWebConfiguration implements WebMvcConfigurer {
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.registerCallableInterceptors(AsyncTimeoutUtil.timeoutInterceptor());
+    }
+}
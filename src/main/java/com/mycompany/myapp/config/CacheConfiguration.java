@@ -0,0 +1,175 @@
+package com.mycompany.myapp.config;
+
+import com.github.benmanes.caffeine.cache.Weigher;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import javax.cache.configuration.FactoryBuilder;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.cache.JCacheManagerCustomizer;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.info.BuildProperties;
+import org.springframework.boot.info.GitProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.interceptor.CacheResolver;
+import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.cache.interceptor.SimpleCacheResolver;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.cache.interceptor.SimpleKeyGenerator;
+import org.springframework.cache.support.NoOpCache;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.Slice;
+import tech.jhipster.config.JHipsterProperties;
+import tech.jhipster.config.cache.PrefixedKeyGenerator;
+
+/**
+ * Local Caffeine caches, exposed through JCache both to Spring and to Hibernate as its second-level cache.
+ * <p>
+ * Every cache gets the {@code jhipster.cache.caffeine} size and time to live, unless overridden in
+ * {@code application.cache.regions}. Statistics are enabled so Spring Boot exports them to Micrometer.
+ * <p>
+ * The entity criteria query caches go through the {@code queryCacheResolver}, which defers puts and evictions until
+ * the current transaction commits, and the {@code queryKeyGenerator}, which keys the results by method and arguments.
+ * They hold keyset slices of different sizes, so they are bounded by {@code application.query-cache.max-rows}, the
+ * number of rows of their slices, instead of their number of entries.
+ * The user credential and account caches go through the {@code userCacheResolver}, which defers the puts and evictions
+ * the same way. The account cache holds mutable DTOs, so it stores them by value: every read gets its own copy.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfiguration {
+
+    private GitProperties gitProperties;
+    private BuildProperties buildProperties;
+
+    private final JHipsterProperties.Cache.Caffeine caffeine;
+
+    private final ApplicationProperties.Cache cache;
+
+    private final ApplicationProperties.QueryCache queryCache;
+
+    public CacheConfiguration(JHipsterProperties jHipsterProperties, ApplicationProperties applicationProperties) {
+        this.caffeine = jHipsterProperties.getCache().getCaffeine();
+        this.cache = applicationProperties.getCache();
+        this.queryCache = applicationProperties.getQueryCache();
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernatePropertiesCustomizer(javax.cache.CacheManager cacheManager) {
+        return hibernateProperties -> hibernateProperties.put(ConfigSettings.CACHE_MANAGER, cacheManager);
+    }
+
+    @Bean
+    public JCacheManagerCustomizer cacheManagerCustomizer() {
+        return cm -> {
+            createCache(cm, com.mycompany.myapp.domain.Authority.class.getName());
+            createCache(cm, com.mycompany.myapp.domain.User.class.getName() + ".authorities");
+            createCache(cm, com.mycompany.myapp.security.UserCredentialsCache.USERS_BY_LOGIN_CACHE);
+            createCache(cm, com.mycompany.myapp.security.UserCredentialsCache.USERS_BY_EMAIL_CACHE);
+            createSnapshotCache(cm, com.mycompany.myapp.service.AccountCache.ACCOUNTS_BY_LOGIN_CACHE);
+            createCache(cm, com.mycompany.myapp.domain.Room.class.getName());
+            createCache(cm, com.mycompany.myapp.domain.Room.class.getName() + ".residents");
+            createCache(cm, com.mycompany.myapp.domain.Resident.class.getName());
+            createCache(cm, com.mycompany.myapp.domain.Facility.class.getName());
+            createQueryCache(cm, com.mycompany.myapp.service.ResidentQueryService.RESIDENTS_BY_CRITERIA_CACHE);
+            createQueryCache(cm, com.mycompany.myapp.service.RoomQueryService.ROOMS_BY_CRITERIA_CACHE);
+            createQueryCache(cm, com.mycompany.myapp.service.FacilityQueryService.FACILITIES_BY_CRITERIA_CACHE);
+            // jhipster-needle-caffeine-add-entry
+        };
+    }
+
+    @Bean
+    public CacheResolver queryCacheResolver(CacheManager cacheManager) {
+        if (!queryCache.isEnabled()) {
+            return context -> context.getOperation().getCacheNames().stream().map(NoOpCache::new).collect(Collectors.toList());
+        }
+        return new SimpleCacheResolver(new TransactionAwareCacheManagerProxy(cacheManager));
+    }
+
+    @Bean
+    public CacheResolver userCacheResolver(CacheManager cacheManager) {
+        return new SimpleCacheResolver(new TransactionAwareCacheManagerProxy(cacheManager));
+    }
+
+    @Bean
+    public KeyGenerator queryKeyGenerator() {
+        return (target, method, params) -> new SimpleKey(method.getName(), SimpleKeyGenerator.generateKey(params));
+    }
+
+    private void createCache(javax.cache.CacheManager cm, String cacheName) {
+        createCache(cm, cacheName, jcacheConfiguration(cacheName));
+    }
+
+    private void createSnapshotCache(javax.cache.CacheManager cm, String cacheName) {
+        CaffeineConfiguration<Object, Object> caffeineConfiguration = jcacheConfiguration(cacheName);
+        caffeineConfiguration.setStoreByValue(true);
+        createCache(cm, cacheName, caffeineConfiguration);
+    }
+
+    private void createQueryCache(javax.cache.CacheManager cm, String cacheName) {
+        CaffeineConfiguration<Object, Object> caffeineConfiguration = jcacheConfiguration(cacheName);
+        caffeineConfiguration.setMaximumSize(OptionalLong.empty());
+        caffeineConfiguration.setMaximumWeight(OptionalLong.of(queryCache.getMaxRows()));
+        caffeineConfiguration.setWeigherFactory(Optional.of(FactoryBuilder.factoryOf(SliceWeigher.class)));
+        createCache(cm, cacheName, caffeineConfiguration);
+    }
+
+    private void createCache(javax.cache.CacheManager cm, String cacheName, CaffeineConfiguration<Object, Object> configuration) {
+        javax.cache.Cache<Object, Object> existing = cm.getCache(cacheName);
+        if (existing != null) {
+            existing.clear();
+        } else {
+            cm.createCache(cacheName, configuration);
+        }
+    }
+
+    private CaffeineConfiguration<Object, Object> jcacheConfiguration(String cacheName) {
+        long maxEntries = caffeine.getMaxEntries();
+        long timeToLiveSeconds = caffeine.getTimeToLiveSeconds();
+        ApplicationProperties.Cache.Region region = cache.getRegions().get(cacheName);
+        if (region != null && region.getMaxEntries() != null) {
+            maxEntries = region.getMaxEntries();
+        }
+        if (region != null && region.getTimeToLiveSeconds() != null) {
+            timeToLiveSeconds = region.getTimeToLiveSeconds();
+        }
+
+        CaffeineConfiguration<Object, Object> caffeineConfiguration = new CaffeineConfiguration<>();
+        caffeineConfiguration.setMaximumSize(OptionalLong.of(maxEntries));
+        caffeineConfiguration.setExpireAfterWrite(OptionalLong.of(TimeUnit.SECONDS.toNanos(timeToLiveSeconds)));
+        caffeineConfiguration.setStatisticsEnabled(true);
+        return caffeineConfiguration;
+    }
+
+    @Autowired(required = false)
+    public void setGitProperties(GitProperties gitProperties) {
+        this.gitProperties = gitProperties;
+    }
+
+    @Autowired(required = false)
+    public void setBuildProperties(BuildProperties buildProperties) {
+        this.buildProperties = buildProperties;
+    }
+
+    @Bean
+    public KeyGenerator keyGenerator() {
+        return new PrefixedKeyGenerator(this.gitProperties, this.buildProperties);
+    }
+
+    /**
+     * Weighs the cached slices by their number of rows, plus one so that empty slices are bounded too.
+     */
+    public static class SliceWeigher implements Weigher<Object, Object> {
+
+        @Override
+        public int weigh(Object key, Object value) {
+            return value instanceof Slice ? ((Slice<?>) value).getNumberOfElements() + 1 : 1;
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package com.mycompany.myapp.config;
 
+import org.hibernate.cfg.AvailableSettings;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
@@ -13,4 +15,10 @@ import tech.jhipster.config.JHipsterConstants;
 @EnableJpaRepositories({ "com.mycompany.myapp.repository" })
 @EnableJpaAuditing(auditorAwareRef = "springSecurityAuditorAware")
 @EnableTransactionManagement
-public class DatabaseConfiguration {}
+public class DatabaseConfiguration {
+
+    @Bean
+    public HibernatePropertiesCustomizer versionedEntityInterceptorCustomizer() {
+        return hibernateProperties -> hibernateProperties.put(AvailableSettings.INTERCEPTOR, new VersionedEntityInterceptor());
+    }
+}
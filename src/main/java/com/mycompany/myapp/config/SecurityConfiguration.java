@@ -1,7 +1,11 @@
 package com.mycompany.myapp.config;
 
+import com.mycompany.myapp.management.SecurityMetersService;
 import com.mycompany.myapp.security.*;
 import com.mycompany.myapp.security.jwt.*;
+import com.mycompany.myapp.security.ratelimit.RateLimitingFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.HttpMethod;
@@ -11,12 +15,12 @@ import org.springframework.security.config.annotation.web.builders.WebSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityCustomizer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.security.web.header.writers.ReferrerPolicyHeaderWriter;
 import org.springframework.web.filter.CorsFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
 import org.zalando.problem.spring.web.advice.security.SecurityProblemSupport;
 import tech.jhipster.config.JHipsterProperties;
 
@@ -29,24 +33,32 @@ public class SecurityConfiguration {
 
     private final TokenProvider tokenProvider;
 
+    private final TokenRevocationService tokenRevocationService;
+
+    private final SecurityMetersService securityMetersService;
+
     private final CorsFilter corsFilter;
     private final SecurityProblemSupport problemSupport;
 
     public SecurityConfiguration(
         TokenProvider tokenProvider,
+        TokenRevocationService tokenRevocationService,
+        SecurityMetersService securityMetersService,
         CorsFilter corsFilter,
         JHipsterProperties jHipsterProperties,
         SecurityProblemSupport problemSupport
     ) {
         this.tokenProvider = tokenProvider;
+        this.tokenRevocationService = tokenRevocationService;
+        this.securityMetersService = securityMetersService;
         this.corsFilter = corsFilter;
         this.problemSupport = problemSupport;
         this.jHipsterProperties = jHipsterProperties;
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        return new PooledPasswordEncoder(applicationProperties.getSecurity().getPasswordHashing(), meterRegistry);
     }
 
     @Bean
@@ -63,12 +75,23 @@ public class SecurityConfiguration {
     }
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(
+        HttpSecurity http,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry,
+        @Qualifier("handlerExceptionResolver") HandlerExceptionResolver handlerExceptionResolver
+    ) throws Exception {
+        RateLimitingFilter rateLimitingFilter = new RateLimitingFilter(
+            applicationProperties.getSecurity().getRateLimiting(),
+            meterRegistry,
+            handlerExceptionResolver
+        );
         // @formatter:off
         http
             .csrf()
             .disable()
             .addFilterBefore(corsFilter, UsernamePasswordAuthenticationFilter.class)
+            .addFilterBefore(rateLimitingFilter, UsernamePasswordAuthenticationFilter.class)
             .exceptionHandling()
                 .authenticationEntryPoint(problemSupport)
                 .accessDeniedHandler(problemSupport)
@@ -88,6 +111,7 @@ public class SecurityConfiguration {
         .and()
             .authorizeRequests()
             .antMatchers("/api/authenticate").permitAll()
+            .antMatchers("/api/token/refresh").permitAll()
             .antMatchers("/api/register").permitAll()
             .antMatchers("/api/activate").permitAll()
             .antMatchers("/api/account/reset-password/init").permitAll()
@@ -108,6 +132,6 @@ public class SecurityConfiguration {
     }
 
     private JWTConfigurer securityConfigurerAdapter() {
-        return new JWTConfigurer(tokenProvider);
+        return new JWTConfigurer(tokenProvider, tokenRevocationService, securityMetersService);
     }
 }
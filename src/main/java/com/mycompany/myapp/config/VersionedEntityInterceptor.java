@@ -0,0 +1,23 @@
+package com.mycompany.myapp.config;
+
+import com.mycompany.myapp.domain.AbstractVersionedEntity;
+import org.hibernate.EmptyInterceptor;
+
+/**
+ * Tells Hibernate that a versioned entity which has an id is never new.
+ * <p>
+ * Hibernate takes a versioned entity without version for a new one. The REST clients refer to other entities by id
+ * only, as in {@code "room": { "id": 1 }}, and those references must still resolve to the existing entities.
+ */
+class VersionedEntityInterceptor extends EmptyInterceptor {
+
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public Boolean isTransient(Object entity) {
+        if (entity instanceof AbstractVersionedEntity && ((AbstractVersionedEntity) entity).getId() != null) {
+            return Boolean.FALSE;
+        }
+        return null;
+    }
+}
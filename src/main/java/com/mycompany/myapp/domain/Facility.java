@@ -3,18 +3,22 @@ package com.mycompany.myapp.domain;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import java.io.Serializable;
 import javax.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * A Facility.
  */
 @Entity
 @Table(name = "facility")
-public class Facility implements Serializable {
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+public class Facility extends AbstractVersionedEntity implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequenceGenerator")
+    @SequenceGenerator(name = "sequenceGenerator")
     @Column(name = "id")
     private Long id;
 
@@ -28,7 +32,7 @@ public class Facility implements Serializable {
     private Boolean wifi;
 
     @JsonIgnoreProperties(value = { "residents" }, allowSetters = true)
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(unique = true)
     private Room room;
 
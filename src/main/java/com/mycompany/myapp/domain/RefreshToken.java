@@ -0,0 +1,115 @@
+package com.mycompany.myapp.domain;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Objects;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+
+/**
+ * A refresh token, stored by the hash of its value.
+ * <p>
+ * Each use of a refresh token replaces it by a new one of the same family, and marks it as used. A used token which is
+ * presented again has been stolen, so its whole family is then deleted.
+ */
+@Entity
+@Table(name = "jhi_refresh_token")
+public class RefreshToken implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @NotNull
+    @Size(max = 44)
+    @Id
+    @Column(name = "token_hash", length = 44)
+    private String tokenHash;
+
+    @NotNull
+    @Size(max = 36)
+    @Column(name = "family_id", length = 36, nullable = false)
+    private String familyId;
+
+    @NotNull
+    @Size(max = 50)
+    @Column(length = 50, nullable = false)
+    private String login;
+
+    @NotNull
+    @Column(name = "expiration_date", nullable = false)
+    private Instant expirationDate;
+
+    @NotNull
+    @Column(nullable = false)
+    private boolean used = false;
+
+    public String getTokenHash() {
+        return tokenHash;
+    }
+
+    public void setTokenHash(String tokenHash) {
+        this.tokenHash = tokenHash;
+    }
+
+    public String getFamilyId() {
+        return familyId;
+    }
+
+    public void setFamilyId(String familyId) {
+        this.familyId = familyId;
+    }
+
+    public String getLogin() {
+        return login;
+    }
+
+    public void setLogin(String login) {
+        this.login = login;
+    }
+
+    public Instant getExpirationDate() {
+        return expirationDate;
+    }
+
+    public void setExpirationDate(Instant expirationDate) {
+        this.expirationDate = expirationDate;
+    }
+
+    public boolean isUsed() {
+        return used;
+    }
+
+    public void setUsed(boolean used) {
+        this.used = used;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof RefreshToken)) {
+            return false;
+        }
+        return Objects.equals(tokenHash, ((RefreshToken) o).tokenHash);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(tokenHash);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "RefreshToken{" +
+            "familyId='" + familyId + '\'' +
+            ", login='" + login + '\'' +
+            ", expirationDate='" + expirationDate + '\'' +
+            ", used='" + used + '\'' +
+            "}";
+    }
+}
@@ -4,18 +4,22 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import java.io.Serializable;
 import javax.persistence.*;
 import javax.validation.constraints.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * A Resident.
  */
 @Entity
 @Table(name = "resident")
-public class Resident implements Serializable {
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+public class Resident extends AbstractVersionedEntity implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequenceGenerator")
+    @SequenceGenerator(name = "sequenceGenerator")
     @Column(name = "id")
     private Long id;
 
@@ -32,7 +36,7 @@ public class Resident implements Serializable {
     @Column(name = "phonenumber")
     private String phonenumber;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JsonIgnoreProperties(value = { "residents" }, allowSetters = true)
     private Room room;
 
@@ -0,0 +1,85 @@
+package com.mycompany.myapp.domain;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Objects;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+
+/**
+ * A login whose JWT tokens issued before a date are revoked, kept until the last of these tokens would have expired.
+ */
+@Entity
+@Table(name = "jhi_revoked_login")
+public class RevokedLogin implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @NotNull
+    @Size(max = 50)
+    @Id
+    @Column(length = 50)
+    private String login;
+
+    @NotNull
+    @Column(name = "not_before", nullable = false)
+    private Instant notBefore;
+
+    @NotNull
+    @Column(name = "expiration_date", nullable = false)
+    private Instant expirationDate;
+
+    public String getLogin() {
+        return login;
+    }
+
+    public void setLogin(String login) {
+        this.login = login;
+    }
+
+    public Instant getNotBefore() {
+        return notBefore;
+    }
+
+    public void setNotBefore(Instant notBefore) {
+        this.notBefore = notBefore;
+    }
+
+    public Instant getExpirationDate() {
+        return expirationDate;
+    }
+
+    public void setExpirationDate(Instant expirationDate) {
+        this.expirationDate = expirationDate;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof RevokedLogin)) {
+            return false;
+        }
+        return Objects.equals(login, ((RevokedLogin) o).login);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(login);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "RevokedLogin{" +
+            "login='" + login + '\'' +
+            ", notBefore='" + notBefore + '\'' +
+            ", expirationDate='" + expirationDate + '\'' +
+            "}";
+    }
+}
@@ -6,18 +6,24 @@ import java.util.HashSet;
 import java.util.Set;
 import javax.persistence.*;
 import javax.validation.constraints.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * A Room.
  */
 @Entity
 @Table(name = "room")
-public class Room implements Serializable {
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@BatchSize(size = 20)
+public class Room extends AbstractVersionedEntity implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequenceGenerator")
+    @SequenceGenerator(name = "sequenceGenerator")
     @Column(name = "id")
     private Long id;
 
@@ -32,6 +38,7 @@ public class Room implements Serializable {
     private String type;
 
     @OneToMany(mappedBy = "room")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @JsonIgnoreProperties(value = { "room" }, allowSetters = true)
     private Set<Resident> residents = new HashSet<>();
 
@@ -2,8 +2,18 @@ package com.mycompany.myapp.management;
 
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
 import org.springframework.stereotype.Service;
 
+/**
+ * Counts the invalid tokens, and times the authentications.
+ * <p>
+ * The timers publish percentile histograms, bounded to the expected range of their durations so that they only have a
+ * few dozen buckets each. The durations are measured by the callers with {@link System#nanoTime()}, so that timing an
+ * operation does not allocate.
+ */
 @Service
 public class SecurityMetersService {
 
@@ -13,16 +23,64 @@ public class SecurityMetersService {
     public static final String INVALID_TOKENS_METER_BASE_UNIT = "errors";
     public static final String INVALID_TOKENS_METER_CAUSE_DIMENSION = "cause";
 
+    public static final String LOGIN_METER_NAME = "security.authentication.login";
+    public static final String LOGIN_METER_DESCRIPTION = "Time taken by the login requests, password check included.";
+    public static final String LOGIN_METER_RESULT_DIMENSION = "result";
+
+    public static final String USER_LOOKUP_METER_NAME = "security.authentication.user-lookup";
+    public static final String USER_LOOKUP_METER_DESCRIPTION = "Time taken to load a user and its authorities to authenticate it.";
+
+    public static final String TOKENS_METER_NAME = "security.authentication.tokens";
+    public static final String TOKENS_METER_DESCRIPTION = "Time taken to issue or to validate a token.";
+    public static final String TOKENS_METER_OPERATION_DIMENSION = "operation";
+
+    public static final String TOKEN_FILTER_METER_NAME = "security.authentication.token-filter";
+    public static final String TOKEN_FILTER_METER_DESCRIPTION = "Time taken by the token filter to authenticate a request.";
+
     private final Counter tokenInvalidSignatureCounter;
     private final Counter tokenExpiredCounter;
     private final Counter tokenUnsupportedCounter;
     private final Counter tokenMalformedCounter;
 
+    private final Timer loginSuccessTimer;
+    private final Timer loginFailureTimer;
+    private final Timer userLookupTimer;
+    private final Timer tokenCreationTimer;
+    private final Timer tokenValidationTimer;
+    private final Timer tokenFilterTimer;
+
     public SecurityMetersService(MeterRegistry registry) {
         this.tokenInvalidSignatureCounter = invalidTokensCounterForCauseBuilder("invalid-signature").register(registry);
         this.tokenExpiredCounter = invalidTokensCounterForCauseBuilder("expired").register(registry);
         this.tokenUnsupportedCounter = invalidTokensCounterForCauseBuilder("unsupported").register(registry);
         this.tokenMalformedCounter = invalidTokensCounterForCauseBuilder("malformed").register(registry);
+
+        Duration slowOperationMin = Duration.ofMillis(1);
+        Duration slowOperationMax = Duration.ofSeconds(10);
+        this.loginSuccessTimer =
+            timerBuilder(LOGIN_METER_NAME, LOGIN_METER_DESCRIPTION, slowOperationMin, slowOperationMax)
+                .tag(LOGIN_METER_RESULT_DIMENSION, "success")
+                .register(registry);
+        this.loginFailureTimer =
+            timerBuilder(LOGIN_METER_NAME, LOGIN_METER_DESCRIPTION, slowOperationMin, slowOperationMax)
+                .tag(LOGIN_METER_RESULT_DIMENSION, "failure")
+                .register(registry);
+        this.userLookupTimer =
+            timerBuilder(USER_LOOKUP_METER_NAME, USER_LOOKUP_METER_DESCRIPTION, Duration.ofNanos(100_000), slowOperationMax)
+                .register(registry);
+
+        Duration fastOperationMin = Duration.ofNanos(1_000);
+        Duration fastOperationMax = Duration.ofSeconds(1);
+        this.tokenCreationTimer =
+            timerBuilder(TOKENS_METER_NAME, TOKENS_METER_DESCRIPTION, fastOperationMin, fastOperationMax)
+                .tag(TOKENS_METER_OPERATION_DIMENSION, "create")
+                .register(registry);
+        this.tokenValidationTimer =
+            timerBuilder(TOKENS_METER_NAME, TOKENS_METER_DESCRIPTION, fastOperationMin, fastOperationMax)
+                .tag(TOKENS_METER_OPERATION_DIMENSION, "validate")
+                .register(registry);
+        this.tokenFilterTimer =
+            timerBuilder(TOKEN_FILTER_METER_NAME, TOKEN_FILTER_METER_DESCRIPTION, fastOperationMin, fastOperationMax).register(registry);
     }
 
     private Counter.Builder invalidTokensCounterForCauseBuilder(String cause) {
@@ -33,6 +91,15 @@ public class SecurityMetersService {
             .tag(INVALID_TOKENS_METER_CAUSE_DIMENSION, cause);
     }
 
+    private Timer.Builder timerBuilder(String name, String description, Duration minimumExpectedValue, Duration maximumExpectedValue) {
+        return Timer
+            .builder(name)
+            .description(description)
+            .publishPercentileHistogram()
+            .minimumExpectedValue(minimumExpectedValue)
+            .maximumExpectedValue(maximumExpectedValue);
+    }
+
     public void trackTokenInvalidSignature() {
         this.tokenInvalidSignatureCounter.increment();
     }
@@ -48,4 +115,28 @@ public class SecurityMetersService {
     public void trackTokenMalformed() {
         this.tokenMalformedCounter.increment();
     }
+
+    /**
+     * @param success whether the user has been authenticated.
+     * @param durationNanos the duration of the login, in nanoseconds.
+     */
+    public void trackLogin(boolean success, long durationNanos) {
+        (success ? this.loginSuccessTimer : this.loginFailureTimer).record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void trackUserLookup(long durationNanos) {
+        this.userLookupTimer.record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void trackTokenCreation(long durationNanos) {
+        this.tokenCreationTimer.record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void trackTokenValidation(long durationNanos) {
+        this.tokenValidationTimer.record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void trackTokenFilter(long durationNanos) {
+        this.tokenFilterTimer.record(durationNanos, TimeUnit.NANOSECONDS);
+    }
 }
@@ -0,0 +1,12 @@
+package com.mycompany.myapp.repository;
+
+import java.time.Instant;
+
+/**
+ * The version and last modification date of an entity, read without loading the entity.
+ */
+public interface EntityVersion {
+    Long getVersion();
+
+    Instant getLastModifiedDate();
+}
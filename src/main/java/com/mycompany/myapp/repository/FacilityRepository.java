@@ -1,7 +1,13 @@
 package com.mycompany.myapp.repository;
 
 import com.mycompany.myapp.domain.Facility;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -9,4 +15,33 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface FacilityRepository extends JpaRepository<Facility, Long>, JpaSpecificationExecutor<Facility> {}
+public interface FacilityRepository extends JpaRepository<Facility, Long>, JpaSpecificationExecutor<Facility> {
+    default Optional<Facility> findOneWithEagerRelationships(Long id) {
+        return this.findOneWithToOneRelationships(id);
+    }
+
+    default List<Facility> findAllWithEagerRelationships() {
+        return this.findAllWithToOneRelationships();
+    }
+
+    @Query("select facility from Facility facility left join fetch facility.room")
+    List<Facility> findAllWithToOneRelationships();
+
+    @Query("select facility from Facility facility left join fetch facility.room where facility.id =:id")
+    Optional<Facility> findOneWithToOneRelationships(@Param("id") Long id);
+
+    @Query("select facility.id from Facility facility where facility.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    @Query(
+        "select facility.version as version, facility.lastModifiedDate as lastModifiedDate from Facility facility where facility.id = :id"
+    )
+    Optional<EntityVersion> findVersionById(@Param("id") Long id);
+
+    default Map<Long, Long> findIdsByRoomId(Collection<Long> roomIds) {
+        return findRoomIdsAndIdsByRoomIdIn(roomIds).stream().collect(Collectors.toMap(row -> (Long) row[0], row -> (Long) row[1]));
+    }
+
+    @Query("select facility.room.id, facility.id from Facility facility where facility.room.id in :roomIds")
+    List<Object[]> findRoomIdsAndIdsByRoomIdIn(@Param("roomIds") Collection<Long> roomIds);
+}
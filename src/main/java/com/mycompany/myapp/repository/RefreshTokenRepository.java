@@ -0,0 +1,35 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.RefreshToken;
+import java.time.Instant;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+/**
+ * Spring Data JPA repository for the {@link RefreshToken} entity.
+ */
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, String> {
+    /**
+     * Mark a token as used, unless it already is.
+     *
+     * @param tokenHash the hash of the token.
+     * @return {@code 1} if the token has been marked, {@code 0} if it had already been used.
+     */
+    @Modifying
+    @Query("update RefreshToken r set r.used = true where r.tokenHash = :tokenHash and r.used = false")
+    int markUsed(@Param("tokenHash") String tokenHash);
+
+    @Modifying
+    @Query("delete from RefreshToken r where r.familyId = :familyId")
+    int deleteByFamilyId(@Param("familyId") String familyId);
+
+    @Modifying
+    @Query("delete from RefreshToken r where r.login = :login")
+    int deleteByLogin(@Param("login") String login);
+
+    @Modifying
+    @Query("delete from RefreshToken r where r.expirationDate < :now")
+    int deleteExpired(@Param("now") Instant now);
+}
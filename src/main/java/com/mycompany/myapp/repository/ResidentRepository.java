@@ -1,7 +1,13 @@
 package com.mycompany.myapp.repository;
 
 import com.mycompany.myapp.domain.Resident;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -9,4 +15,33 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface ResidentRepository extends JpaRepository<Resident, Long>, JpaSpecificationExecutor<Resident> {}
+public interface ResidentRepository extends JpaRepository<Resident, Long>, JpaSpecificationExecutor<Resident> {
+    default Optional<Resident> findOneWithEagerRelationships(Long id) {
+        return this.findOneWithToOneRelationships(id);
+    }
+
+    default List<Resident> findAllWithEagerRelationships() {
+        return this.findAllWithToOneRelationships();
+    }
+
+    @Query("select resident from Resident resident left join fetch resident.room")
+    List<Resident> findAllWithToOneRelationships();
+
+    @Query("select resident from Resident resident left join fetch resident.room where resident.id =:id")
+    Optional<Resident> findOneWithToOneRelationships(@Param("id") Long id);
+
+    @Query("select resident.id from Resident resident where resident.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    @Query(
+        "select resident.version as version, resident.lastModifiedDate as lastModifiedDate from Resident resident where resident.id = :id"
+    )
+    Optional<EntityVersion> findVersionById(@Param("id") Long id);
+
+    default Map<String, Long> findIdsByEmail(Collection<String> emails) {
+        return findEmailsAndIdsByEmailIn(emails).stream().collect(Collectors.toMap(row -> (String) row[0], row -> (Long) row[1]));
+    }
+
+    @Query("select resident.email, resident.id from Resident resident where resident.email in :emails")
+    List<Object[]> findEmailsAndIdsByEmailIn(@Param("emails") Collection<String> emails);
+}
@@ -0,0 +1,17 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.RevokedLogin;
+import java.time.Instant;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+/**
+ * Spring Data JPA repository for the {@link RevokedLogin} entity.
+ */
+public interface RevokedLoginRepository extends JpaRepository<RevokedLogin, String> {
+    @Modifying
+    @Query("delete from RevokedLogin r where r.expirationDate < :now")
+    int deleteExpired(@Param("now") Instant now);
+}
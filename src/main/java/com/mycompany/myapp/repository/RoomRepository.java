@@ -1,7 +1,13 @@
 package com.mycompany.myapp.repository;
 
 import com.mycompany.myapp.domain.Room;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -9,4 +15,20 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface RoomRepository extends JpaRepository<Room, Long>, JpaSpecificationExecutor<Room> {}
+public interface RoomRepository extends JpaRepository<Room, Long>, JpaSpecificationExecutor<Room> {
+    @Query("select room.id from Room room where room.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    @Query("select room.version as version, room.lastModifiedDate as lastModifiedDate from Room room where room.id = :id")
+    Optional<EntityVersion> findVersionById(@Param("id") Long id);
+
+    @Query("select room.roomno, room.id from Room room")
+    List<Object[]> findAllRoomnosAndIds();
+
+    default Map<String, Long> findIdsByRoomno(Collection<String> roomnos) {
+        return findRoomnosAndIdsByRoomnoIn(roomnos).stream().collect(Collectors.toMap(row -> (String) row[0], row -> (Long) row[1]));
+    }
+
+    @Query("select room.roomno, room.id from Room room where room.roomno in :roomnos")
+    List<Object[]> findRoomnosAndIdsByRoomnoIn(@Param("roomnos") Collection<String> roomnos);
+}
@@ -2,29 +2,183 @@ package com.mycompany.myapp.repository;
 
 import com.mycompany.myapp.domain.User;
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
+import javax.persistence.QueryHint;
 import org.springframework.data.domain.*;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
  * Spring Data JPA repository for the {@link User} entity.
+ * <p>
+ * The logins and emails are stored lower-cased, so they are looked up as such with the unique index of their column,
+ * where an {@code IgnoreCase} query would compare the lower-cased value of every row.
  */
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findOneByActivationKey(String activationKey);
     List<User> findAllByActivatedIsFalseAndActivationKeyIsNotNullAndCreatedDateBefore(Instant dateTime);
     Optional<User> findOneByResetKey(String resetKey);
-    Optional<User> findOneByEmailIgnoreCase(String email);
+    Optional<User> findOneByEmail(String email);
     Optional<User> findOneByLogin(String login);
 
+    /**
+     * Find a user by email, whatever its case.
+     *
+     * @param email the email, may be {@code null}.
+     * @return the user, or empty if no user has this email or the email is {@code null}.
+     */
+    default Optional<User> findOneByEmailIgnoreCase(String email) {
+        return email == null ? Optional.empty() : findOneByEmail(email.toLowerCase(Locale.ENGLISH));
+    }
+
     @EntityGraph(attributePaths = "authorities")
     Optional<User> findOneWithAuthoritiesByLogin(String login);
 
     @EntityGraph(attributePaths = "authorities")
-    Optional<User> findOneWithAuthoritiesByEmailIgnoreCase(String email);
+    Optional<User> findOneWithAuthoritiesByEmail(String email);
+
+    /**
+     * Find the users whose login or email is one of some keys, with one statement seeking both unique indexes.
+     *
+     * @param keys the lower-cased logins and emails.
+     * @return the login and the email of each user found.
+     */
+    @Query("select user.login, user.email from User user where user.login in :keys or user.email in :keys")
+    List<Object[]> findLoginsAndEmailsByLoginOrEmailIn(@Param("keys") Collection<String> keys);
+
+    /**
+     * Find the authorities of some users.
+     *
+     * @return the user id and the authority name of each authority.
+     */
+    @Query("select user.id, authority.name from User user join user.authorities authority where user.id in :ids")
+    List<Object[]> findAuthorityNamesByUserIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Find the next not activated users to purge, in the order of their ids.
+     *
+     * @return the id, login and email of each user.
+     */
+    @Query(
+        "select user.id, user.login, user.email from User user where user.activated = false and user.activationKey is not null " +
+        "and user.createdDate < :createdBefore and user.id > :afterId order by user.id"
+    )
+    List<Object[]> findNotActivatedUsersAfter(
+        @Param("createdBefore") Instant createdBefore,
+        @Param("afterId") long afterId,
+        Pageable pageable
+    );
+
+    /**
+     * Delete the authorities of the users which are still not activated, before deleting these users. Hibernate is told
+     * that the statement only writes jhi_user_authority, so that it does not evict the whole second-level cache.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = org.hibernate.annotations.QueryHints.NATIVE_SPACES, value = "jhi_user_authority"))
+    @Query(
+        value = "delete from jhi_user_authority where user_id in " +
+        "(select id from jhi_user where id in (:ids) and activated = false and activation_key is not null)",
+        nativeQuery = true
+    )
+    int deleteAuthoritiesOfNotActivatedUsers(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("delete from User user where user.id in :ids and user.activated = false and user.activationKey is not null")
+    int deleteNotActivatedUsers(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Find the users whose login is one of some logins.
+     *
+     * @param logins the lower-cased logins.
+     * @return the login and the email of each user found.
+     */
+    @Query("select user.login, user.email from User user where user.login in :logins")
+    List<Object[]> findLoginsAndEmailsByLoginIn(@Param("logins") Collection<String> logins);
+
+    /*
+     * The users whose memberships an authority grant or revocation changes, read before it with the same criteria, so
+     * that their tokens, which hold the authorities they were issued with, can be revoked.
+     */
+
+    @Query("select user.login from User user join user.authorities authority where user.login in :logins and authority.name = :authority")
+    List<String> findLoginsByLoginInWithAuthority(@Param("logins") Collection<String> logins, @Param("authority") String authority);
+
+    @Query(
+        "select user.login from User user where user.login in :logins and user.id not in " +
+        "(select holder.id from User holder join holder.authorities authority where authority.name = :authority)"
+    )
+    List<String> findLoginsByLoginInWithoutAuthority(@Param("logins") Collection<String> logins, @Param("authority") String authority);
+
+    @Query(
+        "select user.login from User user join user.authorities holder join user.authorities authority " +
+        "where holder.name = :holdersOf and authority.name = :authority"
+    )
+    List<String> findLoginsOfHoldersOfWithAuthority(@Param("holdersOf") String holdersOf, @Param("authority") String authority);
+
+    @Query(
+        "select user.login from User user join user.authorities holder where holder.name = :holdersOf and user.id not in " +
+        "(select other.id from User other join other.authorities authority where authority.name = :authority)"
+    )
+    List<String> findLoginsOfHoldersOfWithoutAuthority(@Param("holdersOf") String holdersOf, @Param("authority") String authority);
+
+    @Query("select count(user) from User user join user.authorities authority where authority.name = :authority")
+    long countByAuthorityName(@Param("authority") String authority);
+
+    /*
+     * The authority grants and revocations below are single set-based statements, which only insert or delete the
+     * memberships that change. Hibernate is told that they only write jhi_user_authority, so that they evict the cached
+     * authorities of the users instead of the whole second-level cache, and the persistence context is cleared as its
+     * users may now hold other authorities.
+     */
+
+    @Modifying(clearAutomatically = true)
+    @QueryHints(@QueryHint(name = org.hibernate.annotations.QueryHints.NATIVE_SPACES, value = "jhi_user_authority"))
+    @Query(
+        value = "insert into jhi_user_authority (user_id, authority_name) select u.id, :authority from jhi_user u " +
+        "where u.login in (:logins) and not exists " +
+        "(select 1 from jhi_user_authority ua where ua.user_id = u.id and ua.authority_name = :authority)",
+        nativeQuery = true
+    )
+    int grantAuthorityByLoginIn(@Param("authority") String authority, @Param("logins") Collection<String> logins);
+
+    @Modifying(clearAutomatically = true)
+    @QueryHints(@QueryHint(name = org.hibernate.annotations.QueryHints.NATIVE_SPACES, value = "jhi_user_authority"))
+    @Query(
+        value = "insert into jhi_user_authority (user_id, authority_name) select holder.user_id, :authority " +
+        "from jhi_user_authority holder where holder.authority_name = :holdersOf and not exists " +
+        "(select 1 from jhi_user_authority ua where ua.user_id = holder.user_id and ua.authority_name = :authority)",
+        nativeQuery = true
+    )
+    int grantAuthorityToHoldersOf(@Param("authority") String authority, @Param("holdersOf") String holdersOf);
+
+    @Modifying(clearAutomatically = true)
+    @QueryHints(@QueryHint(name = org.hibernate.annotations.QueryHints.NATIVE_SPACES, value = "jhi_user_authority"))
+    @Query(
+        value = "delete from jhi_user_authority where authority_name = :authority and user_id in " +
+        "(select id from jhi_user where login in (:logins))",
+        nativeQuery = true
+    )
+    int revokeAuthorityByLoginIn(@Param("authority") String authority, @Param("logins") Collection<String> logins);
 
-    Page<User> findAllByIdNotNullAndActivatedIsTrue(Pageable pageable);
+    /**
+     * MySQL cannot delete from a table read by a subquery of the statement, unless the subquery is materialized as a
+     * derived table.
+     */
+    @Modifying(clearAutomatically = true)
+    @QueryHints(@QueryHint(name = org.hibernate.annotations.QueryHints.NATIVE_SPACES, value = "jhi_user_authority"))
+    @Query(
+        value = "delete from jhi_user_authority where authority_name = :authority and user_id in " +
+        "(select holder.user_id from (select user_id from jhi_user_authority where authority_name = :holdersOf) holder)",
+        nativeQuery = true
+    )
+    int revokeAuthorityFromHoldersOf(@Param("authority") String authority, @Param("holdersOf") String holdersOf);
 }
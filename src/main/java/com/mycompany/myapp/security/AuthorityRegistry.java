@@ -0,0 +1,119 @@
+package com.mycompany.myapp.security;
+
+import com.mycompany.myapp.domain.Authority;
+import com.mycompany.myapp.repository.AuthorityRepository;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+/**
+ * Immutable in-memory copy of the {@link Authority} table, whose rows almost never change.
+ * <p>
+ * The authorities are loaded once the application is ready, or on the first lookup if Liquibase was still running
+ * then. The lookups read the current snapshot without database access nor allocation, and {@link #refresh()} replaces
+ * the whole snapshot when the authorities are changed. The {@link Authority} instances are detached and shared, and so
+ * is the {@link GrantedAuthority} of each authority.
+ */
+@Component
+public class AuthorityRegistry {
+
+    private final Logger log = LoggerFactory.getLogger(AuthorityRegistry.class);
+
+    private final AuthorityRepository authorityRepository;
+
+    private volatile Snapshot snapshot;
+
+    public AuthorityRegistry(AuthorityRepository authorityRepository) {
+        this.authorityRepository = authorityRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        try {
+            refresh();
+        } catch (DataAccessException e) {
+            log.warn("Could not load the authorities, they will be loaded on first use: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Reload the authorities from the database, to be called once they have been changed.
+     */
+    public void refresh() {
+        reload();
+    }
+
+    /**
+     * @return the unmodifiable list of the authority names, in alphabetical order.
+     */
+    public List<String> getNames() {
+        return snapshot().names;
+    }
+
+    /**
+     * Get an authority by its name.
+     *
+     * @param name the name of the authority.
+     * @return the authority, detached, or {@code null} if there is no such authority.
+     */
+    public Authority get(String name) {
+        return snapshot().authorities.get(name);
+    }
+
+    /**
+     * Get the granted authority of an authority name.
+     *
+     * @param name the name of the authority.
+     * @return the shared granted authority of the authority, or a new one if there is no such authority.
+     */
+    public GrantedAuthority getGrantedAuthority(String name) {
+        GrantedAuthority grantedAuthority = snapshot().grantedAuthorities.get(name);
+        return grantedAuthority != null ? grantedAuthority : new SimpleGrantedAuthority(name);
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        return current != null ? current : reload();
+    }
+
+    private synchronized Snapshot reload() {
+        List<Authority> authorities = authorityRepository.findAll();
+        List<String> names = new ArrayList<>(authorities.size());
+        Map<String, Authority> authoritiesByName = new HashMap<>();
+        Map<String, GrantedAuthority> grantedAuthorities = new HashMap<>();
+        for (Authority authority : authorities) {
+            names.add(authority.getName());
+            authoritiesByName.put(authority.getName(), authority);
+            grantedAuthorities.put(authority.getName(), new SimpleGrantedAuthority(authority.getName()));
+        }
+        names.sort(null);
+        Snapshot loaded = new Snapshot(List.copyOf(names), Map.copyOf(authoritiesByName), Map.copyOf(grantedAuthorities));
+        snapshot = loaded;
+        log.debug("Loaded {} authorities", names.size());
+        return loaded;
+    }
+
+    private static final class Snapshot {
+
+        private final List<String> names;
+
+        private final Map<String, Authority> authorities;
+
+        private final Map<String, GrantedAuthority> grantedAuthorities;
+
+        private Snapshot(List<String> names, Map<String, Authority> authorities, Map<String, GrantedAuthority> grantedAuthorities) {
+            this.names = names;
+            this.authorities = authorities;
+            this.grantedAuthorities = grantedAuthorities;
+        }
+    }
+}
@@ -1,6 +1,6 @@
 package com.mycompany.myapp.security;
 
-import com.mycompany.myapp.domain.User;
+import com.mycompany.myapp.management.SecurityMetersService;
 import com.mycompany.myapp.repository.UserRepository;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -8,54 +8,91 @@ import org.hibernate.validator.internal.constraintvalidators.hv.EmailValidator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
- * Authenticate a user from the database.
+ * Authenticate a user from the database, or from the {@link UserCredentialsCache}, and re-hash its password
+ * when the password encoder asks for it. The time taken to load the users is tracked by the {@link SecurityMetersService},
+ * and their granted authorities are the shared ones of the {@link AuthorityRegistry}.
  */
 @Component("userDetailsService")
-public class DomainUserDetailsService implements UserDetailsService {
+public class DomainUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final Logger log = LoggerFactory.getLogger(DomainUserDetailsService.class);
 
     private final UserRepository userRepository;
 
-    public DomainUserDetailsService(UserRepository userRepository) {
+    private final UserCredentialsCache userCredentialsCache;
+
+    private final SecurityMetersService securityMetersService;
+
+    private final AuthorityRegistry authorityRegistry;
+
+    public DomainUserDetailsService(
+        UserRepository userRepository,
+        UserCredentialsCache userCredentialsCache,
+        SecurityMetersService securityMetersService,
+        AuthorityRegistry authorityRegistry
+    ) {
         this.userRepository = userRepository;
+        this.userCredentialsCache = userCredentialsCache;
+        this.securityMetersService = securityMetersService;
+        this.authorityRegistry = authorityRegistry;
     }
 
     @Override
     @Transactional
     public UserDetails loadUserByUsername(final String login) {
         log.debug("Authenticating {}", login);
+        long start = System.nanoTime();
+        try {
+            return loadUser(login);
+        } finally {
+            securityMetersService.trackUserLookup(System.nanoTime() - start);
+        }
+    }
 
+    private UserDetails loadUser(String login) {
         if (new EmailValidator().isValid(login, null)) {
-            return userRepository
-                .findOneWithAuthoritiesByEmailIgnoreCase(login)
+            return userCredentialsCache
+                .findByEmail(login.toLowerCase(Locale.ENGLISH))
                 .map(user -> createSpringSecurityUser(login, user))
                 .orElseThrow(() -> new UsernameNotFoundException("User with email " + login + " was not found in the database"));
         }
 
         String lowercaseLogin = login.toLowerCase(Locale.ENGLISH);
-        return userRepository
-            .findOneWithAuthoritiesByLogin(lowercaseLogin)
+        return userCredentialsCache
+            .findByLogin(lowercaseLogin)
             .map(user -> createSpringSecurityUser(lowercaseLogin, user))
             .orElseThrow(() -> new UsernameNotFoundException("User " + lowercaseLogin + " was not found in the database"));
     }
 
-    private org.springframework.security.core.userdetails.User createSpringSecurityUser(String lowercaseLogin, User user) {
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        log.debug("Re-hashing the password of {}", user.getUsername());
+        userRepository
+            .findOneByLogin(user.getUsername())
+            .ifPresent(u -> {
+                u.setPassword(newPassword);
+                userCredentialsCache.evict(u.getLogin(), u.getEmail());
+            });
+        return org.springframework.security.core.userdetails.User.withUserDetails(user).password(newPassword).build();
+    }
+
+    private org.springframework.security.core.userdetails.User createSpringSecurityUser(String lowercaseLogin, UserCredentials user) {
         if (!user.isActivated()) {
             throw new UserNotActivatedException("User " + lowercaseLogin + " was not activated");
         }
         List<GrantedAuthority> grantedAuthorities = user
             .getAuthorities()
             .stream()
-            .map(authority -> new SimpleGrantedAuthority(authority.getName()))
+            .map(authorityRegistry::getGrantedAuthority)
             .collect(Collectors.toList());
         return new org.springframework.security.core.userdetails.User(user.getLogin(), user.getPassword(), grantedAuthorities);
     }
@@ -0,0 +1,22 @@
+package com.mycompany.myapp.security;
+
+import java.time.Duration;
+
+/**
+ * Thrown when a password cannot be hashed or checked because too many password operations are already waiting.
+ */
+public class PasswordHashingUnavailableException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Duration retryAfter;
+
+    public PasswordHashingUnavailableException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
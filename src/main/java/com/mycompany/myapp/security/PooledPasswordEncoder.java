@@ -0,0 +1,143 @@
+package com.mycompany.myapp.security;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * BCrypt {@link PasswordEncoder} which hashes and checks the passwords on a dedicated, bounded pool of threads, so that
+ * a burst of logins cannot use up the CPU of the request threads.
+ * <p>
+ * The calling thread waits for the result. When {@code application.security.password-hashing.queue-capacity}
+ * operations are already waiting for a thread, the new ones fail fast with a
+ * {@link PasswordHashingUnavailableException}.
+ * <p>
+ * The passwords hashed with another work factor than {@code application.security.password-hashing.strength} need to be
+ * upgraded, so that they are re-hashed when their user logs in.
+ */
+public class PooledPasswordEncoder implements PasswordEncoder, DisposableBean {
+
+    public static final String HASHING_METER_NAME = "security.password.hashing";
+    public static final String QUEUE_WAIT_METER_NAME = "security.password.hashing.queue-wait";
+    public static final String REJECTED_METER_NAME = "security.password.hashing.rejected";
+    public static final String OPERATION_DIMENSION = "operation";
+
+    private static final Pattern BCRYPT_PREFIX = Pattern.compile("^\\$2[aby]?\\$(\\d\\d)\\$");
+
+    private final PasswordEncoder delegate;
+
+    private final int strength;
+
+    private final Duration retryAfter;
+
+    private final ThreadPoolTaskExecutor executor;
+
+    private final Timer encodeTimer;
+
+    private final Timer matchesTimer;
+
+    private final Timer queueWaitTimer;
+
+    private final Counter rejectedCounter;
+
+    public PooledPasswordEncoder(ApplicationProperties.Security.PasswordHashing passwordHashing, MeterRegistry registry) {
+        this(new BCryptPasswordEncoder(passwordHashing.getStrength()), passwordHashing, registry);
+    }
+
+    PooledPasswordEncoder(
+        PasswordEncoder delegate,
+        ApplicationProperties.Security.PasswordHashing passwordHashing,
+        MeterRegistry registry
+    ) {
+        this.delegate = delegate;
+        this.strength = passwordHashing.getStrength();
+        this.retryAfter = passwordHashing.getRetryAfter();
+        this.executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(passwordHashing.getPoolSize());
+        executor.setMaxPoolSize(passwordHashing.getPoolSize());
+        executor.setQueueCapacity(passwordHashing.getQueueCapacity());
+        executor.setThreadNamePrefix("password-hashing-");
+        executor.initialize();
+        this.encodeTimer = Timer
+            .builder(HASHING_METER_NAME)
+            .description("Time spent hashing passwords")
+            .tag(OPERATION_DIMENSION, "encode")
+            .register(registry);
+        this.matchesTimer = Timer
+            .builder(HASHING_METER_NAME)
+            .description("Time spent hashing passwords")
+            .tag(OPERATION_DIMENSION, "matches")
+            .register(registry);
+        this.queueWaitTimer = Timer
+            .builder(QUEUE_WAIT_METER_NAME)
+            .description("Time spent by the password operations waiting for a hashing thread")
+            .register(registry);
+        this.rejectedCounter = Counter
+            .builder(REJECTED_METER_NAME)
+            .description("Number of password operations rejected because too many were waiting")
+            .register(registry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return execute(encodeTimer, () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return execute(matchesTimer, () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_PREFIX.matcher(encodedPassword);
+        return matcher.find() && Integer.parseInt(matcher.group(1)) != strength;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    private <T> T execute(Timer timer, Callable<T> operation) {
+        long submitTime = System.nanoTime();
+        Future<T> result;
+        try {
+            result =
+                executor.submit(() -> {
+                    queueWaitTimer.record(Duration.ofNanos(System.nanoTime() - submitTime));
+                    return timer.recordCallable(operation);
+                });
+        } catch (TaskRejectedException e) {
+            rejectedCounter.increment();
+            throw new PasswordHashingUnavailableException("Too many password operations are waiting", retryAfter);
+        }
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a password operation", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
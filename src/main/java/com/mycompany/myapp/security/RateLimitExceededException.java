@@ -0,0 +1,22 @@
+package com.mycompany.myapp.security;
+
+import java.time.Duration;
+
+/**
+ * Thrown when a client or an account has sent more requests than its rate limit allows.
+ */
+public class RateLimitExceededException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Duration retryAfter;
+
+    public RateLimitExceededException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
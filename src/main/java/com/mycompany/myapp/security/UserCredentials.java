@@ -0,0 +1,62 @@
+package com.mycompany.myapp.security;
+
+import com.mycompany.myapp.domain.Authority;
+import com.mycompany.myapp.domain.User;
+import java.io.Serializable;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable snapshot of what authenticates a {@link User}, cached by the {@link UserCredentialsCache}.
+ */
+public final class UserCredentials implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String login;
+
+    private final String password;
+
+    private final boolean activated;
+
+    private final Set<String> authorities;
+
+    public UserCredentials(User user) {
+        this.login = user.getLogin();
+        this.password = user.getPassword();
+        this.activated = user.isActivated();
+        this.authorities = user.getAuthorities().stream().map(Authority::getName).collect(Collectors.toUnmodifiableSet());
+    }
+
+    public String getLogin() {
+        return login;
+    }
+
+    /**
+     * @return the password hash.
+     */
+    public String getPassword() {
+        return password;
+    }
+
+    public boolean isActivated() {
+        return activated;
+    }
+
+    /**
+     * @return the unmodifiable set of the authority names.
+     */
+    public Set<String> getAuthorities() {
+        return authorities;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "UserCredentials{" +
+            "login='" + login + '\'' +
+            ", activated='" + activated + '\'' +
+            ", authorities=" + authorities +
+            "}";
+    }
+}
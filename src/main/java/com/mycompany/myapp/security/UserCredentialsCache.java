@@ -0,0 +1,75 @@
+package com.mycompany.myapp.security;
+
+import com.mycompany.myapp.repository.UserRepository;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Caches the {@link UserCredentials} of the users by login and by email, to authenticate them without database access.
+ * <p>
+ * Only found users are cached, and the cache is filled when the transaction which read them commits. The users are
+ * evicted now and again when the current transaction commits, in case a concurrent transaction cached their previous
+ * version in the meantime. The logins and emails are stored lower-cased, so they must be looked up and evicted as such.
+ */
+@Component
+public class UserCredentialsCache {
+
+    public static final String USERS_BY_LOGIN_CACHE = "usersByLogin";
+
+    public static final String USERS_BY_EMAIL_CACHE = "usersByEmail";
+
+    private final UserRepository userRepository;
+
+    private final CacheManager cacheManager;
+
+    public UserCredentialsCache(UserRepository userRepository, CacheManager cacheManager) {
+        this.userRepository = userRepository;
+        this.cacheManager = cacheManager;
+    }
+
+    @Cacheable(cacheNames = USERS_BY_LOGIN_CACHE, cacheResolver = "userCacheResolver", unless = "#result == null")
+    public Optional<UserCredentials> findByLogin(String login) {
+        return userRepository.findOneWithAuthoritiesByLogin(login).map(UserCredentials::new);
+    }
+
+    @Cacheable(cacheNames = USERS_BY_EMAIL_CACHE, cacheResolver = "userCacheResolver", unless = "#result == null")
+    public Optional<UserCredentials> findByEmail(String email) {
+        return userRepository.findOneWithAuthoritiesByEmail(email).map(UserCredentials::new);
+    }
+
+    /**
+     * Evict a user.
+     *
+     * @param login the login of the user.
+     * @param email the email of the user, may be {@code null}.
+     */
+    public void evict(String login, String email) {
+        evictKey(USERS_BY_LOGIN_CACHE, login);
+        if (email != null) {
+            evictKey(USERS_BY_EMAIL_CACHE, email);
+        }
+    }
+
+    /**
+     * Evict all the users, when too many users have changed to evict them one by one.
+     */
+    public void clear() {
+        for (String cacheName : List.of(USERS_BY_LOGIN_CACHE, USERS_BY_EMAIL_CACHE)) {
+            Cache cache = Objects.requireNonNull(cacheManager.getCache(cacheName));
+            cache.clear();
+            new TransactionAwareCacheDecorator(cache).clear();
+        }
+    }
+
+    private void evictKey(String cacheName, String key) {
+        Cache cache = Objects.requireNonNull(cacheManager.getCache(cacheName));
+        cache.evict(key);
+        new TransactionAwareCacheDecorator(cache).evict(key);
+    }
+}
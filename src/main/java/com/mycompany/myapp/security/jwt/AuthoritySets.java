@@ -0,0 +1,192 @@
+package com.mycompany.myapp.security.jwt;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+/**
+ * Canonical, immutable lists of granted authorities, keyed by the authorities claim of the JWT tokens.
+ * <p>
+ * The users only have a few distinct combinations of authorities, so all the tokens holding the same claim share the
+ * same list and the same authority instances. At most {@link #MAX_SETS} claims are kept, the others are parsed on each
+ * call.
+ * <p>
+ * The compact tokens hold their authorities as a bitmask instead, whose bits are mapped to authorities by a versioned
+ * registry: bit {@code i} of a version {@code v} mask is the authority {@code i} of the version {@code v} list. The
+ * masks are encoded with the last version, and each version keeps its own canonical lists.
+ */
+final class AuthoritySets {
+
+    static final int MAX_SETS = 256;
+
+    /**
+     * The bits of a mask, the sign bit being left unused.
+     */
+    static final int MAX_REGISTRY_SIZE = Long.SIZE - 1;
+
+    private final Map<String, List<GrantedAuthority>> sets = new ConcurrentHashMap<>();
+
+    private final Map<String, GrantedAuthority> authorities = new ConcurrentHashMap<>();
+
+    private final List<List<String>> registry;
+
+    private final Map<String, Integer> currentBits = new HashMap<>();
+
+    private final List<Map<Long, List<GrantedAuthority>>> maskSets = new ArrayList<>();
+
+    private final Function<String, GrantedAuthority> authorityFactory;
+
+    AuthoritySets() {
+        this(List.of());
+    }
+
+    AuthoritySets(List<List<String>> registry) {
+        this(registry, SimpleGrantedAuthority::new);
+    }
+
+    /**
+     * @param registry the authorities of the mask bits, by registry version, the first list being version {@code 1}.
+     * @param authorityFactory the function giving the granted authority of a name, the first time it is met.
+     * @throws IllegalArgumentException if a version has more than {@link #MAX_REGISTRY_SIZE} authorities.
+     */
+    AuthoritySets(List<List<String>> registry, Function<String, GrantedAuthority> authorityFactory) {
+        this.authorityFactory = authorityFactory;
+        this.registry = List.copyOf(registry.stream().map(List::copyOf).collect(Collectors.toList()));
+        for (List<String> version : this.registry) {
+            if (version.size() > MAX_REGISTRY_SIZE) {
+                throw new IllegalArgumentException("An authority registry version holds at most " + MAX_REGISTRY_SIZE + " authorities");
+            }
+            maskSets.add(new ConcurrentHashMap<>());
+        }
+        if (!this.registry.isEmpty()) {
+            List<String> current = this.registry.get(this.registry.size() - 1);
+            for (int bit = 0; bit < current.size(); bit++) {
+                currentBits.putIfAbsent(current.get(bit), bit);
+            }
+        }
+    }
+
+    /**
+     * Get the authorities of a comma separated claim.
+     *
+     * @param claim the authorities claim, may be {@code null}.
+     * @return the unmodifiable list of the authorities, without the blank ones.
+     */
+    List<GrantedAuthority> get(String claim) {
+        if (claim == null || claim.isEmpty()) {
+            return List.of();
+        }
+        List<GrantedAuthority> set = sets.get(claim);
+        if (set != null) {
+            return set;
+        }
+        set = parse(claim);
+        if (sets.size() < MAX_SETS) {
+            List<GrantedAuthority> existing = sets.putIfAbsent(claim, set);
+            if (existing != null) {
+                return existing;
+            }
+        }
+        return set;
+    }
+
+    /**
+     * @return the version of the registry used to encode the masks, {@code 0} if there is no registry.
+     */
+    int currentVersion() {
+        return registry.size();
+    }
+
+    /**
+     * Encode authorities as a mask of the current registry version.
+     *
+     * @param grantedAuthorities the authorities.
+     * @return the mask, or {@code -1} if an authority is not in the current registry version.
+     */
+    long mask(Collection<? extends GrantedAuthority> grantedAuthorities) {
+        long mask = 0;
+        for (GrantedAuthority authority : grantedAuthorities) {
+            Integer bit = currentBits.get(authority.getAuthority());
+            if (bit == null) {
+                return -1;
+            }
+            mask |= 1L << bit;
+        }
+        return mask;
+    }
+
+    /**
+     * Get the authorities of a mask.
+     *
+     * @param version the registry version of the mask.
+     * @param mask the mask.
+     * @return the unmodifiable list of the authorities, in the order of the registry version, or {@code null} if the
+     * version is unknown or the mask has bits outside of it.
+     */
+    List<GrantedAuthority> get(int version, long mask) {
+        if (version < 1 || version > registry.size()) {
+            return null;
+        }
+        List<String> names = registry.get(version - 1);
+        if (mask < 0 || (mask >>> names.size()) != 0) {
+            return null;
+        }
+        Map<Long, List<GrantedAuthority>> versionSets = maskSets.get(version - 1);
+        List<GrantedAuthority> set = versionSets.get(mask);
+        if (set != null) {
+            return set;
+        }
+        List<GrantedAuthority> result = new ArrayList<>(Long.bitCount(mask));
+        for (int bit = 0; bit < names.size(); bit++) {
+            if ((mask & (1L << bit)) != 0) {
+                result.add(authority(names.get(bit)));
+            }
+        }
+        set = List.copyOf(result);
+        if (versionSets.size() < MAX_SETS) {
+            List<GrantedAuthority> existing = versionSets.putIfAbsent(mask, set);
+            if (existing != null) {
+                return existing;
+            }
+        }
+        return set;
+    }
+
+    private List<GrantedAuthority> parse(String claim) {
+        List<GrantedAuthority> result = new ArrayList<>();
+        int start = 0;
+        while (start <= claim.length()) {
+            int end = claim.indexOf(',', start);
+            if (end < 0) {
+                end = claim.length();
+            }
+            String name = claim.substring(start, end).trim();
+            if (!name.isEmpty()) {
+                result.add(authority(name));
+            }
+            start = end + 1;
+        }
+        return List.copyOf(result);
+    }
+
+    private GrantedAuthority authority(String name) {
+        GrantedAuthority authority = authorities.get(name);
+        if (authority == null) {
+            authority = authorityFactory.apply(name);
+            if (authorities.size() < MAX_SETS) {
+                GrantedAuthority existing = authorities.putIfAbsent(name, authority);
+                if (existing != null) {
+                    return existing;
+                }
+            }
+        }
+        return authority;
+    }
+}
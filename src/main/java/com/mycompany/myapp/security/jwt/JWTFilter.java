@@ -1,19 +1,20 @@
 package com.mycompany.myapp.security.jwt;
 
+import com.mycompany.myapp.management.SecurityMetersService;
 import java.io.IOException;
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
 import javax.servlet.ServletRequest;
 import javax.servlet.ServletResponse;
 import javax.servlet.http.HttpServletRequest;
-import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.GenericFilterBean;
 
 /**
  * Filters incoming requests and installs a Spring Security principal if a header corresponding to a valid user is
- * found.
+ * found, unless its token has been revoked. The time taken to authenticate each request is tracked by the
+ * {@link SecurityMetersService}.
  */
 public class JWTFilter extends GenericFilterBean {
 
@@ -21,18 +22,35 @@ public class JWTFilter extends GenericFilterBean {
 
     private final TokenProvider tokenProvider;
 
-    public JWTFilter(TokenProvider tokenProvider) {
+    private final TokenRevocationService tokenRevocationService;
+
+    private final SecurityMetersService securityMetersService;
+
+    public JWTFilter(
+        TokenProvider tokenProvider,
+        TokenRevocationService tokenRevocationService,
+        SecurityMetersService securityMetersService
+    ) {
         this.tokenProvider = tokenProvider;
+        this.tokenRevocationService = tokenRevocationService;
+        this.securityMetersService = securityMetersService;
     }
 
     @Override
     public void doFilter(ServletRequest servletRequest, ServletResponse servletResponse, FilterChain filterChain)
         throws IOException, ServletException {
-        HttpServletRequest httpServletRequest = (HttpServletRequest) servletRequest;
-        String jwt = resolveToken(httpServletRequest);
-        if (StringUtils.hasText(jwt) && this.tokenProvider.validateToken(jwt)) {
-            Authentication authentication = this.tokenProvider.getAuthentication(jwt);
-            SecurityContextHolder.getContext().setAuthentication(authentication);
+        long start = System.nanoTime();
+        try {
+            HttpServletRequest httpServletRequest = (HttpServletRequest) servletRequest;
+            String jwt = resolveToken(httpServletRequest);
+            if (StringUtils.hasText(jwt)) {
+                this.tokenProvider.resolveAuthentication(jwt)
+                    .filter(authentication -> !tokenRevocationService.isRevoked(authentication))
+                    .ifPresent(SecurityContextHolder.getContext()::setAuthentication);
+            }
+        } finally {
+            // The failed authentications are timed too, and the rest of the chain is not
+            this.securityMetersService.trackTokenFilter(System.nanoTime() - start);
         }
         filterChain.doFilter(servletRequest, servletResponse);
     }
@@ -0,0 +1,197 @@
+package com.mycompany.myapp.security.jwt;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.RefreshToken;
+import com.mycompany.myapp.repository.RefreshTokenRepository;
+import com.mycompany.myapp.security.AuthorityRegistry;
+import com.mycompany.myapp.security.UserCredentials;
+import com.mycompany.myapp.security.UserCredentialsCache;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Issues refresh tokens, and exchanges them for new access tokens without checking the password of the user again.
+ * <p>
+ * A refresh token is a random value, stored by its SHA-256 digest. The tokens issued by a login form a family, which
+ * expires {@code jhipster.security.authentication.jwt.token-validity-in-seconds} (or the remember-me one) after the
+ * login. Each exchange marks the token as used and issues the next token of its family; a used token which is presented
+ * again has leaked, so its whole family is revoked.
+ */
+@Component
+public class RefreshTokenService {
+
+    private final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    private final UserCredentialsCache userCredentialsCache;
+
+    private final TokenProvider tokenProvider;
+
+    private final AuthorityRegistry authorityRegistry;
+
+    private final boolean enabled;
+
+    private final long tokenValidityInMilliseconds;
+
+    private final long tokenValidityInMillisecondsForRememberMe;
+
+    public RefreshTokenService(
+        RefreshTokenRepository refreshTokenRepository,
+        UserCredentialsCache userCredentialsCache,
+        TokenProvider tokenProvider,
+        AuthorityRegistry authorityRegistry,
+        JHipsterProperties jHipsterProperties,
+        ApplicationProperties applicationProperties
+    ) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userCredentialsCache = userCredentialsCache;
+        this.tokenProvider = tokenProvider;
+        this.authorityRegistry = authorityRegistry;
+        this.enabled = applicationProperties.getSecurity().getRefreshToken().isEnabled();
+        JHipsterProperties.Security.Authentication.Jwt jwt = jHipsterProperties.getSecurity().getAuthentication().getJwt();
+        this.tokenValidityInMilliseconds = 1000 * jwt.getTokenValidityInSeconds();
+        this.tokenValidityInMillisecondsForRememberMe = 1000 * jwt.getTokenValidityInSecondsForRememberMe();
+    }
+
+    /**
+     * Create the tokens of a user who has just logged in: a short-lived access token and a new family of refresh
+     * tokens, or only a long-lived access token if the refresh tokens are disabled.
+     *
+     * @param authentication the authentication of the user.
+     * @param rememberMe whether the user stays logged in for the remember-me validity.
+     * @return the tokens.
+     */
+    @Transactional
+    public Tokens createTokens(Authentication authentication, boolean rememberMe) {
+        if (!enabled) {
+            return new Tokens(tokenProvider.createToken(authentication, rememberMe), null);
+        }
+        long validity = rememberMe ? tokenValidityInMillisecondsForRememberMe : tokenValidityInMilliseconds;
+        String refreshToken = createRefreshToken(
+            UUID.randomUUID().toString(),
+            authentication.getName(),
+            Instant.now().plusMillis(validity)
+        );
+        return new Tokens(tokenProvider.createAccessToken(authentication), refreshToken);
+    }
+
+    /**
+     * Exchange a refresh token for a new access token and the next refresh token of its family.
+     *
+     * @param refreshToken the refresh token.
+     * @return the new tokens, or empty if the refresh token is unknown, expired, already used, or if its user cannot log in anymore.
+     */
+    @Transactional
+    public Optional<Tokens> refresh(String refreshToken) {
+        String tokenHash = TokenProvider.digest(refreshToken);
+        Optional<RefreshToken> existingToken = refreshTokenRepository.findById(tokenHash);
+        if (existingToken.isEmpty() || existingToken.get().getExpirationDate().isBefore(Instant.now())) {
+            log.debug("Unknown or expired refresh token");
+            return Optional.empty();
+        }
+        RefreshToken token = existingToken.get();
+        if (refreshTokenRepository.markUsed(tokenHash) == 0) {
+            log.warn("Refresh token reused for user {}, revoking its token family", token.getLogin());
+            refreshTokenRepository.deleteByFamilyId(token.getFamilyId());
+            return Optional.empty();
+        }
+        Optional<UserCredentials> user = userCredentialsCache.findByLogin(token.getLogin()).filter(UserCredentials::isActivated);
+        if (user.isEmpty()) {
+            log.debug("Refresh token of missing or deactivated user {}", token.getLogin());
+            refreshTokenRepository.deleteByFamilyId(token.getFamilyId());
+            return Optional.empty();
+        }
+        List<GrantedAuthority> authorities = user
+            .get()
+            .getAuthorities()
+            .stream()
+            .map(authorityRegistry::getGrantedAuthority)
+            .collect(Collectors.toList());
+        Authentication authentication = new UsernamePasswordAuthenticationToken(token.getLogin(), null, authorities);
+        String nextRefreshToken = createRefreshToken(token.getFamilyId(), token.getLogin(), token.getExpirationDate());
+        return Optional.of(new Tokens(tokenProvider.createAccessToken(authentication), nextRefreshToken));
+    }
+
+    /**
+     * Revoke the family of a refresh token, when its user logs out.
+     *
+     * @param refreshToken the refresh token.
+     */
+    @Transactional
+    public void revokeFamily(String refreshToken) {
+        refreshTokenRepository
+            .findById(TokenProvider.digest(refreshToken))
+            .ifPresent(token -> refreshTokenRepository.deleteByFamilyId(token.getFamilyId()));
+    }
+
+    /**
+     * Delete the expired refresh tokens, which are kept until then to detect their reuse.
+     * <p>
+     * This is scheduled to run every hour.
+     */
+    @Scheduled(fixedDelay = 1, timeUnit = TimeUnit.HOURS)
+    @Transactional
+    public void removeExpiredTokens() {
+        int deleted = refreshTokenRepository.deleteExpired(Instant.now());
+        log.debug("Deleted {} expired refresh tokens", deleted);
+    }
+
+    private String createRefreshToken(String familyId, String login, Instant expirationDate) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        secureRandom.nextBytes(bytes);
+        String value = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        RefreshToken refreshToken = new RefreshToken();
+        refreshToken.setTokenHash(TokenProvider.digest(value));
+        refreshToken.setFamilyId(familyId);
+        refreshToken.setLogin(login);
+        refreshToken.setExpirationDate(expirationDate);
+        refreshTokenRepository.save(refreshToken);
+        return value;
+    }
+
+    /**
+     * An access token, with the refresh token to exchange for the next one.
+     */
+    public static class Tokens {
+
+        private final String accessToken;
+
+        private final String refreshToken;
+
+        Tokens(String accessToken, String refreshToken) {
+            this.accessToken = accessToken;
+            this.refreshToken = refreshToken;
+        }
+
+        public String getAccessToken() {
+            return accessToken;
+        }
+
+        /**
+         * @return the refresh token, or {@code null} if the refresh tokens are disabled.
+         */
+        public String getRefreshToken() {
+            return refreshToken;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.mycompany.myapp.security.jwt;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+
+/**
+ * The immutable authentication held by a verified JWT token.
+ * <p>
+ * Unlike {@link org.springframework.security.authentication.UsernamePasswordAuthenticationToken}, it does not copy
+ * its authorities, which are shared by all the tokens with the same authorities claim, and its principal is the login
+ * of the user. As it may be shared by all the requests holding the same token, it cannot be made untrusted.
+ */
+final class TokenAuthentication implements Authentication {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String login;
+
+    private final String token;
+
+    private final List<GrantedAuthority> authorities;
+
+    private final String tokenId;
+
+    private final long issuedAt;
+
+    private final long expiration;
+
+    /**
+     * @param login the subject of the token.
+     * @param token the token.
+     * @param authorities the shared authorities of the token.
+     * @param tokenId the id of the token, {@code null} for the tokens issued without one.
+     * @param issuedAt the issue time of the token in milliseconds, {@code 0} for the tokens issued without one.
+     * @param expiration the expiration time of the token in milliseconds.
+     */
+    TokenAuthentication(String login, String token, List<GrantedAuthority> authorities, String tokenId, long issuedAt, long expiration) {
+        this.login = login;
+        this.token = token;
+        this.authorities = authorities;
+        this.tokenId = tokenId;
+        this.issuedAt = issuedAt;
+        this.expiration = expiration;
+    }
+
+    String getTokenId() {
+        return tokenId;
+    }
+
+    long getIssuedAt() {
+        return issuedAt;
+    }
+
+    long getExpiration() {
+        return expiration;
+    }
+
+    @Override
+    public Collection<GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public Object getCredentials() {
+        return token;
+    }
+
+    @Override
+    public Object getDetails() {
+        return null;
+    }
+
+    @Override
+    public Object getPrincipal() {
+        return login;
+    }
+
+    @Override
+    public boolean isAuthenticated() {
+        return true;
+    }
+
+    @Override
+    public void setAuthenticated(boolean authenticated) {
+        if (!authenticated) {
+            throw new IllegalArgumentException("A token authentication cannot be made untrusted");
+        }
+    }
+
+    @Override
+    public String getName() {
+        return login;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof TokenAuthentication)) {
+            return false;
+        }
+        TokenAuthentication other = (TokenAuthentication) o;
+        return Objects.equals(login, other.login) && Objects.equals(token, other.token);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(login, token);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "TokenAuthentication{" +
+            "login='" + login + "'" +
+            ", authorities=" + authorities +
+            "}";
+    }
+}
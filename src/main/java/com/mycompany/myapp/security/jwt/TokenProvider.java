@@ -1,25 +1,45 @@
 package com.mycompany.myapp.security.jwt;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.mycompany.myapp.config.ApplicationProperties;
 import com.mycompany.myapp.management.SecurityMetersService;
+import com.mycompany.myapp.security.AuthorityRegistry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.security.SignatureException;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.core.userdetails.User;
 import org.springframework.stereotype.Component;
 import org.springframework.util.ObjectUtils;
 import tech.jhipster.config.JHipsterProperties;
 
+/**
+ * Creates the JWT tokens, and authenticates the requests which hold one.
+ * <p>
+ * Verifying a token means checking its HMAC signature and parsing its claims, so the tokens which have been verified
+ * are cached with their authentication until they expire, keyed by their SHA-256 digest. The size of this cache is set
+ * by {@code application.security.token-cache.max-entries}. The authentications share the {@link AuthoritySets} of
+ * their authorities claim, made of the granted authorities of the {@link AuthorityRegistry}.
+ * <p>
+ * With {@code application.security.compact-token.enabled}, the tokens are issued in a compact format: the authorities
+ * are a bitmask of the {@code application.security.compact-token.authority-registry}, with its version, the token id is
+ * a Base64 encoded UUID and the signature is HS256. The header only holds the algorithm in both formats. Users with an
+ * authority outside of the registry still get a token in the standard format, and the tokens of both formats are
+ * accepted.
+ */
 @Component
 public class TokenProvider {
 
@@ -27,6 +47,10 @@ public class TokenProvider {
 
     private static final String AUTHORITIES_KEY = "auth";
 
+    private static final String AUTHORITY_MASK_KEY = "r";
+
+    private static final String AUTHORITY_REGISTRY_VERSION_KEY = "rv";
+
     private static final String INVALID_JWT_TOKEN = "Invalid JWT token.";
 
     private final Key key;
@@ -37,9 +61,22 @@ public class TokenProvider {
 
     private final long tokenValidityInMillisecondsForRememberMe;
 
+    private final long accessTokenValidityInMilliseconds;
+
     private final SecurityMetersService securityMetersService;
 
-    public TokenProvider(JHipsterProperties jHipsterProperties, SecurityMetersService securityMetersService) {
+    private final Cache<String, VerifiedToken> verifiedTokens;
+
+    private final AuthoritySets authoritySets;
+
+    private final boolean compactTokens;
+
+    public TokenProvider(
+        JHipsterProperties jHipsterProperties,
+        ApplicationProperties applicationProperties,
+        SecurityMetersService securityMetersService,
+        AuthorityRegistry authorityRegistry
+    ) {
         byte[] keyBytes;
         String secret = jHipsterProperties.getSecurity().getAuthentication().getJwt().getBase64Secret();
         if (!ObjectUtils.isEmpty(secret)) {
@@ -58,23 +95,55 @@ public class TokenProvider {
         this.tokenValidityInMilliseconds = 1000 * jHipsterProperties.getSecurity().getAuthentication().getJwt().getTokenValidityInSeconds();
         this.tokenValidityInMillisecondsForRememberMe =
             1000 * jHipsterProperties.getSecurity().getAuthentication().getJwt().getTokenValidityInSecondsForRememberMe();
+        this.accessTokenValidityInMilliseconds = applicationProperties.getSecurity().getRefreshToken().getAccessTokenValidity().toMillis();
 
         this.securityMetersService = securityMetersService;
+
+        ApplicationProperties.Security.CompactToken compactToken = applicationProperties.getSecurity().getCompactToken();
+        this.authoritySets = new AuthoritySets(compactToken.getAuthorityRegistry(), authorityRegistry::getGrantedAuthority);
+        this.compactTokens = compactToken.isEnabled() && authoritySets.currentVersion() > 0;
+
+        long maxEntries = applicationProperties.getSecurity().getTokenCache().getMaxEntries();
+        this.verifiedTokens = maxEntries > 0 ? Caffeine.newBuilder().maximumSize(maxEntries).expireAfter(new TokenExpiry()).build() : null;
     }
 
     public String createToken(Authentication authentication, boolean rememberMe) {
+        return createToken(authentication, rememberMe ? this.tokenValidityInMillisecondsForRememberMe : this.tokenValidityInMilliseconds);
+    }
+
+    /**
+     * Create a short-lived access token, valid for {@code application.security.refresh-token.access-token-validity}.
+     *
+     * @param authentication the authentication of the user.
+     * @return the JWT token.
+     */
+    public String createAccessToken(Authentication authentication) {
+        return createToken(authentication, this.accessTokenValidityInMilliseconds);
+    }
+
+    private String createToken(Authentication authentication, long validityInMilliseconds) {
+        long start = System.nanoTime();
+        try {
+            long authorityMask = compactTokens ? authoritySets.mask(authentication.getAuthorities()) : -1;
+            if (authorityMask >= 0) {
+                return createCompactToken(authentication, authorityMask, validityInMilliseconds);
+            }
+            return createStandardToken(authentication, validityInMilliseconds);
+        } finally {
+            this.securityMetersService.trackTokenCreation(System.nanoTime() - start);
+        }
+    }
+
+    private String createStandardToken(Authentication authentication, long validityInMilliseconds) {
         String authorities = authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).collect(Collectors.joining(","));
 
         long now = (new Date()).getTime();
-        Date validity;
-        if (rememberMe) {
-            validity = new Date(now + this.tokenValidityInMillisecondsForRememberMe);
-        } else {
-            validity = new Date(now + this.tokenValidityInMilliseconds);
-        }
+        Date validity = new Date(now + validityInMilliseconds);
 
         return Jwts
             .builder()
+            .setId(UUID.randomUUID().toString())
+            .setIssuedAt(new Date(now))
             .setSubject(authentication.getName())
             .claim(AUTHORITIES_KEY, authorities)
             .signWith(key, SignatureAlgorithm.HS512)
@@ -82,25 +151,80 @@ public class TokenProvider {
             .compact();
     }
 
-    public Authentication getAuthentication(String token) {
-        Claims claims = jwtParser.parseClaimsJws(token).getBody();
+    private String createCompactToken(Authentication authentication, long authorityMask, long validityInMilliseconds) {
+        UUID id = UUID.randomUUID();
+        byte[] idBytes = ByteBuffer.allocate(16).putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits()).array();
 
-        Collection<? extends GrantedAuthority> authorities = Arrays
-            .stream(claims.get(AUTHORITIES_KEY).toString().split(","))
-            .filter(auth -> !auth.trim().isEmpty())
-            .map(SimpleGrantedAuthority::new)
-            .collect(Collectors.toList());
+        long now = (new Date()).getTime();
+        Date validity = new Date(now + validityInMilliseconds);
 
-        User principal = new User(claims.getSubject(), "", authorities);
+        return Jwts
+            .builder()
+            .setId(Base64.getUrlEncoder().withoutPadding().encodeToString(idBytes))
+            .setIssuedAt(new Date(now))
+            .setSubject(authentication.getName())
+            .claim(AUTHORITY_MASK_KEY, authorityMask)
+            .claim(AUTHORITY_REGISTRY_VERSION_KEY, authoritySets.currentVersion())
+            .signWith(key, SignatureAlgorithm.HS256)
+            .setExpiration(validity)
+            .compact();
+    }
 
-        return new UsernamePasswordAuthenticationToken(principal, token, authorities);
+    /**
+     * Get the authentication held by a token, without checking whether the token is valid.
+     *
+     * @param token the JWT token.
+     * @return the authentication.
+     * @throws JwtException if the token cannot be parsed.
+     */
+    public Authentication getAuthentication(String token) {
+        return createAuthentication(jwtParser.parseClaimsJws(token).getBody(), token);
     }
 
+    /**
+     * Check a token.
+     *
+     * @param authToken the JWT token.
+     * @return {@code true} if the token is valid.
+     */
     public boolean validateToken(String authToken) {
+        return resolveAuthentication(authToken).isPresent();
+    }
+
+    /**
+     * Verify a token and get the authentication it holds, parsing it only if it has not been verified before.
+     * <p>
+     * The invalid tokens are never cached, so each use of one is counted by the {@link SecurityMetersService}, which
+     * also times every call, cached or not. The returned authentication may be shared by all the requests which hold
+     * the same token.
+     *
+     * @param authToken the JWT token.
+     * @return the authentication, or empty if the token is invalid.
+     */
+    public Optional<Authentication> resolveAuthentication(String authToken) {
+        long start = System.nanoTime();
         try {
-            jwtParser.parseClaimsJws(authToken);
+            return verifyToken(authToken);
+        } finally {
+            this.securityMetersService.trackTokenValidation(System.nanoTime() - start);
+        }
+    }
 
-            return true;
+    private Optional<Authentication> verifyToken(String authToken) {
+        String digest = verifiedTokens != null ? digest(authToken) : null;
+        if (digest != null) {
+            VerifiedToken verifiedToken = verifiedTokens.getIfPresent(digest);
+            if (verifiedToken != null) {
+                return Optional.of(verifiedToken.authentication);
+            }
+        }
+        try {
+            Claims claims = jwtParser.parseClaimsJws(authToken).getBody();
+            Authentication authentication = createAuthentication(claims, authToken);
+            if (digest != null && claims.getExpiration() != null) {
+                verifiedTokens.put(digest, new VerifiedToken(authentication, claims.getExpiration().getTime()));
+            }
+            return Optional.of(authentication);
         } catch (ExpiredJwtException e) {
             this.securityMetersService.trackTokenExpired();
 
@@ -121,6 +245,69 @@ public class TokenProvider {
             log.error("Token validation error {}", e.getMessage());
         }
 
-        return false;
+        return Optional.empty();
+    }
+
+    Authentication createAuthentication(Claims claims, String token) {
+        List<GrantedAuthority> authorities;
+        Long authorityMask = claims.get(AUTHORITY_MASK_KEY, Long.class);
+        if (authorityMask != null) {
+            Integer version = claims.get(AUTHORITY_REGISTRY_VERSION_KEY, Integer.class);
+            authorities = version != null ? authoritySets.get(version, authorityMask) : null;
+            if (authorities == null) {
+                throw new UnsupportedJwtException("Unknown authority registry version " + version + " or authority mask " + authorityMask);
+            }
+        } else {
+            authorities = authoritySets.get(claims.get(AUTHORITIES_KEY, String.class));
+        }
+        return new TokenAuthentication(
+            claims.getSubject(),
+            token,
+            authorities,
+            claims.getId(),
+            claims.getIssuedAt() != null ? claims.getIssuedAt().getTime() : 0,
+            claims.getExpiration() != null ? claims.getExpiration().getTime() : Long.MAX_VALUE
+        );
+    }
+
+    static String digest(String token) {
+        try {
+            return Base64.getEncoder().encodeToString(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static final class VerifiedToken {
+
+        private final Authentication authentication;
+
+        private final long expirationTime;
+
+        private VerifiedToken(Authentication authentication, long expirationTime) {
+            this.authentication = authentication;
+            this.expirationTime = expirationTime;
+        }
+    }
+
+    /**
+     * Expires the cached tokens when the tokens themselves expire.
+     */
+    private static final class TokenExpiry implements Expiry<String, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(String digest, VerifiedToken verifiedToken, long currentTime) {
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, verifiedToken.expirationTime - System.currentTimeMillis()));
+        }
+
+        @Override
+        public long expireAfterUpdate(String digest, VerifiedToken verifiedToken, long currentTime, long currentDuration) {
+            return expireAfterCreate(digest, verifiedToken, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String digest, VerifiedToken verifiedToken, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
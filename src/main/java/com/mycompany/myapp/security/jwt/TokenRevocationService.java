@@ -0,0 +1,217 @@
+package com.mycompany.myapp.security.jwt;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.RevokedLogin;
+import com.mycompany.myapp.domain.RevokedToken;
+import com.mycompany.myapp.repository.RefreshTokenRepository;
+import com.mycompany.myapp.repository.RevokedLoginRepository;
+import com.mycompany.myapp.repository.RevokedTokenRepository;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Revokes JWT tokens before they expire.
+ * <p>
+ * A single token is revoked by its id, and all the tokens of a user, when it is deleted or deactivated, by revoking
+ * the tokens of its login issued before the current second. The revocations are stored in the database until the
+ * tokens they apply to would have expired, and each instance keeps them in memory, reloading them every minute to see
+ * the ones made by the other instances.
+ * <p>
+ * Checking a token is done on each request without allocating: its id is first looked up in a Bloom filter, which is
+ * sized by {@code application.security.token-revocation}, and only the ids it might contain are looked up in the
+ * revoked token ids.
+ */
+@Component
+public class TokenRevocationService {
+
+    private final Logger log = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+
+    private final RevokedLoginRepository revokedLoginRepository;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    private final ApplicationProperties.Security.TokenRevocation tokenRevocation;
+
+    private final long maxTokenValidityInMilliseconds;
+
+    /**
+     * The expiration times of the revoked tokens, by token id.
+     */
+    private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+
+    private final Map<String, LoginRevocation> revokedLogins = new ConcurrentHashMap<>();
+
+    private volatile BloomFilter revokedTokenFilter;
+
+    public TokenRevocationService(
+        RevokedTokenRepository revokedTokenRepository,
+        RevokedLoginRepository revokedLoginRepository,
+        RefreshTokenRepository refreshTokenRepository,
+        JHipsterProperties jHipsterProperties,
+        ApplicationProperties applicationProperties
+    ) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.revokedLoginRepository = revokedLoginRepository;
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.tokenRevocation = applicationProperties.getSecurity().getTokenRevocation();
+        JHipsterProperties.Security.Authentication.Jwt jwt = jHipsterProperties.getSecurity().getAuthentication().getJwt();
+        this.maxTokenValidityInMilliseconds =
+            1000 * Math.max(jwt.getTokenValidityInSeconds(), jwt.getTokenValidityInSecondsForRememberMe());
+        this.revokedTokenFilter = new BloomFilter(tokenRevocation.getExpectedEntries(), tokenRevocation.getFalsePositiveRate());
+    }
+
+    /**
+     * Check whether the token of an authentication has been revoked.
+     *
+     * @param authentication the authentication resolved from a token.
+     * @return {@code true} if the token has been revoked, {@code false} if it has not or the authentication does not come from a token.
+     */
+    boolean isRevoked(Authentication authentication) {
+        if (!(authentication instanceof TokenAuthentication)) {
+            return false;
+        }
+        TokenAuthentication tokenAuthentication = (TokenAuthentication) authentication;
+        LoginRevocation loginRevocation = revokedLogins.get(tokenAuthentication.getName());
+        if (loginRevocation != null && tokenAuthentication.getIssuedAt() < loginRevocation.notBefore) {
+            return true;
+        }
+        String tokenId = tokenAuthentication.getTokenId();
+        return tokenId != null && revokedTokenFilter.mightContain(tokenId) && revokedTokens.containsKey(tokenId);
+    }
+
+    /**
+     * Revoke the token of an authentication, so that it is rejected until it expires. The tokens issued without an id
+     * are revoked with all the tokens of their user.
+     *
+     * @param authentication the authentication resolved from a token.
+     */
+    @Transactional
+    public void revoke(Authentication authentication) {
+        if (!(authentication instanceof TokenAuthentication)) {
+            return;
+        }
+        TokenAuthentication tokenAuthentication = (TokenAuthentication) authentication;
+        String tokenId = tokenAuthentication.getTokenId();
+        if (tokenId == null) {
+            revokeAll(tokenAuthentication.getName());
+            return;
+        }
+        log.debug("Revoking token {} of user {}", tokenId, tokenAuthentication.getName());
+        long expiration = Math.min(tokenAuthentication.getExpiration(), System.currentTimeMillis() + maxTokenValidityInMilliseconds);
+        RevokedToken revokedToken = new RevokedToken();
+        revokedToken.setTokenId(tokenId);
+        revokedToken.setExpirationDate(Instant.ofEpochMilli(expiration));
+        revokedTokenRepository.save(revokedToken);
+        afterCommit(() -> addRevokedToken(tokenId, expiration));
+    }
+
+    /**
+     * Revoke all the tokens issued to a user before the current second, and its refresh tokens.
+     * <p>
+     * The tokens are issued at whole seconds, so the ones issued during the current second are kept, as they cannot
+     * be told apart from the tokens issued right after the revocation, when the user logs in again.
+     *
+     * @param login the login of the user.
+     */
+    @Transactional
+    public void revokeAll(String login) {
+        log.debug("Revoking all the tokens of user {}", login);
+        long now = System.currentTimeMillis();
+        long notBefore = now - now % 1000;
+        RevokedLogin revokedLogin = new RevokedLogin();
+        revokedLogin.setLogin(login);
+        revokedLogin.setNotBefore(Instant.ofEpochMilli(notBefore));
+        revokedLogin.setExpirationDate(Instant.ofEpochMilli(now + maxTokenValidityInMilliseconds));
+        revokedLoginRepository.save(revokedLogin);
+        refreshTokenRepository.deleteByLogin(login);
+        LoginRevocation revocation = new LoginRevocation(notBefore, now + maxTokenValidityInMilliseconds);
+        afterCommit(() -> revokedLogins.merge(login, revocation, LoginRevocation::latest));
+    }
+
+    /**
+     * Delete the revocations of the expired tokens, load the ones made by the other instances, and rebuild the Bloom
+     * filter without the expired token ids.
+     * <p>
+     * This is scheduled to run every minute.
+     */
+    @Scheduled(fixedDelay = 1, timeUnit = TimeUnit.MINUTES)
+    @Transactional
+    public void refresh() {
+        Instant now = Instant.now();
+        int deletedTokens = revokedTokenRepository.deleteExpired(now);
+        int deletedLogins = revokedLoginRepository.deleteExpired(now);
+        log.debug("Deleted {} expired token and {} expired login revocations", deletedTokens, deletedLogins);
+        for (RevokedToken revokedToken : revokedTokenRepository.findAll()) {
+            revokedTokens.putIfAbsent(revokedToken.getTokenId(), revokedToken.getExpirationDate().toEpochMilli());
+        }
+        for (RevokedLogin revokedLogin : revokedLoginRepository.findAll()) {
+            revokedLogins.merge(
+                revokedLogin.getLogin(),
+                new LoginRevocation(revokedLogin.getNotBefore().toEpochMilli(), revokedLogin.getExpirationDate().toEpochMilli()),
+                LoginRevocation::latest
+            );
+        }
+        long nowMillis = now.toEpochMilli();
+        revokedTokens.values().removeIf(expiration -> expiration < nowMillis);
+        revokedLogins.values().removeIf(revocation -> revocation.expiration < nowMillis);
+
+        BloomFilter filter = new BloomFilter(
+            Math.max(tokenRevocation.getExpectedEntries(), 2 * revokedTokens.size()),
+            tokenRevocation.getFalsePositiveRate()
+        );
+        revokedTokens.keySet().forEach(filter::put);
+        revokedTokenFilter = filter;
+        // Tokens revoked while the filter was built may have been added to the previous one only
+        revokedTokens.keySet().forEach(filter::put);
+    }
+
+    private void addRevokedToken(String tokenId, long expiration) {
+        // The id is added to the filter last, so that a token passing the filter is always found in the map
+        revokedTokens.put(tokenId, expiration);
+        revokedTokenFilter.put(tokenId);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(
+            new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            }
+        );
+    }
+
+    private static final class LoginRevocation {
+
+        private final long notBefore;
+
+        private final long expiration;
+
+        private LoginRevocation(long notBefore, long expiration) {
+            this.notBefore = notBefore;
+            this.expiration = expiration;
+        }
+
+        private static LoginRevocation latest(LoginRevocation revocation, LoginRevocation other) {
+            return other.notBefore > revocation.notBefore ? other : revocation;
+        }
+    }
+}
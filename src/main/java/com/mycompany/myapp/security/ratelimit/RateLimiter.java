@@ -0,0 +1,77 @@
+package com.mycompany.myapp.security.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mycompany.myapp.config.ApplicationProperties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free token buckets, one per key.
+ * <p>
+ * Each bucket holds {@code capacity} tokens and is refilled at {@code capacity} tokens per {@code period}. It is stored
+ * as the single time at which it will be full again (the equivalent GCRA form of the bucket), so that taking a token
+ * is one compare-and-set.
+ * <p>
+ * The buckets are held in a Caffeine cache of at most {@code maxBuckets} entries, which amortizes its evictions over
+ * the requests. A bucket idle for a {@code period} is full again, which is the same as no bucket, so it expires then;
+ * beyond {@code maxBuckets}, the buckets least likely to be used again are evicted, which only resets their limits.
+ */
+final class RateLimiter {
+
+    private final long periodNanos;
+
+    private final long intervalNanos;
+
+    private final LongSupplier nanoClock;
+
+    private final Cache<String, AtomicLong> buckets;
+
+    RateLimiter(ApplicationProperties.Security.RateLimiting.Limit limit, long maxBuckets) {
+        this(limit, maxBuckets, System::nanoTime);
+    }
+
+    RateLimiter(ApplicationProperties.Security.RateLimiting.Limit limit, long maxBuckets, LongSupplier nanoClock) {
+        this.periodNanos = limit.getPeriod().toNanos();
+        this.intervalNanos = Math.max(1, periodNanos / limit.getCapacity());
+        this.nanoClock = nanoClock;
+        this.buckets =
+            Caffeine
+                .newBuilder()
+                .maximumSize(maxBuckets)
+                .expireAfterAccess(periodNanos, TimeUnit.NANOSECONDS)
+                .ticker(nanoClock::getAsLong)
+                .build();
+    }
+
+    /**
+     * Take a token from the bucket of a key.
+     *
+     * @param key the key of the bucket.
+     * @return {@code 0} if a token has been taken, else the time in nanoseconds until the bucket has a token again.
+     */
+    long tryAcquire(String key) {
+        long now = nanoClock.getAsLong();
+        AtomicLong bucket = buckets.get(key, k -> new AtomicLong(now));
+        while (true) {
+            long fullAt = bucket.get();
+            long nextFullAt = (fullAt - now > 0 ? fullAt : now) + intervalNanos;
+            long wait = nextFullAt - now - periodNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (bucket.compareAndSet(fullAt, nextFullAt)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * @return the number of buckets, once the pending evictions are done.
+     */
+    long size() {
+        buckets.cleanUp();
+        return buckets.estimatedSize();
+    }
+}
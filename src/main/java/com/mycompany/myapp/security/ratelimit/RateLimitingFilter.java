@@ -0,0 +1,325 @@
+package com.mycompany.myapp.security.ratelimit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.security.RateLimitExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+/**
+ * Rate limits the routes of {@code application.security.rate-limiting}, by client IP address and by account.
+ * <p>
+ * The account of a request is read from its body, which is kept to be read again by the controller. The rejected
+ * requests are handed to the {@link HandlerExceptionResolver} as a {@link RateLimitExceededException}, which answers
+ * them with {@code 429 (Too Many Requests)} and a {@code Retry-After} header.
+ */
+public class RateLimitingFilter extends OncePerRequestFilter {
+
+    public static final String REJECTED_METER_NAME = "security.rate-limit.rejected";
+    public static final String BUCKETS_METER_NAME = "security.rate-limit.buckets";
+    public static final String ROUTE_DIMENSION = "route";
+    public static final String LIMIT_DIMENSION = "limit";
+
+    /**
+     * Larger bodies are only limited by client. The bodies of unknown length are read up to one more byte, to find
+     * whether they are larger.
+     */
+    private static final int MAX_BODY_LENGTH = 4096;
+
+    private final Logger log = LoggerFactory.getLogger(RateLimitingFilter.class);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final HandlerExceptionResolver handlerExceptionResolver;
+
+    private final List<LimitedRoute> routes = new ArrayList<>();
+
+    public RateLimitingFilter(
+        ApplicationProperties.Security.RateLimiting rateLimiting,
+        MeterRegistry registry,
+        HandlerExceptionResolver handlerExceptionResolver
+    ) {
+        this.handlerExceptionResolver = handlerExceptionResolver;
+        if (!rateLimiting.isEnabled()) {
+            return;
+        }
+        for (Map.Entry<String, ApplicationProperties.Security.RateLimiting.Route> entry : rateLimiting.getRoutes().entrySet()) {
+            ApplicationProperties.Security.RateLimiting.Route route = entry.getValue();
+            routes.add(
+                new LimitedRoute(
+                    new AntPathRequestMatcher(route.getPath()),
+                    route.getAccountField(),
+                    createLimit(entry.getKey(), "client", route.getClient(), rateLimiting.getMaxBuckets(), registry),
+                    createLimit(entry.getKey(), "account", route.getAccount(), rateLimiting.getMaxBuckets(), registry)
+                )
+            );
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return routes.isEmpty();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        LimitedRoute route = findRoute(request);
+        if (route == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (route.client != null && !tryAcquire(route.client, request.getRemoteAddr(), request, response)) {
+            return;
+        }
+        if (route.account != null) {
+            CachedBodyRequest cachedBodyRequest = CachedBodyRequest.of(request);
+            if (cachedBodyRequest != null) {
+                request = cachedBodyRequest;
+            }
+            if (cachedBodyRequest != null && cachedBodyRequest.isComplete()) {
+                String account = readAccount(cachedBodyRequest, route.accountField);
+                if (account != null && !tryAcquire(route.account, account, request, response)) {
+                    return;
+                }
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private static Limit createLimit(
+        String route,
+        String name,
+        ApplicationProperties.Security.RateLimiting.Limit limit,
+        long maxBuckets,
+        MeterRegistry registry
+    ) {
+        if (limit.getCapacity() <= 0) {
+            return null;
+        }
+        RateLimiter limiter = new RateLimiter(limit, maxBuckets);
+        Gauge
+            .builder(BUCKETS_METER_NAME, limiter, RateLimiter::size)
+            .description("Number of rate limit buckets in memory")
+            .tag(ROUTE_DIMENSION, route)
+            .tag(LIMIT_DIMENSION, name)
+            .register(registry);
+        Counter rejectedCounter = Counter
+            .builder(REJECTED_METER_NAME)
+            .description("Number of requests rejected because they were over their rate limit")
+            .tag(ROUTE_DIMENSION, route)
+            .tag(LIMIT_DIMENSION, name)
+            .register(registry);
+        return new Limit(route + " " + name, limiter, rejectedCounter);
+    }
+
+    private LimitedRoute findRoute(HttpServletRequest request) {
+        for (LimitedRoute route : routes) {
+            if (route.matcher.matches(request)) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    private boolean tryAcquire(Limit limit, String key, HttpServletRequest request, HttpServletResponse response) {
+        long wait = limit.limiter.tryAcquire(key);
+        if (wait == 0) {
+            return true;
+        }
+        limit.rejectedCounter.increment();
+        log.debug("Rejecting a request over the {} rate limit", limit.name);
+        handlerExceptionResolver.resolveException(
+            request,
+            response,
+            null,
+            new RateLimitExceededException("Too many requests over the " + limit.name + " rate limit", Duration.ofNanos(wait))
+        );
+        return false;
+    }
+
+    private String readAccount(CachedBodyRequest request, String accountField) {
+        String account;
+        if (accountField == null) {
+            account = new String(request.body, request.getCharset());
+        } else {
+            try {
+                JsonNode field = objectMapper.readTree(request.body).path(accountField);
+                account = field.isTextual() ? field.asText() : null;
+            } catch (IOException e) {
+                // The controller rejects the malformed bodies
+                account = null;
+            }
+        }
+        return StringUtils.hasText(account) ? account.trim().toLowerCase(Locale.ROOT) : null;
+    }
+
+    private static final class LimitedRoute {
+
+        private final AntPathRequestMatcher matcher;
+
+        private final String accountField;
+
+        private final Limit client;
+
+        private final Limit account;
+
+        private LimitedRoute(AntPathRequestMatcher matcher, String accountField, Limit client, Limit account) {
+            this.matcher = matcher;
+            this.accountField = accountField;
+            this.client = client;
+            this.account = account;
+        }
+    }
+
+    private static final class Limit {
+
+        private final String name;
+
+        private final RateLimiter limiter;
+
+        private final Counter rejectedCounter;
+
+        private Limit(String name, RateLimiter limiter, Counter rejectedCounter) {
+            this.name = name;
+            this.limiter = limiter;
+            this.rejectedCounter = rejectedCounter;
+        }
+    }
+
+    /**
+     * Request whose body has been read, and is read again from memory, followed by the rest of the body when it is
+     * larger than {@link #MAX_BODY_LENGTH}.
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        private final ServletInputStream rest;
+
+        private final CachedBodyInputStream inputStream;
+
+        private CachedBodyRequest(HttpServletRequest request, byte[] body, ServletInputStream rest) {
+            super(request);
+            this.body = body;
+            this.rest = rest;
+            this.inputStream = new CachedBodyInputStream(body, rest);
+        }
+
+        /**
+         * @return the request with its body read, or {@code null} if its declared length is too large.
+         */
+        private static CachedBodyRequest of(HttpServletRequest request) throws IOException {
+            if (request.getContentLengthLong() > MAX_BODY_LENGTH) {
+                return null;
+            }
+            ServletInputStream input = request.getInputStream();
+            byte[] body = input.readNBytes(MAX_BODY_LENGTH + 1);
+            return new CachedBodyRequest(request, body, body.length > MAX_BODY_LENGTH ? input : null);
+        }
+
+        /**
+         * @return {@code true} if the whole body has been read, {@code false} if it is too large.
+         */
+        private boolean isComplete() {
+            return rest == null;
+        }
+
+        private Charset getCharset() {
+            String encoding = getCharacterEncoding();
+            return encoding != null && Charset.isSupported(encoding) ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            return inputStream;
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(inputStream, getCharset()));
+        }
+    }
+
+    /**
+     * Replays the bytes read by the filter, then the rest of the body when it was too large to be read whole.
+     */
+    private static final class CachedBodyInputStream extends ServletInputStream {
+
+        private final ByteArrayInputStream input;
+
+        private final ServletInputStream rest;
+
+        private CachedBodyInputStream(byte[] body, ServletInputStream rest) {
+            this.input = new ByteArrayInputStream(body);
+            this.rest = rest;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int read = input.read();
+            return read >= 0 || rest == null ? read : rest.read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = input.read(b, off, len);
+            return read >= 0 || rest == null ? read : rest.read(b, off, len);
+        }
+
+        @Override
+        public boolean isFinished() {
+            return input.available() == 0 && (rest == null || rest.isFinished());
+        }
+
+        @Override
+        public boolean isReady() {
+            return input.available() > 0 || rest == null || rest.isReady();
+        }
+
+        /**
+         * Notify the listener at once when the whole body is in memory, or else along with the rest of the body.
+         */
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            if (rest != null) {
+                rest.setReadListener(readListener);
+                return;
+            }
+            try {
+                if (input.available() > 0) {
+                    readListener.onDataAvailable();
+                }
+                readListener.onAllDataRead();
+            } catch (IOException e) {
+                readListener.onError(e);
+            }
+        }
+    }
+}
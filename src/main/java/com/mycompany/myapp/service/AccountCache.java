@@ -0,0 +1,63 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.repository.UserRepository;
+import com.mycompany.myapp.service.dto.AdminUserDTO;
+import java.util.Objects;
+import java.util.Optional;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.stereotype.Service;
+
+/**
+ * Caches the accounts of the users by login, to answer {@code GET /api/account} without database access.
+ * <p>
+ * The cache stores the accounts by value, so every read gets its own copy and the cached snapshot cannot be changed by
+ * its callers. As in the {@link com.mycompany.myapp.security.UserCredentialsCache}, only found users are cached, when
+ * the transaction which read them commits, and the users are evicted now and again when the current transaction
+ * commits.
+ */
+@Service
+public class AccountCache {
+
+    public static final String ACCOUNTS_BY_LOGIN_CACHE = "accountsByLogin";
+
+    private final UserRepository userRepository;
+
+    private final CacheManager cacheManager;
+
+    public AccountCache(UserRepository userRepository, CacheManager cacheManager) {
+        this.userRepository = userRepository;
+        this.cacheManager = cacheManager;
+    }
+
+    @Cacheable(cacheNames = ACCOUNTS_BY_LOGIN_CACHE, cacheResolver = "userCacheResolver", unless = "#result == null")
+    public Optional<AdminUserDTO> findByLogin(String login) {
+        return userRepository.findOneWithAuthoritiesByLogin(login).map(AdminUserDTO::new);
+    }
+
+    /**
+     * Evict the account of a user.
+     *
+     * @param login the login of the user.
+     */
+    public void evict(String login) {
+        Cache cache = getCache();
+        cache.evict(login);
+        new TransactionAwareCacheDecorator(cache).evict(login);
+    }
+
+    /**
+     * Evict all the accounts, when too many users have changed to evict them one by one.
+     */
+    public void clear() {
+        Cache cache = getCache();
+        cache.clear();
+        new TransactionAwareCacheDecorator(cache).clear();
+    }
+
+    private Cache getCache() {
+        return Objects.requireNonNull(cacheManager.getCache(ACCOUNTS_BY_LOGIN_CACHE));
+    }
+}
@@ -0,0 +1,156 @@
+package com.mycompany.myapp.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads {@code ;} separated values one record at a time, in the layout of the Liquibase fake data and of the CSV exports:
+ * a header line naming the columns, and values quoted with {@code "} when they hold a separator, a quote or a line break.
+ */
+final class CsvReader {
+
+    private static final char SEPARATOR = ';';
+
+    private static final char QUOTE = '"';
+
+    private final Reader reader;
+
+    private final Map<String, Integer> columns = new HashMap<>();
+
+    private long line = 1;
+
+    private long recordLine;
+
+    private int next = -2;
+
+    /**
+     * @param reader the reader to read from, which should be buffered.
+     * @throws IOException if the header cannot be read.
+     */
+    CsvReader(Reader reader) throws IOException {
+        this.reader = reader;
+        List<String> header = readRecord();
+        if (header != null) {
+            for (int i = 0; i < header.size(); i++) {
+                // Spreadsheets often save UTF-8 files with a byte order mark
+                columns.put(header.get(i).replace("\uFEFF", "").trim(), i);
+            }
+        }
+    }
+
+    boolean hasColumn(String name) {
+        return columns.containsKey(name);
+    }
+
+    /**
+     * Read the next record.
+     *
+     * @return the record, or {@code null} at the end of the input.
+     * @throws IOException if the input cannot be read.
+     */
+    Record next() throws IOException {
+        List<String> values;
+        do {
+            values = readRecord();
+        } while (values != null && values.size() == 1 && values.get(0).isEmpty());
+        return values == null ? null : new Record(recordLine, values);
+    }
+
+    private List<String> readRecord() throws IOException {
+        int c = read();
+        if (c == -1) {
+            return null;
+        }
+        recordLine = line;
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new IOException("Unterminated quoted value starting on line " + recordLine);
+                }
+                if (c == QUOTE) {
+                    if (peek() == QUOTE) {
+                        value.append(QUOTE);
+                        read();
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    value.append((char) c);
+                }
+            } else if (c == -1 || c == '\n' || c == '\r') {
+                if (c == '\r' && peek() == '\n') {
+                    read();
+                }
+                values.add(value.toString());
+                return values;
+            } else if (c == SEPARATOR) {
+                values.add(value.toString());
+                value.setLength(0);
+            } else if (c == QUOTE && value.length() == 0) {
+                quoted = true;
+            } else {
+                value.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    private int read() throws IOException {
+        int c = next != -2 ? next : reader.read();
+        next = -2;
+        if (c == '\n' || (c == '\r' && peek() != '\n')) {
+            line++;
+        }
+        return c;
+    }
+
+    private int peek() throws IOException {
+        if (next == -2) {
+            next = reader.read();
+        }
+        return next;
+    }
+
+    /**
+     * A record of a CSV file, whose values are read by column name.
+     */
+    final class Record {
+
+        private final long line;
+
+        private final List<String> values;
+
+        private Record(long line, List<String> values) {
+            this.line = line;
+            this.values = Collections.unmodifiableList(values);
+        }
+
+        /**
+         * @return the line on which the record starts, the header being line 1.
+         */
+        long getLine() {
+            return line;
+        }
+
+        /**
+         * @param column the name of the column.
+         * @return the trimmed value, or {@code null} if the column is missing or the value is empty.
+         */
+        String get(String column) {
+            Integer index = columns.get(column);
+            if (index == null || index >= values.size()) {
+                return null;
+            }
+            String value = values.get(index).trim();
+            return value.isEmpty() ? null : value;
+        }
+    }
+}
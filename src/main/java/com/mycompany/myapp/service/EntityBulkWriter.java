@@ -0,0 +1,107 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.domain.AbstractVersionedEntity;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManager;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+/**
+ * Writes many entities of one type within the current transaction.
+ * <p>
+ * The persistence context is flushed and cleared every {@code flushSize} entities, so that Hibernate sends the
+ * statements in JDBC batches of {@code hibernate.jdbc.batch_size} while the memory held by the transaction stays bounded.
+ * This relies on pooled id generation: identity columns make Hibernate insert the entities one by one.
+ * <p>
+ * The updated entities are returned detached, so their lazy references which are served with them are initialized
+ * before the persistence context is cleared.
+ *
+ * @param <ENTITY> the type of the written entities.
+ */
+final class EntityBulkWriter<ENTITY extends AbstractVersionedEntity> {
+
+    private final EntityManager entityManager;
+
+    private final JpaRepository<ENTITY, Long> repository;
+
+    private final Function<ENTITY, Long> idGetter;
+
+    private final int flushSize;
+
+    private final Consumer<ENTITY> referencesInitializer;
+
+    EntityBulkWriter(EntityManager entityManager, JpaRepository<ENTITY, Long> repository, Function<ENTITY, Long> idGetter, int flushSize) {
+        this(entityManager, repository, idGetter, flushSize, entity -> {});
+    }
+
+    EntityBulkWriter(
+        EntityManager entityManager,
+        JpaRepository<ENTITY, Long> repository,
+        Function<ENTITY, Long> idGetter,
+        int flushSize,
+        Consumer<ENTITY> referencesInitializer
+    ) {
+        this.entityManager = entityManager;
+        this.repository = repository;
+        this.idGetter = idGetter;
+        this.flushSize = flushSize;
+        this.referencesInitializer = referencesInitializer;
+    }
+
+    /**
+     * Insert new entities.
+     *
+     * @param entities the entities to insert, without id.
+     * @return the inserted entities, detached.
+     */
+    List<ENTITY> createAll(List<ENTITY> entities) {
+        for (int i = 0; i < entities.size(); i++) {
+            entityManager.persist(entities.get(i));
+            if ((i + 1) % flushSize == 0) {
+                flushAndClear();
+            }
+        }
+        flushAndClear();
+        return entities;
+    }
+
+    /**
+     * Update existing entities.
+     *
+     * @param entities the entities to update, which all exist. The ones which hold a version only update that version.
+     * @return the updated entities, detached.
+     */
+    List<ENTITY> updateAll(List<ENTITY> entities) {
+        List<ENTITY> result = new ArrayList<>(entities.size());
+        for (int from = 0; from < entities.size(); from += flushSize) {
+            List<ENTITY> chunk = entities.subList(from, Math.min(from + flushSize, entities.size()));
+            // Load the whole chunk with one statement, so that merging does not select the entities one by one
+            Map<Long, ENTITY> existingEntities = repository
+                .findAllById(chunk.stream().map(idGetter).collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.toMap(idGetter, Function.identity()));
+            List<ENTITY> merged = new ArrayList<>(chunk.size());
+            for (ENTITY entity : chunk) {
+                if (entity.getVersion() == null) {
+                    // Hibernate merges an entity without version as a new one, so update the current version
+                    entity.setVersion(existingEntities.get(idGetter.apply(entity)).getVersion());
+                }
+                merged.add(entityManager.merge(entity));
+            }
+            // Initialized once the whole chunk is merged, so that the batch fetching of the references covers the chunk
+            merged.forEach(referencesInitializer);
+            result.addAll(merged);
+            flushAndClear();
+        }
+        return result;
+    }
+
+    private void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
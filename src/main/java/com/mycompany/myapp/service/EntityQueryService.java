@@ -0,0 +1,302 @@
+package com.mycompany.myapp.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import javax.persistence.metamodel.SingularAttribute;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import tech.jhipster.service.QueryService;
+
+/**
+ * Base class for the entity query services, adding the query shapes which are not available through
+ * {@link org.springframework.data.jpa.repository.JpaSpecificationExecutor} on top of the {@link Specification}s
+ * built by {@link QueryService}.
+ *
+ * @param <ENTITY> the type of the entity which is queried.
+ */
+public abstract class EntityQueryService<ENTITY> extends QueryService<ENTITY> {
+
+    protected final EntityManager entityManager;
+
+    private final Class<ENTITY> entityClass;
+
+    protected EntityQueryService(EntityManager entityManager, Class<ENTITY> entityClass) {
+        this.entityManager = entityManager;
+        this.entityClass = entityClass;
+    }
+
+    /**
+     * Return a {@link Specification} which fetches the given to-one association with the entities, in the same statement,
+     * instead of one more statement per entity when the association is read. Count queries are left as they are.
+     *
+     * @param association the to-one association to fetch.
+     * @param <ENTITY> the type of the entity which is queried.
+     * @return the specification, which adds no predicate.
+     */
+    protected static <ENTITY> Specification<ENTITY> fetch(SingularAttribute<? super ENTITY, ?> association) {
+        return (root, query, cb) -> {
+            Class<?> resultType = query.getResultType();
+            if (!Long.class.equals(resultType) && !long.class.equals(resultType)) {
+                root.fetch(association, JoinType.LEFT);
+            }
+            return null;
+        };
+    }
+
+    /**
+     * Return a {@link Slice} of entities which match the specification, ordered by id and starting right after the given id.
+     * <p>
+     * The position is expressed as a seek predicate on the id instead of an OFFSET, so every slice costs the same
+     * whatever its position, and no count query is issued: one more row than requested is read to know if there is a next slice.
+     *
+     * @param specification the specification which the entities should match.
+     * @param idAttribute the id attribute of the entity, used both for seeking and ordering.
+     * @param after the id of the last entity of the previous slice, or {@code null} for the first slice.
+     * @param size the maximum number of entities in the slice.
+     * @return the matching entities.
+     */
+    protected Slice<ENTITY> findSliceAfter(
+        Specification<ENTITY> specification,
+        SingularAttribute<? super ENTITY, Long> idAttribute,
+        Long after,
+        int size
+    ) {
+        Specification<ENTITY> seekSpecification = specification;
+        if (after != null) {
+            seekSpecification = specification.and((root, query, cb) -> cb.greaterThan(root.get(idAttribute), after));
+        }
+        List<ENTITY> content = createOrderedQuery(seekSpecification, idAttribute).setMaxResults(size + 1).getResultList();
+        boolean hasNext = content.size() > size;
+        if (hasNext) {
+            content = new ArrayList<>(content.subList(0, size));
+        }
+        return new SliceImpl<>(content, PageRequest.of(0, size, Sort.by(idAttribute.getName())), hasNext);
+    }
+
+    /**
+     * Stream the entities which match the specification, ordered by id, to the given consumer.
+     * <p>
+     * The rows are read through a forward-only database cursor, {@code fetchSize} at a time, and every entity is
+     * detached from the persistence context once consumed, so memory stays bounded whatever the number of rows.
+     * MySQL only honours a positive fetch size when cursor fetching is enabled for the whole connection, so there
+     * this statement alone streams its rows one at a time instead, and no other statement may be issued on the
+     * connection until the last entity is consumed.
+     * This must be called inside a transaction, which stays open until the last entity is consumed.
+     *
+     * @param specification the specification which the entities should match.
+     * @param idAttribute the id attribute of the entity, used for ordering.
+     * @param fetchSize the number of rows fetched from the database at once.
+     * @param consumer the consumer of the entities.
+     */
+    protected void streamAll(
+        Specification<ENTITY> specification,
+        SingularAttribute<? super ENTITY, Long> idAttribute,
+        int fetchSize,
+        Consumer<? super ENTITY> consumer
+    ) {
+        try (
+            Stream<ENTITY> stream = createOrderedQuery(specification, idAttribute)
+                .setHint(QueryHints.HINT_FETCH_SIZE, isMySql() ? Integer.MIN_VALUE : fetchSize)
+                .setHint(QueryHints.HINT_READONLY, true)
+                .getResultStream()
+        ) {
+            stream.forEach(entity -> {
+                consumer.accept(entity);
+                entityManager.detach(entity);
+            });
+        }
+    }
+
+    /**
+     * Return the requested fields of the entities which match the specification, ordered by id.
+     * <p>
+     * Only the columns of the requested fields are selected, and no entity is loaded in the persistence context.
+     *
+     * @param specification the specification which the entities should match.
+     * @param idAttribute the id attribute of the entity, used for ordering.
+     * @param fields the fields to select, as returned by {@link #selectFields(Map, List)}.
+     * @return one map per matching entity, from field name to value.
+     */
+    protected List<Map<String, Object>> findFields(
+        Specification<ENTITY> specification,
+        SingularAttribute<? super ENTITY, Long> idAttribute,
+        Map<String, ProjectedField<ENTITY>> fields
+    ) {
+        return toRows(createOrderedTupleQuery(specification, idAttribute, fields).getResultList(), fields);
+    }
+
+    /**
+     * Return a {@link Slice} of the requested fields of the entities which match the specification, ordered by id and
+     * starting right after the given id, as {@link #findSliceAfter} does for entities.
+     *
+     * @param specification the specification which the entities should match.
+     * @param idAttribute the id attribute of the entity, used both for seeking and ordering.
+     * @param fields the fields to select, as returned by {@link #selectFields(Map, List)}.
+     * @param after the id of the last entity of the previous slice, or {@code null} for the first slice.
+     * @param size the maximum number of entities in the slice.
+     * @return one map per matching entity, from field name to value.
+     */
+    protected Slice<Map<String, Object>> findFieldsAfter(
+        Specification<ENTITY> specification,
+        SingularAttribute<? super ENTITY, Long> idAttribute,
+        Map<String, ProjectedField<ENTITY>> fields,
+        Long after,
+        int size
+    ) {
+        Specification<ENTITY> seekSpecification = specification;
+        if (after != null) {
+            seekSpecification = specification.and((root, query, cb) -> cb.greaterThan(root.get(idAttribute), after));
+        }
+        List<Map<String, Object>> content = toRows(
+            createOrderedTupleQuery(seekSpecification, idAttribute, fields).setMaxResults(size + 1).getResultList(),
+            fields
+        );
+        boolean hasNext = content.size() > size;
+        if (hasNext) {
+            content = new ArrayList<>(content.subList(0, size));
+        }
+        return new SliceImpl<>(content, PageRequest.of(0, size, Sort.by(idAttribute.getName())), hasNext);
+    }
+
+    /**
+     * Resolve the names of the requested fields. The {@code id} field is always selected first, so every row can be identified.
+     *
+     * @param selectableFields the fields which can be selected, by name.
+     * @param names the names of the requested fields.
+     * @return the fields to select, in order.
+     * @throws IllegalArgumentException if a requested field is not selectable.
+     */
+    protected Map<String, ProjectedField<ENTITY>> selectFields(
+        Map<String, ProjectedField<ENTITY>> selectableFields,
+        List<String> names
+    ) {
+        Map<String, ProjectedField<ENTITY>> fields = new LinkedHashMap<>();
+        fields.put("id", selectableFields.get("id"));
+        for (String name : names) {
+            ProjectedField<ENTITY> field = selectableFields.get(name);
+            if (field == null) {
+                throw new IllegalArgumentException("Unknown field: " + name);
+            }
+            fields.put(name, field);
+        }
+        return fields;
+    }
+
+    private TypedQuery<Tuple> createOrderedTupleQuery(
+        Specification<ENTITY> specification,
+        SingularAttribute<? super ENTITY, Long> idAttribute,
+        Map<String, ProjectedField<ENTITY>> fields
+    ) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<ENTITY> root = query.from(entityClass);
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        List<Selection<?>> selections = fields
+            .entrySet()
+            .stream()
+            .map(field -> field.getValue().expression.apply(root).alias(field.getKey()))
+            .collect(Collectors.toList());
+        query.multiselect(selections).orderBy(cb.asc(root.get(idAttribute)));
+        return entityManager.createQuery(query);
+    }
+
+    private List<Map<String, Object>> toRows(List<Tuple> tuples, Map<String, ProjectedField<ENTITY>> fields) {
+        List<Map<String, Object>> rows = new ArrayList<>(tuples.size());
+        for (Tuple tuple : tuples) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            fields.forEach((name, field) -> {
+                Object value = tuple.get(name);
+                row.put(name, field.reference && value != null ? Collections.singletonMap("id", value) : value);
+            });
+            // The rows are immutable, so that the cached slices can be shared
+            rows.add(Collections.unmodifiableMap(row));
+        }
+        return rows;
+    }
+
+    private TypedQuery<ENTITY> createOrderedQuery(
+        Specification<ENTITY> specification,
+        SingularAttribute<? super ENTITY, Long> idAttribute
+    ) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ENTITY> query = cb.createQuery(entityClass);
+        Root<ENTITY> root = query.from(entityClass);
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(root).orderBy(cb.asc(root.get(idAttribute)));
+        return entityManager.createQuery(query);
+    }
+
+    private boolean isMySql() {
+        Dialect dialect = entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+        return dialect instanceof MySQLDialect;
+    }
+
+    /**
+     * A field which can be selected by a projection.
+     *
+     * @param <ENTITY> the type of the entity which is queried.
+     */
+    protected static final class ProjectedField<ENTITY> {
+
+        private final Function<Root<ENTITY>, Expression<?>> expression;
+
+        private final boolean reference;
+
+        private ProjectedField(Function<Root<ENTITY>, Expression<?>> expression, boolean reference) {
+            this.expression = expression;
+            this.reference = reference;
+        }
+
+        /**
+         * A field holding the value of a column.
+         *
+         * @param expression the function giving the column from the query root.
+         * @param <ENTITY> the type of the entity which is queried.
+         * @return the field.
+         */
+        public static <ENTITY> ProjectedField<ENTITY> column(Function<Root<ENTITY>, Expression<?>> expression) {
+            return new ProjectedField<>(expression, false);
+        }
+
+        /**
+         * A field holding an associated entity, rendered as a reference {@code {"id": ...}}.
+         *
+         * @param expression the function giving the id of the associated entity from the query root.
+         * @param <ENTITY> the type of the entity which is queried.
+         * @return the field.
+         */
+        public static <ENTITY> ProjectedField<ENTITY> reference(Function<Root<ENTITY>, Expression<?>> expression) {
+            return new ProjectedField<>(expression, true);
+        }
+    }
+}
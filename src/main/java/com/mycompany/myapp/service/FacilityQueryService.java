@@ -1,36 +1,75 @@
 package com.mycompany.myapp.service;
 
+import com.mycompany.myapp.config.ApplicationProperties;
 import com.mycompany.myapp.domain.*; // for static metamodels
 import com.mycompany.myapp.domain.Facility;
 import com.mycompany.myapp.repository.FacilityRepository;
 import com.mycompany.myapp.service.criteria.FacilityCriteria;
+import com.mycompany.myapp.service.dto.FacilityDTO;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import javax.persistence.EntityManager;
 import javax.persistence.criteria.JoinType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.annotation.CacheConfig;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import tech.jhipster.service.QueryService;
 
 /**
  * Service for executing complex queries for {@link Facility} entities in the database.
  * The main input is a {@link FacilityCriteria} which gets converted to {@link Specification},
  * in a way that all the filters must apply.
- * It returns a {@link List} of {@link Facility} or a {@link Page} of {@link Facility} which fulfills the criteria.
+ * It returns a {@link List}, a {@link Page} or a {@link Slice} of {@link Facility} which fulfills the criteria.
+ * The keyset slices, whose size is bounded, are cached in {@link #FACILITIES_BY_CRITERIA_CACHE} as immutable
+ * snapshots until an entity they may contain is written. The other results are not cached, as they may hold the
+ * whole table.
  */
 @Service
 @Transactional(readOnly = true)
-public class FacilityQueryService extends QueryService<Facility> {
+@CacheConfig(
+    cacheNames = FacilityQueryService.FACILITIES_BY_CRITERIA_CACHE,
+    cacheResolver = "queryCacheResolver",
+    keyGenerator = "queryKeyGenerator"
+)
+public class FacilityQueryService extends EntityQueryService<Facility> {
+
+    public static final String FACILITIES_BY_CRITERIA_CACHE = "facilitiesByCriteria";
+
+    private static final Map<String, ProjectedField<Facility>> SELECTABLE_FIELDS = Map.of(
+        "id",
+        ProjectedField.column(root -> root.get(Facility_.id)),
+        "aC",
+        ProjectedField.column(root -> root.get(Facility_.aC)),
+        "parking",
+        ProjectedField.column(root -> root.get(Facility_.parking)),
+        "wifi",
+        ProjectedField.column(root -> root.get(Facility_.wifi)),
+        "room",
+        ProjectedField.reference(root -> root.join(Facility_.room, JoinType.LEFT).get(Room_.id))
+    );
 
     private final Logger log = LoggerFactory.getLogger(FacilityQueryService.class);
 
     private final FacilityRepository facilityRepository;
 
-    public FacilityQueryService(FacilityRepository facilityRepository) {
+    private final ApplicationProperties applicationProperties;
+
+    public FacilityQueryService(
+        FacilityRepository facilityRepository,
+        EntityManager entityManager,
+        ApplicationProperties applicationProperties
+    ) {
+        super(entityManager, Facility.class);
         this.facilityRepository = facilityRepository;
+        this.applicationProperties = applicationProperties;
     }
 
     /**
@@ -41,7 +80,7 @@ public class FacilityQueryService extends QueryService<Facility> {
     @Transactional(readOnly = true)
     public List<Facility> findByCriteria(FacilityCriteria criteria) {
         log.debug("find by criteria : {}", criteria);
-        final Specification<Facility> specification = createSpecification(criteria);
+        final Specification<Facility> specification = createSpecification(criteria).and(fetch(Facility_.room));
         return facilityRepository.findAll(specification);
     }
 
@@ -54,10 +93,74 @@ public class FacilityQueryService extends QueryService<Facility> {
     @Transactional(readOnly = true)
     public Page<Facility> findByCriteria(FacilityCriteria criteria, Pageable page) {
         log.debug("find by criteria : {}, page: {}", criteria, page);
-        final Specification<Facility> specification = createSpecification(criteria);
+        final Specification<Facility> specification = createSpecification(criteria).and(fetch(Facility_.room));
         return facilityRepository.findAll(specification, page);
     }
 
+    /**
+     * Return a {@link Slice} of {@link Facility} which matches the criteria from the database, using keyset pagination.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param after The id of the last entity of the previous slice, or {@code null} for the first slice.
+     * @param size The maximum number of entities in the slice.
+     * @return the snapshots of the matching entities, ordered by id.
+     */
+    @Transactional(readOnly = true)
+    @Cacheable
+    public Slice<FacilityDTO> findByCriteria(FacilityCriteria criteria, Long after, int size) {
+        log.debug("find by criteria : {}, after: {}, size: {}", criteria, after, size);
+        final Specification<Facility> specification = createSpecification(criteria).and(fetch(Facility_.room));
+        return findSliceAfter(specification, Facility_.id, after, size).map(FacilityDTO::new);
+    }
+
+    /**
+     * Return the requested fields of the {@link Facility} which match the criteria from the database.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param fields The names of the fields to return, among {@link #getSelectableFields()}; the id is always returned.
+     * @return one map per matching entity, from field name to value, ordered by id.
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> findFieldsByCriteria(FacilityCriteria criteria, List<String> fields) {
+        log.debug("find fields by criteria : {}, fields: {}", criteria, fields);
+        final Specification<Facility> specification = createSpecification(criteria);
+        return findFields(specification, Facility_.id, selectFields(SELECTABLE_FIELDS, fields));
+    }
+
+    /**
+     * Return a {@link Slice} of the requested fields of the {@link Facility} which match the criteria, using keyset pagination.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param fields The names of the fields to return, among {@link #getSelectableFields()}; the id is always returned.
+     * @param after The id of the last entity of the previous slice, or {@code null} for the first slice.
+     * @param size The maximum number of entities in the slice.
+     * @return one map per matching entity, from field name to value, ordered by id.
+     */
+    @Transactional(readOnly = true)
+    @Cacheable
+    public Slice<Map<String, Object>> findFieldsByCriteria(FacilityCriteria criteria, List<String> fields, Long after, int size) {
+        log.debug("find fields by criteria : {}, fields: {}, after: {}, size: {}", criteria, fields, after, size);
+        final Specification<Facility> specification = createSpecification(criteria);
+        return findFieldsAfter(specification, Facility_.id, selectFields(SELECTABLE_FIELDS, fields), after, size);
+    }
+
+    /**
+     * Return the names of the fields which can be requested from {@link #findFieldsByCriteria(FacilityCriteria, List)}.
+     * @return the names of the selectable fields.
+     */
+    public Set<String> getSelectableFields() {
+        return SELECTABLE_FIELDS.keySet();
+    }
+
+    /**
+     * Stream all the {@link Facility} which match the criteria from the database to the given consumer, ordered by id.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param consumer The consumer of the entities, called once per entity while the database cursor is open.
+     */
+    @Transactional(readOnly = true)
+    public void exportByCriteria(FacilityCriteria criteria, Consumer<? super Facility> consumer) {
+        log.debug("export by criteria : {}", criteria);
+        final Specification<Facility> specification = createSpecification(criteria).and(fetch(Facility_.room));
+        streamAll(specification, Facility_.id, applicationProperties.getExport().getFetchSize(), consumer);
+    }
+
     /**
      * Return the number of matching entities in the database.
      * @param criteria The object which holds all the filters, which the entities should match.
@@ -1,27 +1,50 @@
 package com.mycompany.myapp.service;
 
+import com.mycompany.myapp.config.ApplicationProperties;
 import com.mycompany.myapp.domain.Facility;
 import com.mycompany.myapp.repository.FacilityRepository;
 import java.util.List;
 import java.util.Optional;
+import javax.persistence.EntityManager;
+import org.hibernate.Hibernate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.annotation.CacheConfig;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Service Implementation for managing {@link Facility}.
+ * <p>
+ * Every write evicts the criteria query caches which may hold the written entity.
  */
 @Service
 @Transactional
+@CacheConfig(cacheNames = FacilityQueryService.FACILITIES_BY_CRITERIA_CACHE, cacheResolver = "queryCacheResolver")
 public class FacilityService {
 
     private final Logger log = LoggerFactory.getLogger(FacilityService.class);
 
     private final FacilityRepository facilityRepository;
 
-    public FacilityService(FacilityRepository facilityRepository) {
+    private final EntityBulkWriter<Facility> bulkWriter;
+
+    public FacilityService(
+        FacilityRepository facilityRepository,
+        EntityManager entityManager,
+        ApplicationProperties applicationProperties
+    ) {
         this.facilityRepository = facilityRepository;
+        this.bulkWriter =
+            new EntityBulkWriter<>(
+                entityManager,
+                facilityRepository,
+                Facility::getId,
+                applicationProperties.getBulk().getFlushSize(),
+                FacilityService::initializeRoom
+            );
     }
 
     /**
@@ -30,6 +53,7 @@ public class FacilityService {
      * @param facility the entity to save.
      * @return the persisted entity.
      */
+    @CacheEvict(allEntries = true)
     public Facility save(Facility facility) {
         log.debug("Request to save Facility : {}", facility);
         return facilityRepository.save(facility);
@@ -41,23 +65,53 @@ public class FacilityService {
      * @param facility the entity to save.
      * @return the persisted entity.
      */
+    @CacheEvict(allEntries = true)
     public Facility update(Facility facility) {
         log.debug("Request to save Facility : {}", facility);
-        return facilityRepository.save(facility);
+        return initializeRoom(facilityRepository.save(facility));
     }
 
     /**
-     * Partially update a facility.
+     * Save new facilities in bulk, with batched inserts.
+     *
+     * @param facilities the entities to save, without id.
+     * @return the persisted entities.
+     */
+    @CacheEvict(allEntries = true)
+    public List<Facility> saveAll(List<Facility> facilities) {
+        log.debug("Request to save {} Facilities", facilities.size());
+        return bulkWriter.createAll(facilities);
+    }
+
+    /**
+     * Update existing facilities in bulk, with batched updates.
+     *
+     * @param facilities the entities to save, which all exist.
+     * @return the persisted entities.
+     */
+    @CacheEvict(allEntries = true)
+    public List<Facility> updateAll(List<Facility> facilities) {
+        log.debug("Request to update {} Facilities", facilities.size());
+        return bulkWriter.updateAll(facilities);
+    }
+
+    /**
+     * Partially update a facility. When the facility holds a version, the update only applies to that version.
      *
      * @param facility the entity to update partially.
      * @return the persisted entity.
+     * @throws ObjectOptimisticLockingFailureException if the facility has been updated since its version.
      */
+    @CacheEvict(allEntries = true)
     public Optional<Facility> partialUpdate(Facility facility) {
         log.debug("Request to partially update Facility : {}", facility);
 
         return facilityRepository
-            .findById(facility.getId())
+            .findOneWithEagerRelationships(facility.getId())
             .map(existingFacility -> {
+                if (facility.getVersion() != null && !facility.getVersion().equals(existingFacility.getVersion())) {
+                    throw new ObjectOptimisticLockingFailureException(Facility.class, facility.getId());
+                }
                 if (facility.getaC() != null) {
                     existingFacility.setaC(facility.getaC());
                 }
@@ -81,7 +135,7 @@ public class FacilityService {
     @Transactional(readOnly = true)
     public List<Facility> findAll() {
         log.debug("Request to get all Facilities");
-        return facilityRepository.findAll();
+        return facilityRepository.findAllWithEagerRelationships();
     }
 
     /**
@@ -93,7 +147,7 @@ public class FacilityService {
     @Transactional(readOnly = true)
     public Optional<Facility> findOne(Long id) {
         log.debug("Request to get Facility : {}", id);
-        return facilityRepository.findById(id);
+        return facilityRepository.findOneWithEagerRelationships(id);
     }
 
     /**
@@ -101,8 +155,17 @@ public class FacilityService {
      *
      * @param id the id of the entity.
      */
+    @CacheEvict(allEntries = true)
     public void delete(Long id) {
         log.debug("Request to delete Facility : {}", id);
         facilityRepository.deleteById(id);
     }
+
+    /**
+     * Initialize the lazy room of a written facility, which is served with it once detached.
+     */
+    private static Facility initializeRoom(Facility facility) {
+        Hibernate.initialize(facility.getRoom());
+        return facility;
+    }
 }
@@ -0,0 +1,192 @@
+package com.mycompany.myapp.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A CSV import running in the background, see {@link ImportService}.
+ * <p>
+ * The job is updated by the thread running the import while clients read its progress, so its state is only changed
+ * through thread safe fields.
+ */
+public class ImportJob {
+
+    /**
+     * The entities an import can create.
+     */
+    public enum Type {
+        RESIDENTS,
+        ROOMS,
+    }
+
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        CANCELLED,
+        FAILED,
+    }
+
+    private final String id = UUID.randomUUID().toString();
+
+    private final Type type;
+
+    private final String filename;
+
+    private final Instant createdDate = Instant.now();
+
+    private final int maxErrors;
+
+    private volatile Status status = Status.QUEUED;
+
+    private volatile Instant finishedDate;
+
+    private volatile String message;
+
+    private volatile boolean cancelRequested;
+
+    private final AtomicLong processedRows = new AtomicLong();
+
+    private final AtomicLong importedRows = new AtomicLong();
+
+    private final AtomicLong failedRows = new AtomicLong();
+
+    private final List<RowError> errors = new ArrayList<>();
+
+    ImportJob(Type type, String filename, int maxErrors) {
+        this.type = type;
+        this.filename = filename;
+        this.maxErrors = maxErrors;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getFilename() {
+        return filename;
+    }
+
+    public Instant getCreatedDate() {
+        return createdDate;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public Instant getFinishedDate() {
+        return finishedDate;
+    }
+
+    /**
+     * @return the reason why the import failed, if it did.
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    public boolean isCancelRequested() {
+        return cancelRequested;
+    }
+
+    /**
+     * @return the number of data rows read so far.
+     */
+    public long getProcessedRows() {
+        return processedRows.get();
+    }
+
+    /**
+     * @return the number of rows written to the database so far.
+     */
+    public long getImportedRows() {
+        return importedRows.get();
+    }
+
+    /**
+     * @return the number of rows which were rejected, which may be more than the number of reported errors.
+     */
+    public long getFailedRows() {
+        return failedRows.get();
+    }
+
+    /**
+     * @return the first {@code application.imports.max-errors} row errors, ordered by line.
+     */
+    public List<RowError> getErrors() {
+        synchronized (errors) {
+            List<RowError> result = new ArrayList<>(errors);
+            result.sort((first, second) -> Long.compare(first.getLine(), second.getLine()));
+            return result;
+        }
+    }
+
+    public boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.CANCELLED || status == Status.FAILED;
+    }
+
+    void cancel() {
+        cancelRequested = true;
+    }
+
+    void start() {
+        status = Status.RUNNING;
+    }
+
+    void finish(Status status, String message) {
+        this.message = message;
+        this.finishedDate = Instant.now();
+        this.status = status;
+    }
+
+    void rowProcessed() {
+        processedRows.incrementAndGet();
+    }
+
+    void rowsImported(int count) {
+        importedRows.addAndGet(count);
+    }
+
+    void rowFailed(long line, String message) {
+        failedRows.incrementAndGet();
+        synchronized (errors) {
+            if (errors.size() < maxErrors) {
+                errors.add(new RowError(line, message));
+            }
+        }
+    }
+
+    /**
+     * A rejected row of an import.
+     */
+    public static class RowError {
+
+        private final long line;
+
+        private final String message;
+
+        RowError(long line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+
+        /**
+         * @return the line of the row in the imported file, the header being line 1.
+         */
+        public long getLine() {
+            return line;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+}
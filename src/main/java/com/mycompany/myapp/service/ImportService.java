@@ -0,0 +1,338 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.Resident;
+import com.mycompany.myapp.domain.Room;
+import com.mycompany.myapp.repository.RoomRepository;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service for importing residents and rooms from CSV files.
+ * <p>
+ * An upload is copied to a temporary file, then imported on the {@code taskExecutor}: the file is read one record at a
+ * time, each row is validated, and the valid rows are written in chunks of {@code application.imports.chunk-size}, one
+ * transaction per chunk. When a chunk cannot be written, its rows are written one by one to report the faulty ones.
+ * <p>
+ * Jobs are only kept in memory, by the instance which runs them, until {@code application.imports.retention} after
+ * they finish.
+ */
+@Service
+public class ImportService {
+
+    private final Logger log = LoggerFactory.getLogger(ImportService.class);
+
+    private final ResidentService residentService;
+
+    private final RoomService roomService;
+
+    private final RoomRepository roomRepository;
+
+    private final Validator validator;
+
+    private final Executor taskExecutor;
+
+    private final ApplicationProperties.Imports imports;
+
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    public ImportService(
+        ResidentService residentService,
+        RoomService roomService,
+        RoomRepository roomRepository,
+        Validator validator,
+        @Qualifier("taskExecutor") Executor taskExecutor,
+        ApplicationProperties applicationProperties
+    ) {
+        this.residentService = residentService;
+        this.roomService = roomService;
+        this.roomRepository = roomRepository;
+        this.validator = validator;
+        this.taskExecutor = taskExecutor;
+        this.imports = applicationProperties.getImports();
+    }
+
+    /**
+     * Start importing a CSV file in the background.
+     *
+     * @param type the type of the imported entities.
+     * @param filename the name of the uploaded file.
+     * @param content the content of the file.
+     * @return the queued job.
+     * @throws IOException if the content cannot be copied to a temporary file.
+     */
+    public ImportJob startImport(ImportJob.Type type, String filename, InputStream content) throws IOException {
+        Path file = Files.createTempFile("import-", ".csv");
+        ImportJob job = new ImportJob(type, filename, imports.getMaxErrors());
+        try {
+            Files.copy(content, file, StandardCopyOption.REPLACE_EXISTING);
+            jobs.put(job.getId(), job);
+            taskExecutor.execute(() -> run(job, file));
+        } catch (IOException | RuntimeException e) {
+            jobs.remove(job.getId());
+            deleteFile(file);
+            throw e;
+        }
+        log.debug("Queued import {} of {} from {}", job.getId(), type, filename);
+        return job;
+    }
+
+    /**
+     * Get an import job.
+     *
+     * @param id the id of the job.
+     * @return the job.
+     */
+    public Optional<ImportJob> findJob(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    /**
+     * Cancel an import job. The rows already written are kept, the job stops before writing the next chunk.
+     *
+     * @param id the id of the job.
+     * @return the job.
+     */
+    public Optional<ImportJob> cancel(String id) {
+        log.debug("Request to cancel import {}", id);
+        return findJob(id).map(job -> {
+            job.cancel();
+            return job;
+        });
+    }
+
+    /**
+     * Forget the jobs which finished more than {@code application.imports.retention} ago.
+     */
+    @Scheduled(fixedDelay = 1, timeUnit = TimeUnit.HOURS)
+    public void removeExpiredJobs() {
+        Instant expiry = Instant.now().minus(imports.getRetention());
+        jobs.values().removeIf(job -> job.isFinished() && job.getFinishedDate().isBefore(expiry));
+    }
+
+    void run(ImportJob job, Path file) {
+        log.debug("Starting import {}", job.getId());
+        job.start();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            CsvReader csv = new CsvReader(reader);
+            if (job.getType() == ImportJob.Type.ROOMS) {
+                importRows(job, csv, new RoomRowImporter());
+            } else {
+                importRows(job, csv, new ResidentRowImporter());
+            }
+            job.finish(job.isCancelRequested() ? ImportJob.Status.CANCELLED : ImportJob.Status.COMPLETED, null);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Import {} failed: {}", job.getId(), e.getMessage());
+            job.finish(ImportJob.Status.FAILED, e.getMessage());
+        } finally {
+            deleteFile(file);
+        }
+        log.debug("Finished import {} with {} imported and {} failed rows", job.getId(), job.getImportedRows(), job.getFailedRows());
+    }
+
+    private <T> void importRows(ImportJob job, CsvReader csv, RowImporter<T> importer) throws IOException {
+        for (String column : importer.requiredColumns()) {
+            if (!csv.hasColumn(column)) {
+                throw new IllegalArgumentException("Missing column: " + column);
+            }
+        }
+        List<Long> lines = new ArrayList<>();
+        List<T> entities = new ArrayList<>();
+        CsvReader.Record record;
+        while (!job.isCancelRequested() && (record = csv.next()) != null) {
+            job.rowProcessed();
+            T entity;
+            try {
+                entity = importer.map(record);
+            } catch (IllegalArgumentException e) {
+                job.rowFailed(record.getLine(), e.getMessage());
+                continue;
+            }
+            Set<ConstraintViolation<T>> violations = validator.validate(entity);
+            if (!violations.isEmpty()) {
+                job.rowFailed(
+                    record.getLine(),
+                    violations.stream().map(v -> v.getPropertyPath() + ": " + v.getMessage()).sorted().collect(Collectors.joining(", "))
+                );
+                continue;
+            }
+            lines.add(record.getLine());
+            entities.add(entity);
+            if (entities.size() == imports.getChunkSize()) {
+                writeChunk(job, importer, lines, entities);
+                lines = new ArrayList<>();
+                entities = new ArrayList<>();
+            }
+        }
+        if (!job.isCancelRequested()) {
+            writeChunk(job, importer, lines, entities);
+        }
+    }
+
+    private <T> void writeChunk(ImportJob job, RowImporter<T> importer, List<Long> lines, List<T> entities) {
+        if (entities.isEmpty()) {
+            return;
+        }
+        try {
+            importer.saveAll(entities);
+            job.rowsImported(entities.size());
+        } catch (RuntimeException e) {
+            log.debug("Import {} could not write a chunk, retrying it row by row: {}", job.getId(), e.getMessage());
+            for (int i = 0; i < entities.size(); i++) {
+                try {
+                    importer.save(entities.get(i));
+                    job.rowsImported(1);
+                } catch (RuntimeException rowException) {
+                    job.rowFailed(lines.get(i), NestedExceptionUtils.getMostSpecificCause(rowException).getMessage());
+                }
+            }
+        }
+    }
+
+    private void deleteFile(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete import file {}", file, e);
+        }
+    }
+
+    private Map<String, Long> findRoomIdsByRoomno() {
+        Map<String, Long> roomIds = new HashMap<>();
+        for (Object[] room : roomRepository.findAllRoomnosAndIds()) {
+            roomIds.put((String) room[0], (Long) room[1]);
+        }
+        return roomIds;
+    }
+
+    /**
+     * Maps the rows of an import to entities, and writes them.
+     *
+     * @param <T> the type of the imported entities.
+     */
+    private interface RowImporter<T> {
+        List<String> requiredColumns();
+
+        /**
+         * @throws IllegalArgumentException if the row cannot be mapped, with a message for the error report.
+         */
+        T map(CsvReader.Record record);
+
+        void saveAll(List<T> entities);
+
+        /**
+         * Write an entity of a chunk which could not be written at once, and which may already have been given an id and a version.
+         */
+        void save(T entity);
+    }
+
+    private final class ResidentRowImporter implements RowImporter<Resident> {
+
+        private final Map<String, Long> roomIds = findRoomIdsByRoomno();
+
+        private final Set<String> emails = new HashSet<>();
+
+        @Override
+        public List<String> requiredColumns() {
+            return List.of("email");
+        }
+
+        @Override
+        public Resident map(CsvReader.Record record) {
+            Resident resident = new Resident()
+                .firstname(record.get("firstname"))
+                .lastname(record.get("lastname"))
+                .email(record.get("email"))
+                .phonenumber(record.get("phonenumber"));
+            if (resident.getEmail() != null && !emails.add(resident.getEmail())) {
+                throw new IllegalArgumentException("email: already used by a previous row");
+            }
+            String roomno = record.get("room");
+            if (roomno != null) {
+                Long roomId = roomIds.get(roomno);
+                if (roomId == null) {
+                    throw new IllegalArgumentException("room: unknown room " + roomno);
+                }
+                resident.setRoom(new Room().id(roomId));
+            }
+            return resident;
+        }
+
+        @Override
+        public void saveAll(List<Resident> residents) {
+            residentService.saveAll(residents);
+        }
+
+        @Override
+        public void save(Resident resident) {
+            resident.setVersion(null);
+            residentService.save(resident.id(null));
+        }
+    }
+
+    private final class RoomRowImporter implements RowImporter<Room> {
+
+        private final Set<String> roomnos = new HashSet<>(findRoomIdsByRoomno().keySet());
+
+        @Override
+        public List<String> requiredColumns() {
+            return List.of("roomno");
+        }
+
+        @Override
+        public Room map(CsvReader.Record record) {
+            Room room = new Room().roomno(record.get("roomno")).floor(parseInteger("floor", record.get("floor"))).type(record.get("type"));
+            if (room.getRoomno() != null && !roomnos.add(room.getRoomno())) {
+                throw new IllegalArgumentException("roomno: room " + room.getRoomno() + " already exists");
+            }
+            return room;
+        }
+
+        @Override
+        public void saveAll(List<Room> rooms) {
+            roomService.saveAll(rooms);
+        }
+
+        @Override
+        public void save(Room room) {
+            room.setVersion(null);
+            roomService.save(room.id(null));
+        }
+
+        private Integer parseInteger(String column, String value) {
+            if (value == null) {
+                return null;
+            }
+            try {
+                return Integer.valueOf(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(column + ": not a number: " + value);
+            }
+        }
+    }
+}
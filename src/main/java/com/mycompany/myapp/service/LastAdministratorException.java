@@ -0,0 +1,10 @@
+package com.mycompany.myapp.service;
+
+public class LastAdministratorException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public LastAdministratorException() {
+        super("The last administrators cannot lose their authority");
+    }
+}
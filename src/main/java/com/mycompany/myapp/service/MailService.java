@@ -2,6 +2,8 @@ package com.mycompany.myapp.service;
 
 import com.mycompany.myapp.domain.User;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
 import javax.mail.MessagingException;
 import javax.mail.internet.MimeMessage;
@@ -9,6 +11,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.MessageSource;
 import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.scheduling.annotation.Async;
@@ -62,21 +65,26 @@ public class MailService {
             content
         );
 
-        // Prepare message using a Spring helper
-        MimeMessage mimeMessage = javaMailSender.createMimeMessage();
         try {
-            MimeMessageHelper message = new MimeMessageHelper(mimeMessage, isMultipart, StandardCharsets.UTF_8.name());
-            message.setTo(to);
-            message.setFrom(jHipsterProperties.getMail().getFrom());
-            message.setSubject(subject);
-            message.setText(content, isHtml);
-            javaMailSender.send(mimeMessage);
+            javaMailSender.send(createMimeMessage(to, subject, content, isMultipart, isHtml));
             log.debug("Sent email to User '{}'", to);
         } catch (MailException | MessagingException e) {
             log.warn("Email could not be sent to user '{}'", to, e);
         }
     }
 
+    private MimeMessage createMimeMessage(String to, String subject, String content, boolean isMultipart, boolean isHtml)
+        throws MessagingException {
+        // Prepare message using a Spring helper
+        MimeMessage mimeMessage = javaMailSender.createMimeMessage();
+        MimeMessageHelper message = new MimeMessageHelper(mimeMessage, isMultipart, StandardCharsets.UTF_8.name());
+        message.setTo(to);
+        message.setFrom(jHipsterProperties.getMail().getFrom());
+        message.setSubject(subject);
+        message.setText(content, isHtml);
+        return mimeMessage;
+    }
+
     @Async
     public void sendEmailFromTemplate(User user, String templateName, String titleKey) {
         if (user.getEmail() == null) {
@@ -104,6 +112,46 @@ public class MailService {
         sendEmailFromTemplate(user, "mail/creationEmail", "email.activation.title");
     }
 
+    /**
+     * Send the creation emails of users created in bulk, from a single asynchronous task and over a single connection
+     * to the mail server.
+     *
+     * @param users the created users.
+     */
+    @Async
+    public void sendCreationEmails(List<User> users) {
+        log.debug("Sending creation emails to {} users", users.size());
+        List<MimeMessage> messages = new ArrayList<>(users.size());
+        for (User user : users) {
+            if (user.getEmail() == null) {
+                log.debug("Email doesn't exist for user '{}'", user.getLogin());
+                continue;
+            }
+            Locale locale = Locale.forLanguageTag(user.getLangKey());
+            Context context = new Context(locale);
+            context.setVariable(USER, user);
+            context.setVariable(BASE_URL, jHipsterProperties.getMail().getBaseUrl());
+            String content = templateEngine.process("mail/creationEmail", context);
+            String subject = messageSource.getMessage("email.activation.title", null, locale);
+            try {
+                messages.add(createMimeMessage(user.getEmail(), subject, content, false, true));
+            } catch (MessagingException e) {
+                log.warn("Email could not be sent to user '{}'", user.getEmail(), e);
+            }
+        }
+        if (messages.isEmpty()) {
+            return;
+        }
+        try {
+            javaMailSender.send(messages.toArray(new MimeMessage[0]));
+            log.debug("Sent {} creation emails", messages.size());
+        } catch (MailSendException e) {
+            log.warn("{} of {} creation emails could not be sent", e.getFailedMessages().size(), messages.size(), e);
+        } catch (MailException e) {
+            log.warn("{} creation emails could not be sent", messages.size(), e);
+        }
+    }
+
     @Async
     public void sendPasswordResetMail(User user) {
         log.debug("Sending password reset email to '{}'", user.getEmail());
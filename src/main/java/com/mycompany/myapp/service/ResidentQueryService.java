@@ -1,36 +1,77 @@
 package com.mycompany.myapp.service;
 
+import com.mycompany.myapp.config.ApplicationProperties;
 import com.mycompany.myapp.domain.*; // for static metamodels
 import com.mycompany.myapp.domain.Resident;
 import com.mycompany.myapp.repository.ResidentRepository;
 import com.mycompany.myapp.service.criteria.ResidentCriteria;
+import com.mycompany.myapp.service.dto.ResidentDTO;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import javax.persistence.EntityManager;
 import javax.persistence.criteria.JoinType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.annotation.CacheConfig;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import tech.jhipster.service.QueryService;
 
 /**
  * Service for executing complex queries for {@link Resident} entities in the database.
  * The main input is a {@link ResidentCriteria} which gets converted to {@link Specification},
  * in a way that all the filters must apply.
- * It returns a {@link List} of {@link Resident} or a {@link Page} of {@link Resident} which fulfills the criteria.
+ * It returns a {@link List}, a {@link Page} or a {@link Slice} of {@link Resident} which fulfills the criteria.
+ * The keyset slices, whose size is bounded, are cached in {@link #RESIDENTS_BY_CRITERIA_CACHE} as immutable
+ * snapshots until an entity they may contain is written. The other results are not cached, as they may hold the
+ * whole table.
  */
 @Service
 @Transactional(readOnly = true)
-public class ResidentQueryService extends QueryService<Resident> {
+@CacheConfig(
+    cacheNames = ResidentQueryService.RESIDENTS_BY_CRITERIA_CACHE,
+    cacheResolver = "queryCacheResolver",
+    keyGenerator = "queryKeyGenerator"
+)
+public class ResidentQueryService extends EntityQueryService<Resident> {
+
+    public static final String RESIDENTS_BY_CRITERIA_CACHE = "residentsByCriteria";
+
+    private static final Map<String, ProjectedField<Resident>> SELECTABLE_FIELDS = Map.of(
+        "id",
+        ProjectedField.column(root -> root.get(Resident_.id)),
+        "firstname",
+        ProjectedField.column(root -> root.get(Resident_.firstname)),
+        "lastname",
+        ProjectedField.column(root -> root.get(Resident_.lastname)),
+        "email",
+        ProjectedField.column(root -> root.get(Resident_.email)),
+        "phonenumber",
+        ProjectedField.column(root -> root.get(Resident_.phonenumber)),
+        "room",
+        ProjectedField.reference(root -> root.join(Resident_.room, JoinType.LEFT).get(Room_.id))
+    );
 
     private final Logger log = LoggerFactory.getLogger(ResidentQueryService.class);
 
     private final ResidentRepository residentRepository;
 
-    public ResidentQueryService(ResidentRepository residentRepository) {
+    private final ApplicationProperties applicationProperties;
+
+    public ResidentQueryService(
+        ResidentRepository residentRepository,
+        EntityManager entityManager,
+        ApplicationProperties applicationProperties
+    ) {
+        super(entityManager, Resident.class);
         this.residentRepository = residentRepository;
+        this.applicationProperties = applicationProperties;
     }
 
     /**
@@ -41,7 +82,7 @@ public class ResidentQueryService extends QueryService<Resident> {
     @Transactional(readOnly = true)
     public List<Resident> findByCriteria(ResidentCriteria criteria) {
         log.debug("find by criteria : {}", criteria);
-        final Specification<Resident> specification = createSpecification(criteria);
+        final Specification<Resident> specification = createSpecification(criteria).and(fetch(Resident_.room));
         return residentRepository.findAll(specification);
     }
 
@@ -54,10 +95,74 @@ public class ResidentQueryService extends QueryService<Resident> {
     @Transactional(readOnly = true)
     public Page<Resident> findByCriteria(ResidentCriteria criteria, Pageable page) {
         log.debug("find by criteria : {}, page: {}", criteria, page);
-        final Specification<Resident> specification = createSpecification(criteria);
+        final Specification<Resident> specification = createSpecification(criteria).and(fetch(Resident_.room));
         return residentRepository.findAll(specification, page);
     }
 
+    /**
+     * Return a {@link Slice} of {@link Resident} which matches the criteria from the database, using keyset pagination.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param after The id of the last entity of the previous slice, or {@code null} for the first slice.
+     * @param size The maximum number of entities in the slice.
+     * @return the snapshots of the matching entities, ordered by id.
+     */
+    @Transactional(readOnly = true)
+    @Cacheable
+    public Slice<ResidentDTO> findByCriteria(ResidentCriteria criteria, Long after, int size) {
+        log.debug("find by criteria : {}, after: {}, size: {}", criteria, after, size);
+        final Specification<Resident> specification = createSpecification(criteria).and(fetch(Resident_.room));
+        return findSliceAfter(specification, Resident_.id, after, size).map(ResidentDTO::new);
+    }
+
+    /**
+     * Return the requested fields of the {@link Resident} which match the criteria from the database.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param fields The names of the fields to return, among {@link #getSelectableFields()}; the id is always returned.
+     * @return one map per matching entity, from field name to value, ordered by id.
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> findFieldsByCriteria(ResidentCriteria criteria, List<String> fields) {
+        log.debug("find fields by criteria : {}, fields: {}", criteria, fields);
+        final Specification<Resident> specification = createSpecification(criteria);
+        return findFields(specification, Resident_.id, selectFields(SELECTABLE_FIELDS, fields));
+    }
+
+    /**
+     * Return a {@link Slice} of the requested fields of the {@link Resident} which match the criteria, using keyset pagination.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param fields The names of the fields to return, among {@link #getSelectableFields()}; the id is always returned.
+     * @param after The id of the last entity of the previous slice, or {@code null} for the first slice.
+     * @param size The maximum number of entities in the slice.
+     * @return one map per matching entity, from field name to value, ordered by id.
+     */
+    @Transactional(readOnly = true)
+    @Cacheable
+    public Slice<Map<String, Object>> findFieldsByCriteria(ResidentCriteria criteria, List<String> fields, Long after, int size) {
+        log.debug("find fields by criteria : {}, fields: {}, after: {}, size: {}", criteria, fields, after, size);
+        final Specification<Resident> specification = createSpecification(criteria);
+        return findFieldsAfter(specification, Resident_.id, selectFields(SELECTABLE_FIELDS, fields), after, size);
+    }
+
+    /**
+     * Return the names of the fields which can be requested from {@link #findFieldsByCriteria(ResidentCriteria, List)}.
+     * @return the names of the selectable fields.
+     */
+    public Set<String> getSelectableFields() {
+        return SELECTABLE_FIELDS.keySet();
+    }
+
+    /**
+     * Stream all the {@link Resident} which match the criteria from the database to the given consumer, ordered by id.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param consumer The consumer of the entities, called once per entity while the database cursor is open.
+     */
+    @Transactional(readOnly = true)
+    public void exportByCriteria(ResidentCriteria criteria, Consumer<? super Resident> consumer) {
+        log.debug("export by criteria : {}", criteria);
+        final Specification<Resident> specification = createSpecification(criteria).and(fetch(Resident_.room));
+        streamAll(specification, Resident_.id, applicationProperties.getExport().getFetchSize(), consumer);
+    }
+
     /**
      * Return the number of matching entities in the database.
      * @param criteria The object which holds all the filters, which the entities should match.
@@ -1,27 +1,56 @@
 package com.mycompany.myapp.service;
 
+import com.mycompany.myapp.config.ApplicationProperties;
 import com.mycompany.myapp.domain.Resident;
 import com.mycompany.myapp.repository.ResidentRepository;
 import java.util.List;
 import java.util.Optional;
+import javax.persistence.EntityManager;
+import org.hibernate.Hibernate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.annotation.CacheConfig;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Service Implementation for managing {@link Resident}.
+ * <p>
+ * Every write evicts the criteria query caches which may hold the written entity.
  */
 @Service
 @Transactional
+@CacheConfig(
+    cacheNames = {
+        ResidentQueryService.RESIDENTS_BY_CRITERIA_CACHE,
+        RoomQueryService.ROOMS_BY_CRITERIA_CACHE,
+    },
+    cacheResolver = "queryCacheResolver"
+)
 public class ResidentService {
 
     private final Logger log = LoggerFactory.getLogger(ResidentService.class);
 
     private final ResidentRepository residentRepository;
 
-    public ResidentService(ResidentRepository residentRepository) {
+    private final EntityBulkWriter<Resident> bulkWriter;
+
+    public ResidentService(
+        ResidentRepository residentRepository,
+        EntityManager entityManager,
+        ApplicationProperties applicationProperties
+    ) {
         this.residentRepository = residentRepository;
+        this.bulkWriter =
+            new EntityBulkWriter<>(
+                entityManager,
+                residentRepository,
+                Resident::getId,
+                applicationProperties.getBulk().getFlushSize(),
+                ResidentService::initializeRoom
+            );
     }
 
     /**
@@ -30,6 +59,7 @@ public class ResidentService {
      * @param resident the entity to save.
      * @return the persisted entity.
      */
+    @CacheEvict(allEntries = true)
     public Resident save(Resident resident) {
         log.debug("Request to save Resident : {}", resident);
         return residentRepository.save(resident);
@@ -41,23 +71,53 @@ public class ResidentService {
      * @param resident the entity to save.
      * @return the persisted entity.
      */
+    @CacheEvict(allEntries = true)
     public Resident update(Resident resident) {
         log.debug("Request to save Resident : {}", resident);
-        return residentRepository.save(resident);
+        return initializeRoom(residentRepository.save(resident));
     }
 
     /**
-     * Partially update a resident.
+     * Save new residents in bulk, with batched inserts.
+     *
+     * @param residents the entities to save, without id.
+     * @return the persisted entities.
+     */
+    @CacheEvict(allEntries = true)
+    public List<Resident> saveAll(List<Resident> residents) {
+        log.debug("Request to save {} Residents", residents.size());
+        return bulkWriter.createAll(residents);
+    }
+
+    /**
+     * Update existing residents in bulk, with batched updates.
+     *
+     * @param residents the entities to save, which all exist.
+     * @return the persisted entities.
+     */
+    @CacheEvict(allEntries = true)
+    public List<Resident> updateAll(List<Resident> residents) {
+        log.debug("Request to update {} Residents", residents.size());
+        return bulkWriter.updateAll(residents);
+    }
+
+    /**
+     * Partially update a resident. When the resident holds a version, the update only applies to that version.
      *
      * @param resident the entity to update partially.
      * @return the persisted entity.
+     * @throws ObjectOptimisticLockingFailureException if the resident has been updated since its version.
      */
+    @CacheEvict(allEntries = true)
     public Optional<Resident> partialUpdate(Resident resident) {
         log.debug("Request to partially update Resident : {}", resident);
 
         return residentRepository
-            .findById(resident.getId())
+            .findOneWithEagerRelationships(resident.getId())
             .map(existingResident -> {
+                if (resident.getVersion() != null && !resident.getVersion().equals(existingResident.getVersion())) {
+                    throw new ObjectOptimisticLockingFailureException(Resident.class, resident.getId());
+                }
                 if (resident.getFirstname() != null) {
                     existingResident.setFirstname(resident.getFirstname());
                 }
@@ -84,7 +144,7 @@ public class ResidentService {
     @Transactional(readOnly = true)
     public List<Resident> findAll() {
         log.debug("Request to get all Residents");
-        return residentRepository.findAll();
+        return residentRepository.findAllWithEagerRelationships();
     }
 
     /**
@@ -96,7 +156,7 @@ public class ResidentService {
     @Transactional(readOnly = true)
     public Optional<Resident> findOne(Long id) {
         log.debug("Request to get Resident : {}", id);
-        return residentRepository.findById(id);
+        return residentRepository.findOneWithEagerRelationships(id);
     }
 
     /**
@@ -104,8 +164,17 @@ public class ResidentService {
      *
      * @param id the id of the entity.
      */
+    @CacheEvict(allEntries = true)
     public void delete(Long id) {
         log.debug("Request to delete Resident : {}", id);
         residentRepository.deleteById(id);
     }
+
+    /**
+     * Initialize the lazy room of a written resident, which is served with it once detached.
+     */
+    private static Resident initializeRoom(Resident resident) {
+        Hibernate.initialize(resident.getRoom());
+        return resident;
+    }
 }
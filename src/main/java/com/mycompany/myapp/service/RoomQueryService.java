@@ -1,36 +1,69 @@
 package com.mycompany.myapp.service;
 
+import com.mycompany.myapp.config.ApplicationProperties;
 import com.mycompany.myapp.domain.*; // for static metamodels
 import com.mycompany.myapp.domain.Room;
 import com.mycompany.myapp.repository.RoomRepository;
 import com.mycompany.myapp.service.criteria.RoomCriteria;
+import com.mycompany.myapp.service.dto.RoomDTO;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import javax.persistence.EntityManager;
 import javax.persistence.criteria.JoinType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.annotation.CacheConfig;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import tech.jhipster.service.QueryService;
 
 /**
  * Service for executing complex queries for {@link Room} entities in the database.
  * The main input is a {@link RoomCriteria} which gets converted to {@link Specification},
  * in a way that all the filters must apply.
- * It returns a {@link List} of {@link Room} or a {@link Page} of {@link Room} which fulfills the criteria.
+ * It returns a {@link List}, a {@link Page} or a {@link Slice} of {@link Room} which fulfills the criteria.
+ * The keyset slices, whose size is bounded, are cached in {@link #ROOMS_BY_CRITERIA_CACHE} as immutable
+ * snapshots until an entity they may contain is written. The other results are not cached, as they may hold the
+ * whole table.
  */
 @Service
 @Transactional(readOnly = true)
-public class RoomQueryService extends QueryService<Room> {
+@CacheConfig(
+    cacheNames = RoomQueryService.ROOMS_BY_CRITERIA_CACHE,
+    cacheResolver = "queryCacheResolver",
+    keyGenerator = "queryKeyGenerator"
+)
+public class RoomQueryService extends EntityQueryService<Room> {
+
+    public static final String ROOMS_BY_CRITERIA_CACHE = "roomsByCriteria";
+
+    private static final Map<String, ProjectedField<Room>> SELECTABLE_FIELDS = Map.of(
+        "id",
+        ProjectedField.column(root -> root.get(Room_.id)),
+        "roomno",
+        ProjectedField.column(root -> root.get(Room_.roomno)),
+        "floor",
+        ProjectedField.column(root -> root.get(Room_.floor)),
+        "type",
+        ProjectedField.column(root -> root.get(Room_.type))
+    );
 
     private final Logger log = LoggerFactory.getLogger(RoomQueryService.class);
 
     private final RoomRepository roomRepository;
 
-    public RoomQueryService(RoomRepository roomRepository) {
+    private final ApplicationProperties applicationProperties;
+
+    public RoomQueryService(RoomRepository roomRepository, EntityManager entityManager, ApplicationProperties applicationProperties) {
+        super(entityManager, Room.class);
         this.roomRepository = roomRepository;
+        this.applicationProperties = applicationProperties;
     }
 
     /**
@@ -58,6 +91,70 @@ public class RoomQueryService extends QueryService<Room> {
         return roomRepository.findAll(specification, page);
     }
 
+    /**
+     * Return a {@link Slice} of {@link Room} which matches the criteria from the database, using keyset pagination.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param after The id of the last entity of the previous slice, or {@code null} for the first slice.
+     * @param size The maximum number of entities in the slice.
+     * @return the snapshots of the matching entities, ordered by id.
+     */
+    @Transactional(readOnly = true)
+    @Cacheable
+    public Slice<RoomDTO> findByCriteria(RoomCriteria criteria, Long after, int size) {
+        log.debug("find by criteria : {}, after: {}, size: {}", criteria, after, size);
+        final Specification<Room> specification = createSpecification(criteria);
+        return findSliceAfter(specification, Room_.id, after, size).map(RoomDTO::new);
+    }
+
+    /**
+     * Return the requested fields of the {@link Room} which match the criteria from the database.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param fields The names of the fields to return, among {@link #getSelectableFields()}; the id is always returned.
+     * @return one map per matching entity, from field name to value, ordered by id.
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> findFieldsByCriteria(RoomCriteria criteria, List<String> fields) {
+        log.debug("find fields by criteria : {}, fields: {}", criteria, fields);
+        final Specification<Room> specification = createSpecification(criteria);
+        return findFields(specification, Room_.id, selectFields(SELECTABLE_FIELDS, fields));
+    }
+
+    /**
+     * Return a {@link Slice} of the requested fields of the {@link Room} which match the criteria, using keyset pagination.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param fields The names of the fields to return, among {@link #getSelectableFields()}; the id is always returned.
+     * @param after The id of the last entity of the previous slice, or {@code null} for the first slice.
+     * @param size The maximum number of entities in the slice.
+     * @return one map per matching entity, from field name to value, ordered by id.
+     */
+    @Transactional(readOnly = true)
+    @Cacheable
+    public Slice<Map<String, Object>> findFieldsByCriteria(RoomCriteria criteria, List<String> fields, Long after, int size) {
+        log.debug("find fields by criteria : {}, fields: {}, after: {}, size: {}", criteria, fields, after, size);
+        final Specification<Room> specification = createSpecification(criteria);
+        return findFieldsAfter(specification, Room_.id, selectFields(SELECTABLE_FIELDS, fields), after, size);
+    }
+
+    /**
+     * Return the names of the fields which can be requested from {@link #findFieldsByCriteria(RoomCriteria, List)}.
+     * @return the names of the selectable fields.
+     */
+    public Set<String> getSelectableFields() {
+        return SELECTABLE_FIELDS.keySet();
+    }
+
+    /**
+     * Stream all the {@link Room} which match the criteria from the database to the given consumer, ordered by id.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param consumer The consumer of the entities, called once per entity while the database cursor is open.
+     */
+    @Transactional(readOnly = true)
+    public void exportByCriteria(RoomCriteria criteria, Consumer<? super Room> consumer) {
+        log.debug("export by criteria : {}", criteria);
+        final Specification<Room> specification = createSpecification(criteria);
+        streamAll(specification, Room_.id, applicationProperties.getExport().getFetchSize(), consumer);
+    }
+
     /**
      * Return the number of matching entities in the database.
      * @param criteria The object which holds all the filters, which the entities should match.
@@ -1,27 +1,46 @@
 package com.mycompany.myapp.service;
 
+import com.mycompany.myapp.config.ApplicationProperties;
 import com.mycompany.myapp.domain.Room;
 import com.mycompany.myapp.repository.RoomRepository;
 import java.util.List;
 import java.util.Optional;
+import javax.persistence.EntityManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.annotation.CacheConfig;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Service Implementation for managing {@link Room}.
+ * <p>
+ * Every write evicts the criteria query caches which may hold the written entity.
  */
 @Service
 @Transactional
+@CacheConfig(
+    cacheNames = {
+        RoomQueryService.ROOMS_BY_CRITERIA_CACHE,
+        ResidentQueryService.RESIDENTS_BY_CRITERIA_CACHE,
+        FacilityQueryService.FACILITIES_BY_CRITERIA_CACHE,
+    },
+    cacheResolver = "queryCacheResolver"
+)
 public class RoomService {
 
     private final Logger log = LoggerFactory.getLogger(RoomService.class);
 
     private final RoomRepository roomRepository;
 
-    public RoomService(RoomRepository roomRepository) {
+    private final EntityBulkWriter<Room> bulkWriter;
+
+    public RoomService(RoomRepository roomRepository, EntityManager entityManager, ApplicationProperties applicationProperties) {
         this.roomRepository = roomRepository;
+        this.bulkWriter =
+            new EntityBulkWriter<>(entityManager, roomRepository, Room::getId, applicationProperties.getBulk().getFlushSize());
     }
 
     /**
@@ -30,6 +49,7 @@ public class RoomService {
      * @param room the entity to save.
      * @return the persisted entity.
      */
+    @CacheEvict(allEntries = true)
     public Room save(Room room) {
         log.debug("Request to save Room : {}", room);
         return roomRepository.save(room);
@@ -41,23 +61,53 @@ public class RoomService {
      * @param room the entity to save.
      * @return the persisted entity.
      */
+    @CacheEvict(allEntries = true)
     public Room update(Room room) {
         log.debug("Request to save Room : {}", room);
         return roomRepository.save(room);
     }
 
     /**
-     * Partially update a room.
+     * Save new rooms in bulk, with batched inserts.
+     *
+     * @param rooms the entities to save, without id.
+     * @return the persisted entities.
+     */
+    @CacheEvict(allEntries = true)
+    public List<Room> saveAll(List<Room> rooms) {
+        log.debug("Request to save {} Rooms", rooms.size());
+        return bulkWriter.createAll(rooms);
+    }
+
+    /**
+     * Update existing rooms in bulk, with batched updates.
+     *
+     * @param rooms the entities to save, which all exist.
+     * @return the persisted entities.
+     */
+    @CacheEvict(allEntries = true)
+    public List<Room> updateAll(List<Room> rooms) {
+        log.debug("Request to update {} Rooms", rooms.size());
+        return bulkWriter.updateAll(rooms);
+    }
+
+    /**
+     * Partially update a room. When the room holds a version, the update only applies to that version.
      *
      * @param room the entity to update partially.
      * @return the persisted entity.
+     * @throws ObjectOptimisticLockingFailureException if the room has been updated since its version.
      */
+    @CacheEvict(allEntries = true)
     public Optional<Room> partialUpdate(Room room) {
         log.debug("Request to partially update Room : {}", room);
 
         return roomRepository
             .findById(room.getId())
             .map(existingRoom -> {
+                if (room.getVersion() != null && !room.getVersion().equals(existingRoom.getVersion())) {
+                    throw new ObjectOptimisticLockingFailureException(Room.class, room.getId());
+                }
                 if (room.getRoomno() != null) {
                     existingRoom.setRoomno(room.getRoomno());
                 }
@@ -101,6 +151,7 @@ public class RoomService {
      *
      * @param id the id of the entity.
      */
+    @CacheEvict(allEntries = true)
     public void delete(Long id) {
         log.debug("Request to delete Room : {}", id);
         roomRepository.deleteById(id);
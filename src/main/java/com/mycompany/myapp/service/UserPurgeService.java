@@ -0,0 +1,150 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.repository.UserRepository;
+import com.mycompany.myapp.security.UserCredentialsCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service for purging the users who never activated their account.
+ * <p>
+ * The users are purged in chunks of {@code application.user-purge.chunk-size}, one transaction per chunk: the ids of
+ * the chunk are read after the last id of the previous one, then their authorities and the users themselves are
+ * deleted with one statement each. A purge stops once it has run for {@code application.user-purge.max-duration}; as
+ * the deleted chunks are committed, the next purge resumes where it stopped.
+ * <p>
+ * The deleted users are counted by {@value #DELETED_METER_NAME}, and each chunk and each purge is timed.
+ */
+@Service
+public class UserPurgeService {
+
+    public static final String DELETED_METER_NAME = "users.purge.deleted";
+    public static final String CHUNK_METER_NAME = "users.purge.chunk";
+    public static final String DURATION_METER_NAME = "users.purge.duration";
+
+    private final Logger log = LoggerFactory.getLogger(UserPurgeService.class);
+
+    private final UserRepository userRepository;
+
+    private final UserCredentialsCache userCredentialsCache;
+
+    private final AccountCache accountCache;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ApplicationProperties.UserPurge userPurge;
+
+    private final Counter deletedCounter;
+
+    private final Timer chunkTimer;
+
+    private final Timer durationTimer;
+
+    public UserPurgeService(
+        UserRepository userRepository,
+        UserCredentialsCache userCredentialsCache,
+        AccountCache accountCache,
+        PlatformTransactionManager transactionManager,
+        MeterRegistry meterRegistry,
+        ApplicationProperties applicationProperties
+    ) {
+        this.userRepository = userRepository;
+        this.userCredentialsCache = userCredentialsCache;
+        this.accountCache = accountCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.userPurge = applicationProperties.getUserPurge();
+        this.deletedCounter =
+            Counter.builder(DELETED_METER_NAME).description("Number of not activated users deleted by the purges").register(meterRegistry);
+        this.chunkTimer = Timer.builder(CHUNK_METER_NAME).description("Time taken to purge a chunk of users").register(meterRegistry);
+        this.durationTimer = Timer.builder(DURATION_METER_NAME).description("Time taken by a purge").register(meterRegistry);
+    }
+
+    /**
+     * Delete the users created before a date who have not activated their account.
+     *
+     * @param createdBefore the date before which the users have been created.
+     * @return the number of deleted users.
+     */
+    public long purgeNotActivatedUsers(Instant createdBefore) {
+        long start = System.nanoTime();
+        long deadline = start + userPurge.getMaxDuration().toNanos();
+        long deleted = 0;
+        long afterId = 0;
+        try {
+            while (true) {
+                Chunk chunk = purgeChunk(createdBefore, afterId);
+                if (chunk == null) {
+                    break;
+                }
+                deleted += chunk.deleted;
+                afterId = chunk.lastId;
+                log.debug("Purged {} not activated users, up to id {}", deleted, afterId);
+                if (System.nanoTime() - deadline > 0) {
+                    log.info("Stopping the purge of not activated users after id {}, the next purge resumes it", afterId);
+                    break;
+                }
+            }
+        } finally {
+            durationTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        log.info("Purged {} not activated users", deleted);
+        return deleted;
+    }
+
+    /**
+     * @return the purged chunk, or {@code null} if there were no more users to purge.
+     */
+    private Chunk purgeChunk(Instant createdBefore, long afterId) {
+        long start = System.nanoTime();
+        Chunk chunk = transactionTemplate.execute(status -> {
+            List<Object[]> users = userRepository.findNotActivatedUsersAfter(
+                createdBefore,
+                afterId,
+                PageRequest.of(0, userPurge.getChunkSize())
+            );
+            if (users.isEmpty()) {
+                return null;
+            }
+            List<Long> ids = new ArrayList<>(users.size());
+            for (Object[] user : users) {
+                ids.add((Long) user[0]);
+            }
+            userRepository.deleteAuthoritiesOfNotActivatedUsers(ids);
+            int deleted = userRepository.deleteNotActivatedUsers(ids);
+            for (Object[] user : users) {
+                userCredentialsCache.evict((String) user[1], (String) user[2]);
+                accountCache.evict((String) user[1]);
+            }
+            return new Chunk(deleted, ids.get(ids.size() - 1));
+        });
+        if (chunk != null) {
+            chunkTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            deletedCounter.increment(chunk.deleted);
+        }
+        return chunk;
+    }
+
+    private static final class Chunk {
+
+        private final int deleted;
+
+        private final long lastId;
+
+        private Chunk(int deleted, long lastId) {
+            this.deleted = deleted;
+            this.lastId = lastId;
+        }
+    }
+}
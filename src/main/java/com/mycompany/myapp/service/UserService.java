@@ -1,25 +1,38 @@
 package com.mycompany.myapp.service;
 
+import com.mycompany.myapp.config.ApplicationProperties;
 import com.mycompany.myapp.config.Constants;
 import com.mycompany.myapp.domain.Authority;
 import com.mycompany.myapp.domain.User;
-import com.mycompany.myapp.repository.AuthorityRepository;
 import com.mycompany.myapp.repository.UserRepository;
 import com.mycompany.myapp.security.AuthoritiesConstants;
+import com.mycompany.myapp.security.AuthorityRegistry;
 import com.mycompany.myapp.security.SecurityUtils;
+import com.mycompany.myapp.security.UserCredentialsCache;
+import com.mycompany.myapp.security.jwt.TokenRevocationService;
 import com.mycompany.myapp.service.dto.AdminUserDTO;
+import com.mycompany.myapp.service.dto.AuthorityAssignmentDTO;
 import com.mycompany.myapp.service.dto.UserDTO;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.stream.Collectors;
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import tech.jhipster.security.RandomUtil;
 
@@ -36,12 +49,40 @@ public class UserService {
 
     private final PasswordEncoder passwordEncoder;
 
-    private final AuthorityRepository authorityRepository;
+    private final AuthorityRegistry authorityRegistry;
 
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, AuthorityRepository authorityRepository) {
+    private final UserCredentialsCache userCredentialsCache;
+
+    private final AccountCache accountCache;
+
+    private final TokenRevocationService tokenRevocationService;
+
+    private final UserPurgeService userPurgeService;
+
+    private final EntityManager entityManager;
+
+    private final int bulkFlushSize;
+
+    public UserService(
+        UserRepository userRepository,
+        PasswordEncoder passwordEncoder,
+        AuthorityRegistry authorityRegistry,
+        UserCredentialsCache userCredentialsCache,
+        AccountCache accountCache,
+        TokenRevocationService tokenRevocationService,
+        UserPurgeService userPurgeService,
+        EntityManager entityManager,
+        ApplicationProperties applicationProperties
+    ) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
-        this.authorityRepository = authorityRepository;
+        this.authorityRegistry = authorityRegistry;
+        this.userCredentialsCache = userCredentialsCache;
+        this.accountCache = accountCache;
+        this.tokenRevocationService = tokenRevocationService;
+        this.userPurgeService = userPurgeService;
+        this.entityManager = entityManager;
+        this.bulkFlushSize = applicationProperties.getBulk().getFlushSize();
     }
 
     public Optional<User> activateRegistration(String key) {
@@ -52,6 +93,7 @@ public class UserService {
                 // activate given user for the registration key.
                 user.setActivated(true);
                 user.setActivationKey(null);
+                this.clearUserCaches(user);
                 log.debug("Activated user: {}", user);
                 return user;
             });
@@ -66,6 +108,7 @@ public class UserService {
                 user.setPassword(passwordEncoder.encode(newPassword));
                 user.setResetKey(null);
                 user.setResetDate(null);
+                this.clearUserCaches(user);
                 return user;
             });
     }
@@ -77,6 +120,7 @@ public class UserService {
             .map(user -> {
                 user.setResetKey(RandomUtil.generateResetKey());
                 user.setResetDate(Instant.now());
+                this.clearUserCaches(user);
                 return user;
             });
     }
@@ -115,7 +159,7 @@ public class UserService {
         // new user gets registration key
         newUser.setActivationKey(RandomUtil.generateActivationKey());
         Set<Authority> authorities = new HashSet<>();
-        authorityRepository.findById(AuthoritiesConstants.USER).ifPresent(authorities::add);
+        Optional.ofNullable(authorityRegistry.get(AuthoritiesConstants.USER)).ifPresent(authorities::add);
         newUser.setAuthorities(authorities);
         userRepository.save(newUser);
         log.debug("Created Information for User: {}", newUser);
@@ -128,10 +172,47 @@ public class UserService {
         }
         userRepository.delete(existingUser);
         userRepository.flush();
+        this.clearUserCaches(existingUser);
         return true;
     }
 
     public User createUser(AdminUserDTO userDTO) {
+        User user = newUser(userDTO, passwordEncoder.encode(RandomUtil.generatePassword()));
+        userRepository.save(user);
+        log.debug("Created Information for User: {}", user);
+        return user;
+    }
+
+    /**
+     * Create users in bulk, as {@link #createUser(AdminUserDTO)} does one by one.
+     * <p>
+     * The users and their authorities are inserted in JDBC batches, flushing and clearing the persistence context every
+     * {@code application.bulk.flush-size} users. The users all get the hash of the same random password, which is never
+     * disclosed, instead of hashing one per user: they set their own password with the reset key of their creation
+     * email.
+     *
+     * @param userDTOs the users to create, whose logins and emails are not used yet.
+     * @return the created users, detached.
+     */
+    public List<User> createUsers(List<AdminUserDTO> userDTOs) {
+        String encryptedPassword = passwordEncoder.encode(RandomUtil.generatePassword());
+        List<User> users = new ArrayList<>(userDTOs.size());
+        for (AdminUserDTO userDTO : userDTOs) {
+            User user = newUser(userDTO, encryptedPassword);
+            entityManager.persist(user);
+            users.add(user);
+            if (users.size() % bulkFlushSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        log.debug("Created {} Users", users.size());
+        return users;
+    }
+
+    private User newUser(AdminUserDTO userDTO, String encryptedPassword) {
         User user = new User();
         user.setLogin(userDTO.getLogin().toLowerCase());
         user.setFirstName(userDTO.getFirstName());
@@ -145,23 +226,15 @@ public class UserService {
         } else {
             user.setLangKey(userDTO.getLangKey());
         }
-        String encryptedPassword = passwordEncoder.encode(RandomUtil.generatePassword());
         user.setPassword(encryptedPassword);
         user.setResetKey(RandomUtil.generateResetKey());
         user.setResetDate(Instant.now());
         user.setActivated(true);
         if (userDTO.getAuthorities() != null) {
-            Set<Authority> authorities = userDTO
-                .getAuthorities()
-                .stream()
-                .map(authorityRepository::findById)
-                .filter(Optional::isPresent)
-                .map(Optional::get)
-                .collect(Collectors.toSet());
+            Set<Authority> authorities = new HashSet<>();
+            userDTO.getAuthorities().stream().map(authorityRegistry::get).filter(Objects::nonNull).forEach(authorities::add);
             user.setAuthorities(authorities);
         }
-        userRepository.save(user);
-        log.debug("Created Information for User: {}", user);
         return user;
     }
 
@@ -177,6 +250,11 @@ public class UserService {
             .filter(Optional::isPresent)
             .map(Optional::get)
             .map(user -> {
+                this.clearUserCaches(user);
+                // The tokens of a renamed or deactivated user must not authenticate it anymore
+                if ((user.isActivated() && !userDTO.isActivated()) || !user.getLogin().equals(userDTO.getLogin().toLowerCase())) {
+                    tokenRevocationService.revokeAll(user.getLogin());
+                }
                 user.setLogin(userDTO.getLogin().toLowerCase());
                 user.setFirstName(userDTO.getFirstName());
                 user.setLastName(userDTO.getLastName());
@@ -186,15 +264,21 @@ public class UserService {
                 user.setImageUrl(userDTO.getImageUrl());
                 user.setActivated(userDTO.isActivated());
                 user.setLangKey(userDTO.getLangKey());
-                Set<Authority> managedAuthorities = user.getAuthorities();
-                managedAuthorities.clear();
-                userDTO
+                Set<Authority> authorities = userDTO
                     .getAuthorities()
                     .stream()
-                    .map(authorityRepository::findById)
-                    .filter(Optional::isPresent)
-                    .map(Optional::get)
-                    .forEach(managedAuthorities::add);
+                    .map(authorityRegistry::get)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toSet());
+                // Only change the memberships which differ, so that an unchanged collection is not dirtied
+                Set<Authority> managedAuthorities = user.getAuthorities();
+                if (!managedAuthorities.equals(authorities)) {
+                    // The tokens of the user hold the authorities it was issued with
+                    tokenRevocationService.revokeAll(user.getLogin());
+                    managedAuthorities.retainAll(authorities);
+                    managedAuthorities.addAll(authorities);
+                }
+                this.clearUserCaches(user);
                 log.debug("Changed Information for User: {}", user);
                 return user;
             })
@@ -206,10 +290,69 @@ public class UserService {
             .findOneByLogin(login)
             .ifPresent(user -> {
                 userRepository.delete(user);
+                this.clearUserCaches(user);
+                tokenRevocationService.revokeAll(user.getLogin());
                 log.debug("Deleted User: {}", user);
             });
     }
 
+    /**
+     * Grant an authority to many users with one set-based statement, which only inserts the memberships they do not
+     * have yet. The tokens of these users are revoked, as they do not hold the authority.
+     *
+     * @param assignment the authority, and either the logins of the users or the authority they hold.
+     * @return the number of users who have been granted the authority.
+     */
+    public int grantAuthority(AuthorityAssignmentDTO assignment) {
+        String authority = assignment.getAuthority();
+        List<String> changedLogins;
+        int granted;
+        if (assignment.getHoldersOf() != null) {
+            changedLogins = userRepository.findLoginsOfHoldersOfWithoutAuthority(assignment.getHoldersOf(), authority);
+            granted = userRepository.grantAuthorityToHoldersOf(authority, assignment.getHoldersOf());
+            clearAllUserCaches();
+        } else {
+            Set<String> logins = lowerCase(assignment.getLogins());
+            changedLogins = userRepository.findLoginsByLoginInWithoutAuthority(logins, authority);
+            granted = userRepository.grantAuthorityByLoginIn(authority, logins);
+            clearUserCaches(logins);
+        }
+        changedLogins.forEach(tokenRevocationService::revokeAll);
+        log.debug("Granted Authority {} to {} Users", authority, granted);
+        return granted;
+    }
+
+    /**
+     * Revoke an authority from many users with one set-based statement, which only deletes the memberships they have.
+     * The tokens of these users are revoked, as they still hold the authority.
+     *
+     * @param assignment the authority, and either the logins of the users or the authority they hold.
+     * @return the number of users whose authority has been revoked.
+     * @throws LastAdministratorException if no user would hold the {@link AuthoritiesConstants#ADMIN} authority anymore.
+     */
+    public int revokeAuthority(AuthorityAssignmentDTO assignment) {
+        String authority = assignment.getAuthority();
+        List<String> changedLogins;
+        int revoked;
+        if (assignment.getHoldersOf() != null) {
+            changedLogins = userRepository.findLoginsOfHoldersOfWithAuthority(assignment.getHoldersOf(), authority);
+            revoked = userRepository.revokeAuthorityFromHoldersOf(authority, assignment.getHoldersOf());
+            clearAllUserCaches();
+        } else {
+            Set<String> logins = lowerCase(assignment.getLogins());
+            changedLogins = userRepository.findLoginsByLoginInWithAuthority(logins, authority);
+            revoked = userRepository.revokeAuthorityByLoginIn(authority, logins);
+            clearUserCaches(logins);
+        }
+        // Rolls the revocation back, as nobody could grant the authority again
+        if (revoked > 0 && AuthoritiesConstants.ADMIN.equals(authority) && userRepository.countByAuthorityName(authority) == 0) {
+            throw new LastAdministratorException();
+        }
+        changedLogins.forEach(tokenRevocationService::revokeAll);
+        log.debug("Revoked Authority {} from {} Users", authority, revoked);
+        return revoked;
+    }
+
     /**
      * Update basic information (first name, last name, email, language) for the current user.
      *
@@ -224,6 +367,7 @@ public class UserService {
             .getCurrentUserLogin()
             .flatMap(userRepository::findOneByLogin)
             .ifPresent(user -> {
+                this.clearUserCaches(user);
                 user.setFirstName(firstName);
                 user.setLastName(lastName);
                 if (email != null) {
@@ -247,18 +391,83 @@ public class UserService {
                 }
                 String encryptedPassword = passwordEncoder.encode(newPassword);
                 user.setPassword(encryptedPassword);
+                this.clearUserCaches(user);
                 log.debug("Changed password for User: {}", user);
             });
     }
 
     @Transactional(readOnly = true)
     public Page<AdminUserDTO> getAllManagedUsers(Pageable pageable) {
-        return userRepository.findAll(pageable).map(AdminUserDTO::new);
+        Page<AdminUserDTO> page = findPage(
+            "select new " + AdminUserDTO.class.getName() + "(user.id, user.login, user.firstName, user.lastName, user.email, " +
+            "user.activated, user.imageUrl, user.langKey, user.createdBy, user.createdDate, user.lastModifiedBy, " +
+            "user.lastModifiedDate) from User user",
+            "select count(user) from User user",
+            AdminUserDTO.class,
+            pageable
+        );
+        if (page.hasContent()) {
+            Map<Long, AdminUserDTO> usersById = page.stream().collect(Collectors.toMap(AdminUserDTO::getId, user -> user));
+            for (Object[] authority : userRepository.findAuthorityNamesByUserIdIn(usersById.keySet())) {
+                usersById.get((Long) authority[0]).getAuthorities().add((String) authority[1]);
+            }
+        }
+        return page;
     }
 
     @Transactional(readOnly = true)
     public Page<UserDTO> getAllPublicUsers(Pageable pageable) {
-        return userRepository.findAllByIdNotNullAndActivatedIsTrue(pageable).map(UserDTO::new);
+        return findPage(
+            "select new " + UserDTO.class.getName() + "(user.id, user.login) from User user where user.activated = true",
+            "select count(user) from User user where user.activated = true",
+            UserDTO.class,
+            pageable
+        );
+    }
+
+    /**
+     * Return a slice of the activated users, ordered by id and starting right after the given id.
+     * <p>
+     * Only the id and login are read, seeking with {@code idx_user_activated_id} instead of an OFFSET, so every slice
+     * costs the same whatever its position. No count query is issued: one more user than requested is read to know if
+     * there is a next slice.
+     *
+     * @param after the id of the last user of the previous slice, or {@code null} for the first slice.
+     * @param size the maximum number of users in the slice.
+     * @return the users.
+     */
+    @Transactional(readOnly = true)
+    public Slice<UserDTO> getPublicUsersAfter(Long after, int size) {
+        TypedQuery<UserDTO> query = entityManager
+            .createQuery(
+                "select new " + UserDTO.class.getName() + "(user.id, user.login) from User user " +
+                "where user.activated = true and user.id > :after order by user.id",
+                UserDTO.class
+            )
+            .setParameter("after", after != null ? after : Long.MIN_VALUE)
+            .setMaxResults(size + 1);
+        List<UserDTO> content = query.getResultList();
+        boolean hasNext = content.size() > size;
+        if (hasNext) {
+            content = new ArrayList<>(content.subList(0, size));
+        }
+        return new SliceImpl<>(content, PageRequest.of(0, size, Sort.by("id")), hasNext);
+    }
+
+    /**
+     * Find a page of users projected to DTOs, without loading the entities. The count query is only run when the size
+     * of the page does not tell the total.
+     */
+    private <T> Page<T> findPage(String query, String countQuery, Class<T> resultClass, Pageable pageable) {
+        TypedQuery<T> typedQuery = entityManager.createQuery(QueryUtils.applySorting(query, pageable.getSort(), "user"), resultClass);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset()).setMaxResults(pageable.getPageSize());
+        }
+        return PageableExecutionUtils.getPage(
+            typedQuery.getResultList(),
+            pageable,
+            () -> entityManager.createQuery(countQuery, Long.class).getSingleResult()
+        );
     }
 
     @Transactional(readOnly = true)
@@ -271,27 +480,53 @@ public class UserService {
         return SecurityUtils.getCurrentUserLogin().flatMap(userRepository::findOneWithAuthoritiesByLogin);
     }
 
+    /**
+     * Get the account of the current user, from the {@link AccountCache} when it holds it.
+     *
+     * @return the account of the current user, or empty if there is none.
+     */
+    public Optional<AdminUserDTO> getAccount() {
+        return SecurityUtils.getCurrentUserLogin().flatMap(accountCache::findByLogin);
+    }
+
     /**
      * Not activated users should be automatically deleted after 3 days.
      * <p>
-     * This is scheduled to get fired everyday, at 01:00 (am).
+     * This is scheduled to get fired everyday, at 01:00 (am). The users are deleted in chunks by the
+     * {@link UserPurgeService}, each in its own transaction unless this is called within one.
      */
     @Scheduled(cron = "0 0 1 * * ?")
+    @Transactional(propagation = Propagation.SUPPORTS)
     public void removeNotActivatedUsers() {
-        userRepository
-            .findAllByActivatedIsFalseAndActivationKeyIsNotNullAndCreatedDateBefore(Instant.now().minus(3, ChronoUnit.DAYS))
-            .forEach(user -> {
-                log.debug("Deleting not activated user {}", user.getLogin());
-                userRepository.delete(user);
-            });
+        userPurgeService.purgeNotActivatedUsers(Instant.now().minus(3, ChronoUnit.DAYS));
     }
 
     /**
      * Gets a list of all the authorities.
-     * @return a list of all the authorities.
+     * @return the unmodifiable list of all the authorities, read from the {@link AuthorityRegistry}.
      */
-    @Transactional(readOnly = true)
     public List<String> getAuthorities() {
-        return authorityRepository.findAll().stream().map(Authority::getName).collect(Collectors.toList());
+        return authorityRegistry.getNames();
+    }
+
+    private void clearUserCaches(User user) {
+        userCredentialsCache.evict(user.getLogin(), user.getEmail());
+        accountCache.evict(user.getLogin());
+    }
+
+    private void clearUserCaches(Set<String> logins) {
+        for (Object[] loginAndEmail : userRepository.findLoginsAndEmailsByLoginIn(logins)) {
+            userCredentialsCache.evict((String) loginAndEmail[0], (String) loginAndEmail[1]);
+            accountCache.evict((String) loginAndEmail[0]);
+        }
+    }
+
+    private void clearAllUserCaches() {
+        userCredentialsCache.clear();
+        accountCache.clear();
+    }
+
+    private static Set<String> lowerCase(Set<String> logins) {
+        return logins.stream().map(login -> login.toLowerCase(Locale.ENGLISH)).collect(Collectors.toSet());
     }
 }
@@ -0,0 +1,56 @@
+package com.mycompany.myapp.service.dto;
+
+import java.util.Set;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+
+/**
+ * A DTO representing an authority to grant to, or revoke from, many users at once: either the users of some logins,
+ * or all the users holding another authority.
+ */
+public class AuthorityAssignmentDTO {
+
+    @NotNull
+    @Size(max = 50)
+    private String authority;
+
+    private Set<String> logins;
+
+    @Size(max = 50)
+    private String holdersOf;
+
+    public AuthorityAssignmentDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public String getAuthority() {
+        return authority;
+    }
+
+    public void setAuthority(String authority) {
+        this.authority = authority;
+    }
+
+    public Set<String> getLogins() {
+        return logins;
+    }
+
+    public void setLogins(Set<String> logins) {
+        this.logins = logins;
+    }
+
+    public String getHoldersOf() {
+        return holdersOf;
+    }
+
+    public void setHoldersOf(String holdersOf) {
+        this.holdersOf = holdersOf;
+    }
+
+    @Override
+    public String toString() {
+        return (
+            "AuthorityAssignmentDTO{" + "authority='" + authority + '\'' + ", logins=" + logins + ", holdersOf='" + holdersOf + '\'' + "}"
+        );
+    }
+}
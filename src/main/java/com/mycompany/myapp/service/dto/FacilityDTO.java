@@ -0,0 +1,77 @@
+package com.mycompany.myapp.service.dto;
+
+import com.mycompany.myapp.domain.Facility;
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * An immutable snapshot of a {@link Facility} with its room, as served by the facility listings.
+ */
+public final class FacilityDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Long id;
+
+    private final Boolean aC;
+
+    private final Boolean parking;
+
+    private final Boolean wifi;
+
+    private final RoomDTO room;
+
+    private final Long version;
+
+    private final Instant lastModifiedDate;
+
+    public FacilityDTO(Facility facility) {
+        this.id = facility.getId();
+        this.aC = facility.getaC();
+        this.parking = facility.getParking();
+        this.wifi = facility.getWifi();
+        this.room = RoomDTO.of(facility.getRoom());
+        this.version = facility.getVersion();
+        this.lastModifiedDate = facility.getLastModifiedDate();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Boolean getaC() {
+        return aC;
+    }
+
+    public Boolean getParking() {
+        return parking;
+    }
+
+    public Boolean getWifi() {
+        return wifi;
+    }
+
+    public RoomDTO getRoom() {
+        return room;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public Instant getLastModifiedDate() {
+        return lastModifiedDate;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "FacilityDTO{" +
+            "id=" + id +
+            ", aC=" + aC +
+            ", parking=" + parking +
+            ", wifi=" + wifi +
+            ", room=" + room +
+            "}";
+    }
+}
@@ -0,0 +1,85 @@
+package com.mycompany.myapp.service.dto;
+
+import com.mycompany.myapp.domain.Resident;
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * An immutable snapshot of a {@link Resident} with its room, as served by the resident listings.
+ */
+public final class ResidentDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Long id;
+
+    private final String firstname;
+
+    private final String lastname;
+
+    private final String email;
+
+    private final String phonenumber;
+
+    private final RoomDTO room;
+
+    private final Long version;
+
+    private final Instant lastModifiedDate;
+
+    public ResidentDTO(Resident resident) {
+        this.id = resident.getId();
+        this.firstname = resident.getFirstname();
+        this.lastname = resident.getLastname();
+        this.email = resident.getEmail();
+        this.phonenumber = resident.getPhonenumber();
+        this.room = RoomDTO.of(resident.getRoom());
+        this.version = resident.getVersion();
+        this.lastModifiedDate = resident.getLastModifiedDate();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getFirstname() {
+        return firstname;
+    }
+
+    public String getLastname() {
+        return lastname;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getPhonenumber() {
+        return phonenumber;
+    }
+
+    public RoomDTO getRoom() {
+        return room;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public Instant getLastModifiedDate() {
+        return lastModifiedDate;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ResidentDTO{" +
+            "id=" + id +
+            ", firstname='" + firstname + '\'' +
+            ", lastname='" + lastname + '\'' +
+            ", email='" + email + '\'' +
+            ", phonenumber='" + phonenumber + '\'' +
+            ", room=" + room +
+            "}";
+    }
+}
@@ -0,0 +1,77 @@
+package com.mycompany.myapp.service.dto;
+
+import com.mycompany.myapp.domain.Room;
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * An immutable snapshot of a {@link Room}, as served by the room listings and embedded in the other listings. The
+ * residents of the room are not part of it.
+ */
+public final class RoomDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Long id;
+
+    private final String roomno;
+
+    private final Integer floor;
+
+    private final String type;
+
+    private final Long version;
+
+    private final Instant lastModifiedDate;
+
+    public RoomDTO(Room room) {
+        this.id = room.getId();
+        this.roomno = room.getRoomno();
+        this.floor = room.getFloor();
+        this.type = room.getType();
+        this.version = room.getVersion();
+        this.lastModifiedDate = room.getLastModifiedDate();
+    }
+
+    /**
+     * @return the snapshot of a room, or {@code null} if there is no room.
+     */
+    static RoomDTO of(Room room) {
+        return room != null ? new RoomDTO(room) : null;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getRoomno() {
+        return roomno;
+    }
+
+    public Integer getFloor() {
+        return floor;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public Instant getLastModifiedDate() {
+        return lastModifiedDate;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "RoomDTO{" +
+            "id=" + id +
+            ", roomno='" + roomno + '\'' +
+            ", floor=" + floor +
+            ", type='" + type + '\'' +
+            "}";
+    }
+}
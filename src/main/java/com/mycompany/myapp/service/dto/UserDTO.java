@@ -21,6 +21,14 @@ public class UserDTO {
         this.login = user.getLogin();
     }
 
+    /**
+     * Constructor of the JPQL projections.
+     */
+    public UserDTO(Long id, String login) {
+        this.id = id;
+        this.login = login;
+    }
+
     public Long getId() {
         return id;
     }
@@ -1,23 +1,44 @@
 package com.mycompany.myapp.web.rest;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.myapp.config.ApplicationProperties;
 import com.mycompany.myapp.domain.Facility;
+import com.mycompany.myapp.repository.EntityVersion;
 import com.mycompany.myapp.repository.FacilityRepository;
+import com.mycompany.myapp.repository.RoomRepository;
 import com.mycompany.myapp.service.FacilityQueryService;
 import com.mycompany.myapp.service.FacilityService;
 import com.mycompany.myapp.service.criteria.FacilityCriteria;
+import com.mycompany.myapp.service.dto.FacilityDTO;
 import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import com.mycompany.myapp.web.rest.util.AsyncTimeoutUtil;
+import com.mycompany.myapp.web.rest.util.BulkRequestValidator;
+import com.mycompany.myapp.web.rest.util.ConditionalRequestUtil;
+import com.mycompany.myapp.web.rest.util.EntityExportWriter;
+import com.mycompany.myapp.web.rest.util.ExportFormat;
+import com.mycompany.myapp.web.rest.util.FieldSelectionUtil;
+import com.mycompany.myapp.web.rest.util.KeysetPaginationUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import javax.validation.Validator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
-import tech.jhipster.web.util.ResponseUtil;
 
 /**
  * REST controller for managing {@link com.mycompany.myapp.domain.Facility}.
@@ -30,6 +51,14 @@ public class FacilityResource {
 
     private static final String ENTITY_NAME = "facility";
 
+    private static final List<EntityExportWriter.Column<Facility>> EXPORT_COLUMNS = List.of(
+        EntityExportWriter.column("id", Facility::getId),
+        EntityExportWriter.column("a_c", Facility::getaC),
+        EntityExportWriter.column("parking", Facility::getParking),
+        EntityExportWriter.column("wifi", Facility::getWifi),
+        EntityExportWriter.column("room_id", facility -> facility.getRoom() != null ? facility.getRoom().getId() : null)
+    );
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
@@ -37,16 +66,32 @@ public class FacilityResource {
 
     private final FacilityRepository facilityRepository;
 
+    private final RoomRepository roomRepository;
+
     private final FacilityQueryService facilityQueryService;
 
+    private final ObjectMapper objectMapper;
+
+    private final Validator validator;
+
+    private final ApplicationProperties applicationProperties;
+
     public FacilityResource(
         FacilityService facilityService,
         FacilityRepository facilityRepository,
-        FacilityQueryService facilityQueryService
+        RoomRepository roomRepository,
+        FacilityQueryService facilityQueryService,
+        ObjectMapper objectMapper,
+        Validator validator,
+        ApplicationProperties applicationProperties
     ) {
         this.facilityService = facilityService;
         this.facilityRepository = facilityRepository;
+        this.roomRepository = roomRepository;
         this.facilityQueryService = facilityQueryService;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.applicationProperties = applicationProperties;
     }
 
     /**
@@ -66,6 +111,7 @@ public class FacilityResource {
         return ResponseEntity
             .created(new URI("/api/facilities/" + result.getId()))
             .headers(HeaderUtil.createEntityCreationAlert(applicationName, false, ENTITY_NAME, result.getId().toString()))
+            .headers(ConditionalRequestUtil.createVersionHeaders(result))
             .body(result);
     }
 
@@ -74,15 +120,19 @@ public class FacilityResource {
      *
      * @param id the id of the facility to save.
      * @param facility the facility to update.
+     * @param request the current request, whose {@code If-Match} header must match the current version of the facility.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated facility,
      * or with status {@code 400 (Bad Request)} if the facility is not valid,
+     * or with status {@code 409 (Conflict)} if the facility has been updated since the requested version,
+     * or with status {@code 412 (Precondition Failed)} if the {@code If-Match} header does not match the current version,
      * or with status {@code 500 (Internal Server Error)} if the facility couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/facilities/{id}")
     public ResponseEntity<Facility> updateFacility(
         @PathVariable(value = "id", required = false) final Long id,
-        @RequestBody Facility facility
+        @RequestBody Facility facility,
+        WebRequest request
     ) throws URISyntaxException {
         log.debug("REST request to update Facility : {}, {}", id, facility);
         if (facility.getId() == null) {
@@ -92,14 +142,70 @@ public class FacilityResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!facilityRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
+        EntityVersion currentVersion = facilityRepository
+            .findVersionById(id)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+        facility.setVersion(ConditionalRequestUtil.resolveWriteVersion(request, facility.getVersion(), currentVersion, ENTITY_NAME));
 
         Facility result = facilityService.update(facility);
         return ResponseEntity
             .ok()
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, facility.getId().toString()))
+            .headers(ConditionalRequestUtil.createVersionHeaders(result))
+            .body(result);
+    }
+
+    /**
+     * {@code POST  /facilities/bulk} : Create new facilities.
+     * <p>
+     * The facilities are inserted in JDBC batches within one transaction: either all of them are created, or none.
+     *
+     * @param facilities the facilities to create.
+     * @return the {@link ResponseEntity} with status {@code 201 (Created)} and with body the new facilities, or with status {@code 400 (Bad Request)} and the errors of every invalid facility.
+     */
+    @PostMapping("/facilities/bulk")
+    public ResponseEntity<List<Facility>> createFacilities(@RequestBody List<Facility> facilities) {
+        log.debug("REST request to save {} Facilities", facilities.size());
+        BulkRequestValidator
+            .of(facilities, applicationProperties.getBulk().getMaxItems(), ENTITY_NAME)
+            .validate(validator)
+            .check(facility -> facility.getId() == null, "id", "idexists")
+            .exists(FacilityResource::roomId, roomRepository::findExistingIds, "room", "roomnotfound")
+            .unique(FacilityResource::roomId, "room", "roomduplicate")
+            .available(FacilityResource::roomId, Facility::getId, facilityRepository::findIdsByRoomId, "room", "roomused")
+            .throwIfInvalid();
+        List<Facility> result = facilityService.saveAll(facilities);
+        return ResponseEntity
+            .status(HttpStatus.CREATED)
+            .headers(HeaderUtil.createAlert(applicationName, result.size() + " facilities are created", String.valueOf(result.size())))
+            .body(result);
+    }
+
+    /**
+     * {@code PUT  /facilities/bulk} : Updates existing facilities.
+     * <p>
+     * The facilities are updated in JDBC batches within one transaction: either all of them are updated, or none.
+     *
+     * @param facilities the facilities to update.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated facilities, or with status {@code 400 (Bad Request)} and the errors of every invalid facility.
+     */
+    @PutMapping("/facilities/bulk")
+    public ResponseEntity<List<Facility>> updateFacilities(@RequestBody List<Facility> facilities) {
+        log.debug("REST request to update {} Facilities", facilities.size());
+        BulkRequestValidator
+            .of(facilities, applicationProperties.getBulk().getMaxItems(), ENTITY_NAME)
+            .validate(validator)
+            .check(facility -> facility.getId() != null, "id", "idnull")
+            .unique(Facility::getId, "id", "idduplicate")
+            .exists(Facility::getId, facilityRepository::findExistingIds, "id", "idnotfound")
+            .exists(FacilityResource::roomId, roomRepository::findExistingIds, "room", "roomnotfound")
+            .unique(FacilityResource::roomId, "room", "roomduplicate")
+            .available(FacilityResource::roomId, Facility::getId, facilityRepository::findIdsByRoomId, "room", "roomused")
+            .throwIfInvalid();
+        List<Facility> result = facilityService.updateAll(facilities);
+        return ResponseEntity
+            .ok()
+            .headers(HeaderUtil.createAlert(applicationName, result.size() + " facilities are updated", String.valueOf(result.size())))
             .body(result);
     }
 
@@ -108,8 +214,11 @@ public class FacilityResource {
      *
      * @param id the id of the facility to save.
      * @param facility the facility to update.
+     * @param request the current request, whose {@code If-Match} header must match the current version of the facility.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated facility,
      * or with status {@code 400 (Bad Request)} if the facility is not valid,
+     * or with status {@code 409 (Conflict)} if the facility has been updated since the requested version,
+     * or with status {@code 412 (Precondition Failed)} if the {@code If-Match} header does not match the current version,
      * or with status {@code 404 (Not Found)} if the facility is not found,
      * or with status {@code 500 (Internal Server Error)} if the facility couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
@@ -117,7 +226,8 @@ public class FacilityResource {
     @PatchMapping(value = "/facilities/{id}", consumes = { "application/json", "application/merge-patch+json" })
     public ResponseEntity<Facility> partialUpdateFacility(
         @PathVariable(value = "id", required = false) final Long id,
-        @RequestBody Facility facility
+        @RequestBody Facility facility,
+        WebRequest request
     ) throws URISyntaxException {
         log.debug("REST request to partial update Facility partially : {}, {}", id, facility);
         if (facility.getId() == null) {
@@ -127,13 +237,14 @@ public class FacilityResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!facilityRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
+        EntityVersion currentVersion = facilityRepository
+            .findVersionById(id)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+        facility.setVersion(ConditionalRequestUtil.resolveWriteVersion(request, facility.getVersion(), currentVersion, ENTITY_NAME));
 
         Optional<Facility> result = facilityService.partialUpdate(facility);
 
-        return ResponseUtil.wrapOrNotFound(
+        return ConditionalRequestUtil.wrapOrNotFound(
             result,
             HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, facility.getId().toString())
         );
@@ -141,15 +252,79 @@ public class FacilityResource {
 
     /**
      * {@code GET  /facilities} : get all the facilities.
+     * <p>
+     * When {@code after} or {@code size} is given, the facilities are returned by slices ordered by id, and the
+     * {@code Link} header holds the URL of the next slice.
      *
      * @param criteria the criteria which the requested entities should match.
+     * @param after the opaque cursor of the slice to return, as found in the {@code next} link.
+     * @param size the maximum number of facilities in the slice.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of facilities in body.
      */
     @GetMapping("/facilities")
-    public ResponseEntity<List<Facility>> getAllFacilities(FacilityCriteria criteria) {
+    public ResponseEntity<List<FacilityDTO>> getAllFacilities(
+        FacilityCriteria criteria,
+        @RequestParam(value = KeysetPaginationUtil.AFTER_PARAMETER, required = false) String after,
+        @RequestParam(value = KeysetPaginationUtil.SIZE_PARAMETER, required = false) Integer size
+    ) {
         log.debug("REST request to get Facilities by criteria: {}", criteria);
-        List<Facility> entityList = facilityQueryService.findByCriteria(criteria);
-        return ResponseEntity.ok().body(entityList);
+        if (!KeysetPaginationUtil.isKeysetRequest(after, size)) {
+            List<FacilityDTO> entityList = facilityQueryService
+                .findByCriteria(criteria)
+                .stream()
+                .map(FacilityDTO::new)
+                .collect(Collectors.toList());
+            return ResponseEntity.ok().body(entityList);
+        }
+        Slice<FacilityDTO> slice = facilityQueryService.findByCriteria(
+            criteria,
+            KeysetPaginationUtil.decodeCursor(after, ENTITY_NAME),
+            KeysetPaginationUtil.resolveSize(size, ENTITY_NAME)
+        );
+        HttpHeaders headers = KeysetPaginationUtil.generateKeysetPaginationHttpHeaders(
+            ServletUriComponentsBuilder.fromCurrentRequest(),
+            slice,
+            FacilityDTO::getId
+        );
+        return ResponseEntity.ok().headers(headers).body(slice.getContent());
+    }
+
+    /**
+     * {@code GET  /facilities?fields=} : get the requested fields of all the facilities.
+     * <p>
+     * Only the columns of the requested fields are read, and each facility is returned as an object holding its id and the
+     * requested fields. Keyset pagination works as for {@link #getAllFacilities}.
+     *
+     * @param criteria the criteria which the requested entities should match.
+     * @param fields the comma separated names of the fields to return.
+     * @param after the opaque cursor of the slice to return, as found in the {@code next} link.
+     * @param size the maximum number of facilities in the slice.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of facilities in body, or with status {@code 400 (Bad Request)} if a field is unknown.
+     */
+    @GetMapping(value = "/facilities", params = FieldSelectionUtil.FIELDS_PARAMETER)
+    public ResponseEntity<List<Map<String, Object>>> getAllFacilitiesFields(
+        FacilityCriteria criteria,
+        @RequestParam(FieldSelectionUtil.FIELDS_PARAMETER) String fields,
+        @RequestParam(value = KeysetPaginationUtil.AFTER_PARAMETER, required = false) String after,
+        @RequestParam(value = KeysetPaginationUtil.SIZE_PARAMETER, required = false) Integer size
+    ) {
+        log.debug("REST request to get Facilities fields {} by criteria: {}", fields, criteria);
+        List<String> fieldNames = FieldSelectionUtil.parseFields(fields, facilityQueryService.getSelectableFields(), ENTITY_NAME);
+        if (!KeysetPaginationUtil.isKeysetRequest(after, size)) {
+            return ResponseEntity.ok().body(facilityQueryService.findFieldsByCriteria(criteria, fieldNames));
+        }
+        Slice<Map<String, Object>> slice = facilityQueryService.findFieldsByCriteria(
+            criteria,
+            fieldNames,
+            KeysetPaginationUtil.decodeCursor(after, ENTITY_NAME),
+            KeysetPaginationUtil.resolveSize(size, ENTITY_NAME)
+        );
+        HttpHeaders headers = KeysetPaginationUtil.generateKeysetPaginationHttpHeaders(
+            ServletUriComponentsBuilder.fromCurrentRequest(),
+            slice,
+            row -> (Long) row.get("id")
+        );
+        return ResponseEntity.ok().headers(headers).body(slice.getContent());
     }
 
     /**
@@ -164,17 +339,58 @@ public class FacilityResource {
         return ResponseEntity.ok().body(facilityQueryService.countByCriteria(criteria));
     }
 
+    /**
+     * {@code GET  /facilities/export} : export all the facilities, streamed to the client as they are read from the database.
+     *
+     * @param criteria the criteria which the exported entities should match.
+     * @param format the export format, {@code ndjson} (the default) or {@code csv}.
+     * @param request the current request, which is given the export timeout.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the facilities in body, or with status {@code 400 (Bad Request)} if the format is not supported.
+     */
+    @GetMapping("/facilities/export")
+    public ResponseEntity<StreamingResponseBody> exportFacilities(
+        FacilityCriteria criteria,
+        @RequestParam(value = "format", defaultValue = "ndjson") String format,
+        WebRequest request
+    ) {
+        log.debug("REST request to export Facilities by criteria: {}", criteria);
+        ExportFormat exportFormat = ExportFormat.parse(format, ENTITY_NAME);
+        AsyncTimeoutUtil.setTimeout(request, applicationProperties.getExport().getTimeout());
+        StreamingResponseBody body = outputStream -> {
+            try (EntityExportWriter<Facility> writer = new EntityExportWriter<>(outputStream, exportFormat, objectMapper, EXPORT_COLUMNS)) {
+                facilityQueryService.exportByCriteria(criteria, writer);
+            }
+        };
+        ContentDisposition contentDisposition = ContentDisposition
+            .attachment()
+            .filename("facilities." + exportFormat.getExtension())
+            .build();
+        return ResponseEntity
+            .ok()
+            .contentType(exportFormat.getMediaType())
+            .header(HttpHeaders.CONTENT_DISPOSITION, contentDisposition.toString())
+            .body(body);
+    }
+
     /**
      * {@code GET  /facilities/:id} : get the "id" facility.
      *
      * @param id the id of the facility to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the facility, or with status {@code 404 (Not Found)}.
+     * @param request the current request, whose {@code If-None-Match} and {@code If-Modified-Since} headers are checked.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the facility, or with status {@code 304 (Not Modified)} if the client has the current version, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/facilities/{id}")
-    public ResponseEntity<Facility> getFacility(@PathVariable Long id) {
+    public ResponseEntity<Facility> getFacility(@PathVariable Long id, WebRequest request) {
         log.debug("REST request to get Facility : {}", id);
+        if (ConditionalRequestUtil.isConditionalGet(request)) {
+            // Answer from the version alone, without loading the facility
+            Optional<EntityVersion> version = facilityRepository.findVersionById(id);
+            if (version.isPresent() && ConditionalRequestUtil.checkNotModified(request, version.get())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+            }
+        }
         Optional<Facility> facility = facilityService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(facility);
+        return ConditionalRequestUtil.wrapOrNotFound(facility);
     }
 
     /**
@@ -192,4 +408,8 @@ public class FacilityResource {
             .headers(HeaderUtil.createEntityDeletionAlert(applicationName, false, ENTITY_NAME, id.toString()))
             .build();
     }
+
+    private static Long roomId(Facility facility) {
+        return facility.getRoom() != null ? facility.getRoom().getId() : null;
+    }
 }
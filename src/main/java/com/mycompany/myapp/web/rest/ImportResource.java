@@ -0,0 +1,154 @@
+package com.mycompany.myapp.web.rest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.myapp.service.ImportJob;
+import com.mycompany.myapp.service.ImportService;
+import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import com.mycompany.myapp.web.rest.util.EntityExportWriter;
+import com.mycompany.myapp.web.rest.util.ExportFormat;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tech.jhipster.web.util.HeaderUtil;
+import tech.jhipster.web.util.ResponseUtil;
+
+/**
+ * REST controller for importing residents and rooms from CSV files.
+ * <p>
+ * The files use the {@code ;} separated layout of the Liquibase fake data, with a header line. Residents may name
+ * their room by its number in a {@code room} column.
+ */
+@RestController
+@RequestMapping("/api")
+public class ImportResource {
+
+    private final Logger log = LoggerFactory.getLogger(ImportResource.class);
+
+    private static final String ENTITY_NAME = "import";
+
+    private static final List<EntityExportWriter.Column<ImportJob.RowError>> ERROR_COLUMNS = List.of(
+        EntityExportWriter.column("line", ImportJob.RowError::getLine),
+        EntityExportWriter.column("message", ImportJob.RowError::getMessage)
+    );
+
+    @Value("${jhipster.clientApp.name}")
+    private String applicationName;
+
+    private final ImportService importService;
+
+    private final ObjectMapper objectMapper;
+
+    public ImportResource(ImportService importService, ObjectMapper objectMapper) {
+        this.importService = importService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * {@code POST  /imports/:type} : Start importing a CSV file of residents or rooms.
+     *
+     * @param type the type of the imported entities, {@code residents} or {@code rooms}.
+     * @param file the CSV file.
+     * @return the {@link ResponseEntity} with status {@code 202 (Accepted)} and with body the import job, or with status {@code 400 (Bad Request)} if the type is unknown.
+     * @throws IOException if the file cannot be read.
+     * @throws URISyntaxException if the Location URI syntax is incorrect.
+     */
+    @PostMapping(value = "/imports/{type}", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ImportJob> startImport(@PathVariable String type, @RequestParam("file") MultipartFile file)
+        throws IOException, URISyntaxException {
+        log.debug("REST request to import {} from {}", type, file.getOriginalFilename());
+        ImportJob.Type importType = parseType(type);
+        ImportJob result;
+        try (InputStream content = file.getInputStream()) {
+            result = importService.startImport(importType, file.getOriginalFilename(), content);
+        }
+        return ResponseEntity
+            .accepted()
+            .location(new URI("/api/imports/" + result.getId()))
+            .headers(HeaderUtil.createEntityCreationAlert(applicationName, false, ENTITY_NAME, result.getId()))
+            .body(result);
+    }
+
+    /**
+     * {@code GET  /imports/:jobId} : get the progress of the "jobId" import.
+     *
+     * @param jobId the id of the import job.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the import job, or with status {@code 404 (Not Found)}.
+     */
+    @GetMapping("/imports/{jobId}")
+    public ResponseEntity<ImportJob> getImport(@PathVariable String jobId) {
+        log.debug("REST request to get import : {}", jobId);
+        return ResponseUtil.wrapOrNotFound(importService.findJob(jobId));
+    }
+
+    /**
+     * {@code GET  /imports/:jobId/errors} : get the report of the rows rejected by the "jobId" import.
+     *
+     * @param jobId the id of the import job.
+     * @param format the report format, {@code csv} (the default) or {@code ndjson}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the rejected rows in body, or with status {@code 404 (Not Found)}.
+     */
+    @GetMapping("/imports/{jobId}/errors")
+    public ResponseEntity<StreamingResponseBody> getImportErrors(
+        @PathVariable String jobId,
+        @RequestParam(value = "format", defaultValue = "csv") String format
+    ) {
+        log.debug("REST request to get the errors of import : {}", jobId);
+        ExportFormat exportFormat = ExportFormat.parse(format, ENTITY_NAME);
+        Optional<StreamingResponseBody> body = importService
+            .findJob(jobId)
+            .map(job ->
+                outputStream -> {
+                    try (EntityExportWriter<ImportJob.RowError> writer = new EntityExportWriter<>(
+                            outputStream,
+                            exportFormat,
+                            objectMapper,
+                            ERROR_COLUMNS
+                        )) {
+                        job.getErrors().forEach(writer);
+                    }
+                }
+            );
+        ContentDisposition contentDisposition = ContentDisposition
+            .attachment()
+            .filename("import-" + jobId + "-errors." + exportFormat.getExtension())
+            .build();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(exportFormat.getMediaType());
+        headers.setContentDisposition(contentDisposition);
+        return ResponseUtil.wrapOrNotFound(body, headers);
+    }
+
+    /**
+     * {@code DELETE  /imports/:jobId} : cancel the "jobId" import. The rows already imported are kept.
+     *
+     * @param jobId the id of the import job.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the import job, or with status {@code 404 (Not Found)}.
+     */
+    @DeleteMapping("/imports/{jobId}")
+    public ResponseEntity<ImportJob> cancelImport(@PathVariable String jobId) {
+        log.debug("REST request to cancel import : {}", jobId);
+        return ResponseUtil.wrapOrNotFound(importService.cancel(jobId));
+    }
+
+    private static ImportJob.Type parseType(String type) {
+        try {
+            return ImportJob.Type.valueOf(type.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Unsupported import type: " + type, ENTITY_NAME, "typeinvalid");
+        }
+    }
+}
@@ -2,12 +2,14 @@ package com.mycompany.myapp.web.rest;
 
 import com.mycompany.myapp.service.UserService;
 import com.mycompany.myapp.service.dto.UserDTO;
+import com.mycompany.myapp.web.rest.util.KeysetPaginationUtil;
 import java.util.*;
 import java.util.Collections;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -24,6 +26,8 @@ public class PublicUserResource {
         Arrays.asList("id", "login", "firstName", "lastName", "email", "activated", "langKey")
     );
 
+    private static final String ENTITY_NAME = "user";
+
     private final Logger log = LoggerFactory.getLogger(PublicUserResource.class);
 
     private final UserService userService;
@@ -50,6 +54,34 @@ public class PublicUserResource {
         return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
     }
 
+    /**
+     * {@code GET /users?after=} : get the activated users with only the public informations, by slices ordered by id -
+     * calling this are allowed for anyone.
+     * <p>
+     * The first slice is asked with an empty {@code after}, and the {@code Link} header holds the URL of the next slice.
+     *
+     * @param after the opaque cursor of the slice to return, as found in the {@code next} link.
+     * @param size the maximum number of users in the slice.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the users of the slice.
+     */
+    @GetMapping(value = "/users", params = KeysetPaginationUtil.AFTER_PARAMETER)
+    public ResponseEntity<List<UserDTO>> getPublicUsersAfter(
+        @RequestParam(KeysetPaginationUtil.AFTER_PARAMETER) String after,
+        @RequestParam(value = KeysetPaginationUtil.SIZE_PARAMETER, required = false) Integer size
+    ) {
+        log.debug("REST request to get a slice of public User names after: {}", after);
+        Slice<UserDTO> slice = userService.getPublicUsersAfter(
+            KeysetPaginationUtil.decodeCursor(after, ENTITY_NAME),
+            KeysetPaginationUtil.resolveSize(size, ENTITY_NAME)
+        );
+        HttpHeaders headers = KeysetPaginationUtil.generateKeysetPaginationHttpHeaders(
+            ServletUriComponentsBuilder.fromCurrentRequest(),
+            slice,
+            UserDTO::getId
+        );
+        return ResponseEntity.ok().headers(headers).body(slice.getContent());
+    }
+
     private boolean onlyContainsAllowedProperties(Pageable pageable) {
         return pageable.getSort().stream().map(Sort.Order::getProperty).allMatch(ALLOWED_ORDERED_PROPERTIES::contains);
     }
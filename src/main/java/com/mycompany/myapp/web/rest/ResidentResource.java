@@ -1,25 +1,46 @@
 package com.mycompany.myapp.web.rest;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.myapp.config.ApplicationProperties;
 import com.mycompany.myapp.domain.Resident;
+import com.mycompany.myapp.repository.EntityVersion;
 import com.mycompany.myapp.repository.ResidentRepository;
+import com.mycompany.myapp.repository.RoomRepository;
 import com.mycompany.myapp.service.ResidentQueryService;
 import com.mycompany.myapp.service.ResidentService;
 import com.mycompany.myapp.service.criteria.ResidentCriteria;
+import com.mycompany.myapp.service.dto.ResidentDTO;
 import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import com.mycompany.myapp.web.rest.util.AsyncTimeoutUtil;
+import com.mycompany.myapp.web.rest.util.BulkRequestValidator;
+import com.mycompany.myapp.web.rest.util.ConditionalRequestUtil;
+import com.mycompany.myapp.web.rest.util.EntityExportWriter;
+import com.mycompany.myapp.web.rest.util.ExportFormat;
+import com.mycompany.myapp.web.rest.util.FieldSelectionUtil;
+import com.mycompany.myapp.web.rest.util.KeysetPaginationUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Collectors;
 import javax.validation.Valid;
+import javax.validation.Validator;
 import javax.validation.constraints.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
-import tech.jhipster.web.util.ResponseUtil;
 
 /**
  * REST controller for managing {@link com.mycompany.myapp.domain.Resident}.
@@ -32,6 +53,15 @@ public class ResidentResource {
 
     private static final String ENTITY_NAME = "resident";
 
+    private static final List<EntityExportWriter.Column<Resident>> EXPORT_COLUMNS = List.of(
+        EntityExportWriter.column("id", Resident::getId),
+        EntityExportWriter.column("firstname", Resident::getFirstname),
+        EntityExportWriter.column("lastname", Resident::getLastname),
+        EntityExportWriter.column("email", Resident::getEmail),
+        EntityExportWriter.column("phonenumber", Resident::getPhonenumber),
+        EntityExportWriter.column("room_id", resident -> resident.getRoom() != null ? resident.getRoom().getId() : null)
+    );
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
@@ -39,16 +69,32 @@ public class ResidentResource {
 
     private final ResidentRepository residentRepository;
 
+    private final RoomRepository roomRepository;
+
     private final ResidentQueryService residentQueryService;
 
+    private final ObjectMapper objectMapper;
+
+    private final Validator validator;
+
+    private final ApplicationProperties applicationProperties;
+
     public ResidentResource(
         ResidentService residentService,
         ResidentRepository residentRepository,
-        ResidentQueryService residentQueryService
+        RoomRepository roomRepository,
+        ResidentQueryService residentQueryService,
+        ObjectMapper objectMapper,
+        Validator validator,
+        ApplicationProperties applicationProperties
     ) {
         this.residentService = residentService;
         this.residentRepository = residentRepository;
+        this.roomRepository = roomRepository;
         this.residentQueryService = residentQueryService;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.applicationProperties = applicationProperties;
     }
 
     /**
@@ -68,6 +114,7 @@ public class ResidentResource {
         return ResponseEntity
             .created(new URI("/api/residents/" + result.getId()))
             .headers(HeaderUtil.createEntityCreationAlert(applicationName, false, ENTITY_NAME, result.getId().toString()))
+            .headers(ConditionalRequestUtil.createVersionHeaders(result))
             .body(result);
     }
 
@@ -76,15 +123,19 @@ public class ResidentResource {
      *
      * @param id the id of the resident to save.
      * @param resident the resident to update.
+     * @param request the current request, whose {@code If-Match} header must match the current version of the resident.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated resident,
      * or with status {@code 400 (Bad Request)} if the resident is not valid,
+     * or with status {@code 409 (Conflict)} if the resident has been updated since the requested version,
+     * or with status {@code 412 (Precondition Failed)} if the {@code If-Match} header does not match the current version,
      * or with status {@code 500 (Internal Server Error)} if the resident couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/residents/{id}")
     public ResponseEntity<Resident> updateResident(
         @PathVariable(value = "id", required = false) final Long id,
-        @Valid @RequestBody Resident resident
+        @Valid @RequestBody Resident resident,
+        WebRequest request
     ) throws URISyntaxException {
         log.debug("REST request to update Resident : {}, {}", id, resident);
         if (resident.getId() == null) {
@@ -94,14 +145,70 @@ public class ResidentResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!residentRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
+        EntityVersion currentVersion = residentRepository
+            .findVersionById(id)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+        resident.setVersion(ConditionalRequestUtil.resolveWriteVersion(request, resident.getVersion(), currentVersion, ENTITY_NAME));
 
         Resident result = residentService.update(resident);
         return ResponseEntity
             .ok()
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, resident.getId().toString()))
+            .headers(ConditionalRequestUtil.createVersionHeaders(result))
+            .body(result);
+    }
+
+    /**
+     * {@code POST  /residents/bulk} : Create new residents.
+     * <p>
+     * The residents are inserted in JDBC batches within one transaction: either all of them are created, or none.
+     *
+     * @param residents the residents to create.
+     * @return the {@link ResponseEntity} with status {@code 201 (Created)} and with body the new residents, or with status {@code 400 (Bad Request)} and the errors of every invalid resident.
+     */
+    @PostMapping("/residents/bulk")
+    public ResponseEntity<List<Resident>> createResidents(@RequestBody List<Resident> residents) {
+        log.debug("REST request to save {} Residents", residents.size());
+        BulkRequestValidator
+            .of(residents, applicationProperties.getBulk().getMaxItems(), ENTITY_NAME)
+            .validate(validator)
+            .check(resident -> resident.getId() == null, "id", "idexists")
+            .unique(Resident::getEmail, "email", "emailduplicate")
+            .available(Resident::getEmail, Resident::getId, residentRepository::findIdsByEmail, "email", "emailused")
+            .exists(ResidentResource::roomId, roomRepository::findExistingIds, "room", "roomnotfound")
+            .throwIfInvalid();
+        List<Resident> result = residentService.saveAll(residents);
+        return ResponseEntity
+            .status(HttpStatus.CREATED)
+            .headers(HeaderUtil.createAlert(applicationName, result.size() + " residents are created", String.valueOf(result.size())))
+            .body(result);
+    }
+
+    /**
+     * {@code PUT  /residents/bulk} : Updates existing residents.
+     * <p>
+     * The residents are updated in JDBC batches within one transaction: either all of them are updated, or none.
+     *
+     * @param residents the residents to update.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated residents, or with status {@code 400 (Bad Request)} and the errors of every invalid resident.
+     */
+    @PutMapping("/residents/bulk")
+    public ResponseEntity<List<Resident>> updateResidents(@RequestBody List<Resident> residents) {
+        log.debug("REST request to update {} Residents", residents.size());
+        BulkRequestValidator
+            .of(residents, applicationProperties.getBulk().getMaxItems(), ENTITY_NAME)
+            .validate(validator)
+            .check(resident -> resident.getId() != null, "id", "idnull")
+            .unique(Resident::getId, "id", "idduplicate")
+            .exists(Resident::getId, residentRepository::findExistingIds, "id", "idnotfound")
+            .unique(Resident::getEmail, "email", "emailduplicate")
+            .available(Resident::getEmail, Resident::getId, residentRepository::findIdsByEmail, "email", "emailused")
+            .exists(ResidentResource::roomId, roomRepository::findExistingIds, "room", "roomnotfound")
+            .throwIfInvalid();
+        List<Resident> result = residentService.updateAll(residents);
+        return ResponseEntity
+            .ok()
+            .headers(HeaderUtil.createAlert(applicationName, result.size() + " residents are updated", String.valueOf(result.size())))
             .body(result);
     }
 
@@ -110,8 +217,11 @@ public class ResidentResource {
      *
      * @param id the id of the resident to save.
      * @param resident the resident to update.
+     * @param request the current request, whose {@code If-Match} header must match the current version of the resident.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated resident,
      * or with status {@code 400 (Bad Request)} if the resident is not valid,
+     * or with status {@code 409 (Conflict)} if the resident has been updated since the requested version,
+     * or with status {@code 412 (Precondition Failed)} if the {@code If-Match} header does not match the current version,
      * or with status {@code 404 (Not Found)} if the resident is not found,
      * or with status {@code 500 (Internal Server Error)} if the resident couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
@@ -119,7 +229,8 @@ public class ResidentResource {
     @PatchMapping(value = "/residents/{id}", consumes = { "application/json", "application/merge-patch+json" })
     public ResponseEntity<Resident> partialUpdateResident(
         @PathVariable(value = "id", required = false) final Long id,
-        @NotNull @RequestBody Resident resident
+        @NotNull @RequestBody Resident resident,
+        WebRequest request
     ) throws URISyntaxException {
         log.debug("REST request to partial update Resident partially : {}, {}", id, resident);
         if (resident.getId() == null) {
@@ -129,13 +240,14 @@ public class ResidentResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!residentRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
+        EntityVersion currentVersion = residentRepository
+            .findVersionById(id)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+        resident.setVersion(ConditionalRequestUtil.resolveWriteVersion(request, resident.getVersion(), currentVersion, ENTITY_NAME));
 
         Optional<Resident> result = residentService.partialUpdate(resident);
 
-        return ResponseUtil.wrapOrNotFound(
+        return ConditionalRequestUtil.wrapOrNotFound(
             result,
             HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, resident.getId().toString())
         );
@@ -143,15 +255,79 @@ public class ResidentResource {
 
     /**
      * {@code GET  /residents} : get all the residents.
+     * <p>
+     * When {@code after} or {@code size} is given, the residents are returned by slices ordered by id, and the
+     * {@code Link} header holds the URL of the next slice.
      *
      * @param criteria the criteria which the requested entities should match.
+     * @param after the opaque cursor of the slice to return, as found in the {@code next} link.
+     * @param size the maximum number of residents in the slice.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of residents in body.
      */
     @GetMapping("/residents")
-    public ResponseEntity<List<Resident>> getAllResidents(ResidentCriteria criteria) {
+    public ResponseEntity<List<ResidentDTO>> getAllResidents(
+        ResidentCriteria criteria,
+        @RequestParam(value = KeysetPaginationUtil.AFTER_PARAMETER, required = false) String after,
+        @RequestParam(value = KeysetPaginationUtil.SIZE_PARAMETER, required = false) Integer size
+    ) {
         log.debug("REST request to get Residents by criteria: {}", criteria);
-        List<Resident> entityList = residentQueryService.findByCriteria(criteria);
-        return ResponseEntity.ok().body(entityList);
+        if (!KeysetPaginationUtil.isKeysetRequest(after, size)) {
+            List<ResidentDTO> entityList = residentQueryService
+                .findByCriteria(criteria)
+                .stream()
+                .map(ResidentDTO::new)
+                .collect(Collectors.toList());
+            return ResponseEntity.ok().body(entityList);
+        }
+        Slice<ResidentDTO> slice = residentQueryService.findByCriteria(
+            criteria,
+            KeysetPaginationUtil.decodeCursor(after, ENTITY_NAME),
+            KeysetPaginationUtil.resolveSize(size, ENTITY_NAME)
+        );
+        HttpHeaders headers = KeysetPaginationUtil.generateKeysetPaginationHttpHeaders(
+            ServletUriComponentsBuilder.fromCurrentRequest(),
+            slice,
+            ResidentDTO::getId
+        );
+        return ResponseEntity.ok().headers(headers).body(slice.getContent());
+    }
+
+    /**
+     * {@code GET  /residents?fields=} : get the requested fields of all the residents.
+     * <p>
+     * Only the columns of the requested fields are read, and each resident is returned as an object holding its id and the
+     * requested fields. Keyset pagination works as for {@link #getAllResidents}.
+     *
+     * @param criteria the criteria which the requested entities should match.
+     * @param fields the comma separated names of the fields to return.
+     * @param after the opaque cursor of the slice to return, as found in the {@code next} link.
+     * @param size the maximum number of residents in the slice.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of residents in body, or with status {@code 400 (Bad Request)} if a field is unknown.
+     */
+    @GetMapping(value = "/residents", params = FieldSelectionUtil.FIELDS_PARAMETER)
+    public ResponseEntity<List<Map<String, Object>>> getAllResidentsFields(
+        ResidentCriteria criteria,
+        @RequestParam(FieldSelectionUtil.FIELDS_PARAMETER) String fields,
+        @RequestParam(value = KeysetPaginationUtil.AFTER_PARAMETER, required = false) String after,
+        @RequestParam(value = KeysetPaginationUtil.SIZE_PARAMETER, required = false) Integer size
+    ) {
+        log.debug("REST request to get Residents fields {} by criteria: {}", fields, criteria);
+        List<String> fieldNames = FieldSelectionUtil.parseFields(fields, residentQueryService.getSelectableFields(), ENTITY_NAME);
+        if (!KeysetPaginationUtil.isKeysetRequest(after, size)) {
+            return ResponseEntity.ok().body(residentQueryService.findFieldsByCriteria(criteria, fieldNames));
+        }
+        Slice<Map<String, Object>> slice = residentQueryService.findFieldsByCriteria(
+            criteria,
+            fieldNames,
+            KeysetPaginationUtil.decodeCursor(after, ENTITY_NAME),
+            KeysetPaginationUtil.resolveSize(size, ENTITY_NAME)
+        );
+        HttpHeaders headers = KeysetPaginationUtil.generateKeysetPaginationHttpHeaders(
+            ServletUriComponentsBuilder.fromCurrentRequest(),
+            slice,
+            row -> (Long) row.get("id")
+        );
+        return ResponseEntity.ok().headers(headers).body(slice.getContent());
     }
 
     /**
@@ -166,17 +342,58 @@ public class ResidentResource {
         return ResponseEntity.ok().body(residentQueryService.countByCriteria(criteria));
     }
 
+    /**
+     * {@code GET  /residents/export} : export all the residents, streamed to the client as they are read from the database.
+     *
+     * @param criteria the criteria which the exported entities should match.
+     * @param format the export format, {@code ndjson} (the default) or {@code csv}.
+     * @param request the current request, which is given the export timeout.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the residents in body, or with status {@code 400 (Bad Request)} if the format is not supported.
+     */
+    @GetMapping("/residents/export")
+    public ResponseEntity<StreamingResponseBody> exportResidents(
+        ResidentCriteria criteria,
+        @RequestParam(value = "format", defaultValue = "ndjson") String format,
+        WebRequest request
+    ) {
+        log.debug("REST request to export Residents by criteria: {}", criteria);
+        ExportFormat exportFormat = ExportFormat.parse(format, ENTITY_NAME);
+        AsyncTimeoutUtil.setTimeout(request, applicationProperties.getExport().getTimeout());
+        StreamingResponseBody body = outputStream -> {
+            try (EntityExportWriter<Resident> writer = new EntityExportWriter<>(outputStream, exportFormat, objectMapper, EXPORT_COLUMNS)) {
+                residentQueryService.exportByCriteria(criteria, writer);
+            }
+        };
+        ContentDisposition contentDisposition = ContentDisposition
+            .attachment()
+            .filename("residents." + exportFormat.getExtension())
+            .build();
+        return ResponseEntity
+            .ok()
+            .contentType(exportFormat.getMediaType())
+            .header(HttpHeaders.CONTENT_DISPOSITION, contentDisposition.toString())
+            .body(body);
+    }
+
     /**
      * {@code GET  /residents/:id} : get the "id" resident.
      *
      * @param id the id of the resident to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the resident, or with status {@code 404 (Not Found)}.
+     * @param request the current request, whose {@code If-None-Match} and {@code If-Modified-Since} headers are checked.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the resident, or with status {@code 304 (Not Modified)} if the client has the current version, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/residents/{id}")
-    public ResponseEntity<Resident> getResident(@PathVariable Long id) {
+    public ResponseEntity<Resident> getResident(@PathVariable Long id, WebRequest request) {
         log.debug("REST request to get Resident : {}", id);
+        if (ConditionalRequestUtil.isConditionalGet(request)) {
+            // Answer from the version alone, without loading the resident
+            Optional<EntityVersion> version = residentRepository.findVersionById(id);
+            if (version.isPresent() && ConditionalRequestUtil.checkNotModified(request, version.get())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+            }
+        }
         Optional<Resident> resident = residentService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(resident);
+        return ConditionalRequestUtil.wrapOrNotFound(resident);
     }
 
     /**
@@ -194,4 +411,8 @@ public class ResidentResource {
             .headers(HeaderUtil.createEntityDeletionAlert(applicationName, false, ENTITY_NAME, id.toString()))
             .build();
     }
+
+    private static Long roomId(Resident resident) {
+        return resident.getRoom() != null ? resident.getRoom().getId() : null;
+    }
 }
@@ -1,25 +1,45 @@
 package com.mycompany.myapp.web.rest;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.myapp.config.ApplicationProperties;
 import com.mycompany.myapp.domain.Room;
+import com.mycompany.myapp.repository.EntityVersion;
 import com.mycompany.myapp.repository.RoomRepository;
 import com.mycompany.myapp.service.RoomQueryService;
 import com.mycompany.myapp.service.RoomService;
 import com.mycompany.myapp.service.criteria.RoomCriteria;
+import com.mycompany.myapp.service.dto.RoomDTO;
 import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import com.mycompany.myapp.web.rest.util.AsyncTimeoutUtil;
+import com.mycompany.myapp.web.rest.util.BulkRequestValidator;
+import com.mycompany.myapp.web.rest.util.ConditionalRequestUtil;
+import com.mycompany.myapp.web.rest.util.EntityExportWriter;
+import com.mycompany.myapp.web.rest.util.ExportFormat;
+import com.mycompany.myapp.web.rest.util.FieldSelectionUtil;
+import com.mycompany.myapp.web.rest.util.KeysetPaginationUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Collectors;
 import javax.validation.Valid;
+import javax.validation.Validator;
 import javax.validation.constraints.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
-import tech.jhipster.web.util.ResponseUtil;
 
 /**
  * REST controller for managing {@link com.mycompany.myapp.domain.Room}.
@@ -32,6 +52,13 @@ public class RoomResource {
 
     private static final String ENTITY_NAME = "room";
 
+    private static final List<EntityExportWriter.Column<Room>> EXPORT_COLUMNS = List.of(
+        EntityExportWriter.column("id", Room::getId),
+        EntityExportWriter.column("roomno", Room::getRoomno),
+        EntityExportWriter.column("floor", Room::getFloor),
+        EntityExportWriter.column("type", Room::getType)
+    );
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
@@ -41,10 +68,26 @@ public class RoomResource {
 
     private final RoomQueryService roomQueryService;
 
-    public RoomResource(RoomService roomService, RoomRepository roomRepository, RoomQueryService roomQueryService) {
+    private final ObjectMapper objectMapper;
+
+    private final Validator validator;
+
+    private final ApplicationProperties applicationProperties;
+
+    public RoomResource(
+        RoomService roomService,
+        RoomRepository roomRepository,
+        RoomQueryService roomQueryService,
+        ObjectMapper objectMapper,
+        Validator validator,
+        ApplicationProperties applicationProperties
+    ) {
         this.roomService = roomService;
         this.roomRepository = roomRepository;
         this.roomQueryService = roomQueryService;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.applicationProperties = applicationProperties;
     }
 
     /**
@@ -64,6 +107,7 @@ public class RoomResource {
         return ResponseEntity
             .created(new URI("/api/rooms/" + result.getId()))
             .headers(HeaderUtil.createEntityCreationAlert(applicationName, false, ENTITY_NAME, result.getId().toString()))
+            .headers(ConditionalRequestUtil.createVersionHeaders(result))
             .body(result);
     }
 
@@ -72,14 +116,20 @@ public class RoomResource {
      *
      * @param id the id of the room to save.
      * @param room the room to update.
+     * @param request the current request, whose {@code If-Match} header must match the current version of the room.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated room,
      * or with status {@code 400 (Bad Request)} if the room is not valid,
+     * or with status {@code 409 (Conflict)} if the room has been updated since the requested version,
+     * or with status {@code 412 (Precondition Failed)} if the {@code If-Match} header does not match the current version,
      * or with status {@code 500 (Internal Server Error)} if the room couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/rooms/{id}")
-    public ResponseEntity<Room> updateRoom(@PathVariable(value = "id", required = false) final Long id, @Valid @RequestBody Room room)
-        throws URISyntaxException {
+    public ResponseEntity<Room> updateRoom(
+        @PathVariable(value = "id", required = false) final Long id,
+        @Valid @RequestBody Room room,
+        WebRequest request
+    ) throws URISyntaxException {
         log.debug("REST request to update Room : {}, {}", id, room);
         if (room.getId() == null) {
             throw new BadRequestAlertException("Invalid id", ENTITY_NAME, "idnull");
@@ -88,14 +138,68 @@ public class RoomResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!roomRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
+        EntityVersion currentVersion = roomRepository
+            .findVersionById(id)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+        room.setVersion(ConditionalRequestUtil.resolveWriteVersion(request, room.getVersion(), currentVersion, ENTITY_NAME));
 
         Room result = roomService.update(room);
         return ResponseEntity
             .ok()
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, room.getId().toString()))
+            .headers(ConditionalRequestUtil.createVersionHeaders(result))
+            .body(result);
+    }
+
+    /**
+     * {@code POST  /rooms/bulk} : Create new rooms.
+     * <p>
+     * The rooms are inserted in JDBC batches within one transaction: either all of them are created, or none.
+     *
+     * @param rooms the rooms to create.
+     * @return the {@link ResponseEntity} with status {@code 201 (Created)} and with body the new rooms, or with status {@code 400 (Bad Request)} and the errors of every invalid room.
+     */
+    @PostMapping("/rooms/bulk")
+    public ResponseEntity<List<Room>> createRooms(@RequestBody List<Room> rooms) {
+        log.debug("REST request to save {} Rooms", rooms.size());
+        BulkRequestValidator
+            .of(rooms, applicationProperties.getBulk().getMaxItems(), ENTITY_NAME)
+            .validate(validator)
+            .check(room -> room.getId() == null, "id", "idexists")
+            .unique(Room::getRoomno, "roomno", "roomnoduplicate")
+            .available(Room::getRoomno, Room::getId, roomRepository::findIdsByRoomno, "roomno", "roomnoused")
+            .throwIfInvalid();
+        List<Room> result = roomService.saveAll(rooms);
+        return ResponseEntity
+            .status(HttpStatus.CREATED)
+            .headers(HeaderUtil.createAlert(applicationName, result.size() + " rooms are created", String.valueOf(result.size())))
+            .body(result);
+    }
+
+    /**
+     * {@code PUT  /rooms/bulk} : Updates existing rooms.
+     * <p>
+     * The rooms are updated in JDBC batches within one transaction: either all of them are updated, or none.
+     *
+     * @param rooms the rooms to update.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated rooms, or with status {@code 400 (Bad Request)} and the errors of every invalid room.
+     */
+    @PutMapping("/rooms/bulk")
+    public ResponseEntity<List<Room>> updateRooms(@RequestBody List<Room> rooms) {
+        log.debug("REST request to update {} Rooms", rooms.size());
+        BulkRequestValidator
+            .of(rooms, applicationProperties.getBulk().getMaxItems(), ENTITY_NAME)
+            .validate(validator)
+            .check(room -> room.getId() != null, "id", "idnull")
+            .unique(Room::getId, "id", "idduplicate")
+            .exists(Room::getId, roomRepository::findExistingIds, "id", "idnotfound")
+            .unique(Room::getRoomno, "roomno", "roomnoduplicate")
+            .available(Room::getRoomno, Room::getId, roomRepository::findIdsByRoomno, "roomno", "roomnoused")
+            .throwIfInvalid();
+        List<Room> result = roomService.updateAll(rooms);
+        return ResponseEntity
+            .ok()
+            .headers(HeaderUtil.createAlert(applicationName, result.size() + " rooms are updated", String.valueOf(result.size())))
             .body(result);
     }
 
@@ -104,8 +208,11 @@ public class RoomResource {
      *
      * @param id the id of the room to save.
      * @param room the room to update.
+     * @param request the current request, whose {@code If-Match} header must match the current version of the room.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated room,
      * or with status {@code 400 (Bad Request)} if the room is not valid,
+     * or with status {@code 409 (Conflict)} if the room has been updated since the requested version,
+     * or with status {@code 412 (Precondition Failed)} if the {@code If-Match} header does not match the current version,
      * or with status {@code 404 (Not Found)} if the room is not found,
      * or with status {@code 500 (Internal Server Error)} if the room couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
@@ -113,7 +220,8 @@ public class RoomResource {
     @PatchMapping(value = "/rooms/{id}", consumes = { "application/json", "application/merge-patch+json" })
     public ResponseEntity<Room> partialUpdateRoom(
         @PathVariable(value = "id", required = false) final Long id,
-        @NotNull @RequestBody Room room
+        @NotNull @RequestBody Room room,
+        WebRequest request
     ) throws URISyntaxException {
         log.debug("REST request to partial update Room partially : {}, {}", id, room);
         if (room.getId() == null) {
@@ -123,13 +231,14 @@ public class RoomResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!roomRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
+        EntityVersion currentVersion = roomRepository
+            .findVersionById(id)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+        room.setVersion(ConditionalRequestUtil.resolveWriteVersion(request, room.getVersion(), currentVersion, ENTITY_NAME));
 
         Optional<Room> result = roomService.partialUpdate(room);
 
-        return ResponseUtil.wrapOrNotFound(
+        return ConditionalRequestUtil.wrapOrNotFound(
             result,
             HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, room.getId().toString())
         );
@@ -137,15 +246,79 @@ public class RoomResource {
 
     /**
      * {@code GET  /rooms} : get all the rooms.
+     * <p>
+     * When {@code after} or {@code size} is given, the rooms are returned by slices ordered by id, and the
+     * {@code Link} header holds the URL of the next slice.
      *
      * @param criteria the criteria which the requested entities should match.
+     * @param after the opaque cursor of the slice to return, as found in the {@code next} link.
+     * @param size the maximum number of rooms in the slice.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of rooms in body.
      */
     @GetMapping("/rooms")
-    public ResponseEntity<List<Room>> getAllRooms(RoomCriteria criteria) {
+    public ResponseEntity<List<RoomDTO>> getAllRooms(
+        RoomCriteria criteria,
+        @RequestParam(value = KeysetPaginationUtil.AFTER_PARAMETER, required = false) String after,
+        @RequestParam(value = KeysetPaginationUtil.SIZE_PARAMETER, required = false) Integer size
+    ) {
         log.debug("REST request to get Rooms by criteria: {}", criteria);
-        List<Room> entityList = roomQueryService.findByCriteria(criteria);
-        return ResponseEntity.ok().body(entityList);
+        if (!KeysetPaginationUtil.isKeysetRequest(after, size)) {
+            List<RoomDTO> entityList = roomQueryService
+                .findByCriteria(criteria)
+                .stream()
+                .map(RoomDTO::new)
+                .collect(Collectors.toList());
+            return ResponseEntity.ok().body(entityList);
+        }
+        Slice<RoomDTO> slice = roomQueryService.findByCriteria(
+            criteria,
+            KeysetPaginationUtil.decodeCursor(after, ENTITY_NAME),
+            KeysetPaginationUtil.resolveSize(size, ENTITY_NAME)
+        );
+        HttpHeaders headers = KeysetPaginationUtil.generateKeysetPaginationHttpHeaders(
+            ServletUriComponentsBuilder.fromCurrentRequest(),
+            slice,
+            RoomDTO::getId
+        );
+        return ResponseEntity.ok().headers(headers).body(slice.getContent());
+    }
+
+    /**
+     * {@code GET  /rooms?fields=} : get the requested fields of all the rooms.
+     * <p>
+     * Only the columns of the requested fields are read, and each room is returned as an object holding its id and the
+     * requested fields. Keyset pagination works as for {@link #getAllRooms}.
+     *
+     * @param criteria the criteria which the requested entities should match.
+     * @param fields the comma separated names of the fields to return.
+     * @param after the opaque cursor of the slice to return, as found in the {@code next} link.
+     * @param size the maximum number of rooms in the slice.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of rooms in body, or with status {@code 400 (Bad Request)} if a field is unknown.
+     */
+    @GetMapping(value = "/rooms", params = FieldSelectionUtil.FIELDS_PARAMETER)
+    public ResponseEntity<List<Map<String, Object>>> getAllRoomsFields(
+        RoomCriteria criteria,
+        @RequestParam(FieldSelectionUtil.FIELDS_PARAMETER) String fields,
+        @RequestParam(value = KeysetPaginationUtil.AFTER_PARAMETER, required = false) String after,
+        @RequestParam(value = KeysetPaginationUtil.SIZE_PARAMETER, required = false) Integer size
+    ) {
+        log.debug("REST request to get Rooms fields {} by criteria: {}", fields, criteria);
+        List<String> fieldNames = FieldSelectionUtil.parseFields(fields, roomQueryService.getSelectableFields(), ENTITY_NAME);
+        if (!KeysetPaginationUtil.isKeysetRequest(after, size)) {
+            return ResponseEntity.ok().body(roomQueryService.findFieldsByCriteria(criteria, fieldNames));
+        }
+        Slice<Map<String, Object>> slice = roomQueryService.findFieldsByCriteria(
+            criteria,
+            fieldNames,
+            KeysetPaginationUtil.decodeCursor(after, ENTITY_NAME),
+            KeysetPaginationUtil.resolveSize(size, ENTITY_NAME)
+        );
+        HttpHeaders headers = KeysetPaginationUtil.generateKeysetPaginationHttpHeaders(
+            ServletUriComponentsBuilder.fromCurrentRequest(),
+            slice,
+            row -> (Long) row.get("id")
+        );
+        return ResponseEntity.ok().headers(headers).body(slice.getContent());
     }
 
     /**
@@ -160,17 +333,55 @@ public class RoomResource {
         return ResponseEntity.ok().body(roomQueryService.countByCriteria(criteria));
     }
 
+    /**
+     * {@code GET  /rooms/export} : export all the rooms, streamed to the client as they are read from the database.
+     *
+     * @param criteria the criteria which the exported entities should match.
+     * @param format the export format, {@code ndjson} (the default) or {@code csv}.
+     * @param request the current request, which is given the export timeout.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the rooms in body, or with status {@code 400 (Bad Request)} if the format is not supported.
+     */
+    @GetMapping("/rooms/export")
+    public ResponseEntity<StreamingResponseBody> exportRooms(
+        RoomCriteria criteria,
+        @RequestParam(value = "format", defaultValue = "ndjson") String format,
+        WebRequest request
+    ) {
+        log.debug("REST request to export Rooms by criteria: {}", criteria);
+        ExportFormat exportFormat = ExportFormat.parse(format, ENTITY_NAME);
+        AsyncTimeoutUtil.setTimeout(request, applicationProperties.getExport().getTimeout());
+        StreamingResponseBody body = outputStream -> {
+            try (EntityExportWriter<Room> writer = new EntityExportWriter<>(outputStream, exportFormat, objectMapper, EXPORT_COLUMNS)) {
+                roomQueryService.exportByCriteria(criteria, writer);
+            }
+        };
+        ContentDisposition contentDisposition = ContentDisposition.attachment().filename("rooms." + exportFormat.getExtension()).build();
+        return ResponseEntity
+            .ok()
+            .contentType(exportFormat.getMediaType())
+            .header(HttpHeaders.CONTENT_DISPOSITION, contentDisposition.toString())
+            .body(body);
+    }
+
     /**
      * {@code GET  /rooms/:id} : get the "id" room.
      *
      * @param id the id of the room to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the room, or with status {@code 404 (Not Found)}.
+     * @param request the current request, whose {@code If-None-Match} and {@code If-Modified-Since} headers are checked.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the room, or with status {@code 304 (Not Modified)} if the client has the current version, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/rooms/{id}")
-    public ResponseEntity<Room> getRoom(@PathVariable Long id) {
+    public ResponseEntity<Room> getRoom(@PathVariable Long id, WebRequest request) {
         log.debug("REST request to get Room : {}", id);
+        if (ConditionalRequestUtil.isConditionalGet(request)) {
+            // Answer from the version alone, without loading the room
+            Optional<EntityVersion> version = roomRepository.findVersionById(id);
+            if (version.isPresent() && ConditionalRequestUtil.checkNotModified(request, version.get())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+            }
+        }
         Optional<Room> room = roomService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(room);
+        return ConditionalRequestUtil.wrapOrNotFound(room);
     }
 
     /**
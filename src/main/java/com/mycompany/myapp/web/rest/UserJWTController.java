@@ -1,13 +1,18 @@
 package com.mycompany.myapp.web.rest;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.mycompany.myapp.management.SecurityMetersService;
 import com.mycompany.myapp.security.jwt.JWTFilter;
-import com.mycompany.myapp.security.jwt.TokenProvider;
+import com.mycompany.myapp.security.jwt.RefreshTokenService;
+import com.mycompany.myapp.security.jwt.TokenRevocationService;
 import com.mycompany.myapp.web.rest.vm.LoginVM;
+import com.mycompany.myapp.web.rest.vm.RefreshTokenVM;
 import javax.validation.Valid;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.core.Authentication;
@@ -21,13 +26,24 @@ import org.springframework.web.bind.annotation.*;
 @RequestMapping("/api")
 public class UserJWTController {
 
-    private final TokenProvider tokenProvider;
+    private final RefreshTokenService refreshTokenService;
+
+    private final TokenRevocationService tokenRevocationService;
 
     private final AuthenticationManagerBuilder authenticationManagerBuilder;
 
-    public UserJWTController(TokenProvider tokenProvider, AuthenticationManagerBuilder authenticationManagerBuilder) {
-        this.tokenProvider = tokenProvider;
+    private final SecurityMetersService securityMetersService;
+
+    public UserJWTController(
+        RefreshTokenService refreshTokenService,
+        TokenRevocationService tokenRevocationService,
+        AuthenticationManagerBuilder authenticationManagerBuilder,
+        SecurityMetersService securityMetersService
+    ) {
+        this.refreshTokenService = refreshTokenService;
+        this.tokenRevocationService = tokenRevocationService;
         this.authenticationManagerBuilder = authenticationManagerBuilder;
+        this.securityMetersService = securityMetersService;
     }
 
     @PostMapping("/authenticate")
@@ -37,23 +53,68 @@ public class UserJWTController {
             loginVM.getPassword()
         );
 
-        Authentication authentication = authenticationManagerBuilder.getObject().authenticate(authenticationToken);
-        SecurityContextHolder.getContext().setAuthentication(authentication);
-        String jwt = tokenProvider.createToken(authentication, loginVM.isRememberMe());
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            Authentication authentication = authenticationManagerBuilder.getObject().authenticate(authenticationToken);
+            SecurityContextHolder.getContext().setAuthentication(authentication);
+            ResponseEntity<JWTToken> response = createResponse(refreshTokenService.createTokens(authentication, loginVM.isRememberMe()));
+            success = true;
+            return response;
+        } finally {
+            securityMetersService.trackLogin(success, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * {@code POST  /token/refresh} : exchange a refresh token for a new access token and a new refresh token.
+     *
+     * @param refreshTokenVM the refresh token.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the new tokens in body.
+     * @throws BadCredentialsException {@code 401 (Unauthorized)} if the refresh token is invalid, expired or already used.
+     */
+    @PostMapping("/token/refresh")
+    public ResponseEntity<JWTToken> refresh(@Valid @RequestBody RefreshTokenVM refreshTokenVM) {
+        return refreshTokenService
+            .refresh(refreshTokenVM.getRefreshToken())
+            .map(this::createResponse)
+            .orElseThrow(() -> new BadCredentialsException("Invalid refresh token"));
+    }
+
+    /**
+     * {@code POST  /logout} : revoke the token of the current request, so that it cannot be used anymore.
+     *
+     * @param refreshTokenVM the refresh token of the user, whose family is revoked too, may be {@code null}.
+     * @return the {@link ResponseEntity} with status {@code 204 (No Content)}.
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestBody(required = false) RefreshTokenVM refreshTokenVM) {
+        tokenRevocationService.revoke(SecurityContextHolder.getContext().getAuthentication());
+        if (refreshTokenVM != null && refreshTokenVM.getRefreshToken() != null) {
+            refreshTokenService.revokeFamily(refreshTokenVM.getRefreshToken());
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    private ResponseEntity<JWTToken> createResponse(RefreshTokenService.Tokens tokens) {
         HttpHeaders httpHeaders = new HttpHeaders();
-        httpHeaders.add(JWTFilter.AUTHORIZATION_HEADER, "Bearer " + jwt);
-        return new ResponseEntity<>(new JWTToken(jwt), httpHeaders, HttpStatus.OK);
+        httpHeaders.add(JWTFilter.AUTHORIZATION_HEADER, "Bearer " + tokens.getAccessToken());
+        return new ResponseEntity<>(new JWTToken(tokens.getAccessToken(), tokens.getRefreshToken()), httpHeaders, HttpStatus.OK);
     }
 
     /**
      * Object to return as body in JWT Authentication.
      */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     static class JWTToken {
 
         private String idToken;
 
-        JWTToken(String idToken) {
+        private String refreshToken;
+
+        JWTToken(String idToken, String refreshToken) {
             this.idToken = idToken;
+            this.refreshToken = refreshToken;
         }
 
         @JsonProperty("id_token")
@@ -64,5 +125,14 @@ public class UserJWTController {
         void setIdToken(String idToken) {
             this.idToken = idToken;
         }
+
+        @JsonProperty("refresh_token")
+        String getRefreshToken() {
+            return refreshToken;
+        }
+
+        void setRefreshToken(String refreshToken) {
+            this.refreshToken = refreshToken;
+        }
     }
 }
@@ -1,5 +1,6 @@
 package com.mycompany.myapp.web.rest;
 
+import com.mycompany.myapp.config.ApplicationProperties;
 import com.mycompany.myapp.config.Constants;
 import com.mycompany.myapp.domain.User;
 import com.mycompany.myapp.repository.UserRepository;
@@ -7,14 +8,17 @@ import com.mycompany.myapp.security.AuthoritiesConstants;
 import com.mycompany.myapp.service.MailService;
 import com.mycompany.myapp.service.UserService;
 import com.mycompany.myapp.service.dto.AdminUserDTO;
+import com.mycompany.myapp.service.dto.AuthorityAssignmentDTO;
 import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
 import com.mycompany.myapp.web.rest.errors.EmailAlreadyUsedException;
 import com.mycompany.myapp.web.rest.errors.LoginAlreadyUsedException;
+import com.mycompany.myapp.web.rest.util.BulkRequestValidator;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.*;
 import java.util.Collections;
 import javax.validation.Valid;
+import javax.validation.Validator;
 import javax.validation.constraints.Pattern;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -87,10 +91,22 @@ public class UserResource {
 
     private final MailService mailService;
 
-    public UserResource(UserService userService, UserRepository userRepository, MailService mailService) {
+    private final Validator validator;
+
+    private final ApplicationProperties applicationProperties;
+
+    public UserResource(
+        UserService userService,
+        UserRepository userRepository,
+        MailService mailService,
+        Validator validator,
+        ApplicationProperties applicationProperties
+    ) {
         this.userService = userService;
         this.userRepository = userRepository;
         this.mailService = mailService;
+        this.validator = validator;
+        this.applicationProperties = applicationProperties;
     }
 
     /**
@@ -129,6 +145,121 @@ public class UserResource {
         }
     }
 
+    /**
+     * {@code POST  /admin/users/bulk}  : Creates new users.
+     * <p>
+     * The users are created as by {@link #createUser(AdminUserDTO)}, in JDBC batches within one transaction: either
+     * all of them are created, or none. The logins and emails already in use are all looked up with one statement,
+     * and the creation emails are sent once the users are created.
+     *
+     * @param userDTOs the users to create.
+     * @return the {@link ResponseEntity} with status {@code 201 (Created)} and with body the new users, or with status {@code 400 (Bad Request)} and the errors of every invalid user.
+     */
+    @PostMapping("/users/bulk")
+    @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
+    public ResponseEntity<List<User>> createUsers(@RequestBody List<AdminUserDTO> userDTOs) {
+        log.debug("REST request to save {} Users", userDTOs.size());
+        BulkRequestValidator<AdminUserDTO> bulkRequestValidator = BulkRequestValidator.of(
+            userDTOs,
+            applicationProperties.getBulk().getMaxItems(),
+            "userManagement"
+        );
+        Set<String> keys = new HashSet<>();
+        for (AdminUserDTO userDTO : userDTOs) {
+            if (userDTO != null) {
+                Optional.ofNullable(lowerCase(userDTO.getLogin())).ifPresent(keys::add);
+                Optional.ofNullable(lowerCase(userDTO.getEmail())).ifPresent(keys::add);
+            }
+        }
+        Set<String> usedLogins = new HashSet<>();
+        Set<String> usedEmails = new HashSet<>();
+        if (!keys.isEmpty()) {
+            for (Object[] loginAndEmail : userRepository.findLoginsAndEmailsByLoginOrEmailIn(keys)) {
+                usedLogins.add((String) loginAndEmail[0]);
+                usedEmails.add((String) loginAndEmail[1]);
+            }
+        }
+        bulkRequestValidator
+            .validate(validator)
+            .check(userDTO -> userDTO.getId() == null, "id", "idexists")
+            .unique(userDTO -> lowerCase(userDTO.getLogin()), "login", "loginduplicate")
+            .unique(userDTO -> lowerCase(userDTO.getEmail()), "email", "emailduplicate")
+            .check(userDTO -> !usedLogins.contains(lowerCase(userDTO.getLogin())), "login", "userexists")
+            .check(userDTO -> userDTO.getEmail() == null || !usedEmails.contains(lowerCase(userDTO.getEmail())), "email", "emailexists")
+            .throwIfInvalid();
+        List<User> result = userService.createUsers(userDTOs);
+        mailService.sendCreationEmails(result);
+        return ResponseEntity
+            .status(HttpStatus.CREATED)
+            .headers(HeaderUtil.createAlert(applicationName, result.size() + " users are created", String.valueOf(result.size())))
+            .body(result);
+    }
+
+    /**
+     * {@code POST  /admin/users/grant-authority}  : Grants an authority to many users.
+     * <p>
+     * The authority is granted to the users of some logins, or to all the users holding another authority, with one
+     * set-based statement which skips the users who already hold it.
+     *
+     * @param assignment the authority and the users to grant it to.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the number of users granted the authority, or with status {@code 400 (Bad Request)} if an authority is unknown or the users are not given by exactly one criterion.
+     */
+    @PostMapping("/users/grant-authority")
+    @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
+    public ResponseEntity<Integer> grantAuthority(@Valid @RequestBody AuthorityAssignmentDTO assignment) {
+        log.debug("REST request to grant an Authority to Users : {}", assignment);
+        checkAssignment(assignment);
+        int granted = userService.grantAuthority(assignment);
+        String message = granted + " users are granted " + assignment.getAuthority();
+        return ResponseEntity.ok().headers(HeaderUtil.createAlert(applicationName, message, String.valueOf(granted))).body(granted);
+    }
+
+    /**
+     * {@code POST  /admin/users/revoke-authority}  : Revokes an authority from many users.
+     * <p>
+     * The authority is revoked from the users of some logins, or from all the users holding another authority, with one
+     * set-based statement which only deletes the memberships that exist.
+     *
+     * @param assignment the authority and the users to revoke it from.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the number of users whose authority is revoked, or with status {@code 400 (Bad Request)} if an authority is unknown, the users are not given by exactly one criterion, or no administrator would remain.
+     */
+    @PostMapping("/users/revoke-authority")
+    @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
+    public ResponseEntity<Integer> revokeAuthority(@Valid @RequestBody AuthorityAssignmentDTO assignment) {
+        log.debug("REST request to revoke an Authority from Users : {}", assignment);
+        checkAssignment(assignment);
+        int revoked = userService.revokeAuthority(assignment);
+        String message = revoked + " users are revoked " + assignment.getAuthority();
+        return ResponseEntity.ok().headers(HeaderUtil.createAlert(applicationName, message, String.valueOf(revoked))).body(revoked);
+    }
+
+    private void checkAssignment(AuthorityAssignmentDTO assignment) {
+        List<String> authorities = userService.getAuthorities();
+        if (!authorities.contains(assignment.getAuthority())) {
+            throw new BadRequestAlertException("Unknown authority", "userManagement", "authoritynotfound");
+        }
+        if ((assignment.getHoldersOf() == null) == (assignment.getLogins() == null || assignment.getLogins().isEmpty())) {
+            throw new BadRequestAlertException("Give either the logins or the authority of the users", "userManagement", "criteria");
+        }
+        if (assignment.getHoldersOf() != null && !authorities.contains(assignment.getHoldersOf())) {
+            throw new BadRequestAlertException("Unknown authority", "userManagement", "authoritynotfound");
+        }
+        if (assignment.getAuthority().equals(assignment.getHoldersOf())) {
+            throw new BadRequestAlertException("The users cannot be given by the authority itself", "userManagement", "criteria");
+        }
+        int maxItems = applicationProperties.getBulk().getMaxItems();
+        if (assignment.getLogins() != null && assignment.getLogins().contains(null)) {
+            throw new BadRequestAlertException("A login cannot be null", "userManagement", "criteria");
+        }
+        if (assignment.getLogins() != null && assignment.getLogins().size() > maxItems) {
+            throw new BadRequestAlertException("A bulk request holds at most " + maxItems + " items", "userManagement", "bulktoolarge");
+        }
+    }
+
+    private static String lowerCase(String value) {
+        return value != null ? value.toLowerCase(Locale.ENGLISH) : null;
+    }
+
     /**
      * {@code PUT /admin/users} : Updates an existing User.
      *
@@ -0,0 +1,42 @@
+package com.mycompany.myapp.web.rest.errors;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.zalando.problem.AbstractThrowableProblem;
+import org.zalando.problem.Status;
+
+/**
+ * Thrown when some items of a bulk request are not valid. Each field error names the item by its index in the request,
+ * as in {@code resident[3]}.
+ */
+public class BulkValidationException extends AbstractThrowableProblem {
+
+    private static final long serialVersionUID = 1L;
+
+    private final List<FieldErrorVM> fieldErrors;
+
+    public BulkValidationException(List<FieldErrorVM> fieldErrors) {
+        super(
+            ErrorConstants.CONSTRAINT_VIOLATION_TYPE,
+            "Bulk request not valid",
+            Status.BAD_REQUEST,
+            null,
+            null,
+            null,
+            getValidationParameters(fieldErrors)
+        );
+        this.fieldErrors = fieldErrors;
+    }
+
+    public List<FieldErrorVM> getFieldErrors() {
+        return fieldErrors;
+    }
+
+    private static Map<String, Object> getValidationParameters(List<FieldErrorVM> fieldErrors) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("message", ErrorConstants.ERR_VALIDATION);
+        parameters.put("fieldErrors", fieldErrors);
+        return parameters;
+    }
+}
@@ -1,5 +1,8 @@
 package com.mycompany.myapp.web.rest.errors;
 
+import com.mycompany.myapp.security.PasswordHashingUnavailableException;
+import com.mycompany.myapp.security.RateLimitExceededException;
+import com.mycompany.myapp.service.LastAdministratorException;
 import java.net.URI;
 import java.util.Arrays;
 import java.util.Collection;
@@ -14,8 +17,10 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.env.Environment;
 import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageConversionException;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -149,6 +154,11 @@ public class ExceptionTranslator implements ProblemHandling, SecurityAdviceTrait
         return create(new InvalidPasswordException(), request);
     }
 
+    @ExceptionHandler
+    public ResponseEntity<Problem> handleLastAdministratorException(LastAdministratorException ex, NativeWebRequest request) {
+        return handleBadRequestAlertException(new BadRequestAlertException(ex.getMessage(), "userManagement", "lastadmin"), request);
+    }
+
     @ExceptionHandler
     public ResponseEntity<Problem> handleBadRequestAlertException(BadRequestAlertException ex, NativeWebRequest request) {
         return create(
@@ -164,6 +174,46 @@ public class ExceptionTranslator implements ProblemHandling, SecurityAdviceTrait
         return create(ex, problem, request);
     }
 
+    @ExceptionHandler
+    public ResponseEntity<Problem> handlePasswordHashingUnavailable(PasswordHashingUnavailableException ex, NativeWebRequest request) {
+        Problem problem = Problem
+            .builder()
+            .withStatus(Status.SERVICE_UNAVAILABLE)
+            .with(MESSAGE_KEY, ErrorConstants.ERR_SERVICE_UNAVAILABLE)
+            .build();
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, ex.getRetryAfter().toSeconds())));
+        return create(ex, problem, request, headers);
+    }
+
+    @ExceptionHandler
+    public ResponseEntity<Problem> handleRateLimitExceeded(RateLimitExceededException ex, NativeWebRequest request) {
+        Problem problem = Problem
+            .builder()
+            .withStatus(Status.TOO_MANY_REQUESTS)
+            .with(MESSAGE_KEY, ErrorConstants.ERR_TOO_MANY_REQUESTS)
+            .build();
+        HttpHeaders headers = new HttpHeaders();
+        // Retry-After is in whole seconds, rounded up so that the retry is not rejected again
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, (ex.getRetryAfter().toMillis() + 999) / 1000)));
+        return create(ex, problem, request, headers);
+    }
+
+    /**
+     * The password of an unknown user is still checked against a dummy one, whose rejection is wrapped by the
+     * authentication provider.
+     */
+    @ExceptionHandler
+    public ResponseEntity<Problem> handleInternalAuthenticationService(
+        InternalAuthenticationServiceException ex,
+        NativeWebRequest request
+    ) {
+        if (ex.getCause() instanceof PasswordHashingUnavailableException) {
+            return handlePasswordHashingUnavailable((PasswordHashingUnavailableException) ex.getCause(), request);
+        }
+        return handleAuthentication(ex, request);
+    }
+
     @Override
     public ProblemBuilder prepare(final Throwable throwable, final StatusType status, final URI type) {
         Collection<String> activeProfiles = Arrays.asList(env.getActiveProfiles());
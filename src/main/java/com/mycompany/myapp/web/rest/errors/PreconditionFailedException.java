@@ -0,0 +1,32 @@
+package com.mycompany.myapp.web.rest.errors;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.zalando.problem.AbstractThrowableProblem;
+import org.zalando.problem.Status;
+
+/**
+ * Thrown when the {@code If-Match} header of a write does not match the current version of the entity.
+ */
+public class PreconditionFailedException extends AbstractThrowableProblem {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String entityName;
+
+    public PreconditionFailedException(String defaultMessage, String entityName) {
+        super(ErrorConstants.DEFAULT_TYPE, defaultMessage, Status.PRECONDITION_FAILED, null, null, null, getAlertParameters(entityName));
+        this.entityName = entityName;
+    }
+
+    public String getEntityName() {
+        return entityName;
+    }
+
+    private static Map<String, Object> getAlertParameters(String entityName) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("message", ErrorConstants.ERR_PRECONDITION_FAILED);
+        parameters.put("params", entityName);
+        return parameters;
+    }
+}
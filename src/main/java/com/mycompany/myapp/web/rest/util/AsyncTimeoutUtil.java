@@ -0,0 +1,50 @@
+package com.mycompany.myapp.web.rest.util;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+
+/**
+ * Utility class for giving a single asynchronous request, such as a streamed export, its own timeout.
+ * <p>
+ * The handler records the timeout on the request with {@link #setTimeout(WebRequest, Duration)}, and the
+ * {@link #timeoutInterceptor()} applies it when the asynchronous processing starts, the other asynchronous requests
+ * keeping the container default.
+ */
+public final class AsyncTimeoutUtil {
+
+    private static final String TIMEOUT_ATTRIBUTE = AsyncTimeoutUtil.class.getName() + ".TIMEOUT";
+
+    private AsyncTimeoutUtil() {}
+
+    /**
+     * Set the timeout of the asynchronous processing of the current request.
+     *
+     * @param request the current request.
+     * @param timeout the timeout.
+     */
+    public static void setTimeout(WebRequest request, Duration timeout) {
+        request.setAttribute(TIMEOUT_ATTRIBUTE, timeout, RequestAttributes.SCOPE_REQUEST);
+    }
+
+    /**
+     * Return the interceptor which applies the timeouts set with {@link #setTimeout(WebRequest, Duration)}.
+     *
+     * @return the interceptor, to register with the asynchronous support of Spring MVC.
+     */
+    public static CallableProcessingInterceptor timeoutInterceptor() {
+        return new CallableProcessingInterceptor() {
+            @Override
+            public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+                Object timeout = request.getAttribute(TIMEOUT_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+                if (timeout instanceof Duration && request instanceof AsyncWebRequest) {
+                    ((AsyncWebRequest) request).setTimeout(((Duration) timeout).toMillis());
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,174 @@
+package com.mycompany.myapp.web.rest.util;
+
+import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import com.mycompany.myapp.web.rest.errors.BulkValidationException;
+import com.mycompany.myapp.web.rest.errors.FieldErrorVM;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+
+/**
+ * Collects the errors of every item of a bulk request, so that the client gets them all in one response instead of
+ * only the first one.
+ *
+ * @param <T> the type of the items.
+ */
+public final class BulkRequestValidator<T> {
+
+    private final List<T> items;
+
+    private final String entityName;
+
+    private final List<FieldErrorVM> fieldErrors = new ArrayList<>();
+
+    private BulkRequestValidator(List<T> items, String entityName) {
+        this.items = items;
+        this.entityName = entityName;
+    }
+
+    /**
+     * Start validating the items of a bulk request.
+     *
+     * @param items the items of the request.
+     * @param maxItems the maximum number of items of a request.
+     * @param entityName the name of the entity, used in the error messages.
+     * @param <T> the type of the items.
+     * @return the validator.
+     * @throws BadRequestAlertException {@code 400 (Bad Request)} if there is no item or too many items.
+     */
+    public static <T> BulkRequestValidator<T> of(List<T> items, int maxItems, String entityName) {
+        if (items.isEmpty()) {
+            throw new BadRequestAlertException("A bulk request needs at least one item", entityName, "bulkempty");
+        }
+        if (items.size() > maxItems) {
+            throw new BadRequestAlertException("A bulk request holds at most " + maxItems + " items", entityName, "bulktoolarge");
+        }
+        return new BulkRequestValidator<>(items, entityName);
+    }
+
+    /**
+     * Check the bean validation constraints of every item.
+     *
+     * @param validator the bean validator.
+     * @return this validator.
+     */
+    public BulkRequestValidator<T> validate(Validator validator) {
+        for (int i = 0; i < items.size(); i++) {
+            if (items.get(i) == null) {
+                reject(i, "", "NotNull");
+                continue;
+            }
+            for (ConstraintViolation<T> violation : validator.validate(items.get(i))) {
+                reject(i, violation.getPropertyPath().toString(), violation.getMessage());
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Check a rule on every non null item.
+     *
+     * @param rule the rule which the items must follow.
+     * @param field the field reported when an item breaks the rule.
+     * @param message the message reported when an item breaks the rule.
+     * @return this validator.
+     */
+    public BulkRequestValidator<T> check(Predicate<? super T> rule, String field, String message) {
+        for (int i = 0; i < items.size(); i++) {
+            if (items.get(i) != null && !rule.test(items.get(i))) {
+                reject(i, field, message);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Check that no two non null items share the same key, the later duplicates are rejected.
+     *
+     * @param key the key of an item, items with a {@code null} key are not checked.
+     * @param field the field reported for a duplicate.
+     * @param message the message reported for a duplicate.
+     * @return this validator.
+     */
+    public BulkRequestValidator<T> unique(Function<? super T, ?> key, String field, String message) {
+        Set<Object> keys = new HashSet<>();
+        return check(item -> key.apply(item) == null || keys.add(key.apply(item)), field, message);
+    }
+
+    /**
+     * Check that the key of every non null item is found in the database, such as the id of the entity it references.
+     *
+     * @param key the key of an item, items with a {@code null} key are not checked.
+     * @param findExisting the query returning which of the given keys are found in the database.
+     * @param field the field reported when a key is not found.
+     * @param message the message reported when a key is not found.
+     * @param <K> the type of the keys.
+     * @return this validator.
+     */
+    public <K> BulkRequestValidator<T> exists(
+        Function<? super T, K> key,
+        Function<Set<K>, ? extends Collection<K>> findExisting,
+        String field,
+        String message
+    ) {
+        Set<K> keys = keys(key);
+        Set<K> existingKeys = keys.isEmpty() ? Set.of() : new HashSet<>(findExisting.apply(keys));
+        return check(item -> key.apply(item) == null || existingKeys.contains(key.apply(item)), field, message);
+    }
+
+    /**
+     * Check that the key of every non null item is not held by another entity in the database, such as the value of a
+     * unique column. An item may keep the key it already holds.
+     *
+     * @param key the key of an item, items with a {@code null} key are not checked.
+     * @param id the id of an item, {@code null} for a new item.
+     * @param findHolders the query returning the ids of the entities holding the given keys, by key.
+     * @param field the field reported when a key is held by another entity.
+     * @param message the message reported when a key is held by another entity.
+     * @param <K> the type of the keys.
+     * @return this validator.
+     */
+    public <K> BulkRequestValidator<T> available(
+        Function<? super T, K> key,
+        Function<? super T, Long> id,
+        Function<Set<K>, Map<K, Long>> findHolders,
+        String field,
+        String message
+    ) {
+        Set<K> keys = keys(key);
+        Map<K, Long> holders = keys.isEmpty() ? Map.of() : findHolders.apply(keys);
+        return check(
+            item -> key.apply(item) == null || !holders.containsKey(key.apply(item)) || holders.get(key.apply(item)).equals(id.apply(item)),
+            field,
+            message
+        );
+    }
+
+    /**
+     * End the validation.
+     *
+     * @throws BulkValidationException {@code 400 (Bad Request)} with the errors of every invalid item, if any.
+     */
+    public void throwIfInvalid() {
+        if (!fieldErrors.isEmpty()) {
+            throw new BulkValidationException(fieldErrors);
+        }
+    }
+
+    private <K> Set<K> keys(Function<? super T, K> key) {
+        return items.stream().filter(Objects::nonNull).map(key).filter(Objects::nonNull).collect(Collectors.toSet());
+    }
+
+    private void reject(int index, String field, String message) {
+        fieldErrors.add(new FieldErrorVM(entityName + "[" + index + "]", field, message));
+    }
+}
@@ -0,0 +1,131 @@
+package com.mycompany.myapp.web.rest.util;
+
+import com.mycompany.myapp.domain.AbstractVersionedEntity;
+import com.mycompany.myapp.repository.EntityVersion;
+import com.mycompany.myapp.web.rest.errors.PreconditionFailedException;
+import java.util.Optional;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Utility class for handling conditional requests on versioned entities.
+ * <p>
+ * The {@code ETag} of an entity is the strong tag of its version, and its {@code Last-Modified} date is its last
+ * modification date. Conditional GETs with {@code If-None-Match} or {@code If-Modified-Since} are answered with
+ * {@code 304 (Not Modified)}, and writes with {@code If-Match} are rejected with {@code 412 (Precondition Failed)} when
+ * the entity has changed.
+ */
+public final class ConditionalRequestUtil {
+
+    private static final String ANY_ETAG = "*";
+
+    private ConditionalRequestUtil() {}
+
+    /**
+     * Build the strong {@code ETag} of a version.
+     *
+     * @param version the version of the entity.
+     * @return the quoted tag.
+     */
+    public static String toETag(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Build the {@code ETag} and {@code Last-Modified} headers of an entity.
+     *
+     * @param entity the entity.
+     * @return the headers, without the ones whose value is not known yet.
+     */
+    public static HttpHeaders createVersionHeaders(AbstractVersionedEntity entity) {
+        HttpHeaders headers = new HttpHeaders();
+        if (entity.getVersion() != null) {
+            headers.setETag(toETag(entity.getVersion()));
+        }
+        if (entity.getLastModifiedDate() != null) {
+            headers.setLastModified(entity.getLastModifiedDate());
+        }
+        return headers;
+    }
+
+    /**
+     * Tell if the request is a conditional GET, which may be answered from the version of the entity alone.
+     *
+     * @param request the current request.
+     * @return {@code true} if the request has an {@code If-None-Match} or an {@code If-Modified-Since} header.
+     */
+    public static boolean isConditionalGet(WebRequest request) {
+        return request.getHeader(HttpHeaders.IF_NONE_MATCH) != null || request.getHeader(HttpHeaders.IF_MODIFIED_SINCE) != null;
+    }
+
+    /**
+     * Check the {@code If-None-Match} and {@code If-Modified-Since} headers against the version of an entity. When the
+     * entity is not modified, the {@code 304 (Not Modified)} status and the version headers are set on the response.
+     *
+     * @param request the current request.
+     * @param version the current version of the entity.
+     * @return {@code true} if the client already has the current version of the entity.
+     */
+    public static boolean checkNotModified(WebRequest request, EntityVersion version) {
+        long lastModified = version.getLastModifiedDate() == null ? -1 : version.getLastModifiedDate().toEpochMilli();
+        return request.checkNotModified(toETag(version.getVersion()), lastModified);
+    }
+
+    /**
+     * Resolve the version which a write of an entity must apply to, so that it fails if the entity is updated
+     * concurrently.
+     *
+     * @param request the current request.
+     * @param requestedVersion the version held by the request body, may be {@code null}.
+     * @param currentVersion the current version of the entity.
+     * @param entityName the name of the written entity, used in the error message.
+     * @return the current version if the request has an {@code If-Match} header or no version, else the requested version.
+     * @throws PreconditionFailedException {@code 412 (Precondition Failed)} if the {@code If-Match} header does not match the current version.
+     */
+    public static Long resolveWriteVersion(WebRequest request, Long requestedVersion, EntityVersion currentVersion, String entityName) {
+        String[] ifMatch = request.getHeaderValues(HttpHeaders.IF_MATCH);
+        if (ifMatch == null) {
+            return requestedVersion != null ? requestedVersion : currentVersion.getVersion();
+        }
+        String currentETag = toETag(currentVersion.getVersion());
+        for (String header : ifMatch) {
+            for (String etag : header.split(",")) {
+                // If-Match uses the strong comparison, so weak tags never match
+                if (ANY_ETAG.equals(etag.trim()) || currentETag.equals(etag.trim())) {
+                    return currentVersion.getVersion();
+                }
+            }
+        }
+        throw new PreconditionFailedException("The entity has been modified", entityName);
+    }
+
+    /**
+     * Wrap the optional entity into a {@link ResponseEntity} with its version headers, or throw a
+     * {@code 404 (Not Found)} {@link ResponseStatusException} if it is empty.
+     *
+     * @param <X> type of the entity.
+     * @param maybeResponse the entity to wrap.
+     * @return the response with status {@code 200 (OK)}.
+     */
+    public static <X extends AbstractVersionedEntity> ResponseEntity<X> wrapOrNotFound(Optional<X> maybeResponse) {
+        return wrapOrNotFound(maybeResponse, null);
+    }
+
+    /**
+     * Wrap the optional entity into a {@link ResponseEntity} with its version headers and the given headers, or throw
+     * a {@code 404 (Not Found)} {@link ResponseStatusException} if it is empty.
+     *
+     * @param <X> type of the entity.
+     * @param maybeResponse the entity to wrap.
+     * @param header the headers to add, may be {@code null}.
+     * @return the response with status {@code 200 (OK)}.
+     */
+    public static <X extends AbstractVersionedEntity> ResponseEntity<X> wrapOrNotFound(Optional<X> maybeResponse, HttpHeaders header) {
+        return maybeResponse
+            .map(response -> ResponseEntity.ok().headers(header).headers(createVersionHeaders(response)).body(response))
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+    }
+}
@@ -0,0 +1,141 @@
+package com.mycompany.myapp.web.rest.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Writes entities one at a time to an export stream, in one of the {@link ExportFormat}s.
+ * <p>
+ * Output is buffered in chunks of {@value #BUFFER_SIZE} characters, each written to the stream as soon as it is full,
+ * and the tail is flushed on {@link #close()}. The entities can so be fed straight from a database cursor without
+ * holding them in memory.
+ *
+ * @param <T> the type of the exported entities.
+ */
+public class EntityExportWriter<T> implements Consumer<T>, Closeable {
+
+    private static final char CSV_SEPARATOR = ';';
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Writer writer;
+
+    private final ExportFormat format;
+
+    private final ObjectWriter jsonWriter;
+
+    private final List<Column<T>> columns;
+
+    /**
+     * @param outputStream the stream to write to, left open on {@link #close()}.
+     * @param format the export format.
+     * @param objectMapper the mapper used for {@link ExportFormat#NDJSON}.
+     * @param columns the columns used for {@link ExportFormat#CSV}.
+     */
+    public EntityExportWriter(OutputStream outputStream, ExportFormat format, ObjectMapper objectMapper, List<Column<T>> columns) {
+        this.writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), BUFFER_SIZE);
+        this.format = format;
+        this.jsonWriter =
+            objectMapper
+                .writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .without(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+        this.columns = columns;
+        if (format == ExportFormat.CSV) {
+            writeCsvLine(columns.stream().map(Column::getName).toArray());
+        }
+    }
+
+    /**
+     * Define a CSV column.
+     *
+     * @param name the name of the column, used in the header line.
+     * @param extractor the function giving the value of the column for an entity, may return {@code null}.
+     * @param <T> the type of the exported entities.
+     * @return the column.
+     */
+    public static <T> Column<T> column(String name, Function<? super T, ?> extractor) {
+        return new Column<>(name, extractor);
+    }
+
+    @Override
+    public void accept(T entity) {
+        try {
+            if (format == ExportFormat.NDJSON) {
+                jsonWriter.writeValue(writer, entity);
+                writer.write('\n');
+            } else {
+                writeCsvLine(columns.stream().map(column -> column.getExtractor().apply(entity)).toArray());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.flush();
+    }
+
+    private void writeCsvLine(Object[] values) {
+        try {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(CSV_SEPARATOR);
+                }
+                if (values[i] != null) {
+                    writer.write(escapeCsv(values[i].toString()));
+                }
+            }
+            writer.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String escapeCsv(String value) {
+        if (value.indexOf(CSV_SEPARATOR) < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * A column of a CSV export.
+     *
+     * @param <T> the type of the exported entities.
+     */
+    public static final class Column<T> {
+
+        private final String name;
+
+        private final Function<? super T, ?> extractor;
+
+        private Column(String name, Function<? super T, ?> extractor) {
+            this.name = name;
+            this.extractor = extractor;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Function<? super T, ?> getExtractor() {
+            return extractor;
+        }
+    }
+}
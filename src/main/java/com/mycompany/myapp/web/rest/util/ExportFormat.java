@@ -0,0 +1,53 @@
+package com.mycompany.myapp.web.rest.util;
+
+import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import java.util.Locale;
+import org.springframework.http.MediaType;
+
+/**
+ * Formats of the streamed entity exports.
+ */
+public enum ExportFormat {
+    /**
+     * Newline delimited JSON: one JSON document per entity and per line.
+     */
+    NDJSON("application/x-ndjson", "ndjson"),
+
+    /**
+     * Semicolon separated values, with a header line.
+     */
+    CSV("text/csv", "csv");
+
+    private final MediaType mediaType;
+
+    private final String extension;
+
+    ExportFormat(String mediaType, String extension) {
+        this.mediaType = MediaType.parseMediaType(mediaType);
+        this.extension = extension;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Resolve the {@code format} request parameter.
+     *
+     * @param format the {@code format} request parameter, case insensitive.
+     * @param entityName the name of the exported entity, used in the error message.
+     * @return the export format.
+     * @throws BadRequestAlertException {@code 400 (Bad Request)} if the format is not supported.
+     */
+    public static ExportFormat parse(String format, String entityName) {
+        try {
+            return valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Unsupported export format", entityName, "formatinvalid");
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.mycompany.myapp.web.rest.util;
+
+import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Utility class for handling field selection, where a client only asks for some fields of the entities with
+ * {@code ?fields=firstname,lastname}.
+ */
+public final class FieldSelectionUtil {
+
+    public static final String FIELDS_PARAMETER = "fields";
+
+    private FieldSelectionUtil() {}
+
+    /**
+     * Parse the {@code fields} request parameter.
+     *
+     * @param fields the comma separated field names.
+     * @param selectableFields the names of the fields which can be selected.
+     * @param entityName the name of the requested entity, used in the error message.
+     * @return the distinct field names, in request order.
+     * @throws BadRequestAlertException {@code 400 (Bad Request)} if a field cannot be selected.
+     */
+    public static List<String> parseFields(String fields, Set<String> selectableFields, String entityName) {
+        List<String> names = new ArrayList<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty() || names.contains(name)) {
+                continue;
+            }
+            if (!selectableFields.contains(name)) {
+                throw new BadRequestAlertException("Unknown field: " + name, entityName, "fieldinvalid");
+            }
+            names.add(name);
+        }
+        return names;
+    }
+}
@@ -0,0 +1,115 @@
+package com.mycompany.myapp.web.rest.util;
+
+import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Utility class for handling keyset (seek) pagination.
+ * <p>
+ * A client asks for the first slice with {@code ?size=}, then follows the {@code next} link of the
+ * <a href="https://tools.ietf.org/html/rfc5988">Link header</a>, which carries an opaque {@code after} cursor.
+ */
+public final class KeysetPaginationUtil {
+
+    public static final String AFTER_PARAMETER = "after";
+
+    public static final String SIZE_PARAMETER = "size";
+
+    public static final int DEFAULT_SIZE = 20;
+
+    public static final int MAX_SIZE = 2000;
+
+    private static final String HEADER_LINK_FORMAT = "<%s>; rel=\"%s\"";
+
+    private KeysetPaginationUtil() {}
+
+    /**
+     * Tell if the request asks for keyset pagination.
+     *
+     * @param after the {@code after} request parameter.
+     * @param size the {@code size} request parameter.
+     * @return {@code true} if one of the keyset pagination parameters is present.
+     */
+    public static boolean isKeysetRequest(String after, Integer size) {
+        return after != null || size != null;
+    }
+
+    /**
+     * Encode the id of the last entity of a slice as an opaque cursor.
+     *
+     * @param id the id of the last entity of the slice.
+     * @return the cursor.
+     */
+    public static String encodeCursor(Long id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(id.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a cursor built by {@link #encodeCursor(Long)}.
+     *
+     * @param cursor the cursor, may be {@code null} or empty for the first slice.
+     * @param entityName the name of the requested entity, used in the error message.
+     * @return the id to seek after, or {@code null} for the first slice.
+     * @throws BadRequestAlertException {@code 400 (Bad Request)} if the cursor is not valid.
+     */
+    public static Long decodeCursor(String cursor, String entityName) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            return Long.valueOf(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Invalid pagination cursor", entityName, "cursorinvalid");
+        }
+    }
+
+    /**
+     * Validate the requested slice size.
+     *
+     * @param size the {@code size} request parameter, may be {@code null}.
+     * @param entityName the name of the requested entity, used in the error message.
+     * @return the size to use.
+     * @throws BadRequestAlertException {@code 400 (Bad Request)} if the size is out of bounds.
+     */
+    public static int resolveSize(Integer size, String entityName) {
+        if (size == null) {
+            return DEFAULT_SIZE;
+        }
+        if (size < 1 || size > MAX_SIZE) {
+            throw new BadRequestAlertException("Page size must be between 1 and " + MAX_SIZE, entityName, "sizeinvalid");
+        }
+        return size;
+    }
+
+    /**
+     * Generate the pagination headers for a keyset slice: a {@code next} link if there are more entities.
+     *
+     * @param uriBuilder the builder of the current request URI, keeping the filtering parameters.
+     * @param slice the slice.
+     * @param idExtractor the function giving the id of an entity of the slice.
+     * @param <T> the type of the entities.
+     * @return the {@link HttpHeaders}.
+     */
+    public static <T> HttpHeaders generateKeysetPaginationHttpHeaders(
+        UriComponentsBuilder uriBuilder,
+        Slice<T> slice,
+        Function<T, Long> idExtractor
+    ) {
+        HttpHeaders headers = new HttpHeaders();
+        List<T> content = slice.getContent();
+        if (slice.hasNext() && !content.isEmpty()) {
+            String next = uriBuilder
+                .replaceQueryParam(AFTER_PARAMETER, encodeCursor(idExtractor.apply(content.get(content.size() - 1))))
+                .replaceQueryParam(SIZE_PARAMETER, slice.getSize())
+                .toUriString();
+            headers.add(HttpHeaders.LINK, String.format(HEADER_LINK_FORMAT, next, "next"));
+        }
+        return headers;
+    }
+}
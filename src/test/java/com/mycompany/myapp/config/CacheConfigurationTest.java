@@ -0,0 +1,86 @@
+package com.mycompany.myapp.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.interceptor.BasicOperation;
+import org.springframework.cache.interceptor.CacheOperationInvocationContext;
+import org.springframework.cache.support.NoOpCache;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.data.domain.SliceImpl;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Unit tests for the query caches of {@link CacheConfiguration}.
+ */
+class CacheConfigurationTest {
+
+    private ApplicationProperties applicationProperties;
+
+    private CacheManager cacheManager;
+
+    private CacheOperationInvocationContext<?> context;
+
+    @BeforeEach
+    public void setup() {
+        applicationProperties = new ApplicationProperties();
+        cacheManager = new ConcurrentMapCacheManager("residentsByCriteria");
+
+        BasicOperation operation = mock(BasicOperation.class);
+        when(operation.getCacheNames()).thenReturn(Set.of("residentsByCriteria"));
+        context = mock(CacheOperationInvocationContext.class);
+        when(context.getOperation()).thenAnswer(invocation -> operation);
+    }
+
+    @Test
+    void queryCachesAreTransactionAware() {
+        Collection<? extends Cache> caches = new CacheConfiguration(new JHipsterProperties(), applicationProperties)
+            .queryCacheResolver(cacheManager)
+            .resolveCaches(context);
+
+        assertThat(caches).singleElement().isInstanceOf(TransactionAwareCacheDecorator.class);
+    }
+
+    @Test
+    void queryCachesCanBeDisabled() {
+        applicationProperties.getQueryCache().setEnabled(false);
+
+        Collection<? extends Cache> caches = new CacheConfiguration(new JHipsterProperties(), applicationProperties)
+            .queryCacheResolver(cacheManager)
+            .resolveCaches(context);
+
+        assertThat(caches).singleElement().isInstanceOf(NoOpCache.class);
+    }
+
+    @Test
+    void queryKeysDependOnTheMethod() throws Exception {
+        CacheConfiguration cacheConfiguration = new CacheConfiguration(new JHipsterProperties(), applicationProperties);
+        Method hashCode = Object.class.getMethod("hashCode");
+        Method toString = Object.class.getMethod("toString");
+
+        Object key = cacheConfiguration.queryKeyGenerator().generate(this, hashCode, "criteria");
+
+        assertThat(key).isEqualTo(cacheConfiguration.queryKeyGenerator().generate(this, hashCode, "criteria"));
+        assertThat(key).isNotEqualTo(cacheConfiguration.queryKeyGenerator().generate(this, toString, "criteria"));
+        assertThat(key).isNotEqualTo(cacheConfiguration.queryKeyGenerator().generate(this, hashCode, "other"));
+    }
+
+    @Test
+    void querySlicesAreWeighedByTheirRows() {
+        CacheConfiguration.SliceWeigher weigher = new CacheConfiguration.SliceWeigher();
+
+        assertThat(weigher.weigh("key", new SliceImpl<>(List.of("a", "b", "c")))).isEqualTo(4);
+        assertThat(weigher.weigh("key", new SliceImpl<>(List.of()))).isEqualTo(1);
+        assertThat(weigher.weigh("key", 3L)).isEqualTo(1);
+    }
+}
@@ -0,0 +1,178 @@
+package com.mycompany.myapp.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.domain.Facility;
+import com.mycompany.myapp.domain.Resident;
+import com.mycompany.myapp.domain.Room;
+import com.mycompany.myapp.domain.User;
+import com.mycompany.myapp.repository.FacilityRepository;
+import com.mycompany.myapp.repository.ResidentRepository;
+import com.mycompany.myapp.repository.RoomRepository;
+import com.mycompany.myapp.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for the Hibernate second-level cache configured in {@link CacheConfiguration}.
+ * <p>
+ * The second-level cache is disabled for the other integration tests, and every transaction of these tests is
+ * committed, so they clean up the data they create.
+ */
+@IntegrationTest
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.cache.use_second_level_cache=true")
+class HibernateCacheIT {
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private ResidentRepository residentRepository;
+
+    @Autowired
+    private FacilityRepository facilityRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Statistics statistics;
+
+    private Room room;
+
+    private final List<Resident> residents = new ArrayList<>();
+
+    private final List<Facility> facilities = new ArrayList<>();
+
+    @BeforeEach
+    public void setup() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        room = roomRepository.saveAndFlush(new Room().roomno("cached").floor(1));
+    }
+
+    @AfterEach
+    public void cleanup() {
+        // Delete by id, as the saved copies may be older versions of the entities
+        facilities.forEach(facility -> facilityRepository.deleteById(facility.getId()));
+        residents.forEach(resident -> residentRepository.deleteById(resident.getId()));
+        roomRepository.deleteById(room.getId());
+    }
+
+    @Test
+    void roomIsReadFromSecondLevelCache() {
+        resetCacheAndStatistics();
+
+        long firstReadStatements = countStatements(() -> roomRepository.findById(room.getId()));
+        long secondReadStatements = countStatements(() -> roomRepository.findById(room.getId()));
+
+        assertThat(firstReadStatements).isEqualTo(1);
+        assertThat(secondReadStatements).isZero();
+        assertThat(statistics.getDomainDataRegionStatistics(Room.class.getName()).getHitCount()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", Room.class.getName()).tag("result", "hit").functionCounter().count())
+            .isPositive();
+    }
+
+    @Test
+    void facilityAndItsRoomAreReadFromSecondLevelCache() {
+        Facility facility = facilityRepository.saveAndFlush(new Facility().aC(true).parking(false).wifi(true).room(room));
+        facilities.add(facility);
+        resetCacheAndStatistics();
+
+        long firstReadStatements = countStatements(() -> facilityRepository.findById(facility.getId()).map(Facility::getRoom));
+        long secondReadStatements = countStatements(() -> facilityRepository.findById(facility.getId()).map(Facility::getRoom));
+
+        assertThat(firstReadStatements).isPositive();
+        assertThat(secondReadStatements).isZero();
+        assertThat(statistics.getDomainDataRegionStatistics(Facility.class.getName()).getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void roomResidentsAreReadFromSecondLevelCache() {
+        residents.add(residentRepository.saveAndFlush(createResident("first").room(room)));
+        residents.add(residentRepository.saveAndFlush(createResident("second").room(room)));
+        resetCacheAndStatistics();
+
+        long firstReadStatements = countStatements(() -> roomRepository.findById(room.getId()).map(r -> r.getResidents().size()));
+        long secondReadStatements = countStatements(() -> roomRepository.findById(room.getId()).map(r -> r.getResidents().size()));
+
+        assertThat(firstReadStatements).isPositive();
+        assertThat(secondReadStatements).isZero();
+        assertThat(statistics.getDomainDataRegionStatistics(Room.class.getName() + ".residents").getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void roomResidentsAreEvictedWhenAResidentMoves() {
+        Resident resident = residentRepository.saveAndFlush(createResident("first").room(room));
+        residents.add(resident);
+        resetCacheAndStatistics();
+        assertThat(countRoomResidents()).isEqualTo(1);
+
+        residentRepository.saveAndFlush(resident.room(null));
+
+        assertThat(countRoomResidents()).isZero();
+    }
+
+    @Test
+    void userAuthoritiesAreReadFromSecondLevelCache() {
+        Long userId = userRepository.findOneByLogin("admin").map(User::getId).orElseThrow();
+        resetCacheAndStatistics();
+
+        long firstReadStatements = countStatements(() -> userRepository.findById(userId).map(user -> user.getAuthorities().size()));
+        long secondReadStatements = countStatements(() -> userRepository.findById(userId).map(user -> user.getAuthorities().size()));
+
+        // Users are not cached, only their authorities
+        assertThat(firstReadStatements).isGreaterThan(1);
+        assertThat(secondReadStatements).isEqualTo(1);
+        assertThat(statistics.getDomainDataRegionStatistics(User.class.getName() + ".authorities").getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void purgeOfUserAuthoritiesKeepsTheOtherCachedEntities() {
+        resetCacheAndStatistics();
+        roomRepository.findById(room.getId());
+        assertThat(entityManagerFactory.getCache().contains(Room.class, room.getId())).isTrue();
+
+        transactionTemplate.execute(status -> userRepository.deleteAuthoritiesOfNotActivatedUsers(List.of(Long.MAX_VALUE)));
+
+        assertThat(entityManagerFactory.getCache().contains(Room.class, room.getId())).isTrue();
+    }
+
+    private static Resident createResident(String name) {
+        return new Resident().firstname(name).lastname(name).email(name + "@localhost").phonenumber("0000000000");
+    }
+
+    private int countRoomResidents() {
+        return transactionTemplate.execute(status -> roomRepository.findById(room.getId()).orElseThrow().getResidents().size());
+    }
+
+    private void resetCacheAndStatistics() {
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+    }
+
+    private long countStatements(Supplier<?> work) {
+        long before = statistics.getPrepareStatementCount();
+        transactionTemplate.execute(status -> work.get());
+        return statistics.getPrepareStatementCount() - before;
+    }
+}
@@ -4,14 +4,20 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.util.Collection;
+import java.util.concurrent.TimeUnit;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 class SecurityMetersServiceTests {
 
     private static final String INVALID_TOKENS_METER_EXPECTED_NAME = "security.authentication.invalid-tokens";
+    private static final String LOGIN_METER_EXPECTED_NAME = "security.authentication.login";
+    private static final String USER_LOOKUP_METER_EXPECTED_NAME = "security.authentication.user-lookup";
+    private static final String TOKENS_METER_EXPECTED_NAME = "security.authentication.tokens";
+    private static final String TOKEN_FILTER_METER_EXPECTED_NAME = "security.authentication.token-filter";
 
     private MeterRegistry meterRegistry;
 
@@ -67,4 +73,53 @@ class SecurityMetersServiceTests {
 
         assertThat(meterRegistry.get(INVALID_TOKENS_METER_EXPECTED_NAME).tag("cause", "malformed").counter().count()).isEqualTo(1);
     }
+
+    @Test
+    void testAuthenticationTimersAreCreated() {
+        meterRegistry.get(LOGIN_METER_EXPECTED_NAME).tag("result", "success").timer();
+
+        meterRegistry.get(LOGIN_METER_EXPECTED_NAME).tag("result", "failure").timer();
+
+        meterRegistry.get(USER_LOOKUP_METER_EXPECTED_NAME).timer();
+
+        meterRegistry.get(TOKENS_METER_EXPECTED_NAME).tag("operation", "create").timer();
+
+        meterRegistry.get(TOKENS_METER_EXPECTED_NAME).tag("operation", "validate").timer();
+
+        meterRegistry.get(TOKEN_FILTER_METER_EXPECTED_NAME).timer();
+
+        Collection<Timer> timers = meterRegistry.find(LOGIN_METER_EXPECTED_NAME).timers();
+
+        assertThat(timers).hasSize(2);
+    }
+
+    @Test
+    void testTrackMethodsShouldBeBoundToCorrectTimers() {
+        securityMetersService.trackLogin(true, TimeUnit.MILLISECONDS.toNanos(100));
+
+        assertThat(meterRegistry.get(LOGIN_METER_EXPECTED_NAME).tag("result", "success").timer().totalTime(TimeUnit.MILLISECONDS))
+            .isEqualTo(100);
+        assertThat(meterRegistry.get(LOGIN_METER_EXPECTED_NAME).tag("result", "failure").timer().count()).isZero();
+
+        securityMetersService.trackLogin(false, TimeUnit.MILLISECONDS.toNanos(50));
+
+        assertThat(meterRegistry.get(LOGIN_METER_EXPECTED_NAME).tag("result", "failure").timer().count()).isEqualTo(1);
+
+        securityMetersService.trackUserLookup(1000);
+
+        assertThat(meterRegistry.get(USER_LOOKUP_METER_EXPECTED_NAME).timer().count()).isEqualTo(1);
+
+        securityMetersService.trackTokenCreation(1000);
+
+        assertThat(meterRegistry.get(TOKENS_METER_EXPECTED_NAME).tag("operation", "create").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(TOKENS_METER_EXPECTED_NAME).tag("operation", "validate").timer().count()).isZero();
+
+        securityMetersService.trackTokenValidation(1000);
+
+        assertThat(meterRegistry.get(TOKENS_METER_EXPECTED_NAME).tag("operation", "validate").timer().count()).isEqualTo(1);
+
+        securityMetersService.trackTokenFilter(1000);
+
+        assertThat(meterRegistry.get(TOKEN_FILTER_METER_EXPECTED_NAME).timer().count()).isEqualTo(1);
+    }
 }
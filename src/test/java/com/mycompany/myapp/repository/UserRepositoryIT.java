@@ -0,0 +1,71 @@
+package com.mycompany.myapp.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.domain.User;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for the lookups of {@link UserRepository}, and the indexes they use.
+ */
+@IntegrationTest
+@Transactional
+class UserRepositoryIT {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void assertThatEmailIsStoredLowerCased() {
+        User user = createUser("Repository-User@Example.com");
+
+        assertThat(user.getEmail()).isEqualTo("repository-user@example.com");
+        assertThat(userRepository.findOneByEmailIgnoreCase("REPOSITORY-USER@example.COM")).contains(user);
+        assertThat(userRepository.findOneByEmailIgnoreCase(null)).isEmpty();
+        assertThat(userRepository.findOneWithAuthoritiesByEmail("repository-user@example.com")).contains(user);
+    }
+
+    @Test
+    void assertThatEmailLookupUsesTheUniqueIndex() {
+        assertThat(explain("select id from jhi_user where email = ?")).containsIgnoringCase("ux_user_email").doesNotContain("tableScan");
+    }
+
+    @Test
+    void assertThatCaseInsensitiveEmailLookupScansTheTable() {
+        assertThat(explain("select id from jhi_user where lower(email) = lower(?)")).contains("tableScan");
+    }
+
+    @Test
+    void assertThatActivationAndResetKeyLookupsUseAnIndex() {
+        assertThat(explain("select id from jhi_user where activation_key = ?")).containsIgnoringCase("idx_user_activation_key");
+        assertThat(explain("select id from jhi_user where reset_key = ?")).containsIgnoringCase("idx_user_reset_key");
+    }
+
+    @Test
+    void assertThatActivatedUserSlicesSeekTheActivatedIndex() {
+        assertThat(explain("select id, login from jhi_user where activated = true and id > ? order by id fetch first 21 rows only"))
+            .containsIgnoringCase("idx_user_activated_id")
+            .doesNotContain("tableScan");
+    }
+
+    private String explain(String query) {
+        return jdbcTemplate.queryForObject("explain " + query, String.class, "key");
+    }
+
+    private User createUser(String email) {
+        User user = new User();
+        user.setLogin("repository-user");
+        user.setPassword(RandomStringUtils.random(60));
+        user.setActivated(true);
+        user.setEmail(email);
+        return userRepository.saveAndFlush(user);
+    }
+}
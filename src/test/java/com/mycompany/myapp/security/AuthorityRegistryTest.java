@@ -0,0 +1,77 @@
+package com.mycompany.myapp.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.mycompany.myapp.domain.Authority;
+import com.mycompany.myapp.repository.AuthorityRepository;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link AuthorityRegistry}.
+ */
+class AuthorityRegistryTest {
+
+    private AuthorityRepository authorityRepository;
+
+    private AuthorityRegistry authorityRegistry;
+
+    @BeforeEach
+    void setup() {
+        authorityRepository = mock(AuthorityRepository.class);
+        when(authorityRepository.findAll())
+            .thenReturn(List.of(authority(AuthoritiesConstants.USER), authority(AuthoritiesConstants.ADMIN)));
+        authorityRegistry = new AuthorityRegistry(authorityRepository);
+    }
+
+    @Test
+    void testLookupsAreServedFromMemory() {
+        authorityRegistry.load();
+
+        assertThat(authorityRegistry.getNames()).containsExactly(AuthoritiesConstants.ADMIN, AuthoritiesConstants.USER);
+        assertThat(authorityRegistry.getNames()).isSameAs(authorityRegistry.getNames());
+        assertThatThrownBy(() -> authorityRegistry.getNames().add("ROLE_OTHER")).isInstanceOf(UnsupportedOperationException.class);
+        assertThat(authorityRegistry.get(AuthoritiesConstants.USER).getName()).isEqualTo(AuthoritiesConstants.USER);
+        assertThat(authorityRegistry.getGrantedAuthority(AuthoritiesConstants.ADMIN))
+            .isSameAs(authorityRegistry.getGrantedAuthority(AuthoritiesConstants.ADMIN));
+        verify(authorityRepository, times(1)).findAll();
+    }
+
+    @Test
+    void testAuthoritiesAreLoadedOnFirstUse() {
+        assertThat(authorityRegistry.get(AuthoritiesConstants.ADMIN)).isNotNull();
+        assertThat(authorityRegistry.getNames()).hasSize(2);
+        verify(authorityRepository, times(1)).findAll();
+    }
+
+    @Test
+    void testUnknownAuthority() {
+        assertThat(authorityRegistry.get(AuthoritiesConstants.ANONYMOUS)).isNull();
+        assertThat(authorityRegistry.getGrantedAuthority(AuthoritiesConstants.ANONYMOUS).getAuthority())
+            .isEqualTo(AuthoritiesConstants.ANONYMOUS);
+    }
+
+    @Test
+    void testRefreshReplacesTheAuthorities() {
+        List<String> names = authorityRegistry.getNames();
+        when(authorityRepository.findAll()).thenReturn(List.of(authority(AuthoritiesConstants.USER)));
+
+        authorityRegistry.refresh();
+
+        assertThat(authorityRegistry.getNames()).containsExactly(AuthoritiesConstants.USER);
+        assertThat(authorityRegistry.get(AuthoritiesConstants.ADMIN)).isNull();
+        assertThat(names).containsExactly(AuthoritiesConstants.ADMIN, AuthoritiesConstants.USER);
+    }
+
+    private static Authority authority(String name) {
+        Authority authority = new Authority();
+        authority.setName(name);
+        return authority;
+    }
+}
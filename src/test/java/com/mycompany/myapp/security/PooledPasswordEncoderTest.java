@@ -0,0 +1,100 @@
+package com.mycompany.myapp.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Unit tests for {@link PooledPasswordEncoder}.
+ */
+class PooledPasswordEncoderTest {
+
+    private ApplicationProperties.Security.PasswordHashing passwordHashing;
+
+    private MeterRegistry meterRegistry;
+
+    private PooledPasswordEncoder passwordEncoder;
+
+    @BeforeEach
+    public void setup() {
+        passwordHashing = new ApplicationProperties.Security.PasswordHashing();
+        passwordHashing.setStrength(4);
+        passwordHashing.setPoolSize(1);
+        passwordHashing.setQueueCapacity(10);
+        passwordHashing.setRetryAfter(Duration.ofSeconds(2));
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    public void destroy() {
+        passwordEncoder.destroy();
+    }
+
+    @Test
+    void testEncodeAndMatches() {
+        passwordEncoder = new PooledPasswordEncoder(passwordHashing, meterRegistry);
+
+        String encodedPassword = passwordEncoder.encode("password");
+
+        assertThat(encodedPassword).startsWith("$2a$04$");
+        assertThat(passwordEncoder.matches("password", encodedPassword)).isTrue();
+        assertThat(passwordEncoder.matches("other", encodedPassword)).isFalse();
+        assertThat(meterRegistry.get(PooledPasswordEncoder.HASHING_METER_NAME).tag("operation", "encode").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(PooledPasswordEncoder.HASHING_METER_NAME).tag("operation", "matches").timer().count()).isEqualTo(2);
+        assertThat(meterRegistry.get(PooledPasswordEncoder.QUEUE_WAIT_METER_NAME).timer().count()).isEqualTo(3);
+    }
+
+    @Test
+    void testUpgradeEncodingWhenStrengthChanges() {
+        passwordEncoder = new PooledPasswordEncoder(passwordHashing, meterRegistry);
+
+        assertThat(passwordEncoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("password"))).isFalse();
+        assertThat(passwordEncoder.upgradeEncoding(new BCryptPasswordEncoder(5).encode("password"))).isTrue();
+        assertThat(passwordEncoder.upgradeEncoding("not-a-bcrypt-hash")).isFalse();
+        assertThat(passwordEncoder.upgradeEncoding(null)).isFalse();
+    }
+
+    @Test
+    void testRejectsWhenTheQueueIsFull() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder blockingEncoder = new BCryptPasswordEncoder(4) {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.encode(rawPassword);
+            }
+        };
+        passwordHashing.setQueueCapacity(0);
+        passwordEncoder = new PooledPasswordEncoder(blockingEncoder, passwordHashing, meterRegistry);
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> passwordEncoder.encode("password"));
+        assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> passwordEncoder.encode("other"))
+            .isInstanceOfSatisfying(
+                PasswordHashingUnavailableException.class,
+                e -> assertThat(e.getRetryAfter()).isEqualTo(Duration.ofSeconds(2))
+            );
+        assertThat(meterRegistry.get(PooledPasswordEncoder.REJECTED_METER_NAME).counter().count()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(running.get(10, TimeUnit.SECONDS)).startsWith("$2a$04$");
+    }
+}
@@ -0,0 +1,84 @@
+package com.mycompany.myapp.security.jwt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.mycompany.myapp.security.AuthoritiesConstants;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+class AuthoritySetsTest {
+
+    private final AuthoritySets authoritySets = new AuthoritySets();
+
+    @Test
+    void testSameClaimSharesTheSameAuthorities() {
+        List<GrantedAuthority> authorities = authoritySets.get(AuthoritiesConstants.ADMIN + "," + AuthoritiesConstants.USER);
+
+        assertThat(authorities)
+            .containsExactly(new SimpleGrantedAuthority(AuthoritiesConstants.ADMIN), new SimpleGrantedAuthority(AuthoritiesConstants.USER));
+        assertThat(authoritySets.get(AuthoritiesConstants.ADMIN + "," + AuthoritiesConstants.USER)).isSameAs(authorities);
+        assertThat(authoritySets.get(AuthoritiesConstants.USER)).singleElement().isSameAs(authorities.get(1));
+    }
+
+    @Test
+    void testBlankAuthoritiesAreIgnored() {
+        assertThat(authoritySets.get(" ," + AuthoritiesConstants.USER + ", ,"))
+            .containsExactly(new SimpleGrantedAuthority(AuthoritiesConstants.USER));
+        assertThat(authoritySets.get("")).isEmpty();
+        assertThat(authoritySets.get(null)).isEmpty();
+    }
+
+    @Test
+    void testAuthoritiesAreUnmodifiable() {
+        List<GrantedAuthority> authorities = authoritySets.get(AuthoritiesConstants.USER);
+
+        assertThatThrownBy(() -> authorities.add(new SimpleGrantedAuthority(AuthoritiesConstants.ADMIN)))
+            .isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void testClaimsBeyondTheLimitAreNotKept() {
+        for (int i = 0; i < AuthoritySets.MAX_SETS; i++) {
+            authoritySets.get("ROLE_" + i);
+        }
+
+        List<GrantedAuthority> authorities = authoritySets.get("ROLE_OTHER");
+
+        assertThat(authorities).containsExactly(new SimpleGrantedAuthority("ROLE_OTHER"));
+        assertThat(authoritySets.get("ROLE_OTHER")).isNotSameAs(authorities).isEqualTo(authorities);
+    }
+
+    @Test
+    void testMaskRoundTripsThroughTheCurrentVersion() {
+        AuthoritySets registrySets = new AuthoritySets(
+            List.of(List.of(AuthoritiesConstants.USER), List.of(AuthoritiesConstants.USER, AuthoritiesConstants.ADMIN))
+        );
+        List<GrantedAuthority> authorities = List.of(
+            new SimpleGrantedAuthority(AuthoritiesConstants.ADMIN),
+            new SimpleGrantedAuthority(AuthoritiesConstants.USER)
+        );
+
+        long mask = registrySets.mask(authorities);
+
+        assertThat(registrySets.currentVersion()).isEqualTo(2);
+        assertThat(mask).isEqualTo(3);
+        assertThat(registrySets.get(2, mask)).containsExactly(authorities.get(1), authorities.get(0));
+        assertThat(registrySets.get(2, mask)).isSameAs(registrySets.get(2, mask));
+        assertThat(registrySets.get(1, 1)).singleElement().isSameAs(registrySets.get(2, mask).get(0));
+        assertThat(registrySets.get(2, 0)).isEmpty();
+    }
+
+    @Test
+    void testUnknownAuthoritiesAndMasksAreRejected() {
+        AuthoritySets registrySets = new AuthoritySets(List.of(List.of(AuthoritiesConstants.USER)));
+
+        assertThat(registrySets.mask(List.of(new SimpleGrantedAuthority(AuthoritiesConstants.ADMIN)))).isEqualTo(-1);
+        assertThat(registrySets.get(1, 2)).isNull();
+        assertThat(registrySets.get(1, -1)).isNull();
+        assertThat(registrySets.get(2, 1)).isNull();
+        assertThat(registrySets.get(0, 0)).isNull();
+    }
+}
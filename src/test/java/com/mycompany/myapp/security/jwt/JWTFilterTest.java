@@ -1,11 +1,22 @@
 package com.mycompany.myapp.security.jwt;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
+import com.mycompany.myapp.config.ApplicationProperties;
 import com.mycompany.myapp.management.SecurityMetersService;
+import com.mycompany.myapp.repository.AuthorityRepository;
+import com.mycompany.myapp.repository.RefreshTokenRepository;
+import com.mycompany.myapp.repository.RevokedLoginRepository;
+import com.mycompany.myapp.repository.RevokedTokenRepository;
 import com.mycompany.myapp.security.AuthoritiesConstants;
+import com.mycompany.myapp.security.AuthorityRegistry;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.util.Collections;
 import org.junit.jupiter.api.BeforeEach;
@@ -15,6 +26,7 @@ import org.springframework.mock.web.MockFilterChain;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.test.util.ReflectionTestUtils;
@@ -24,21 +36,41 @@ class JWTFilterTest {
 
     private TokenProvider tokenProvider;
 
+    private TokenRevocationService tokenRevocationService;
+
     private JWTFilter jwtFilter;
 
+    private MeterRegistry meterRegistry;
+
+    private SecurityMetersService securityMetersService;
+
     @BeforeEach
     public void setup() {
         JHipsterProperties jHipsterProperties = new JHipsterProperties();
         String base64Secret = "fd54a45s65fds737b9aafcb3412e07ed99b267f33413274720ddbb7f6c5e64e9f14075f2d7ed041592f0b7657baf8";
         jHipsterProperties.getSecurity().getAuthentication().getJwt().setBase64Secret(base64Secret);
 
-        SecurityMetersService securityMetersService = new SecurityMetersService(new SimpleMeterRegistry());
+        meterRegistry = new SimpleMeterRegistry();
+        securityMetersService = new SecurityMetersService(meterRegistry);
 
-        tokenProvider = new TokenProvider(jHipsterProperties, securityMetersService);
+        tokenProvider = new TokenProvider(
+            jHipsterProperties,
+            new ApplicationProperties(),
+            securityMetersService,
+            new AuthorityRegistry(mock(AuthorityRepository.class))
+        );
         ReflectionTestUtils.setField(tokenProvider, "key", Keys.hmacShaKeyFor(Decoders.BASE64.decode(base64Secret)));
 
         ReflectionTestUtils.setField(tokenProvider, "tokenValidityInMilliseconds", 60000);
-        jwtFilter = new JWTFilter(tokenProvider);
+        tokenRevocationService =
+            new TokenRevocationService(
+                mock(RevokedTokenRepository.class),
+                mock(RevokedLoginRepository.class),
+                mock(RefreshTokenRepository.class),
+                jHipsterProperties,
+                new ApplicationProperties()
+            );
+        jwtFilter = new JWTFilter(tokenProvider, tokenRevocationService, securityMetersService);
         SecurityContextHolder.getContext().setAuthentication(null);
     }
 
@@ -61,6 +93,25 @@ class JWTFilterTest {
         assertThat(SecurityContextHolder.getContext().getAuthentication().getCredentials()).hasToString(jwt);
     }
 
+    @Test
+    void testJWTFilterTimesFailedAuthentications() throws Exception {
+        TokenRevocationService failingTokenRevocationService = mock(TokenRevocationService.class);
+        when(failingTokenRevocationService.isRevoked(any())).thenThrow(new IllegalStateException("Revocations unavailable"));
+        jwtFilter = new JWTFilter(tokenProvider, failingTokenRevocationService, securityMetersService);
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+            "test-user",
+            "test-password",
+            Collections.singletonList(new SimpleGrantedAuthority(AuthoritiesConstants.USER))
+        );
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(JWTFilter.AUTHORIZATION_HEADER, "Bearer " + tokenProvider.createToken(authentication, false));
+        request.setRequestURI("/api/test");
+
+        assertThatThrownBy(() -> jwtFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain()))
+            .isInstanceOf(IllegalStateException.class);
+        assertThat(meterRegistry.get(SecurityMetersService.TOKEN_FILTER_METER_NAME).timer().count()).isEqualTo(1);
+    }
+
     @Test
     void testJWTFilterInvalidToken() throws Exception {
         String jwt = "wrong_jwt";
@@ -114,4 +165,50 @@ class JWTFilterTest {
         assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
         assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
     }
+
+    @Test
+    void testJWTFilterRevokedToken() throws Exception {
+        String jwt = createToken("test-user");
+        String otherJwt = createToken("test-user");
+        tokenRevocationService.revoke(tokenProvider.getAuthentication(jwt));
+
+        assertThat(filter(jwt)).isNull();
+        assertThat(filter(otherJwt).getName()).isEqualTo("test-user");
+    }
+
+    @Test
+    void testJWTFilterRevokedLogin() throws Exception {
+        String jwt = createToken("test-user");
+        String otherUserJwt = createToken("other-user");
+        // The tokens are issued at whole seconds, and only the ones of the previous seconds are revoked
+        Thread.sleep(1000 - System.currentTimeMillis() % 1000);
+        tokenRevocationService.revokeAll("test-user");
+        String newJwt = createToken("test-user");
+
+        assertThat(filter(jwt)).isNull();
+        assertThat(filter(newJwt).getName()).isEqualTo("test-user");
+        assertThat(filter(otherUserJwt).getName()).isEqualTo("other-user");
+    }
+
+    private String createToken(String login) {
+        return tokenProvider.createToken(
+            new UsernamePasswordAuthenticationToken(
+                login,
+                "test-password",
+                Collections.singletonList(new SimpleGrantedAuthority(AuthoritiesConstants.USER))
+            ),
+            false
+        );
+    }
+
+    private Authentication filter(String jwt) throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(null);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(JWTFilter.AUTHORIZATION_HEADER, "Bearer " + jwt);
+        request.setRequestURI("/api/test");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        jwtFilter.doFilter(request, response, new MockFilterChain());
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
 }
@@ -0,0 +1,122 @@
+package com.mycompany.myapp.security.jwt;
+
+import static org.mockito.Mockito.mock;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.management.SecurityMetersService;
+import com.mycompany.myapp.repository.AuthorityRepository;
+import com.mycompany.myapp.security.AuthoritiesConstants;
+import com.mycompany.myapp.security.AuthorityRegistry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * JMH benchmark of the authentication of a request by the {@link JWTFilter}: the former validation then parsing of the
+ * token, against a single parsing, with and without the cache of verified tokens, and the creation of the authentication
+ * from the parsed claims. The {@link GCProfiler} reports the allocations per operation.
+ * <p>
+ * Run it with {@code ./mvnw test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.mycompany.myapp.security.jwt.TokenProviderBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenProviderBenchmark {
+
+    private static final String BASE64_SECRET =
+        "fd54a45s65fds737b9aafcb3412e07ed99b267f33413274720ddbb7f6c5e64e9f14075f2d7ed041592f0b7657baf8";
+
+    private TokenProvider uncachedTokenProvider;
+
+    private TokenProvider cachedTokenProvider;
+
+    private String token;
+
+    private Claims claims;
+
+    @Setup
+    public void setup() {
+        uncachedTokenProvider = createTokenProvider(0);
+        cachedTokenProvider = createTokenProvider(10000);
+        Authentication authentication = new UsernamePasswordAuthenticationToken(
+            "user",
+            "user",
+            List.of(new SimpleGrantedAuthority(AuthoritiesConstants.ADMIN), new SimpleGrantedAuthority(AuthoritiesConstants.USER))
+        );
+        token = cachedTokenProvider.createToken(authentication, false);
+        claims =
+            Jwts
+                .parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64.decode(BASE64_SECRET)))
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    @Benchmark
+    public Authentication validateThenGetAuthentication() {
+        return uncachedTokenProvider.validateToken(token) ? uncachedTokenProvider.getAuthentication(token) : null;
+    }
+
+    @Benchmark
+    public Optional<Authentication> resolveAuthenticationWithoutCache() {
+        return uncachedTokenProvider.resolveAuthentication(token);
+    }
+
+    @Benchmark
+    public Optional<Authentication> resolveAuthenticationWithCache() {
+        return cachedTokenProvider.resolveAuthentication(token);
+    }
+
+    @Benchmark
+    public Authentication createAuthentication() {
+        return uncachedTokenProvider.createAuthentication(claims, token);
+    }
+
+    private static TokenProvider createTokenProvider(long maxEntries) {
+        JHipsterProperties jHipsterProperties = new JHipsterProperties();
+        jHipsterProperties
+            .getSecurity()
+            .getAuthentication()
+            .getJwt()
+            .setBase64Secret(BASE64_SECRET);
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getSecurity().getTokenCache().setMaxEntries(maxEntries);
+        return new TokenProvider(
+            jHipsterProperties,
+            applicationProperties,
+            new SecurityMetersService(new SimpleMeterRegistry()),
+            new AuthorityRegistry(mock(AuthorityRepository.class))
+        );
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(TokenProviderBenchmark.class.getSimpleName()).addProfiler(GCProfiler.class).build()).run();
+    }
+}
@@ -1,9 +1,13 @@
 package com.mycompany.myapp.security.jwt;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
 
+import com.mycompany.myapp.config.ApplicationProperties;
 import com.mycompany.myapp.management.SecurityMetersService;
+import com.mycompany.myapp.repository.AuthorityRepository;
 import com.mycompany.myapp.security.AuthoritiesConstants;
+import com.mycompany.myapp.security.AuthorityRegistry;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
@@ -43,7 +47,12 @@ class TokenProviderSecurityMetersTests {
 
         SecurityMetersService securityMetersService = new SecurityMetersService(meterRegistry);
 
-        tokenProvider = new TokenProvider(jHipsterProperties, securityMetersService);
+        tokenProvider = new TokenProvider(
+            jHipsterProperties,
+            new ApplicationProperties(),
+            securityMetersService,
+            new AuthorityRegistry(mock(AuthorityRepository.class))
+        );
         Key key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(base64Secret));
 
         ReflectionTestUtils.setField(tokenProvider, "key", key);
@@ -63,6 +72,28 @@ class TokenProviderSecurityMetersTests {
         assertThat(aggregate(counters)).isZero();
     }
 
+    @Test
+    void testTokenCreationAndValidationAreTimed() {
+        String validToken = createValidToken();
+
+        tokenProvider.validateToken(validToken);
+        tokenProvider.validateToken(validToken);
+        tokenProvider.validateToken(createMalformedToken());
+
+        assertThat(meterRegistry.get(SecurityMetersService.TOKENS_METER_NAME).tag("operation", "create").timer().count()).isEqualTo(2);
+        assertThat(meterRegistry.get(SecurityMetersService.TOKENS_METER_NAME).tag("operation", "validate").timer().count()).isEqualTo(3);
+    }
+
+    @Test
+    void testInvalidTokenIsCountedOnEachUse() {
+        String malformedToken = createMalformedToken();
+
+        tokenProvider.validateToken(malformedToken);
+        tokenProvider.validateToken(malformedToken);
+
+        assertThat(meterRegistry.get(INVALID_TOKENS_METER_EXPECTED_NAME).tag("cause", "malformed").counter().count()).isEqualTo(2);
+    }
+
     @Test
     void testTokenExpiredCount() {
         assertThat(meterRegistry.get(INVALID_TOKENS_METER_EXPECTED_NAME).tag("cause", "expired").counter().count()).isZero();
@@ -1,9 +1,16 @@
 package com.mycompany.myapp.security.jwt;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.Authority;
 import com.mycompany.myapp.management.SecurityMetersService;
+import com.mycompany.myapp.repository.AuthorityRepository;
 import com.mycompany.myapp.security.AuthoritiesConstants;
+import com.mycompany.myapp.security.AuthorityRegistry;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
@@ -26,6 +33,7 @@ class TokenProviderTest {
     private static final long ONE_MINUTE = 60000;
 
     private Key key;
+    private AuthorityRegistry authorityRegistry;
     private TokenProvider tokenProvider;
 
     @BeforeEach
@@ -35,8 +43,17 @@ class TokenProviderTest {
         jHipsterProperties.getSecurity().getAuthentication().getJwt().setBase64Secret(base64Secret);
 
         SecurityMetersService securityMetersService = new SecurityMetersService(new SimpleMeterRegistry());
-
-        tokenProvider = new TokenProvider(jHipsterProperties, securityMetersService);
+        AuthorityRepository authorityRepository = mock(AuthorityRepository.class);
+        when(authorityRepository.findAll())
+            .thenReturn(List.of(authority(AuthoritiesConstants.ANONYMOUS), authority(AuthoritiesConstants.USER)));
+        authorityRegistry = new AuthorityRegistry(authorityRepository);
+
+        tokenProvider = new TokenProvider(
+            jHipsterProperties,
+            new ApplicationProperties(),
+            securityMetersService,
+            authorityRegistry
+        );
         key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(base64Secret));
 
         ReflectionTestUtils.setField(tokenProvider, "key", key);
@@ -88,6 +105,158 @@ class TokenProviderTest {
         assertThat(isTokenValid).isFalse();
     }
 
+    @Test
+    void testAccessTokenIsShortLived() {
+        long now = System.currentTimeMillis();
+        String token = tokenProvider.createAccessToken(createAuthentication());
+
+        TokenAuthentication authentication = (TokenAuthentication) tokenProvider.getAuthentication(token);
+
+        assertThat(authentication.getExpiration() - now).isBetween(14 * ONE_MINUTE, 16 * ONE_MINUTE);
+        assertThat(authentication.getName()).isEqualTo("anonymous");
+    }
+
+    @Test
+    void testResolveAuthenticationReusesVerifiedToken() {
+        String token = tokenProvider.createToken(createAuthentication(), false);
+
+        Optional<Authentication> authentication = tokenProvider.resolveAuthentication(token);
+
+        assertThat(authentication).hasValueSatisfying(auth -> assertThat(auth.getName()).isEqualTo("anonymous"));
+        assertThat(tokenProvider.resolveAuthentication(token)).containsSame(authentication.orElseThrow());
+    }
+
+    @Test
+    void testAuthenticationsShareTheirAuthorities() {
+        String token = tokenProvider.createToken(createAuthentication(), false);
+        String otherToken = tokenProvider.createToken(
+            new UsernamePasswordAuthenticationToken("other", "other", List.of(new SimpleGrantedAuthority(AuthoritiesConstants.ANONYMOUS))),
+            true
+        );
+
+        Authentication authentication = tokenProvider.getAuthentication(token);
+        Authentication otherAuthentication = tokenProvider.getAuthentication(otherToken);
+
+        assertThat(authentication.getName()).isEqualTo("anonymous");
+        assertThat(authentication.getCredentials()).isEqualTo(token);
+        assertThat(authentication.getAuthorities()).extracting(GrantedAuthority::getAuthority).containsExactly(AuthoritiesConstants.ANONYMOUS);
+        assertThat(otherAuthentication.getName()).isEqualTo("other");
+        assertThat(otherAuthentication.getAuthorities()).isSameAs(authentication.getAuthorities());
+    }
+
+    @Test
+    void testResolveAuthenticationDoesNotReuseExpiredToken() throws InterruptedException {
+        ReflectionTestUtils.setField(tokenProvider, "tokenValidityInMilliseconds", 1000);
+        String token = tokenProvider.createToken(createAuthentication(), false);
+        assertThat(tokenProvider.resolveAuthentication(token)).isPresent();
+
+        // The expiration of a token has a one second precision
+        Thread.sleep(2000);
+
+        assertThat(tokenProvider.resolveAuthentication(token)).isEmpty();
+    }
+
+    @Test
+    void testResolveAuthenticationWithoutTokenCache() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getSecurity().getTokenCache().setMaxEntries(0);
+        JHipsterProperties jHipsterProperties = new JHipsterProperties();
+        jHipsterProperties
+            .getSecurity()
+            .getAuthentication()
+            .getJwt()
+            .setBase64Secret("fd54a45s65fds737b9aafcb3412e07ed99b267f33413274720ddbb7f6c5e64e9f14075f2d7ed041592f0b7657baf8");
+
+        SecurityMetersService securityMetersService = new SecurityMetersService(new SimpleMeterRegistry());
+
+        TokenProvider tokenProvider = new TokenProvider(
+            jHipsterProperties,
+            applicationProperties,
+            securityMetersService,
+            authorityRegistry
+        );
+        String token = tokenProvider.createToken(createAuthentication(), false);
+
+        Optional<Authentication> authentication = tokenProvider.resolveAuthentication(token);
+
+        assertThat(authentication).isPresent();
+        assertThat(tokenProvider.resolveAuthentication(token).orElseThrow()).isNotSameAs(authentication.orElseThrow());
+    }
+
+    @Test
+    void testAuthenticationHoldsTheGrantedAuthoritiesOfTheRegistry() {
+        String token = tokenProvider.createToken(createAuthentication(), false);
+
+        Authentication authentication = tokenProvider.resolveAuthentication(token).orElseThrow();
+
+        assertThat(authentication.getAuthorities())
+            .singleElement()
+            .isSameAs(authorityRegistry.getGrantedAuthority(AuthoritiesConstants.ANONYMOUS));
+    }
+
+    @Test
+    void testCompactTokenHoldsAuthorityMask() {
+        TokenProvider compactTokenProvider = createCompactTokenProvider(
+            List.of(List.of(AuthoritiesConstants.ADMIN, AuthoritiesConstants.USER, AuthoritiesConstants.ANONYMOUS))
+        );
+        Authentication userAuthentication = new UsernamePasswordAuthenticationToken(
+            "user",
+            "user",
+            List.of(new SimpleGrantedAuthority(AuthoritiesConstants.USER), new SimpleGrantedAuthority(AuthoritiesConstants.ADMIN))
+        );
+        String token = compactTokenProvider.createToken(userAuthentication, false);
+
+        Claims claims = Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
+        assertThat(claims).doesNotContainKey("auth").containsEntry("r", 3).containsEntry("rv", 1);
+        assertThat(token.length()).isLessThan(tokenProvider.createToken(userAuthentication, false).length());
+
+        Authentication authentication = compactTokenProvider.getAuthentication(token);
+        assertThat(authentication.getName()).isEqualTo("user");
+        assertThat(authentication.getAuthorities())
+            .extracting(GrantedAuthority::getAuthority)
+            .containsExactly(AuthoritiesConstants.ADMIN, AuthoritiesConstants.USER);
+        assertThat(compactTokenProvider.getAuthentication(compactTokenProvider.createToken(userAuthentication, true)).getAuthorities())
+            .isSameAs(authentication.getAuthorities());
+    }
+
+    @Test
+    void testCompactTokenProviderAcceptsStandardTokens() {
+        TokenProvider compactTokenProvider = createCompactTokenProvider(List.of(List.of(AuthoritiesConstants.ANONYMOUS)));
+        String token = tokenProvider.createToken(createAuthentication(), false);
+
+        Optional<Authentication> authentication = compactTokenProvider.resolveAuthentication(token);
+
+        assertThat(authentication)
+            .hasValueSatisfying(auth ->
+                assertThat(auth.getAuthorities()).extracting(GrantedAuthority::getAuthority).containsExactly(AuthoritiesConstants.ANONYMOUS)
+            );
+    }
+
+    @Test
+    void testCompactTokenDecodedWithItsRegistryVersion() {
+        String token = createCompactTokenProvider(List.of(List.of(AuthoritiesConstants.ANONYMOUS)))
+            .createToken(createAuthentication(), false);
+        TokenProvider nextVersionTokenProvider = createCompactTokenProvider(
+            List.of(List.of(AuthoritiesConstants.ANONYMOUS), List.of(AuthoritiesConstants.USER, AuthoritiesConstants.ANONYMOUS))
+        );
+
+        assertThat(nextVersionTokenProvider.getAuthentication(token).getAuthorities())
+            .extracting(GrantedAuthority::getAuthority)
+            .containsExactly(AuthoritiesConstants.ANONYMOUS);
+        assertThat(tokenProvider.validateToken(token)).isFalse();
+    }
+
+    @Test
+    void testCompactTokenProviderFallsBackForUnregisteredAuthorities() {
+        TokenProvider compactTokenProvider = createCompactTokenProvider(List.of(List.of(AuthoritiesConstants.USER)));
+
+        String token = compactTokenProvider.createToken(createAuthentication(), false);
+
+        Claims claims = Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
+        assertThat(claims).containsEntry("auth", AuthoritiesConstants.ANONYMOUS).doesNotContainKey("r");
+        assertThat(compactTokenProvider.validateToken(token)).isTrue();
+    }
+
     @Test
     void testKeyIsSetFromSecretWhenSecretIsNotEmpty() {
         final String secret = "NwskoUmKHZtzGRKJKVjsJF7BtQMMxNWi";
@@ -96,7 +265,12 @@ class TokenProviderTest {
 
         SecurityMetersService securityMetersService = new SecurityMetersService(new SimpleMeterRegistry());
 
-        TokenProvider tokenProvider = new TokenProvider(jHipsterProperties, securityMetersService);
+        TokenProvider tokenProvider = new TokenProvider(
+            jHipsterProperties,
+            new ApplicationProperties(),
+            securityMetersService,
+            authorityRegistry
+        );
 
         Key key = (Key) ReflectionTestUtils.getField(tokenProvider, "key");
         assertThat(key).isNotNull().isEqualTo(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)));
@@ -110,12 +284,42 @@ class TokenProviderTest {
 
         SecurityMetersService securityMetersService = new SecurityMetersService(new SimpleMeterRegistry());
 
-        TokenProvider tokenProvider = new TokenProvider(jHipsterProperties, securityMetersService);
+        TokenProvider tokenProvider = new TokenProvider(
+            jHipsterProperties,
+            new ApplicationProperties(),
+            securityMetersService,
+            authorityRegistry
+        );
 
         Key key = (Key) ReflectionTestUtils.getField(tokenProvider, "key");
         assertThat(key).isNotNull().isEqualTo(Keys.hmacShaKeyFor(Decoders.BASE64.decode(base64Secret)));
     }
 
+    private TokenProvider createCompactTokenProvider(List<List<String>> authorityRegistry) {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getSecurity().getCompactToken().setEnabled(true);
+        applicationProperties.getSecurity().getCompactToken().setAuthorityRegistry(authorityRegistry);
+        JHipsterProperties jHipsterProperties = new JHipsterProperties();
+        jHipsterProperties
+            .getSecurity()
+            .getAuthentication()
+            .getJwt()
+            .setBase64Secret("fd54a45s65fds737b9aafcb3412e07ed99b267f33413274720ddbb7f6c5e64e9f14075f2d7ed041592f0b7657baf8");
+
+        return new TokenProvider(
+            jHipsterProperties,
+            applicationProperties,
+            new SecurityMetersService(new SimpleMeterRegistry()),
+            this.authorityRegistry
+        );
+    }
+
+    private static Authority authority(String name) {
+        Authority authority = new Authority();
+        authority.setName(name);
+        return authority;
+    }
+
     private Authentication createAuthentication() {
         Collection<GrantedAuthority> authorities = new ArrayList<>();
         authorities.add(new SimpleGrantedAuthority(AuthoritiesConstants.ANONYMOUS));
@@ -0,0 +1,113 @@
+package com.mycompany.myapp.security.jwt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.RevokedLogin;
+import com.mycompany.myapp.domain.RevokedToken;
+import com.mycompany.myapp.repository.RefreshTokenRepository;
+import com.mycompany.myapp.repository.RevokedLoginRepository;
+import com.mycompany.myapp.repository.RevokedTokenRepository;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Unit tests for {@link TokenRevocationService}, with the revocations made by other instances held by mocked repositories.
+ */
+class TokenRevocationServiceTest {
+
+    private RevokedTokenRepository revokedTokenRepository;
+
+    private RevokedLoginRepository revokedLoginRepository;
+
+    private TokenRevocationService tokenRevocationService;
+
+    @BeforeEach
+    public void setup() {
+        revokedTokenRepository = mock(RevokedTokenRepository.class);
+        revokedLoginRepository = mock(RevokedLoginRepository.class);
+        tokenRevocationService =
+            new TokenRevocationService(
+                revokedTokenRepository,
+                revokedLoginRepository,
+                mock(RefreshTokenRepository.class),
+                new JHipsterProperties(),
+                new ApplicationProperties()
+            );
+    }
+
+    @Test
+    void refreshLoadsTheRevocationsOfOtherInstances() {
+        long now = System.currentTimeMillis();
+        when(revokedTokenRepository.findAll()).thenReturn(List.of(revokedToken("revoked-id", now + 60000)));
+        when(revokedLoginRepository.findAll()).thenReturn(List.of(revokedLogin("revoked-user", now, now + 60000)));
+
+        tokenRevocationService.refresh();
+
+        assertThat(tokenRevocationService.isRevoked(authentication("user", "revoked-id", now - 1000))).isTrue();
+        assertThat(tokenRevocationService.isRevoked(authentication("user", "other-id", now - 1000))).isFalse();
+        assertThat(tokenRevocationService.isRevoked(authentication("revoked-user", "other-id", now - 1000))).isTrue();
+        assertThat(tokenRevocationService.isRevoked(authentication("revoked-user", "other-id", now + 1000))).isFalse();
+        verify(revokedTokenRepository).deleteExpired(ArgumentMatchers.any(Instant.class));
+        verify(revokedLoginRepository).deleteExpired(ArgumentMatchers.any(Instant.class));
+    }
+
+    @Test
+    void refreshForgetsTheExpiredRevocations() {
+        long now = System.currentTimeMillis();
+        tokenRevocationService.revoke(new TokenAuthentication("user", "token", List.of(), "expired-id", now - 2000, now - 1000));
+        tokenRevocationService.revoke(new TokenAuthentication("user", "token", List.of(), "revoked-id", now - 2000, now + 60000));
+        assertThat(tokenRevocationService.isRevoked(authentication("user", "expired-id", now - 2000))).isTrue();
+
+        tokenRevocationService.refresh();
+
+        assertThat(tokenRevocationService.isRevoked(authentication("user", "expired-id", now - 2000))).isFalse();
+        assertThat(tokenRevocationService.isRevoked(authentication("user", "revoked-id", now - 2000))).isTrue();
+    }
+
+    @Test
+    void tokensWithoutIdAreRevokedWithTheirUser() {
+        long now = System.currentTimeMillis();
+        tokenRevocationService.revoke(new TokenAuthentication("user", "token", List.of(), null, 0, now + 60000));
+
+        assertThat(tokenRevocationService.isRevoked(authentication("user", null, 0))).isTrue();
+        assertThat(tokenRevocationService.isRevoked(authentication("user", "other-id", now - 1000))).isTrue();
+        assertThat(tokenRevocationService.isRevoked(authentication("other-user", null, 0))).isFalse();
+    }
+
+    @Test
+    void tokensIssuedRightAfterRevokingTheirUserAreAccepted() {
+        tokenRevocationService.revokeAll("user");
+        // The tokens are issued at whole seconds
+        long issuedAt = System.currentTimeMillis() / 1000 * 1000;
+
+        assertThat(tokenRevocationService.isRevoked(authentication("user", "new-id", issuedAt))).isFalse();
+        assertThat(tokenRevocationService.isRevoked(authentication("user", "old-id", issuedAt - 1000))).isTrue();
+    }
+
+    private static TokenAuthentication authentication(String login, String tokenId, long issuedAt) {
+        return new TokenAuthentication(login, "token", List.of(), tokenId, issuedAt, issuedAt + 60000);
+    }
+
+    private static RevokedToken revokedToken(String tokenId, long expiration) {
+        RevokedToken revokedToken = new RevokedToken();
+        revokedToken.setTokenId(tokenId);
+        revokedToken.setExpirationDate(Instant.ofEpochMilli(expiration));
+        return revokedToken;
+    }
+
+    private static RevokedLogin revokedLogin(String login, long notBefore, long expiration) {
+        RevokedLogin revokedLogin = new RevokedLogin();
+        revokedLogin.setLogin(login);
+        revokedLogin.setNotBefore(Instant.ofEpochMilli(notBefore));
+        revokedLogin.setExpirationDate(Instant.ofEpochMilli(expiration));
+        return revokedLogin;
+    }
+}
@@ -0,0 +1,108 @@
+package com.mycompany.myapp.security.ratelimit;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * JMH benchmark of the {@link RateLimiter} under contention: all the threads taking tokens from the same bucket, or
+ * from buckets spread over many client addresses, against a token bucket guarded by a lock.
+ * <p>
+ * Run it with {@code ./mvnw test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.mycompany.myapp.security.ratelimit.RateLimiterBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(8)
+@Fork(1)
+public class RateLimiterBenchmark {
+
+    private static final int KEY_COUNT = 1024;
+
+    private RateLimiter rateLimiter;
+
+    private SynchronizedTokenBucket synchronizedTokenBucket;
+
+    private String[] keys;
+
+    @Setup
+    public void setup() {
+        // The buckets are never empty, so that every operation takes a token
+        ApplicationProperties.Security.RateLimiting.Limit limit = new ApplicationProperties.Security.RateLimiting.Limit();
+        limit.setCapacity(Integer.MAX_VALUE);
+        limit.setPeriod(Duration.ofSeconds(1));
+        rateLimiter = new RateLimiter(limit, 100000);
+        synchronizedTokenBucket = new SynchronizedTokenBucket(Integer.MAX_VALUE, Duration.ofSeconds(1).toNanos());
+        keys = new String[KEY_COUNT];
+        for (int i = 0; i < KEY_COUNT; i++) {
+            keys[i] = "10.0." + (i / 256) + "." + (i % 256);
+        }
+    }
+
+    @Benchmark
+    public long sameBucket() {
+        return rateLimiter.tryAcquire(keys[0]);
+    }
+
+    @Benchmark
+    public long sameBucketWithLock() {
+        return synchronizedTokenBucket.tryAcquire();
+    }
+
+    @Benchmark
+    public long spreadBuckets() {
+        return rateLimiter.tryAcquire(keys[ThreadLocalRandom.current().nextInt(KEY_COUNT)]);
+    }
+
+    /**
+     * Classic token bucket, counting its tokens under a lock.
+     */
+    private static final class SynchronizedTokenBucket {
+
+        private final long capacity;
+
+        private final double tokensPerNano;
+
+        private double tokens;
+
+        private long refilledAt = System.nanoTime();
+
+        private SynchronizedTokenBucket(long capacity, long periodNanos) {
+            this.capacity = capacity;
+            this.tokensPerNano = (double) capacity / periodNanos;
+            this.tokens = capacity;
+        }
+
+        private synchronized long tryAcquire() {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+            refilledAt = now;
+            if (tokens < 1) {
+                return (long) ((1 - tokens) / tokensPerNano);
+            }
+            tokens--;
+            return 0;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(RateLimiterBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,111 @@
+package com.mycompany.myapp.security.ratelimit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class RateLimiterTest {
+
+    private static final long SECOND = Duration.ofSeconds(1).toNanos();
+
+    private final AtomicLong clock = new AtomicLong(-5 * SECOND);
+
+    private RateLimiter rateLimiter;
+
+    @BeforeEach
+    public void setup() {
+        rateLimiter = new RateLimiter(limit(3, Duration.ofSeconds(3)), 100, clock::get);
+    }
+
+    @Test
+    void allowsABurstOfCapacityRequests() {
+        assertThat(rateLimiter.tryAcquire("client")).isZero();
+        assertThat(rateLimiter.tryAcquire("client")).isZero();
+        assertThat(rateLimiter.tryAcquire("client")).isZero();
+
+        assertThat(rateLimiter.tryAcquire("client")).isEqualTo(SECOND);
+    }
+
+    @Test
+    void refillsTheBucketOverThePeriod() {
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.tryAcquire("client");
+        }
+
+        clock.addAndGet(SECOND / 2);
+        assertThat(rateLimiter.tryAcquire("client")).isEqualTo(SECOND / 2);
+        clock.addAndGet(SECOND / 2);
+        assertThat(rateLimiter.tryAcquire("client")).isZero();
+        assertThat(rateLimiter.tryAcquire("client")).isEqualTo(SECOND);
+
+        clock.addAndGet(10 * SECOND);
+        for (int i = 0; i < 3; i++) {
+            assertThat(rateLimiter.tryAcquire("client")).isZero();
+        }
+        assertThat(rateLimiter.tryAcquire("client")).isPositive();
+    }
+
+    @Test
+    void keepsABucketPerKey() {
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.tryAcquire("client");
+        }
+
+        assertThat(rateLimiter.tryAcquire("client")).isPositive();
+        assertThat(rateLimiter.tryAcquire("other-client")).isZero();
+    }
+
+    @Test
+    void evictsTheIdleBuckets() {
+        rateLimiter.tryAcquire("client");
+        rateLimiter.tryAcquire("other-client");
+        assertThat(rateLimiter.size()).isEqualTo(2);
+
+        clock.addAndGet(3 * SECOND);
+        rateLimiter.tryAcquire("client");
+
+        assertThat(rateLimiter.size()).isEqualTo(1);
+    }
+
+    @Test
+    void boundsTheNumberOfBuckets() {
+        for (int i = 0; i < 1000; i++) {
+            rateLimiter.tryAcquire("client-" + i);
+        }
+
+        assertThat(rateLimiter.size()).isLessThanOrEqualTo(100);
+    }
+
+    @Test
+    void concurrentRequestsTakeAtMostCapacityTokens() throws InterruptedException {
+        rateLimiter = new RateLimiter(limit(100, Duration.ofHours(1)), 100);
+        AtomicInteger allowed = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 1000; i++) {
+            executor.execute(() -> {
+                if (rateLimiter.tryAcquire("client") == 0) {
+                    allowed.incrementAndGet();
+                }
+            });
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(allowed).hasValue(100);
+    }
+
+    private static ApplicationProperties.Security.RateLimiting.Limit limit(int capacity, Duration period) {
+        ApplicationProperties.Security.RateLimiting.Limit limit = new ApplicationProperties.Security.RateLimiting.Limit();
+        limit.setCapacity(capacity);
+        limit.setPeriod(period);
+        return limit;
+    }
+}
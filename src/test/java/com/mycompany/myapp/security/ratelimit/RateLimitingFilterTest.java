@@ -0,0 +1,225 @@
+package com.mycompany.myapp.security.ratelimit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.security.RateLimitExceededException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.servlet.ModelAndView;
+
+class RateLimitingFilterTest {
+
+    private ApplicationProperties.Security.RateLimiting rateLimiting;
+
+    private MeterRegistry meterRegistry;
+
+    private final List<RateLimitExceededException> rejections = new ArrayList<>();
+
+    private RateLimitingFilter rateLimitingFilter;
+
+    @BeforeEach
+    public void setup() {
+        rateLimiting = new ApplicationProperties.Security.RateLimiting();
+        ApplicationProperties.Security.RateLimiting.Route route = new ApplicationProperties.Security.RateLimiting.Route();
+        route.setPath("/api/authenticate");
+        route.setAccountField("username");
+        route.getClient().setCapacity(3);
+        route.getClient().setPeriod(Duration.ofHours(1));
+        route.getAccount().setCapacity(2);
+        route.getAccount().setPeriod(Duration.ofHours(1));
+        rateLimiting.getRoutes().put("authenticate", route);
+        meterRegistry = new SimpleMeterRegistry();
+        rateLimitingFilter = createFilter();
+    }
+
+    @Test
+    void limitsByAccount() throws Exception {
+        assertThat(filter("/api/authenticate", "10.0.0.1", "{\"username\":\"user\"}").getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(filter("/api/authenticate", "10.0.0.2", "{\"username\":\"USER\"}").getStatus()).isEqualTo(HttpStatus.OK.value());
+
+        MockHttpServletResponse response = filter("/api/authenticate", "10.0.0.3", "{\"username\":\"user\"}");
+
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+        assertThat(rejections).singleElement().satisfies(e -> assertThat(e.getRetryAfter()).isPositive());
+        assertThat(filter("/api/authenticate", "10.0.0.3", "{\"username\":\"other\"}").getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(rejectedCount("account")).isEqualTo(1);
+    }
+
+    @Test
+    void limitsByClient() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            assertThat(filter("/api/authenticate", "10.0.0.1", "{\"username\":\"user" + i + "\"}").getStatus())
+                .isEqualTo(HttpStatus.OK.value());
+        }
+
+        assertThat(filter("/api/authenticate", "10.0.0.1", "{\"username\":\"other\"}").getStatus())
+            .isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+        assertThat(filter("/api/authenticate", "10.0.0.2", "{\"username\":\"other\"}").getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(rejectedCount("client")).isEqualTo(1);
+    }
+
+    @Test
+    void passesTheBodyToTheNextFilters() throws Exception {
+        MockHttpServletRequest request = request("/api/authenticate", "10.0.0.1", "{\"username\":\"user\"}");
+        MockFilterChain filterChain = new MockFilterChain();
+
+        rateLimitingFilter.doFilter(request, new MockHttpServletResponse(), filterChain);
+
+        String body = StreamUtils.copyToString(filterChain.getRequest().getInputStream(), StandardCharsets.UTF_8);
+        assertThat(body).isEqualTo("{\"username\":\"user\"}");
+    }
+
+    @Test
+    void passesTheBodyToTheAsynchronousReaders() throws Exception {
+        MockHttpServletRequest request = request("/api/authenticate", "10.0.0.1", "{\"username\":\"user\"}");
+        MockFilterChain filterChain = new MockFilterChain();
+        rateLimitingFilter.doFilter(request, new MockHttpServletResponse(), filterChain);
+        ServletInputStream input = filterChain.getRequest().getInputStream();
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        AtomicBoolean allDataRead = new AtomicBoolean();
+
+        input.setReadListener(
+            new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    while (input.isReady() && !input.isFinished()) {
+                        body.write(input.read());
+                    }
+                }
+
+                @Override
+                public void onAllDataRead() {
+                    allDataRead.set(true);
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    throw new IllegalStateException(t);
+                }
+            }
+        );
+
+        assertThat(body.toString(StandardCharsets.UTF_8)).isEqualTo("{\"username\":\"user\"}");
+        assertThat(allDataRead).isTrue();
+        assertThat(filterChain.getRequest().getInputStream()).isSameAs(input);
+    }
+
+    @Test
+    void limitsByAccountTheBodiesOfUnknownLength() throws Exception {
+        assertThat(filter(chunked(request("/api/authenticate", "10.0.0.1", "{\"username\":\"user\"}"))).getStatus())
+            .isEqualTo(HttpStatus.OK.value());
+        assertThat(filter(chunked(request("/api/authenticate", "10.0.0.2", "{\"username\":\"user\"}"))).getStatus())
+            .isEqualTo(HttpStatus.OK.value());
+
+        assertThat(filter(chunked(request("/api/authenticate", "10.0.0.3", "{\"username\":\"user\"}"))).getStatus())
+            .isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+        assertThat(rejectedCount("account")).isEqualTo(1);
+    }
+
+    @Test
+    void passesTheLargeBodiesOfUnknownLengthToTheNextFilters() throws Exception {
+        String largeBody = "{\"username\":\"user\",\"password\":\"" + "x".repeat(10000) + "\"}";
+        HttpServletRequest request = chunked(request("/api/authenticate", "10.0.0.1", largeBody));
+        MockFilterChain filterChain = new MockFilterChain();
+
+        rateLimitingFilter.doFilter(request, new MockHttpServletResponse(), filterChain);
+
+        String body = StreamUtils.copyToString(filterChain.getRequest().getInputStream(), StandardCharsets.UTF_8);
+        assertThat(body).isEqualTo(largeBody);
+    }
+
+    @Test
+    void doesNotLimitOtherRoutes() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            assertThat(filter("/api/account", "10.0.0.1", "{\"username\":\"user\"}").getStatus()).isEqualTo(HttpStatus.OK.value());
+        }
+        assertThat(rejections).isEmpty();
+    }
+
+    @Test
+    void doesNotLimitWhenDisabled() throws Exception {
+        rateLimiting.setEnabled(false);
+        rateLimitingFilter = createFilter();
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(filter("/api/authenticate", "10.0.0.1", "{\"username\":\"user\"}").getStatus()).isEqualTo(HttpStatus.OK.value());
+        }
+    }
+
+    private RateLimitingFilter createFilter() {
+        return new RateLimitingFilter(
+            rateLimiting,
+            meterRegistry,
+            (request, response, handler, ex) -> {
+                rejections.add((RateLimitExceededException) ex);
+                response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+                return new ModelAndView();
+            }
+        );
+    }
+
+    private MockHttpServletResponse filter(String uri, String remoteAddr, String body) throws Exception {
+        return filter(request(uri, remoteAddr, body));
+    }
+
+    private MockHttpServletResponse filter(HttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        rateLimitingFilter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String uri, String remoteAddr, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", uri);
+        request.setServletPath(uri);
+        request.setRemoteAddr(remoteAddr);
+        request.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    /**
+     * @return the request, sent without a content length as with a chunked transfer encoding.
+     */
+    private static HttpServletRequest chunked(HttpServletRequest request) {
+        return new HttpServletRequestWrapper(request) {
+            @Override
+            public int getContentLength() {
+                return -1;
+            }
+
+            @Override
+            public long getContentLengthLong() {
+                return -1;
+            }
+        };
+    }
+
+    private double rejectedCount(String limit) {
+        return meterRegistry
+            .get(RateLimitingFilter.REJECTED_METER_NAME)
+            .tag(RateLimitingFilter.ROUTE_DIMENSION, "authenticate")
+            .tag(RateLimitingFilter.LIMIT_DIMENSION, limit)
+            .counter()
+            .count();
+    }
+}
@@ -0,0 +1,52 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.io.StringReader;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link CsvReader}.
+ */
+class CsvReaderTest {
+
+    @Test
+    void readsValuesByColumnName() throws IOException {
+        CsvReader csv = new CsvReader(new StringReader("\uFEFFid;roomno;floor\n1;A1;2\n2; B2 ;\n"));
+
+        assertThat(csv.hasColumn("roomno")).isTrue();
+        assertThat(csv.hasColumn("type")).isFalse();
+        CsvReader.Record first = csv.next();
+        assertThat(first.getLine()).isEqualTo(2);
+        assertThat(first.get("roomno")).isEqualTo("A1");
+        assertThat(first.get("floor")).isEqualTo("2");
+        CsvReader.Record second = csv.next();
+        assertThat(second.get("roomno")).isEqualTo("B2");
+        assertThat(second.get("floor")).isNull();
+        assertThat(second.get("type")).isNull();
+        assertThat(csv.next()).isNull();
+    }
+
+    @Test
+    void readsQuotedValues() throws IOException {
+        CsvReader csv = new CsvReader(new StringReader("roomno;type\r\n\"A;1\";\"two\r\nlines \"\"quoted\"\"\"\r\n\r\nB2;single\r\n"));
+
+        CsvReader.Record first = csv.next();
+        assertThat(first.getLine()).isEqualTo(2);
+        assertThat(first.get("roomno")).isEqualTo("A;1");
+        assertThat(first.get("type")).isEqualTo("two\r\nlines \"quoted\"");
+        CsvReader.Record second = csv.next();
+        assertThat(second.getLine()).isEqualTo(5);
+        assertThat(second.get("roomno")).isEqualTo("B2");
+        assertThat(csv.next()).isNull();
+    }
+
+    @Test
+    void rejectsUnterminatedQuotes() throws IOException {
+        CsvReader csv = new CsvReader(new StringReader("roomno\n\"A1\n"));
+
+        assertThatThrownBy(csv::next).isInstanceOf(IOException.class).hasMessageContaining("line 2");
+    }
+}
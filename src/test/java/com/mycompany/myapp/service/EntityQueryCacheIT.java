@@ -0,0 +1,170 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.domain.Facility;
+import com.mycompany.myapp.domain.Resident;
+import com.mycompany.myapp.domain.Room;
+import com.mycompany.myapp.repository.ResidentRepository;
+import com.mycompany.myapp.service.criteria.FacilityCriteria;
+import com.mycompany.myapp.service.criteria.ResidentCriteria;
+import com.mycompany.myapp.service.criteria.RoomCriteria;
+import com.mycompany.myapp.service.dto.ResidentDTO;
+import java.util.stream.StreamSupport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Slice;
+import org.springframework.transaction.annotation.Transactional;
+import tech.jhipster.service.filter.StringFilter;
+
+/**
+ * Integration tests for the criteria query caches of {@link ResidentQueryService}, {@link RoomQueryService} and
+ * {@link FacilityQueryService}.
+ * <p>
+ * Only the keyset slices are cached, and only once the reading transaction commits, so these tests commit their
+ * writes and clean up the data they create.
+ */
+@IntegrationTest
+class EntityQueryCacheIT {
+
+    @Autowired
+    private ResidentService residentService;
+
+    @Autowired
+    private RoomService roomService;
+
+    @Autowired
+    private FacilityService facilityService;
+
+    @Autowired
+    private ResidentQueryService residentQueryService;
+
+    @Autowired
+    private RoomQueryService roomQueryService;
+
+    @Autowired
+    private FacilityQueryService facilityQueryService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ResidentRepository residentRepository;
+
+    private Room room;
+
+    private ResidentCriteria residentCriteria;
+
+    @BeforeEach
+    public void init() {
+        room = roomService.save(new Room().roomno("query-cache").floor(1));
+        residentCriteria = new ResidentCriteria();
+        StringFilter lastname = new StringFilter();
+        lastname.setEquals("query-cache");
+        residentCriteria.setLastname(lastname);
+        clearCaches();
+    }
+
+    @AfterEach
+    public void cleanup() {
+        clearCaches();
+        residentQueryService.findByCriteria(residentCriteria).forEach(resident -> residentService.delete(resident.getId()));
+        roomService.delete(room.getId());
+    }
+
+    @Test
+    void sliceIsCachedUntilAResidentIsSaved() {
+        assertThat(residentQueryService.findByCriteria(residentCriteria, null, 20)).isEmpty();
+        assertThat(residentQueryService.findByCriteria(residentCriteria, null, 10)).isEmpty();
+        assertThat(cacheSize(ResidentQueryService.RESIDENTS_BY_CRITERIA_CACHE)).isEqualTo(2);
+
+        residentService.save(createResident("first"));
+
+        assertThat(cacheSize(ResidentQueryService.RESIDENTS_BY_CRITERIA_CACHE)).isZero();
+        assertThat(residentQueryService.findByCriteria(residentCriteria, null, 20)).hasSize(1);
+    }
+
+    @Test
+    void unboundedResultsAreNotCached() {
+        residentQueryService.findByCriteria(residentCriteria);
+        residentQueryService.countByCriteria(residentCriteria);
+
+        assertThat(cacheSize(ResidentQueryService.RESIDENTS_BY_CRITERIA_CACHE)).isZero();
+    }
+
+    @Test
+    void cachedResultIsReturnedWithoutQuerying() {
+        residentService.save(createResident("first"));
+        assertThat(residentQueryService.findByCriteria(residentCriteria, null, 20)).hasSize(1);
+
+        // A write which bypasses the services is not seen until the cache is evicted
+        residentRepository.save(createResident("second"));
+        assertThat(residentQueryService.findByCriteria(residentCriteria, null, 20)).hasSize(1);
+
+        clearCaches();
+        assertThat(residentQueryService.findByCriteria(residentCriteria, null, 20)).hasSize(2);
+    }
+
+    @Test
+    void cachedSlicesAreSnapshots() {
+        residentService.save(createResident("first"));
+        Slice<ResidentDTO> slice = residentQueryService.findByCriteria(residentCriteria, null, 20);
+
+        assertThat(slice.getContent().get(0).getRoom().getRoomno()).isEqualTo("query-cache");
+        assertThat(residentQueryService.findByCriteria(residentCriteria, null, 20)).isSameAs(slice);
+    }
+
+    @Test
+    void roomWriteEvictsTheQueriesEmbeddingRooms() {
+        residentQueryService.findByCriteria(residentCriteria, null, 20);
+        roomQueryService.findByCriteria(new RoomCriteria(), null, 20);
+        facilityQueryService.findByCriteria(new FacilityCriteria(), null, 20);
+
+        roomService.update(room.floor(2));
+
+        assertThat(cacheSize(ResidentQueryService.RESIDENTS_BY_CRITERIA_CACHE)).isZero();
+        assertThat(cacheSize(RoomQueryService.ROOMS_BY_CRITERIA_CACHE)).isZero();
+        assertThat(cacheSize(FacilityQueryService.FACILITIES_BY_CRITERIA_CACHE)).isZero();
+    }
+
+    @Test
+    void facilityWriteOnlyEvictsFacilityQueries() {
+        residentQueryService.findByCriteria(residentCriteria, null, 20);
+        roomQueryService.findByCriteria(new RoomCriteria(), null, 20);
+        facilityQueryService.findByCriteria(new FacilityCriteria(), null, 20);
+
+        Facility facility = facilityService.save(new Facility().aC(true).parking(true).wifi(true));
+        facilityService.delete(facility.getId());
+
+        assertThat(cacheSize(ResidentQueryService.RESIDENTS_BY_CRITERIA_CACHE)).isEqualTo(1);
+        assertThat(cacheSize(RoomQueryService.ROOMS_BY_CRITERIA_CACHE)).isEqualTo(1);
+        assertThat(cacheSize(FacilityQueryService.FACILITIES_BY_CRITERIA_CACHE)).isZero();
+    }
+
+    @Test
+    @Transactional
+    void rolledBackReadIsNotCached() {
+        residentQueryService.findByCriteria(residentCriteria, null, 20);
+
+        assertThat(cacheSize(ResidentQueryService.RESIDENTS_BY_CRITERIA_CACHE)).isZero();
+    }
+
+    private Resident createResident(String firstname) {
+        return new Resident().firstname(firstname).lastname("query-cache").email(firstname + "@localhost").phonenumber("0").room(room);
+    }
+
+    private void clearCaches() {
+        cacheManager.getCache(ResidentQueryService.RESIDENTS_BY_CRITERIA_CACHE).clear();
+        cacheManager.getCache(RoomQueryService.ROOMS_BY_CRITERIA_CACHE).clear();
+        cacheManager.getCache(FacilityQueryService.FACILITIES_BY_CRITERIA_CACHE).clear();
+    }
+
+    private long cacheSize(String cacheName) {
+        javax.cache.Cache<?, ?> cache = (javax.cache.Cache<?, ?>) cacheManager.getCache(cacheName).getNativeCache();
+        return StreamSupport.stream(cache.spliterator(), false).count();
+    }
+}
@@ -0,0 +1,165 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.Resident;
+import com.mycompany.myapp.repository.RoomRepository;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import javax.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataIntegrityViolationException;
+
+/**
+ * Unit tests for {@link ImportService}, running the queued imports by hand.
+ */
+class ImportServiceTest {
+
+    private ResidentService residentService;
+
+    private RoomService roomService;
+
+    private RoomRepository roomRepository;
+
+    private ApplicationProperties applicationProperties;
+
+    private final List<Runnable> queuedTasks = new ArrayList<>();
+
+    private ImportService importService;
+
+    @BeforeEach
+    public void setup() {
+        residentService = mock(ResidentService.class);
+        roomService = mock(RoomService.class);
+        roomRepository = mock(RoomRepository.class);
+        applicationProperties = new ApplicationProperties();
+        applicationProperties.getImports().setChunkSize(2);
+        importService =
+            new ImportService(
+                residentService,
+                roomService,
+                roomRepository,
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                queuedTasks::add,
+                applicationProperties
+            );
+    }
+
+    @Test
+    void importsRowsInChunks() throws IOException {
+        ImportJob job = startImport(ImportJob.Type.ROOMS, "roomno;floor;type\nA1;1;single\nA2;1;double\nB1;2;single\n");
+        assertThat(job.getStatus()).isEqualTo(ImportJob.Status.QUEUED);
+
+        runQueuedTasks();
+
+        assertThat(job.getStatus()).isEqualTo(ImportJob.Status.COMPLETED);
+        assertThat(job.getProcessedRows()).isEqualTo(3);
+        assertThat(job.getImportedRows()).isEqualTo(3);
+        assertThat(job.getFailedRows()).isZero();
+        verify(roomService).saveAll(argThat(rooms -> rooms.size() == 2));
+        verify(roomService).saveAll(argThat(rooms -> rooms.size() == 1));
+    }
+
+    @Test
+    void reportsInvalidRows() throws IOException {
+        when(roomRepository.findAllRoomnosAndIds()).thenReturn(List.<Object[]>of(new Object[] { "A1", 1L }));
+        ImportJob job = startImport(
+            ImportJob.Type.RESIDENTS,
+            "firstname;lastname;email;phonenumber;room\n" +
+            "Jane;Doe;jane@localhost;0;A1\n" +
+            "No;Email;;0;\n" +
+            "John;Doe;jane@localhost;0;\n" +
+            "Joe;Doe;joe@localhost;0;Z9\n"
+        );
+
+        runQueuedTasks();
+
+        assertThat(job.getStatus()).isEqualTo(ImportJob.Status.COMPLETED);
+        assertThat(job.getImportedRows()).isEqualTo(1);
+        assertThat(job.getFailedRows()).isEqualTo(3);
+        assertThat(job.getErrors()).extracting(ImportJob.RowError::getLine).containsExactly(3L, 4L, 5L);
+        assertThat(job.getErrors()).extracting(ImportJob.RowError::getMessage).allMatch(message -> !message.isEmpty());
+        ArgumentCaptor<List<Resident>> residents = ArgumentCaptor.forClass(List.class);
+        verify(residentService).saveAll(residents.capture());
+        assertThat(residents.getValue()).singleElement().satisfies(resident -> assertThat(resident.getRoom().getId()).isEqualTo(1L));
+    }
+
+    @Test
+    void retriesAFailedChunkRowByRow() throws IOException {
+        when(roomService.saveAll(anyList())).thenThrow(new DataIntegrityViolationException("duplicate"));
+        when(roomService.save(argThat(room -> "A2".equals(room.getRoomno()))))
+            .thenThrow(new DataIntegrityViolationException("duplicate A2"));
+        ImportJob job = startImport(ImportJob.Type.ROOMS, "roomno\nA1\nA2\n");
+
+        runQueuedTasks();
+
+        assertThat(job.getImportedRows()).isEqualTo(1);
+        assertThat(job.getErrors()).singleElement().satisfies(error -> {
+            assertThat(error.getLine()).isEqualTo(3);
+            assertThat(error.getMessage()).isEqualTo("duplicate A2");
+        });
+    }
+
+    @Test
+    void cancelledImportStopsBeforeWriting() throws IOException {
+        ImportJob job = startImport(ImportJob.Type.ROOMS, "roomno\nA1\n");
+
+        assertThat(importService.cancel(job.getId())).contains(job);
+        runQueuedTasks();
+
+        assertThat(job.getStatus()).isEqualTo(ImportJob.Status.CANCELLED);
+        verify(roomService, never()).saveAll(anyList());
+    }
+
+    @Test
+    void missingColumnFailsTheImport() throws IOException {
+        ImportJob job = startImport(ImportJob.Type.RESIDENTS, "firstname;lastname\nJane;Doe\n");
+
+        runQueuedTasks();
+
+        assertThat(job.getStatus()).isEqualTo(ImportJob.Status.FAILED);
+        assertThat(job.getMessage()).isEqualTo("Missing column: email");
+        verify(residentService, never()).save(any(Resident.class));
+    }
+
+    @Test
+    void finishedJobsExpire() throws IOException {
+        ImportJob job = startImport(ImportJob.Type.ROOMS, "roomno\n");
+        runQueuedTasks();
+
+        importService.removeExpiredJobs();
+        assertThat(importService.findJob(job.getId())).contains(job);
+
+        applicationProperties.getImports().setRetention(Duration.ofSeconds(-1));
+        importService.removeExpiredJobs();
+        assertThat(importService.findJob(job.getId())).isEmpty();
+    }
+
+    private ImportJob startImport(ImportJob.Type type, String content) throws IOException {
+        return importService.startImport(type, "import.csv", content(content));
+    }
+
+    private static ByteArrayInputStream content(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void runQueuedTasks() {
+        List<Runnable> tasks = new ArrayList<>(queuedTasks);
+        queuedTasks.clear();
+        tasks.forEach(Runnable::run);
+    }
+}
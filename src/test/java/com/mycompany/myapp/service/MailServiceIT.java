@@ -14,6 +14,7 @@ import java.io.InputStreamReader;
 import java.net.URI;
 import java.net.URL;
 import java.nio.charset.Charset;
+import java.util.List;
 import java.util.Properties;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -176,6 +177,31 @@ class MailServiceIT {
         assertThat(message.getDataHandler().getContentType()).isEqualTo("text/html;charset=UTF-8");
     }
 
+    @Test
+    void testCreationEmails() throws Exception {
+        doNothing().when(javaMailSender).send(any(MimeMessage.class), any(MimeMessage.class));
+        User john = new User();
+        john.setLangKey(Constants.DEFAULT_LANGUAGE);
+        john.setLogin("john");
+        john.setEmail("john.doe@example.com");
+        User jane = new User();
+        jane.setLangKey(Constants.DEFAULT_LANGUAGE);
+        jane.setLogin("jane");
+        jane.setEmail("jane.doe@example.com");
+        User noEmail = new User();
+        noEmail.setLangKey(Constants.DEFAULT_LANGUAGE);
+        noEmail.setLogin("noemail");
+        mailService.sendCreationEmails(List.of(john, noEmail, jane));
+        verify(javaMailSender).send(messageCaptor.capture(), messageCaptor.capture());
+        verify(javaMailSender, never()).send(any(MimeMessage.class));
+        assertThat(messageCaptor.getAllValues()).hasSize(2);
+        MimeMessage message = messageCaptor.getAllValues().get(1);
+        assertThat(message.getAllRecipients()[0]).hasToString(jane.getEmail());
+        assertThat(message.getFrom()[0]).hasToString(jHipsterProperties.getMail().getFrom());
+        assertThat(message.getContent().toString()).isNotEmpty();
+        assertThat(message.getDataHandler().getContentType()).isEqualTo("text/html;charset=UTF-8");
+    }
+
     @Test
     void testSendPasswordResetMail() throws Exception {
         User user = new User();
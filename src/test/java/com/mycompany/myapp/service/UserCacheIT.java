@@ -0,0 +1,174 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.domain.User;
+import com.mycompany.myapp.repository.UserRepository;
+import com.mycompany.myapp.security.AuthoritiesConstants;
+import com.mycompany.myapp.security.DomainUserDetailsService;
+import com.mycompany.myapp.security.UserCredentials;
+import com.mycompany.myapp.security.UserCredentialsCache;
+import com.mycompany.myapp.security.UserNotActivatedException;
+import com.mycompany.myapp.service.dto.AdminUserDTO;
+import javax.persistence.EntityManager;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for the {@link UserCredentialsCache}, filled by {@link DomainUserDetailsService}, and for the
+ * {@link AccountCache}, both evicted by {@link UserService}.
+ * <p>
+ * The users are only cached once the reading transaction commits, so these tests commit their writes and clean up the
+ * user they create.
+ */
+@IntegrationTest
+class UserCacheIT {
+
+    private static final String LOGIN = "user-cache";
+
+    private static final String EMAIL = "user-cache@example.com";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private DomainUserDetailsService domainUserDetailsService;
+
+    @Autowired
+    private UserCredentialsCache userCredentialsCache;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private User user;
+
+    @BeforeEach
+    public void init() {
+        user = new User();
+        user.setLogin(LOGIN);
+        user.setEmail(EMAIL);
+        user.setPassword(RandomStringUtils.random(60));
+        user.setActivated(true);
+        user = userRepository.saveAndFlush(user);
+        clearCaches();
+    }
+
+    @AfterEach
+    public void cleanup() {
+        userService.deleteUser(LOGIN);
+        clearCaches();
+    }
+
+    @Test
+    void userIsCachedByLoginAndLowerCasedEmail() {
+        domainUserDetailsService.loadUserByUsername(LOGIN);
+        domainUserDetailsService.loadUserByUsername("User-Cache@Example.com");
+
+        assertThat(cacheManager.getCache(UserCredentialsCache.USERS_BY_LOGIN_CACHE).get(LOGIN)).isNotNull();
+        assertThat(cacheManager.getCache(UserCredentialsCache.USERS_BY_EMAIL_CACHE).get(EMAIL)).isNotNull();
+    }
+
+    @Test
+    void cachedUserIsReturnedWithoutQuerying() {
+        assertThat(userCredentialsCache.findByLogin(LOGIN)).isPresent();
+
+        // A write which bypasses the services is not seen until the cache is evicted
+        user.setPassword(RandomStringUtils.random(60));
+        userRepository.saveAndFlush(user);
+        assertThat(userCredentialsCache.findByLogin(LOGIN))
+            .hasValueSatisfying(u -> assertThat(u.getPassword()).isNotEqualTo(user.getPassword()));
+
+        clearCaches();
+        assertThat(userCredentialsCache.findByLogin(LOGIN))
+            .hasValueSatisfying(u -> assertThat(u.getPassword()).isEqualTo(user.getPassword()));
+    }
+
+    @Test
+    void cachedUserIsAnImmutableSnapshot() {
+        UserCredentials credentials = userCredentialsCache.findByLogin(LOGIN).orElseThrow();
+
+        assertThat(userCredentialsCache.findByLogin(LOGIN)).containsSame(credentials);
+        assertThat(credentials.getAuthorities()).isEmpty();
+        assertThatThrownBy(() -> credentials.getAuthorities().add(AuthoritiesConstants.ADMIN))
+            .isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void deactivatedUserIsEvicted() {
+        domainUserDetailsService.loadUserByUsername(LOGIN);
+        domainUserDetailsService.loadUserByUsername(EMAIL);
+
+        AdminUserDTO userDTO = new AdminUserDTO(userRepository.findOneWithAuthoritiesByLogin(LOGIN).orElseThrow());
+        userDTO.setActivated(false);
+        userService.updateUser(userDTO);
+
+        assertThat(cacheManager.getCache(UserCredentialsCache.USERS_BY_LOGIN_CACHE).get(LOGIN)).isNull();
+        assertThat(cacheManager.getCache(UserCredentialsCache.USERS_BY_EMAIL_CACHE).get(EMAIL)).isNull();
+        assertThatThrownBy(() -> domainUserDetailsService.loadUserByUsername(LOGIN)).isInstanceOf(UserNotActivatedException.class);
+        assertThatThrownBy(() -> domainUserDetailsService.loadUserByUsername(EMAIL)).isInstanceOf(UserNotActivatedException.class);
+    }
+
+    @Test
+    void unknownUserIsNotCached() {
+        assertThat(userCredentialsCache.findByLogin("unknown-user-cache")).isEmpty();
+
+        assertThat(cacheManager.getCache(UserCredentialsCache.USERS_BY_LOGIN_CACHE).get("unknown-user-cache")).isNull();
+    }
+
+    @Test
+    @Transactional
+    void rolledBackReadIsNotCached() {
+        userCredentialsCache.findByLogin(LOGIN);
+
+        assertThat(cacheManager.getCache(UserCredentialsCache.USERS_BY_LOGIN_CACHE).get(LOGIN)).isNull();
+    }
+
+    @Test
+    @WithMockUser(LOGIN)
+    void repeatedAccountReadsIssueNoStatement() {
+        AdminUserDTO account = userService.getAccount().orElseThrow();
+
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        long before = statistics.getPrepareStatementCount();
+        assertThat(userService.getAccount()).hasValueSatisfying(cached -> assertThat(cached.getLogin()).isEqualTo(LOGIN));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(before);
+
+        // Every read gets its own copy of the cached account
+        account.setFirstName("changed");
+        assertThat(userService.getAccount()).hasValueSatisfying(cached -> assertThat(cached.getFirstName()).isNull());
+    }
+
+    @Test
+    @WithMockUser(LOGIN)
+    void updatedAccountIsEvicted() {
+        userService.getAccount();
+        assertThat(cacheManager.getCache(AccountCache.ACCOUNTS_BY_LOGIN_CACHE).get(LOGIN)).isNotNull();
+
+        userService.updateUser("first", "last", EMAIL, "en", null);
+
+        assertThat(cacheManager.getCache(AccountCache.ACCOUNTS_BY_LOGIN_CACHE).get(LOGIN)).isNull();
+        assertThat(userService.getAccount()).hasValueSatisfying(account -> assertThat(account.getFirstName()).isEqualTo("first"));
+    }
+
+    private void clearCaches() {
+        cacheManager.getCache(UserCredentialsCache.USERS_BY_LOGIN_CACHE).clear();
+        cacheManager.getCache(UserCredentialsCache.USERS_BY_EMAIL_CACHE).clear();
+        cacheManager.getCache(AccountCache.ACCOUNTS_BY_LOGIN_CACHE).clear();
+    }
+}
@@ -0,0 +1,134 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.Authority;
+import com.mycompany.myapp.domain.User;
+import com.mycompany.myapp.repository.UserRepository;
+import com.mycompany.myapp.security.AuthoritiesConstants;
+import com.mycompany.myapp.security.UserCredentialsCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import tech.jhipster.security.RandomUtil;
+
+/**
+ * Integration tests for {@link UserPurgeService}.
+ */
+@IntegrationTest
+@Transactional
+class UserPurgeServiceIT {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserCredentialsCache userCredentialsCache;
+
+    @Autowired
+    private AccountCache accountCache;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private MeterRegistry meterRegistry;
+
+    private ApplicationProperties applicationProperties;
+
+    private UserPurgeService userPurgeService;
+
+    @BeforeEach
+    public void init() {
+        meterRegistry = new SimpleMeterRegistry();
+        applicationProperties = new ApplicationProperties();
+        applicationProperties.getUserPurge().setChunkSize(2);
+        userPurgeService =
+            new UserPurgeService(
+                userRepository,
+                userCredentialsCache,
+                accountCache,
+                transactionManager,
+                meterRegistry,
+                applicationProperties
+            );
+    }
+
+    @Test
+    void assertThatNotActivatedUsersArePurgedInChunks() {
+        Instant fourDaysAgo = Instant.now().minus(4, ChronoUnit.DAYS);
+        List<User> purged = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            purged.add(createUser("purged-" + i, false, fourDaysAgo));
+        }
+        User activated = createUser("purge-activated", true, fourDaysAgo);
+        User recent = createUser("purge-recent", false, Instant.now());
+
+        long deleted = userPurgeService.purgeNotActivatedUsers(Instant.now().minus(3, ChronoUnit.DAYS));
+
+        assertThat(deleted).isEqualTo(5);
+        for (User user : purged) {
+            assertThat(countUsersAndAuthorities(user)).isZero();
+        }
+        assertThat(countUsersAndAuthorities(activated)).isEqualTo(2);
+        assertThat(countUsersAndAuthorities(recent)).isEqualTo(2);
+        assertThat(meterRegistry.get(UserPurgeService.DELETED_METER_NAME).counter().count()).isEqualTo(5);
+        assertThat(meterRegistry.get(UserPurgeService.CHUNK_METER_NAME).timer().count()).isEqualTo(3);
+        assertThat(meterRegistry.get(UserPurgeService.DURATION_METER_NAME).timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void assertThatPurgeStopsAfterItsMaxDuration() {
+        Instant fourDaysAgo = Instant.now().minus(4, ChronoUnit.DAYS);
+        for (int i = 0; i < 3; i++) {
+            createUser("purged-" + i, false, fourDaysAgo);
+        }
+        applicationProperties.getUserPurge().setMaxDuration(Duration.ZERO);
+
+        assertThat(userPurgeService.purgeNotActivatedUsers(Instant.now().minus(3, ChronoUnit.DAYS))).isEqualTo(2);
+        assertThat(userPurgeService.purgeNotActivatedUsers(Instant.now().minus(3, ChronoUnit.DAYS))).isEqualTo(1);
+        assertThat(userPurgeService.purgeNotActivatedUsers(Instant.now().minus(3, ChronoUnit.DAYS))).isZero();
+    }
+
+    private User createUser(String login, boolean activated, Instant createdDate) {
+        User user = new User();
+        user.setLogin(login);
+        user.setEmail(login + "@localhost");
+        user.setPassword(RandomStringUtils.random(60));
+        user.setActivated(activated);
+        user.setActivationKey(activated ? null : RandomUtil.generateActivationKey());
+        Authority authority = new Authority();
+        authority.setName(AuthoritiesConstants.USER);
+        user.setAuthorities(Set.of(authority));
+        userRepository.saveAndFlush(user);
+        jdbcTemplate.update("update jhi_user set created_date = ? where id = ?", Timestamp.from(createdDate), user.getId());
+        return user;
+    }
+
+    private int countUsersAndAuthorities(User user) {
+        Integer users = jdbcTemplate.queryForObject("select count(*) from jhi_user where id = ?", Integer.class, user.getId());
+        Integer authorities = jdbcTemplate.queryForObject(
+            "select count(*) from jhi_user_authority where user_id = ?",
+            Integer.class,
+            user.getId()
+        );
+        return users + authorities;
+    }
+}
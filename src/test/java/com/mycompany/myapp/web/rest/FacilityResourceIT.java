@@ -1,7 +1,10 @@
 package com.mycompany.myapp.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.everyItem;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.notNullValue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -10,6 +13,8 @@ import com.mycompany.myapp.domain.Facility;
 import com.mycompany.myapp.domain.Room;
 import com.mycompany.myapp.repository.FacilityRepository;
 import com.mycompany.myapp.service.criteria.FacilityCriteria;
+import java.net.URI;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
@@ -18,9 +23,12 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -42,6 +50,7 @@ class FacilityResourceIT {
 
     private static final String ENTITY_API_URL = "/api/facilities";
     private static final String ENTITY_API_URL_ID = ENTITY_API_URL + "/{id}";
+    private static final String ENTITY_API_URL_BULK = ENTITY_API_URL + "/bulk";
 
     private static Random random = new Random();
     private static AtomicLong count = new AtomicLong(random.nextInt() + (2 * Integer.MAX_VALUE));
@@ -137,6 +146,152 @@ class FacilityResourceIT {
             .andExpect(jsonPath("$.[*].wifi").value(hasItem(DEFAULT_WIFI.booleanValue())));
     }
 
+    @Test
+    @Transactional
+    void getAllFacilitiesWithKeysetPagination() throws Exception {
+        // Initialize the database
+        facilityRepository.saveAndFlush(facility);
+        Facility secondFacility = facilityRepository.saveAndFlush(createUpdatedEntity(em));
+
+        // Get the first slice, which links to the next one
+        MvcResult result = restFacilityMockMvc
+            .perform(get(ENTITY_API_URL + "?size=1&id.greaterThanOrEqual=" + facility.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(facility.getId().intValue()))
+            .andExpect(header().string(HttpHeaders.LINK, containsString("rel=\"next\"")))
+            .andReturn();
+
+        // Follow the next link, which points to the last slice
+        String nextLink = result.getResponse().getHeader(HttpHeaders.LINK).replaceFirst("^<([^>]*)>.*$", "$1");
+        restFacilityMockMvc
+            .perform(get(URI.create(nextLink)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(secondFacility.getId().intValue()))
+            .andExpect(header().doesNotExist(HttpHeaders.LINK));
+    }
+
+    @Test
+    @Transactional
+    void getAllFacilitiesWithInvalidCursor() throws Exception {
+        restFacilityMockMvc.perform(get(ENTITY_API_URL + "?after=invalid!")).andExpect(status().isBadRequest());
+        restFacilityMockMvc.perform(get(ENTITY_API_URL + "?size=0")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void getAllFacilitiesWithFieldSelection() throws Exception {
+        // Initialize the database
+        Room room = RoomResourceIT.createEntity(em);
+        em.persist(room);
+        facility.setRoom(room);
+        facilityRepository.saveAndFlush(facility);
+
+        restFacilityMockMvc
+            .perform(get(ENTITY_API_URL + "?fields=wifi,room&id.equals=" + facility.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(facility.getId().intValue()))
+            .andExpect(jsonPath("$.[0].wifi").value(DEFAULT_WIFI))
+            .andExpect(jsonPath("$.[0].parking").doesNotExist())
+            .andExpect(jsonPath("$.[0].room.id").value(room.getId().intValue()))
+            .andExpect(jsonPath("$.[0].room.roomno").doesNotExist());
+    }
+
+    @Test
+    @Transactional
+    void getAllFacilitiesWithFieldSelectionAndKeysetPagination() throws Exception {
+        // Initialize the database
+        facilityRepository.saveAndFlush(facility);
+
+        restFacilityMockMvc
+            .perform(get(ENTITY_API_URL + "?fields=wifi&size=1&id.greaterThanOrEqual=" + facility.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(facility.getId().intValue()))
+            .andExpect(jsonPath("$.[0].wifi").value(DEFAULT_WIFI));
+    }
+
+    @Test
+    @Transactional
+    void getAllFacilitiesWithUnknownField() throws Exception {
+        restFacilityMockMvc.perform(get(ENTITY_API_URL + "?fields=wifi,unknown")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void facilityReadsStayWithinStatementBudget() throws Exception {
+        // Initialize the database with facilities in distinct rooms
+        for (int i = 0; i < 3; i++) {
+            Room room = RoomResourceIT.createEntity(em).roomno("budget-" + i);
+            em.persist(room);
+            em.persist(createEntity(em).room(room));
+        }
+        em.persist(facility);
+        Long id = facility.getId();
+
+        // Every read is a single statement, whatever the number of rooms
+        assertThat(countStatements(get(ENTITY_API_URL))).isEqualTo(1);
+        assertThat(countStatements(get(ENTITY_API_URL + "?size=2"))).isEqualTo(1);
+        assertThat(countStatements(get(ENTITY_API_URL + "/count"))).isEqualTo(1);
+        assertThat(countStatements(get(ENTITY_API_URL_ID, id))).isEqualTo(1);
+        assertThat(countStatements(get(ENTITY_API_URL + "?fields=wifi,room"))).isEqualTo(1);
+    }
+
+    @Test
+    void exportFacilities() throws Exception {
+        // Initialize the database outside of a test transaction, as the export is streamed from another thread
+        facilityRepository.saveAndFlush(facility);
+
+        try {
+            MvcResult ndjsonResult = restFacilityMockMvc
+                .perform(get(ENTITY_API_URL + "/export?id.equals=" + facility.getId()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+            restFacilityMockMvc
+                .perform(asyncDispatch(ndjsonResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, containsString("facilities.ndjson")))
+                .andExpect(content().string(containsString("\"id\":" + facility.getId())))
+                .andExpect(content().string(containsString("\"parking\":" + DEFAULT_PARKING)));
+
+            MvcResult csvResult = restFacilityMockMvc
+                .perform(get(ENTITY_API_URL + "/export?format=csv&id.equals=" + facility.getId()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+            restFacilityMockMvc
+                .perform(asyncDispatch(csvResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv"))
+                .andExpect(
+                    content()
+                        .string(
+                            "id;a_c;parking;wifi;room_id\n" +
+                            facility.getId() +
+                            ";" +
+                            DEFAULT_A_C +
+                            ";" +
+                            DEFAULT_PARKING +
+                            ";" +
+                            DEFAULT_WIFI +
+                            ";\n"
+                        )
+                );
+        } finally {
+            facilityRepository.deleteById(facility.getId());
+        }
+    }
+
+    @Test
+    @Transactional
+    void exportFacilitiesWithInvalidFormat() throws Exception {
+        restFacilityMockMvc.perform(get(ENTITY_API_URL + "/export?format=xml")).andExpect(status().isBadRequest());
+    }
+
     @Test
     @Transactional
     void getFacility() throws Exception {
@@ -154,6 +309,89 @@ class FacilityResourceIT {
             .andExpect(jsonPath("$.wifi").value(DEFAULT_WIFI.booleanValue()));
     }
 
+    @Test
+    @Transactional
+    void getFacilityWithIfNoneMatch() throws Exception {
+        // Initialize the database
+        facilityRepository.saveAndFlush(facility);
+
+        // Get the facility with its version headers
+        String etag = restFacilityMockMvc
+            .perform(get(ENTITY_API_URL_ID, facility.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+            .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+
+        // The unchanged facility is answered from its version alone
+        long statements = TestUtil.countStatements(
+            em,
+            () ->
+                restFacilityMockMvc
+                    .perform(get(ENTITY_API_URL_ID, facility.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string(HttpHeaders.ETAG, etag))
+                    .andExpect(content().string(""))
+        );
+        assertThat(statements).isEqualTo(1);
+
+        // The updated facility is returned again
+        facilityRepository.saveAndFlush(facilityRepository.findById(facility.getId()).get().parking(UPDATED_PARKING));
+        restFacilityMockMvc
+            .perform(get(ENTITY_API_URL_ID, facility.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+    }
+
+    @Test
+    @Transactional
+    void updateFacilityWithIfMatch() throws Exception {
+        // Initialize the database
+        facilityRepository.saveAndFlush(facility);
+
+        // Update the facility
+        Facility updatedFacility = facilityRepository.findById(facility.getId()).get();
+        // Disconnect from session so that the updates on updatedFacility are not directly saved in db
+        em.detach(updatedFacility);
+        updatedFacility.parking(UPDATED_PARKING);
+
+        restFacilityMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, updatedFacility.getId())
+                    .header(HttpHeaders.IF_MATCH, "\"0\"")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(updatedFacility))
+            )
+            .andExpect(status().isOk());
+
+        // The first version can no longer be updated
+        restFacilityMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, updatedFacility.getId())
+                    .header(HttpHeaders.IF_MATCH, "\"0\"")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(updatedFacility))
+            )
+            .andExpect(status().isPreconditionFailed());
+        restFacilityMockMvc
+            .perform(
+                patch(ENTITY_API_URL_ID, updatedFacility.getId())
+                    .header(HttpHeaders.IF_MATCH, "\"0\"")
+                    .contentType("application/merge-patch+json")
+                    .content(TestUtil.convertObjectToJsonBytes(updatedFacility))
+            )
+            .andExpect(status().isPreconditionFailed());
+        restFacilityMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, updatedFacility.getId())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(updatedFacility))
+            )
+            .andExpect(status().isConflict());
+    }
+
     @Test
     @Transactional
     void getFacilitiesByIdFiltering() throws Exception {
@@ -401,6 +639,167 @@ class FacilityResourceIT {
         restFacilityMockMvc.perform(get(ENTITY_API_URL_ID, Long.MAX_VALUE)).andExpect(status().isNotFound());
     }
 
+    @Test
+    @Transactional
+    void bulkCreateFacilities() throws Exception {
+        int databaseSizeBeforeCreate = facilityRepository.findAll().size();
+        List<Facility> facilities = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            facilities.add(createEntity(em));
+        }
+
+        // The inserts are sent in a few JDBC batches, not one statement per facility
+        long statements = TestUtil.countStatements(
+            em,
+            () ->
+                restFacilityMockMvc
+                    .perform(
+                        post(ENTITY_API_URL_BULK)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(TestUtil.convertObjectToJsonBytes(facilities))
+                    )
+                    .andExpect(status().isCreated())
+                    .andExpect(jsonPath("$.length()").value(60))
+                    .andExpect(jsonPath("$.[*].id").value(everyItem(notNullValue())))
+        );
+        assertThat(statements).isLessThan(10);
+
+        // Validate the Facilitys in the database
+        assertThat(facilityRepository.findAll()).hasSize(databaseSizeBeforeCreate + 60);
+    }
+
+    @Test
+    @Transactional
+    void bulkCreateFacilitiesWithInvalidItems() throws Exception {
+        int databaseSizeBeforeCreate = facilityRepository.findAll().size();
+        Facility withId = createEntity(em);
+        withId.setId(1L);
+        List<Facility> facilities = List.of(facility, withId);
+
+        // Every invalid facility is reported, and none of the facilities is created
+        restFacilityMockMvc
+            .perform(
+                post(ENTITY_API_URL_BULK).contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(facilities))
+            )
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("error.validation"))
+            .andExpect(jsonPath("$.fieldErrors.length()").value(1))
+            .andExpect(jsonPath("$.fieldErrors.[0].objectName").value("facility[1]"))
+            .andExpect(jsonPath("$.fieldErrors.[0].field").value("id"))
+            .andExpect(jsonPath("$.fieldErrors.[0].message").value("idexists"));
+
+        assertThat(facilityRepository.findAll()).hasSize(databaseSizeBeforeCreate);
+    }
+
+    @Test
+    @Transactional
+    void bulkUpdateFacilities() throws Exception {
+        // Initialize the database
+        facilityRepository.saveAndFlush(facility);
+        Facility other = facilityRepository.saveAndFlush(createEntity(em));
+        em.detach(facility);
+        em.detach(other);
+
+        List<Facility> facilities = List.of(facility.wifi(UPDATED_WIFI), other.wifi(UPDATED_WIFI));
+        restFacilityMockMvc
+            .perform(
+                put(ENTITY_API_URL_BULK).contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(facilities))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(2));
+
+        // Validate the Facilitys in the database
+        assertThat(facilityRepository.findById(facility.getId()).orElseThrow().getWifi()).isEqualTo(UPDATED_WIFI);
+        assertThat(facilityRepository.findById(other.getId()).orElseThrow().getWifi()).isEqualTo(UPDATED_WIFI);
+    }
+
+    @Test
+    @Transactional
+    void bulkUpdateFacilitiesWithUnknownOrDuplicateIds() throws Exception {
+        // Initialize the database
+        facilityRepository.saveAndFlush(facility);
+        Facility unknown = createEntity(em);
+        unknown.setId(count.incrementAndGet());
+
+        restFacilityMockMvc
+            .perform(
+                put(ENTITY_API_URL_BULK)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(List.of(facility, unknown, facility)))
+            )
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.fieldErrors.length()").value(2))
+            .andExpect(jsonPath("$.fieldErrors.[0].objectName").value("facility[2]"))
+            .andExpect(jsonPath("$.fieldErrors.[0].message").value("idduplicate"))
+            .andExpect(jsonPath("$.fieldErrors.[1].objectName").value("facility[1]"))
+            .andExpect(jsonPath("$.fieldErrors.[1].message").value("idnotfound"));
+    }
+
+    @Test
+    @Transactional
+    void bulkCreateFacilitiesWithUsedDuplicateOrUnknownRooms() throws Exception {
+        // Initialize the database
+        Room usedRoom = RoomResourceIT.createEntity(em);
+        em.persist(usedRoom);
+        Room freeRoom = RoomResourceIT.createEntity(em).roomno("free");
+        em.persist(freeRoom);
+        facilityRepository.saveAndFlush(facility.room(usedRoom));
+        int databaseSizeBeforeCreate = facilityRepository.findAll().size();
+        Room unknownRoom = RoomResourceIT.createEntity(em).roomno("unknown");
+        unknownRoom.setId(count.incrementAndGet());
+        List<Facility> facilities = List.of(
+            createEntity(em).room(usedRoom),
+            createEntity(em).room(freeRoom),
+            createEntity(em).room(freeRoom),
+            createEntity(em).room(unknownRoom)
+        );
+
+        // The rooms are checked before the inserts, which would break their foreign key or unique constraint
+        restFacilityMockMvc
+            .perform(
+                post(ENTITY_API_URL_BULK).contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(facilities))
+            )
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.fieldErrors.length()").value(3))
+            .andExpect(jsonPath("$.fieldErrors.[0].objectName").value("facility[3]"))
+            .andExpect(jsonPath("$.fieldErrors.[0].field").value("room"))
+            .andExpect(jsonPath("$.fieldErrors.[0].message").value("roomnotfound"))
+            .andExpect(jsonPath("$.fieldErrors.[1].objectName").value("facility[2]"))
+            .andExpect(jsonPath("$.fieldErrors.[1].field").value("room"))
+            .andExpect(jsonPath("$.fieldErrors.[1].message").value("roomduplicate"))
+            .andExpect(jsonPath("$.fieldErrors.[2].objectName").value("facility[0]"))
+            .andExpect(jsonPath("$.fieldErrors.[2].field").value("room"))
+            .andExpect(jsonPath("$.fieldErrors.[2].message").value("roomused"));
+
+        assertThat(facilityRepository.findAll()).hasSize(databaseSizeBeforeCreate);
+    }
+
+    @Test
+    @Transactional
+    void bulkUpdateFacilitiesWithUsedRoom() throws Exception {
+        // Initialize the database
+        Room room = RoomResourceIT.createEntity(em);
+        em.persist(room);
+        facilityRepository.saveAndFlush(facility.room(room));
+        Facility other = facilityRepository.saveAndFlush(createEntity(em));
+        em.detach(facility);
+        em.detach(other);
+
+        // A facility may keep its own room, but not take the one of another facility
+        restFacilityMockMvc
+            .perform(
+                put(ENTITY_API_URL_BULK)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(List.of(facility.wifi(UPDATED_WIFI), other.room(room))))
+            )
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.fieldErrors.length()").value(2))
+            .andExpect(jsonPath("$.fieldErrors.[0].objectName").value("facility[1]"))
+            .andExpect(jsonPath("$.fieldErrors.[0].message").value("roomduplicate"))
+            .andExpect(jsonPath("$.fieldErrors.[1].objectName").value("facility[1]"))
+            .andExpect(jsonPath("$.fieldErrors.[1].message").value("roomused"));
+    }
+
     @Test
     @Transactional
     void putNewFacility() throws Exception {
@@ -623,4 +1022,8 @@ class FacilityResourceIT {
         List<Facility> facilityList = facilityRepository.findAll();
         assertThat(facilityList).hasSize(databaseSizeBeforeDelete - 1);
     }
+
+    private long countStatements(MockHttpServletRequestBuilder request) throws Exception {
+        return TestUtil.countStatements(em, () -> restFacilityMockMvc.perform(request).andExpect(status().isOk()));
+    }
 }
@@ -0,0 +1,160 @@
+package com.mycompany.myapp.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.domain.Resident;
+import com.mycompany.myapp.domain.Room;
+import com.mycompany.myapp.repository.ResidentRepository;
+import com.mycompany.myapp.repository.RoomRepository;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+/**
+ * Integration tests for the {@link ImportResource} REST controller.
+ * <p>
+ * The imports run and commit on the task executor, so these tests clean up the data they import.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser
+class ImportResourceIT {
+
+    private static final String ENTITY_API_URL = "/api/imports";
+    private static final String ENTITY_API_URL_ID = ENTITY_API_URL + "/{id}";
+
+    private static final Set<String> FINISHED_STATUSES = Set.of("COMPLETED", "CANCELLED", "FAILED");
+
+    @Autowired
+    private ResidentRepository residentRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MockMvc restImportMockMvc;
+
+    @AfterEach
+    public void cleanup() {
+        residentRepository
+            .findAll()
+            .stream()
+            .filter(resident -> resident.getEmail().endsWith("@import.localhost"))
+            .forEach(residentRepository::delete);
+        roomRepository.findAll().stream().filter(room -> room.getRoomno().startsWith("import-")).forEach(roomRepository::delete);
+    }
+
+    @Test
+    void importRoomsThenResidents() throws Exception {
+        String roomsImportId = startImport("rooms", "id;roomno;floor;type\n1;import-1;1;single\n2;import-2;first;double\n");
+        JsonNode roomsImport = awaitImport(roomsImportId);
+        assertThat(roomsImport.get("status").asText()).isEqualTo("COMPLETED");
+        assertThat(roomsImport.get("processedRows").asLong()).isEqualTo(2);
+        assertThat(roomsImport.get("importedRows").asLong()).isEqualTo(1);
+        assertThat(roomsImport.get("failedRows").asLong()).isEqualTo(1);
+        assertThat(roomsImport.at("/errors/0/line").asLong()).isEqualTo(3);
+
+        String residentsImportId = startImport(
+            "residents",
+            "firstname;lastname;email;phonenumber;room\nJane;Doe;jane@import.localhost;0123456789;import-1\n"
+        );
+        JsonNode residentsImport = awaitImport(residentsImportId);
+        assertThat(residentsImport.get("status").asText()).isEqualTo("COMPLETED");
+        assertThat(residentsImport.get("importedRows").asLong()).isEqualTo(1);
+
+        // Validate the imported entities in the database
+        Room room = roomRepository.findAll().stream().filter(r -> "import-1".equals(r.getRoomno())).findFirst().orElseThrow();
+        assertThat(room.getFloor()).isEqualTo(1);
+        Resident resident = residentRepository
+            .findAllWithEagerRelationships()
+            .stream()
+            .filter(r -> "jane@import.localhost".equals(r.getEmail()))
+            .findFirst()
+            .orElseThrow();
+        assertThat(resident.getRoom().getId()).isEqualTo(room.getId());
+    }
+
+    @Test
+    void getImportErrors() throws Exception {
+        String importId = startImport("rooms", "roomno;floor\nimport-1;first\n");
+        awaitImport(importId);
+
+        MvcResult result = restImportMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/errors", importId))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        restImportMockMvc
+            .perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("text/csv"))
+            .andExpect(content().string("line;message\n2;floor: not a number: first\n"));
+    }
+
+    @Test
+    void cancelImport() throws Exception {
+        String importId = startImport("rooms", "roomno\nimport-1\n");
+
+        restImportMockMvc
+            .perform(delete(ENTITY_API_URL_ID, importId))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.cancelRequested").value(true));
+
+        // The import may have finished before it was cancelled
+        assertThat(awaitImport(importId).get("status").asText()).isIn("CANCELLED", "COMPLETED");
+    }
+
+    @Test
+    void startImportWithUnknownType() throws Exception {
+        restImportMockMvc
+            .perform(multipart(ENTITY_API_URL + "/facilities").file(csvFile("aC;parking;wifi\ntrue;true;true\n")))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getNonExistingImport() throws Exception {
+        restImportMockMvc.perform(get(ENTITY_API_URL_ID, "unknown")).andExpect(status().isNotFound());
+        restImportMockMvc.perform(delete(ENTITY_API_URL_ID, "unknown")).andExpect(status().isNotFound());
+    }
+
+    private String startImport(String type, String content) throws Exception {
+        MvcResult result = restImportMockMvc
+            .perform(multipart(ENTITY_API_URL + "/" + type).file(csvFile(content)))
+            .andExpect(status().isAccepted())
+            .andExpect(header().exists(HttpHeaders.LOCATION))
+            .andReturn();
+        return objectMapper.readTree(result.getResponse().getContentAsString()).get("id").asText();
+    }
+
+    private JsonNode awaitImport(String id) throws Exception {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (true) {
+            MvcResult result = restImportMockMvc.perform(get(ENTITY_API_URL_ID, id)).andExpect(status().isOk()).andReturn();
+            JsonNode job = objectMapper.readTree(result.getResponse().getContentAsString());
+            if (FINISHED_STATUSES.contains(job.get("status").asText())) {
+                return job;
+            }
+            assertThat(System.currentTimeMillis()).as("import %s is finished", id).isLessThan(deadline);
+            Thread.sleep(50);
+        }
+    }
+
+    private static MockMultipartFile csvFile(String content) {
+        return new MockMultipartFile("file", "import.csv", "text/csv", content.getBytes(StandardCharsets.UTF_8));
+    }
+}
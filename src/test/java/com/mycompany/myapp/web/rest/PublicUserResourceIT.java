@@ -1,5 +1,7 @@
 package com.mycompany.myapp.web.rest;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasItems;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -9,14 +11,18 @@ import com.mycompany.myapp.IntegrationTest;
 import com.mycompany.myapp.domain.User;
 import com.mycompany.myapp.repository.UserRepository;
 import com.mycompany.myapp.security.AuthoritiesConstants;
+import com.mycompany.myapp.web.rest.util.KeysetPaginationUtil;
+import java.net.URI;
 import javax.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -62,6 +68,50 @@ class PublicUserResourceIT {
             .andExpect(jsonPath("$.[*].langKey").doesNotExist());
     }
 
+    @Test
+    @Transactional
+    void getPublicUsersWithKeysetPagination() throws Exception {
+        // Initialize the database with a deactivated user between two activated ones
+        userRepository.saveAndFlush(user);
+        User deactivatedUser = UserResourceIT.createEntity(em);
+        deactivatedUser.setActivated(false);
+        userRepository.saveAndFlush(deactivatedUser);
+        User lastUser = userRepository.saveAndFlush(UserResourceIT.createEntity(em));
+        String firstSlice = "/api/users?size=1&after=" + KeysetPaginationUtil.encodeCursor(user.getId() - 1);
+
+        // Get the first slice, which links to the next one
+        MvcResult result = restUserMockMvc
+            .perform(get(firstSlice).accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(user.getId().intValue()))
+            .andExpect(jsonPath("$.[0].login").value(DEFAULT_LOGIN))
+            .andExpect(jsonPath("$.[0].email").doesNotExist())
+            .andExpect(header().string(HttpHeaders.LINK, containsString("rel=\"next\"")))
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andReturn();
+
+        // Follow the next link, which skips the deactivated user and points to the last slice
+        String nextLink = result.getResponse().getHeader(HttpHeaders.LINK).replaceFirst("^<([^>]*)>.*$", "$1");
+        restUserMockMvc
+            .perform(get(URI.create(nextLink)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(lastUser.getId().intValue()))
+            .andExpect(header().doesNotExist(HttpHeaders.LINK));
+
+        // A slice is read with a single statement, without counting the users
+        assertThat(TestUtil.countStatements(em, () -> restUserMockMvc.perform(get(firstSlice)).andExpect(status().isOk()))).isEqualTo(1);
+    }
+
+    @Test
+    @Transactional
+    void getPublicUsersWithInvalidCursor() throws Exception {
+        restUserMockMvc.perform(get("/api/users?after=invalid!")).andExpect(status().isBadRequest());
+        restUserMockMvc.perform(get("/api/users?after=&size=0")).andExpect(status().isBadRequest());
+    }
+
     @Test
     @Transactional
     void getAllAuthorities() throws Exception {
@@ -1,7 +1,10 @@
 package com.mycompany.myapp.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.everyItem;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.notNullValue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -10,6 +13,8 @@ import com.mycompany.myapp.domain.Resident;
 import com.mycompany.myapp.domain.Room;
 import com.mycompany.myapp.repository.ResidentRepository;
 import com.mycompany.myapp.service.criteria.ResidentCriteria;
+import java.net.URI;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
@@ -18,9 +23,12 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -45,6 +53,7 @@ class ResidentResourceIT {
 
     private static final String ENTITY_API_URL = "/api/residents";
     private static final String ENTITY_API_URL_ID = ENTITY_API_URL + "/{id}";
+    private static final String ENTITY_API_URL_BULK = ENTITY_API_URL + "/bulk";
 
     private static Random random = new Random();
     private static AtomicLong count = new AtomicLong(random.nextInt() + (2 * Integer.MAX_VALUE));
@@ -167,6 +176,154 @@ class ResidentResourceIT {
             .andExpect(jsonPath("$.[*].phonenumber").value(hasItem(DEFAULT_PHONENUMBER)));
     }
 
+    @Test
+    @Transactional
+    void getAllResidentsWithKeysetPagination() throws Exception {
+        // Initialize the database
+        residentRepository.saveAndFlush(resident);
+        Resident secondResident = residentRepository.saveAndFlush(createUpdatedEntity(em));
+
+        // Get the first slice, which links to the next one
+        MvcResult result = restResidentMockMvc
+            .perform(get(ENTITY_API_URL + "?size=1&id.greaterThanOrEqual=" + resident.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(resident.getId().intValue()))
+            .andExpect(header().string(HttpHeaders.LINK, containsString("rel=\"next\"")))
+            .andReturn();
+
+        // Follow the next link, which points to the last slice
+        String nextLink = result.getResponse().getHeader(HttpHeaders.LINK).replaceFirst("^<([^>]*)>.*$", "$1");
+        restResidentMockMvc
+            .perform(get(URI.create(nextLink)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(secondResident.getId().intValue()))
+            .andExpect(header().doesNotExist(HttpHeaders.LINK));
+    }
+
+    @Test
+    @Transactional
+    void getAllResidentsWithInvalidCursor() throws Exception {
+        restResidentMockMvc.perform(get(ENTITY_API_URL + "?after=invalid!")).andExpect(status().isBadRequest());
+        restResidentMockMvc.perform(get(ENTITY_API_URL + "?size=0")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void getAllResidentsWithFieldSelection() throws Exception {
+        // Initialize the database
+        Room room = RoomResourceIT.createEntity(em);
+        em.persist(room);
+        resident.setRoom(room);
+        residentRepository.saveAndFlush(resident);
+
+        restResidentMockMvc
+            .perform(get(ENTITY_API_URL + "?fields=firstname,room&id.equals=" + resident.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(resident.getId().intValue()))
+            .andExpect(jsonPath("$.[0].firstname").value(DEFAULT_FIRSTNAME))
+            .andExpect(jsonPath("$.[0].lastname").doesNotExist())
+            .andExpect(jsonPath("$.[0].room.id").value(room.getId().intValue()))
+            .andExpect(jsonPath("$.[0].room.roomno").doesNotExist());
+    }
+
+    @Test
+    @Transactional
+    void getAllResidentsWithFieldSelectionAndKeysetPagination() throws Exception {
+        // Initialize the database
+        residentRepository.saveAndFlush(resident);
+
+        restResidentMockMvc
+            .perform(get(ENTITY_API_URL + "?fields=firstname&size=1&id.greaterThanOrEqual=" + resident.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(resident.getId().intValue()))
+            .andExpect(jsonPath("$.[0].firstname").value(DEFAULT_FIRSTNAME));
+    }
+
+    @Test
+    @Transactional
+    void getAllResidentsWithUnknownField() throws Exception {
+        restResidentMockMvc.perform(get(ENTITY_API_URL + "?fields=firstname,unknown")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void residentReadsStayWithinStatementBudget() throws Exception {
+        // Initialize the database with residents living in distinct rooms
+        for (int i = 0; i < 3; i++) {
+            Room room = RoomResourceIT.createEntity(em).roomno("budget-" + i);
+            em.persist(room);
+            em.persist(createEntity(em).email("budget-" + i + "@localhost").room(room));
+        }
+        em.persist(resident);
+        Long id = resident.getId();
+
+        // Every read is a single statement, whatever the number of rooms
+        assertThat(countStatements(get(ENTITY_API_URL))).isEqualTo(1);
+        assertThat(countStatements(get(ENTITY_API_URL + "?size=2"))).isEqualTo(1);
+        assertThat(countStatements(get(ENTITY_API_URL + "/count"))).isEqualTo(1);
+        assertThat(countStatements(get(ENTITY_API_URL_ID, id))).isEqualTo(1);
+        assertThat(countStatements(get(ENTITY_API_URL + "?fields=firstname,room"))).isEqualTo(1);
+    }
+
+    @Test
+    void exportResidents() throws Exception {
+        // Initialize the database outside of a test transaction, as the export is streamed from another thread
+        residentRepository.saveAndFlush(resident);
+
+        try {
+            MvcResult ndjsonResult = restResidentMockMvc
+                .perform(get(ENTITY_API_URL + "/export?id.equals=" + resident.getId()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+            restResidentMockMvc
+                .perform(asyncDispatch(ndjsonResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, containsString("residents.ndjson")))
+                .andExpect(content().string(containsString("\"id\":" + resident.getId())))
+                .andExpect(content().string(containsString("\"firstname\":\"" + DEFAULT_FIRSTNAME + "\"")));
+
+            MvcResult csvResult = restResidentMockMvc
+                .perform(get(ENTITY_API_URL + "/export?format=csv&id.equals=" + resident.getId()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+            restResidentMockMvc
+                .perform(asyncDispatch(csvResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv"))
+                .andExpect(
+                    content()
+                        .string(
+                            "id;firstname;lastname;email;phonenumber;room_id\n" +
+                            resident.getId() +
+                            ";" +
+                            DEFAULT_FIRSTNAME +
+                            ";" +
+                            DEFAULT_LASTNAME +
+                            ";" +
+                            DEFAULT_EMAIL +
+                            ";" +
+                            DEFAULT_PHONENUMBER +
+                            ";\n"
+                        )
+                );
+        } finally {
+            residentRepository.deleteById(resident.getId());
+        }
+    }
+
+    @Test
+    @Transactional
+    void exportResidentsWithInvalidFormat() throws Exception {
+        restResidentMockMvc.perform(get(ENTITY_API_URL + "/export?format=xml")).andExpect(status().isBadRequest());
+    }
+
     @Test
     @Transactional
     void getResident() throws Exception {
@@ -185,6 +342,89 @@ class ResidentResourceIT {
             .andExpect(jsonPath("$.phonenumber").value(DEFAULT_PHONENUMBER));
     }
 
+    @Test
+    @Transactional
+    void getResidentWithIfNoneMatch() throws Exception {
+        // Initialize the database
+        residentRepository.saveAndFlush(resident);
+
+        // Get the resident with its version headers
+        String etag = restResidentMockMvc
+            .perform(get(ENTITY_API_URL_ID, resident.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+            .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+
+        // The unchanged resident is answered from its version alone
+        long statements = TestUtil.countStatements(
+            em,
+            () ->
+                restResidentMockMvc
+                    .perform(get(ENTITY_API_URL_ID, resident.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string(HttpHeaders.ETAG, etag))
+                    .andExpect(content().string(""))
+        );
+        assertThat(statements).isEqualTo(1);
+
+        // The updated resident is returned again
+        residentRepository.saveAndFlush(residentRepository.findById(resident.getId()).get().firstname(UPDATED_FIRSTNAME));
+        restResidentMockMvc
+            .perform(get(ENTITY_API_URL_ID, resident.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+    }
+
+    @Test
+    @Transactional
+    void updateResidentWithIfMatch() throws Exception {
+        // Initialize the database
+        residentRepository.saveAndFlush(resident);
+
+        // Update the resident
+        Resident updatedResident = residentRepository.findById(resident.getId()).get();
+        // Disconnect from session so that the updates on updatedResident are not directly saved in db
+        em.detach(updatedResident);
+        updatedResident.firstname(UPDATED_FIRSTNAME);
+
+        restResidentMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, updatedResident.getId())
+                    .header(HttpHeaders.IF_MATCH, "\"0\"")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(updatedResident))
+            )
+            .andExpect(status().isOk());
+
+        // The first version can no longer be updated
+        restResidentMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, updatedResident.getId())
+                    .header(HttpHeaders.IF_MATCH, "\"0\"")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(updatedResident))
+            )
+            .andExpect(status().isPreconditionFailed());
+        restResidentMockMvc
+            .perform(
+                patch(ENTITY_API_URL_ID, updatedResident.getId())
+                    .header(HttpHeaders.IF_MATCH, "\"0\"")
+                    .contentType("application/merge-patch+json")
+                    .content(TestUtil.convertObjectToJsonBytes(updatedResident))
+            )
+            .andExpect(status().isPreconditionFailed());
+        restResidentMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, updatedResident.getId())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(updatedResident))
+            )
+            .andExpect(status().isConflict());
+    }
+
     @Test
     @Transactional
     void getResidentsByIdFiltering() throws Exception {
@@ -589,6 +829,175 @@ class ResidentResourceIT {
         restResidentMockMvc.perform(get(ENTITY_API_URL_ID, Long.MAX_VALUE)).andExpect(status().isNotFound());
     }
 
+    @Test
+    @Transactional
+    void bulkCreateResidents() throws Exception {
+        int databaseSizeBeforeCreate = residentRepository.findAll().size();
+        List<Resident> residents = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            residents.add(createEntity(em).email("bulk-" + i + "@localhost"));
+        }
+
+        // The inserts are sent in a few JDBC batches, not one statement per resident
+        long statements = TestUtil.countStatements(
+            em,
+            () ->
+                restResidentMockMvc
+                    .perform(
+                        post(ENTITY_API_URL_BULK)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(TestUtil.convertObjectToJsonBytes(residents))
+                    )
+                    .andExpect(status().isCreated())
+                    .andExpect(jsonPath("$.length()").value(60))
+                    .andExpect(jsonPath("$.[*].id").value(everyItem(notNullValue())))
+        );
+        assertThat(statements).isLessThan(10);
+
+        // Validate the Residents in the database
+        assertThat(residentRepository.findAll()).hasSize(databaseSizeBeforeCreate + 60);
+    }
+
+    @Test
+    @Transactional
+    void bulkCreateResidentsWithInvalidItems() throws Exception {
+        int databaseSizeBeforeCreate = residentRepository.findAll().size();
+        Resident withoutEmail = createEntity(em).email(null);
+        Resident withId = createEntity(em).email("other@localhost");
+        withId.setId(1L);
+        List<Resident> residents = List.of(resident, withoutEmail, withId);
+
+        // Every invalid resident is reported, and none of the residents is created
+        restResidentMockMvc
+            .perform(
+                post(ENTITY_API_URL_BULK).contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(residents))
+            )
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("error.validation"))
+            .andExpect(jsonPath("$.fieldErrors.length()").value(2))
+            .andExpect(jsonPath("$.fieldErrors.[0].objectName").value("resident[1]"))
+            .andExpect(jsonPath("$.fieldErrors.[0].field").value("email"))
+            .andExpect(jsonPath("$.fieldErrors.[1].objectName").value("resident[2]"))
+            .andExpect(jsonPath("$.fieldErrors.[1].field").value("id"))
+            .andExpect(jsonPath("$.fieldErrors.[1].message").value("idexists"));
+
+        assertThat(residentRepository.findAll()).hasSize(databaseSizeBeforeCreate);
+    }
+
+    @Test
+    @Transactional
+    void bulkUpdateResidents() throws Exception {
+        // Initialize the database
+        residentRepository.saveAndFlush(resident);
+        Resident other = residentRepository.saveAndFlush(createEntity(em).email("other@localhost"));
+        em.detach(resident);
+        em.detach(other);
+
+        List<Resident> residents = List.of(resident.firstname(UPDATED_FIRSTNAME), other.firstname(UPDATED_FIRSTNAME));
+        restResidentMockMvc
+            .perform(put(ENTITY_API_URL_BULK).contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(residents)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(2));
+
+        // Validate the Residents in the database
+        assertThat(residentRepository.findById(resident.getId()).orElseThrow().getFirstname()).isEqualTo(UPDATED_FIRSTNAME);
+        assertThat(residentRepository.findById(other.getId()).orElseThrow().getFirstname()).isEqualTo(UPDATED_FIRSTNAME);
+    }
+
+    @Test
+    @Transactional
+    void updatedResidentsAreServedWithTheirRoom() throws Exception {
+        // Initialize the database
+        Room room = RoomResourceIT.createEntity(em);
+        em.persist(room);
+        residentRepository.saveAndFlush(resident.room(room));
+        em.clear();
+
+        Resident partialUpdatedResident = new Resident();
+        partialUpdatedResident.setId(resident.getId());
+        partialUpdatedResident.setFirstname(UPDATED_FIRSTNAME);
+        restResidentMockMvc
+            .perform(
+                patch(ENTITY_API_URL_ID, partialUpdatedResident.getId())
+                    .contentType("application/merge-patch+json")
+                    .content(TestUtil.convertObjectToJsonBytes(partialUpdatedResident))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.room.roomno").value(room.getRoomno()));
+        em.flush();
+        em.clear();
+
+        // Without version, the bulk update applies to the current one
+        resident.setVersion(null);
+        restResidentMockMvc
+            .perform(
+                put(ENTITY_API_URL_BULK)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(List.of(resident.lastname(UPDATED_LASTNAME))))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].room.roomno").value(room.getRoomno()));
+    }
+
+    @Test
+    @Transactional
+    void bulkUpdateResidentsWithUnknownOrDuplicateIds() throws Exception {
+        // Initialize the database
+        residentRepository.saveAndFlush(resident);
+        Resident unknown = createEntity(em).email("unknown@localhost");
+        unknown.setId(count.incrementAndGet());
+
+        restResidentMockMvc
+            .perform(
+                put(ENTITY_API_URL_BULK)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(List.of(resident, unknown, resident)))
+            )
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.fieldErrors.length()").value(3))
+            .andExpect(jsonPath("$.fieldErrors.[0].objectName").value("resident[2]"))
+            .andExpect(jsonPath("$.fieldErrors.[0].message").value("idduplicate"))
+            .andExpect(jsonPath("$.fieldErrors.[1].objectName").value("resident[1]"))
+            .andExpect(jsonPath("$.fieldErrors.[1].message").value("idnotfound"))
+            .andExpect(jsonPath("$.fieldErrors.[2].objectName").value("resident[2]"))
+            .andExpect(jsonPath("$.fieldErrors.[2].message").value("emailduplicate"));
+    }
+
+    @Test
+    @Transactional
+    void bulkCreateResidentsWithUsedEmailsOrUnknownRooms() throws Exception {
+        // Initialize the database
+        residentRepository.saveAndFlush(resident);
+        int databaseSizeBeforeCreate = residentRepository.findAll().size();
+        Room unknownRoom = RoomResourceIT.createEntity(em);
+        unknownRoom.setId(count.incrementAndGet());
+        List<Resident> residents = List.of(
+            createEntity(em),
+            createEntity(em).email("other@localhost"),
+            createEntity(em).email("other@localhost"),
+            createEntity(em).email("unknown-room@localhost").room(unknownRoom)
+        );
+
+        // The emails and the rooms are checked before the inserts, which would break their constraints
+        restResidentMockMvc
+            .perform(
+                post(ENTITY_API_URL_BULK).contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(residents))
+            )
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.fieldErrors.length()").value(3))
+            .andExpect(jsonPath("$.fieldErrors.[0].objectName").value("resident[2]"))
+            .andExpect(jsonPath("$.fieldErrors.[0].field").value("email"))
+            .andExpect(jsonPath("$.fieldErrors.[0].message").value("emailduplicate"))
+            .andExpect(jsonPath("$.fieldErrors.[1].objectName").value("resident[0]"))
+            .andExpect(jsonPath("$.fieldErrors.[1].field").value("email"))
+            .andExpect(jsonPath("$.fieldErrors.[1].message").value("emailused"))
+            .andExpect(jsonPath("$.fieldErrors.[2].objectName").value("resident[3]"))
+            .andExpect(jsonPath("$.fieldErrors.[2].field").value("room"))
+            .andExpect(jsonPath("$.fieldErrors.[2].message").value("roomnotfound"));
+
+        assertThat(residentRepository.findAll()).hasSize(databaseSizeBeforeCreate);
+    }
+
     @Test
     @Transactional
     void putNewResident() throws Exception {
@@ -816,4 +1225,8 @@ class ResidentResourceIT {
         List<Resident> residentList = residentRepository.findAll();
         assertThat(residentList).hasSize(databaseSizeBeforeDelete - 1);
     }
+
+    private long countStatements(MockHttpServletRequestBuilder request) throws Exception {
+        return TestUtil.countStatements(em, () -> restResidentMockMvc.perform(request).andExpect(status().isOk()));
+    }
 }
@@ -1,7 +1,10 @@
 package com.mycompany.myapp.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.everyItem;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.notNullValue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -10,6 +13,9 @@ import com.mycompany.myapp.domain.Resident;
 import com.mycompany.myapp.domain.Room;
 import com.mycompany.myapp.repository.RoomRepository;
 import com.mycompany.myapp.service.criteria.RoomCriteria;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
@@ -18,9 +24,12 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -43,6 +52,7 @@ class RoomResourceIT {
 
     private static final String ENTITY_API_URL = "/api/rooms";
     private static final String ENTITY_API_URL_ID = ENTITY_API_URL + "/{id}";
+    private static final String ENTITY_API_URL_BULK = ENTITY_API_URL + "/bulk";
 
     private static Random random = new Random();
     private static AtomicLong count = new AtomicLong(random.nextInt() + (2 * Integer.MAX_VALUE));
@@ -155,6 +165,149 @@ class RoomResourceIT {
             .andExpect(jsonPath("$.[*].type").value(hasItem(DEFAULT_TYPE)));
     }
 
+    @Test
+    @Transactional
+    void getAllRoomsWithKeysetPagination() throws Exception {
+        // Initialize the database
+        roomRepository.saveAndFlush(room);
+        Room secondRoom = roomRepository.saveAndFlush(createUpdatedEntity(em));
+
+        // Get the first slice, which links to the next one
+        MvcResult result = restRoomMockMvc
+            .perform(get(ENTITY_API_URL + "?size=1&id.greaterThanOrEqual=" + room.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(room.getId().intValue()))
+            .andExpect(header().string(HttpHeaders.LINK, containsString("rel=\"next\"")))
+            .andReturn();
+
+        // Follow the next link, which points to the last slice
+        String nextLink = result.getResponse().getHeader(HttpHeaders.LINK).replaceFirst("^<([^>]*)>.*$", "$1");
+        restRoomMockMvc
+            .perform(get(URI.create(nextLink)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(secondRoom.getId().intValue()))
+            .andExpect(header().doesNotExist(HttpHeaders.LINK));
+    }
+
+    @Test
+    @Transactional
+    void getAllRoomsWithInvalidCursor() throws Exception {
+        restRoomMockMvc.perform(get(ENTITY_API_URL + "?after=invalid!")).andExpect(status().isBadRequest());
+        restRoomMockMvc.perform(get(ENTITY_API_URL + "?size=0")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void getAllRoomsWithFieldSelection() throws Exception {
+        // Initialize the database
+        roomRepository.saveAndFlush(room);
+
+        restRoomMockMvc
+            .perform(get(ENTITY_API_URL + "?fields=roomno&id.equals=" + room.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(room.getId().intValue()))
+            .andExpect(jsonPath("$.[0].roomno").value(DEFAULT_ROOMNO))
+            .andExpect(jsonPath("$.[0].floor").doesNotExist());
+    }
+
+    @Test
+    @Transactional
+    void getAllRoomsWithFieldSelectionAndKeysetPagination() throws Exception {
+        // Initialize the database
+        roomRepository.saveAndFlush(room);
+
+        restRoomMockMvc
+            .perform(get(ENTITY_API_URL + "?fields=roomno&size=1&id.greaterThanOrEqual=" + room.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(room.getId().intValue()))
+            .andExpect(jsonPath("$.[0].roomno").value(DEFAULT_ROOMNO));
+    }
+
+    @Test
+    @Transactional
+    void getAllRoomsWithUnknownField() throws Exception {
+        restRoomMockMvc.perform(get(ENTITY_API_URL + "?fields=roomno,unknown")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void roomReadsStayWithinStatementBudget() throws Exception {
+        // Initialize the database with rooms which all have residents
+        for (int i = 0; i < 3; i++) {
+            Room other = createEntity(em).roomno("budget-" + i);
+            em.persist(other);
+            em.persist(ResidentResourceIT.createEntity(em).email("budget-" + i + "@localhost").room(other));
+        }
+        em.persist(room);
+        Long id = room.getId();
+
+        // Every read is a single statement, the residents of the rooms are never loaded
+        assertThat(countStatements(get(ENTITY_API_URL))).isEqualTo(1);
+        assertThat(countStatements(get(ENTITY_API_URL + "?size=2"))).isEqualTo(1);
+        assertThat(countStatements(get(ENTITY_API_URL + "/count"))).isEqualTo(1);
+        assertThat(countStatements(get(ENTITY_API_URL_ID, id))).isEqualTo(1);
+        assertThat(countStatements(get(ENTITY_API_URL + "?fields=roomno"))).isEqualTo(1);
+    }
+
+    @Test
+    void exportRooms() throws Exception {
+        // Initialize the database outside of a test transaction, as the export is streamed from another thread
+        roomRepository.saveAndFlush(room);
+
+        try {
+            MvcResult ndjsonResult = restRoomMockMvc
+                .perform(get(ENTITY_API_URL + "/export?id.equals=" + room.getId()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+            // The export has its own timeout, instead of the container default for asynchronous requests
+            assertThat(ndjsonResult.getRequest().getAsyncContext().getTimeout()).isEqualTo(Duration.ofMinutes(30).toMillis());
+            restRoomMockMvc
+                .perform(asyncDispatch(ndjsonResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, containsString("rooms.ndjson")))
+                .andExpect(content().string(containsString("\"id\":" + room.getId())))
+                .andExpect(content().string(containsString("\"roomno\":\"" + DEFAULT_ROOMNO + "\"")));
+
+            MvcResult csvResult = restRoomMockMvc
+                .perform(get(ENTITY_API_URL + "/export?format=csv&id.equals=" + room.getId()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+            restRoomMockMvc
+                .perform(asyncDispatch(csvResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv"))
+                .andExpect(
+                    content()
+                        .string(
+                            "id;roomno;floor;type\n" +
+                            room.getId() +
+                            ";" +
+                            DEFAULT_ROOMNO +
+                            ";" +
+                            DEFAULT_FLOOR +
+                            ";" +
+                            DEFAULT_TYPE +
+                            "\n"
+                        )
+                );
+        } finally {
+            roomRepository.deleteById(room.getId());
+        }
+    }
+
+    @Test
+    @Transactional
+    void exportRoomsWithInvalidFormat() throws Exception {
+        restRoomMockMvc.perform(get(ENTITY_API_URL + "/export?format=xml")).andExpect(status().isBadRequest());
+    }
+
     @Test
     @Transactional
     void getRoom() throws Exception {
@@ -172,6 +325,89 @@ class RoomResourceIT {
             .andExpect(jsonPath("$.type").value(DEFAULT_TYPE));
     }
 
+    @Test
+    @Transactional
+    void getRoomWithIfNoneMatch() throws Exception {
+        // Initialize the database
+        roomRepository.saveAndFlush(room);
+
+        // Get the room with its version headers
+        String etag = restRoomMockMvc
+            .perform(get(ENTITY_API_URL_ID, room.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+            .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+
+        // The unchanged room is answered from its version alone
+        long statements = TestUtil.countStatements(
+            em,
+            () ->
+                restRoomMockMvc
+                    .perform(get(ENTITY_API_URL_ID, room.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string(HttpHeaders.ETAG, etag))
+                    .andExpect(content().string(""))
+        );
+        assertThat(statements).isEqualTo(1);
+
+        // The updated room is returned again
+        roomRepository.saveAndFlush(roomRepository.findById(room.getId()).get().floor(UPDATED_FLOOR));
+        restRoomMockMvc
+            .perform(get(ENTITY_API_URL_ID, room.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+    }
+
+    @Test
+    @Transactional
+    void updateRoomWithIfMatch() throws Exception {
+        // Initialize the database
+        roomRepository.saveAndFlush(room);
+
+        // Update the room
+        Room updatedRoom = roomRepository.findById(room.getId()).get();
+        // Disconnect from session so that the updates on updatedRoom are not directly saved in db
+        em.detach(updatedRoom);
+        updatedRoom.floor(UPDATED_FLOOR);
+
+        restRoomMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, updatedRoom.getId())
+                    .header(HttpHeaders.IF_MATCH, "\"0\"")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(updatedRoom))
+            )
+            .andExpect(status().isOk());
+
+        // The first version can no longer be updated
+        restRoomMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, updatedRoom.getId())
+                    .header(HttpHeaders.IF_MATCH, "\"0\"")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(updatedRoom))
+            )
+            .andExpect(status().isPreconditionFailed());
+        restRoomMockMvc
+            .perform(
+                patch(ENTITY_API_URL_ID, updatedRoom.getId())
+                    .header(HttpHeaders.IF_MATCH, "\"0\"")
+                    .contentType("application/merge-patch+json")
+                    .content(TestUtil.convertObjectToJsonBytes(updatedRoom))
+            )
+            .andExpect(status().isPreconditionFailed());
+        restRoomMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, updatedRoom.getId())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(updatedRoom))
+            )
+            .andExpect(status().isConflict());
+    }
+
     @Test
     @Transactional
     void getRoomsByIdFiltering() throws Exception {
@@ -523,6 +759,148 @@ class RoomResourceIT {
         restRoomMockMvc.perform(get(ENTITY_API_URL_ID, Long.MAX_VALUE)).andExpect(status().isNotFound());
     }
 
+    @Test
+    @Transactional
+    void bulkCreateRooms() throws Exception {
+        int databaseSizeBeforeCreate = roomRepository.findAll().size();
+        List<Room> rooms = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            rooms.add(createEntity(em).roomno("bulk-" + i));
+        }
+
+        // The inserts are sent in a few JDBC batches, not one statement per room
+        long statements = TestUtil.countStatements(
+            em,
+            () ->
+                restRoomMockMvc
+                    .perform(
+                        post(ENTITY_API_URL_BULK).contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(rooms))
+                    )
+                    .andExpect(status().isCreated())
+                    .andExpect(jsonPath("$.length()").value(60))
+                    .andExpect(jsonPath("$.[*].id").value(everyItem(notNullValue())))
+        );
+        assertThat(statements).isLessThan(10);
+
+        // Validate the Rooms in the database
+        assertThat(roomRepository.findAll()).hasSize(databaseSizeBeforeCreate + 60);
+    }
+
+    @Test
+    @Transactional
+    void bulkCreateRoomsWithInvalidItems() throws Exception {
+        int databaseSizeBeforeCreate = roomRepository.findAll().size();
+        Room withoutRoomno = createEntity(em).roomno(null);
+        Room withId = createEntity(em).roomno("other");
+        withId.setId(1L);
+        List<Room> rooms = List.of(room, withoutRoomno, withId);
+
+        // Every invalid room is reported, and none of the rooms is created
+        restRoomMockMvc
+            .perform(post(ENTITY_API_URL_BULK).contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(rooms)))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("error.validation"))
+            .andExpect(jsonPath("$.fieldErrors.length()").value(2))
+            .andExpect(jsonPath("$.fieldErrors.[0].objectName").value("room[1]"))
+            .andExpect(jsonPath("$.fieldErrors.[0].field").value("roomno"))
+            .andExpect(jsonPath("$.fieldErrors.[1].objectName").value("room[2]"))
+            .andExpect(jsonPath("$.fieldErrors.[1].field").value("id"))
+            .andExpect(jsonPath("$.fieldErrors.[1].message").value("idexists"));
+
+        assertThat(roomRepository.findAll()).hasSize(databaseSizeBeforeCreate);
+    }
+
+    @Test
+    @Transactional
+    void bulkUpdateRooms() throws Exception {
+        // Initialize the database
+        roomRepository.saveAndFlush(room);
+        Room other = roomRepository.saveAndFlush(createEntity(em).roomno("other"));
+        em.detach(room);
+        em.detach(other);
+
+        List<Room> rooms = List.of(room.floor(UPDATED_FLOOR), other.floor(UPDATED_FLOOR));
+        restRoomMockMvc
+            .perform(put(ENTITY_API_URL_BULK).contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(rooms)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(2));
+
+        // Validate the Rooms in the database
+        assertThat(roomRepository.findById(room.getId()).orElseThrow().getFloor()).isEqualTo(UPDATED_FLOOR);
+        assertThat(roomRepository.findById(other.getId()).orElseThrow().getFloor()).isEqualTo(UPDATED_FLOOR);
+    }
+
+    @Test
+    @Transactional
+    void bulkUpdateRoomsWithUnknownOrDuplicateIds() throws Exception {
+        // Initialize the database
+        roomRepository.saveAndFlush(room);
+        Room unknown = createEntity(em).roomno("unknown");
+        unknown.setId(count.incrementAndGet());
+
+        restRoomMockMvc
+            .perform(
+                put(ENTITY_API_URL_BULK)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(List.of(room, unknown, room)))
+            )
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.fieldErrors.length()").value(3))
+            .andExpect(jsonPath("$.fieldErrors.[0].objectName").value("room[2]"))
+            .andExpect(jsonPath("$.fieldErrors.[0].message").value("idduplicate"))
+            .andExpect(jsonPath("$.fieldErrors.[1].objectName").value("room[1]"))
+            .andExpect(jsonPath("$.fieldErrors.[1].message").value("idnotfound"))
+            .andExpect(jsonPath("$.fieldErrors.[2].objectName").value("room[2]"))
+            .andExpect(jsonPath("$.fieldErrors.[2].message").value("roomnoduplicate"));
+    }
+
+    @Test
+    @Transactional
+    void bulkCreateRoomsWithUsedOrDuplicateRoomnos() throws Exception {
+        // Initialize the database
+        roomRepository.saveAndFlush(room);
+        int databaseSizeBeforeCreate = roomRepository.findAll().size();
+        List<Room> rooms = List.of(createEntity(em), createEntity(em).roomno("other"), createEntity(em).roomno("other"));
+
+        // The room numbers are checked before the inserts, which would break their unique constraint
+        restRoomMockMvc
+            .perform(post(ENTITY_API_URL_BULK).contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(rooms)))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.fieldErrors.length()").value(2))
+            .andExpect(jsonPath("$.fieldErrors.[0].objectName").value("room[2]"))
+            .andExpect(jsonPath("$.fieldErrors.[0].field").value("roomno"))
+            .andExpect(jsonPath("$.fieldErrors.[0].message").value("roomnoduplicate"))
+            .andExpect(jsonPath("$.fieldErrors.[1].objectName").value("room[0]"))
+            .andExpect(jsonPath("$.fieldErrors.[1].field").value("roomno"))
+            .andExpect(jsonPath("$.fieldErrors.[1].message").value("roomnoused"));
+
+        assertThat(roomRepository.findAll()).hasSize(databaseSizeBeforeCreate);
+    }
+
+    @Test
+    @Transactional
+    void bulkUpdateRoomsWithUsedRoomno() throws Exception {
+        // Initialize the database
+        roomRepository.saveAndFlush(room);
+        Room other = roomRepository.saveAndFlush(createEntity(em).roomno("other"));
+        em.detach(room);
+        em.detach(other);
+
+        // A room may keep its own room number, but not take the one of another room
+        restRoomMockMvc
+            .perform(
+                put(ENTITY_API_URL_BULK)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(List.of(room.floor(UPDATED_FLOOR), other.roomno(DEFAULT_ROOMNO))))
+            )
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.fieldErrors.length()").value(2))
+            .andExpect(jsonPath("$.fieldErrors.[0].objectName").value("room[1]"))
+            .andExpect(jsonPath("$.fieldErrors.[0].message").value("roomnoduplicate"))
+            .andExpect(jsonPath("$.fieldErrors.[1].objectName").value("room[1]"))
+            .andExpect(jsonPath("$.fieldErrors.[1].message").value("roomnoused"));
+    }
+
     @Test
     @Transactional
     void putNewRoom() throws Exception {
@@ -745,4 +1123,8 @@ class RoomResourceIT {
         List<Room> roomList = roomRepository.findAll();
         assertThat(roomList).hasSize(databaseSizeBeforeDelete - 1);
     }
+
+    private long countStatements(MockHttpServletRequestBuilder request) throws Exception {
+        return TestUtil.countStatements(em, () -> restRoomMockMvc.perform(request).andExpect(status().isOk()));
+    }
 }
@@ -19,6 +19,8 @@ import javax.persistence.criteria.Root;
 import org.hamcrest.Description;
 import org.hamcrest.TypeSafeDiagnosingMatcher;
 import org.hamcrest.TypeSafeMatcher;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.springframework.format.datetime.standard.DateTimeFormatterRegistrar;
 import org.springframework.format.support.DefaultFormattingConversionService;
 import org.springframework.format.support.FormattingConversionService;
@@ -186,6 +188,33 @@ public final class TestUtil {
         return dfcs;
     }
 
+    /**
+     * Count the SQL statements prepared by Hibernate while performing an action, typically a REST call.
+     * <p>
+     * The persistence context is flushed and cleared first, so the action cannot be served from the entities created by
+     * the test. This needs {@code hibernate.generate_statistics}, which is enabled for the tests.
+     * @param em The instance of the EntityManager
+     * @param action The action to perform
+     * @return The number of prepared statements
+     * @throws Exception if the action fails
+     */
+    public static long countStatements(EntityManager em, StatementCountedAction action) throws Exception {
+        em.flush();
+        em.clear();
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        long before = statistics.getPrepareStatementCount();
+        action.perform();
+        return statistics.getPrepareStatementCount() - before;
+    }
+
+    /**
+     * An action whose SQL statements are counted by {@link #countStatements(EntityManager, StatementCountedAction)}.
+     */
+    @FunctionalInterface
+    public interface StatementCountedAction {
+        void perform() throws Exception;
+    }
+
     /**
      * Makes a an executes a query to the EntityManager finding all stored objects.
      * @param <T> The type of objects to be searched
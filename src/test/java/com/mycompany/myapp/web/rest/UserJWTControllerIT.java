@@ -1,24 +1,36 @@
 package com.mycompany.myapp.web.rest;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.emptyString;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.nullValue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mycompany.myapp.IntegrationTest;
 import com.mycompany.myapp.domain.User;
+import com.mycompany.myapp.management.SecurityMetersService;
+import com.mycompany.myapp.repository.RevokedTokenRepository;
 import com.mycompany.myapp.repository.UserRepository;
 import com.mycompany.myapp.web.rest.vm.LoginVM;
+import com.mycompany.myapp.web.rest.vm.RefreshTokenVM;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -34,6 +46,15 @@ class UserJWTControllerIT {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Autowired
     private MockMvc mockMvc;
 
@@ -56,10 +77,34 @@ class UserJWTControllerIT {
             .andExpect(status().isOk())
             .andExpect(jsonPath("$.id_token").isString())
             .andExpect(jsonPath("$.id_token").isNotEmpty())
+            .andExpect(jsonPath("$.refresh_token").isNotEmpty())
             .andExpect(header().string("Authorization", not(nullValue())))
             .andExpect(header().string("Authorization", not(is(emptyString()))));
     }
 
+    @Test
+    @Transactional
+    void testAuthorizeRehashesPasswordWithAnotherStrength() throws Exception {
+        User user = new User();
+        user.setLogin("user-jwt-controller-rehash");
+        user.setEmail("user-jwt-controller-rehash@example.com");
+        user.setActivated(true);
+        user.setPassword(new BCryptPasswordEncoder(4).encode("test"));
+
+        userRepository.saveAndFlush(user);
+
+        LoginVM login = new LoginVM();
+        login.setUsername("user-jwt-controller-rehash");
+        login.setPassword("test");
+        mockMvc
+            .perform(post("/api/authenticate").contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(login)))
+            .andExpect(status().isOk());
+
+        String password = userRepository.findOneByLogin("user-jwt-controller-rehash").orElseThrow().getPassword();
+        assertThat(passwordEncoder.upgradeEncoding(password)).isFalse();
+        assertThat(passwordEncoder.matches("test", password)).isTrue();
+    }
+
     @Test
     @Transactional
     void testAuthorizeWithRememberMe() throws Exception {
@@ -89,10 +134,99 @@ class UserJWTControllerIT {
         LoginVM login = new LoginVM();
         login.setUsername("wrong-user");
         login.setPassword("wrong password");
+        Timer failureTimer = meterRegistry.get(SecurityMetersService.LOGIN_METER_NAME).tag("result", "failure").timer();
+        long failures = failureTimer.count();
         mockMvc
             .perform(post("/api/authenticate").contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(login)))
             .andExpect(status().isUnauthorized())
             .andExpect(jsonPath("$.id_token").doesNotExist())
             .andExpect(header().doesNotExist("Authorization"));
+
+        assertThat(failureTimer.count()).isEqualTo(failures + 1);
+    }
+
+    @Test
+    void testLogoutRevokesTheToken() throws Exception {
+        User user = new User();
+        user.setLogin("user-jwt-controller-logout");
+        user.setEmail("user-jwt-controller-logout@example.com");
+        user.setActivated(true);
+        user.setPassword(passwordEncoder.encode("test"));
+        userRepository.saveAndFlush(user);
+
+        try {
+            LoginVM login = new LoginVM();
+            login.setUsername("user-jwt-controller-logout");
+            login.setPassword("test");
+            String content = mockMvc
+                .perform(
+                    post("/api/authenticate").contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(login))
+                )
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+            String authorization = "Bearer " + objectMapper.readTree(content).get("id_token").asText();
+
+            mockMvc.perform(get("/api/account").header(HttpHeaders.AUTHORIZATION, authorization)).andExpect(status().isOk());
+            mockMvc.perform(post("/api/logout").header(HttpHeaders.AUTHORIZATION, authorization)).andExpect(status().isNoContent());
+            mockMvc.perform(get("/api/account").header(HttpHeaders.AUTHORIZATION, authorization)).andExpect(status().isUnauthorized());
+            assertThat(revokedTokenRepository.count()).isEqualTo(1);
+        } finally {
+            revokedTokenRepository.deleteAll();
+            userRepository.delete(user);
+        }
+    }
+
+    @Test
+    @Transactional
+    void testRefreshTokenRotation() throws Exception {
+        User user = new User();
+        user.setLogin("user-jwt-controller-refresh");
+        user.setEmail("user-jwt-controller-refresh@example.com");
+        user.setActivated(true);
+        user.setPassword(passwordEncoder.encode("test"));
+        userRepository.saveAndFlush(user);
+
+        LoginVM login = new LoginVM();
+        login.setUsername("user-jwt-controller-refresh");
+        login.setPassword("test");
+        JsonNode tokens = readTokens(
+            mockMvc
+                .perform(
+                    post("/api/authenticate").contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(login))
+                )
+                .andExpect(status().isOk())
+        );
+        String refreshToken = tokens.get("refresh_token").asText();
+
+        JsonNode refreshedTokens = readTokens(refresh(refreshToken).andExpect(status().isOk()));
+        String nextRefreshToken = refreshedTokens.get("refresh_token").asText();
+        assertThat(nextRefreshToken).isNotEqualTo(refreshToken);
+        mockMvc
+            .perform(get("/api/account").header(HttpHeaders.AUTHORIZATION, "Bearer " + refreshedTokens.get("id_token").asText()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.login").value("user-jwt-controller-refresh"));
+
+        // Reusing a refresh token revokes its whole family
+        refresh(refreshToken).andExpect(status().isUnauthorized());
+        refresh(nextRefreshToken).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void testRefreshWithUnknownToken() throws Exception {
+        refresh("unknown").andExpect(status().isUnauthorized()).andExpect(jsonPath("$.id_token").doesNotExist());
+    }
+
+    private ResultActions refresh(String refreshToken) throws Exception {
+        RefreshTokenVM refreshTokenVM = new RefreshTokenVM();
+        refreshTokenVM.setRefreshToken(refreshToken);
+        return mockMvc.perform(
+            post("/api/token/refresh").contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(refreshTokenVM))
+        );
+    }
+
+    private JsonNode readTokens(ResultActions resultActions) throws Exception {
+        return objectMapper.readTree(resultActions.andReturn().getResponse().getContentAsString());
     }
 }
@@ -9,9 +9,11 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import com.mycompany.myapp.IntegrationTest;
 import com.mycompany.myapp.domain.Authority;
 import com.mycompany.myapp.domain.User;
+import com.mycompany.myapp.repository.RevokedLoginRepository;
 import com.mycompany.myapp.repository.UserRepository;
 import com.mycompany.myapp.security.AuthoritiesConstants;
 import com.mycompany.myapp.service.dto.AdminUserDTO;
+import com.mycompany.myapp.service.dto.AuthorityAssignmentDTO;
 import com.mycompany.myapp.service.dto.UserDTO;
 import com.mycompany.myapp.service.mapper.UserMapper;
 import com.mycompany.myapp.web.rest.vm.ManagedUserVM;
@@ -19,6 +21,7 @@ import java.time.Instant;
 import java.util.*;
 import java.util.function.Consumer;
 import javax.persistence.EntityManager;
+import javax.persistence.Query;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -27,6 +30,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -66,6 +70,9 @@ class UserResourceIT {
     @Autowired
     private UserMapper userMapper;
 
+    @Autowired
+    private RevokedLoginRepository revokedLoginRepository;
+
     @Autowired
     private EntityManager em;
 
@@ -230,6 +237,204 @@ class UserResourceIT {
         assertPersistedUsers(users -> assertThat(users).hasSize(databaseSizeBeforeCreate));
     }
 
+    @Test
+    @Transactional
+    void createUsersInBulk() throws Exception {
+        int databaseSizeBeforeCreate = userRepository.findAll().size();
+
+        List<AdminUserDTO> userDTOs = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            AdminUserDTO userDTO = new AdminUserDTO();
+            userDTO.setLogin("Bulk-User-" + i);
+            userDTO.setEmail("Bulk-User-" + i + "@localhost");
+            userDTO.setLangKey(DEFAULT_LANGKEY);
+            userDTO.setAuthorities(Set.of(AuthoritiesConstants.USER));
+            userDTOs.add(userDTO);
+        }
+
+        // The users are inserted in batches, whatever their number
+        long statements = TestUtil.countStatements(
+            em,
+            () ->
+                restUserMockMvc
+                    .perform(
+                        post("/api/admin/users/bulk")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(TestUtil.convertObjectToJsonBytes(userDTOs))
+                    )
+                    .andExpect(status().isCreated())
+                    .andExpect(jsonPath("$.length()").value(4))
+                    .andExpect(jsonPath("$.[*].login").value(hasItems("bulk-user-0", "bulk-user-3")))
+        );
+        assertThat(statements).isLessThanOrEqualTo(5);
+
+        // Validate the Users in the database
+        assertPersistedUsers(users -> assertThat(users).hasSize(databaseSizeBeforeCreate + 4));
+        User testUser = userRepository.findOneWithAuthoritiesByLogin("bulk-user-2").orElseThrow();
+        assertThat(testUser.getEmail()).isEqualTo("bulk-user-2@localhost");
+        assertThat(testUser.isActivated()).isTrue();
+        assertThat(testUser.getResetKey()).isNotNull();
+        assertThat(testUser.getAuthorities()).extracting(Authority::getName).containsExactly(AuthoritiesConstants.USER);
+    }
+
+    @Test
+    @Transactional
+    void createUsersInBulkWithUsedOrDuplicateLogins() throws Exception {
+        // Initialize the database
+        userRepository.saveAndFlush(user);
+        int databaseSizeBeforeCreate = userRepository.findAll().size();
+
+        AdminUserDTO usedLogin = new AdminUserDTO();
+        usedLogin.setLogin(DEFAULT_LOGIN.toUpperCase());
+        usedLogin.setEmail("anothermail@localhost");
+        AdminUserDTO usedEmail = new AdminUserDTO();
+        usedEmail.setLogin("anotherlogin");
+        usedEmail.setEmail(DEFAULT_EMAIL);
+        AdminUserDTO duplicateLogin = new AdminUserDTO();
+        duplicateLogin.setLogin("AnotherLogin");
+
+        restUserMockMvc
+            .perform(
+                post("/api/admin/users/bulk")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(List.of(usedLogin, usedEmail, duplicateLogin)))
+            )
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("error.validation"))
+            .andExpect(jsonPath("$.fieldErrors.length()").value(3))
+            .andExpect(jsonPath("$.fieldErrors.[0].objectName").value("userManagement[2]"))
+            .andExpect(jsonPath("$.fieldErrors.[0].message").value("loginduplicate"))
+            .andExpect(jsonPath("$.fieldErrors.[1].objectName").value("userManagement[0]"))
+            .andExpect(jsonPath("$.fieldErrors.[1].message").value("userexists"))
+            .andExpect(jsonPath("$.fieldErrors.[2].objectName").value("userManagement[1]"))
+            .andExpect(jsonPath("$.fieldErrors.[2].message").value("emailexists"));
+
+        assertPersistedUsers(users -> assertThat(users).hasSize(databaseSizeBeforeCreate));
+    }
+
+    @Test
+    @Transactional
+    void grantAuthorityToUsersByLogin() throws Exception {
+        // Initialize the database
+        user.setAuthorities(new HashSet<>(Set.of(authority(AuthoritiesConstants.USER))));
+        userRepository.saveAndFlush(user);
+        User admin = createEntity(em);
+        admin.setAuthorities(new HashSet<>(Set.of(authority(AuthoritiesConstants.USER), authority(AuthoritiesConstants.ADMIN))));
+        userRepository.saveAndFlush(admin);
+
+        AuthorityAssignmentDTO assignment = new AuthorityAssignmentDTO();
+        assignment.setAuthority(AuthoritiesConstants.ADMIN);
+        assignment.setLogins(Set.of(user.getLogin().toUpperCase(), admin.getLogin(), "unknown"));
+
+        // The users missing the membership are found, and it is inserted by one statement, after which the cached
+        // users are evicted and the tokens of the granted user are revoked
+        long statements = TestUtil.countStatements(
+            em,
+            () ->
+                restUserMockMvc
+                    .perform(
+                        post("/api/admin/users/grant-authority")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(TestUtil.convertObjectToJsonBytes(assignment))
+                    )
+                    .andExpect(status().isOk())
+                    .andExpect(content().string("1"))
+        );
+        assertThat(statements).isLessThanOrEqualTo(5);
+
+        assertThat(authorityNames(user)).containsExactlyInAnyOrder(AuthoritiesConstants.USER, AuthoritiesConstants.ADMIN);
+        assertThat(authorityNames(admin)).containsExactlyInAnyOrder(AuthoritiesConstants.USER, AuthoritiesConstants.ADMIN);
+        assertThat(revokedLoginRepository.existsById(user.getLogin())).isTrue();
+        assertThat(revokedLoginRepository.existsById(admin.getLogin())).isFalse();
+    }
+
+    @Test
+    @Transactional
+    void revokeAuthorityFromHoldersOfAnother() throws Exception {
+        // Initialize the database
+        user.setAuthorities(new HashSet<>(Set.of(authority(AuthoritiesConstants.USER))));
+        userRepository.saveAndFlush(user);
+        User admin = createEntity(em);
+        admin.setAuthorities(new HashSet<>(Set.of(authority(AuthoritiesConstants.USER), authority(AuthoritiesConstants.ADMIN))));
+        userRepository.saveAndFlush(admin);
+        Query adminUsersQuery = em.createNativeQuery(
+            "select count(*) from jhi_user_authority a join jhi_user_authority b on b.user_id = a.user_id " +
+            "where a.authority_name = 'ROLE_ADMIN' and b.authority_name = 'ROLE_USER'"
+        );
+        int adminUsers = ((Number) adminUsersQuery.getSingleResult()).intValue();
+
+        AuthorityAssignmentDTO assignment = new AuthorityAssignmentDTO();
+        assignment.setAuthority(AuthoritiesConstants.USER);
+        assignment.setHoldersOf(AuthoritiesConstants.ADMIN);
+
+        restUserMockMvc
+            .perform(
+                post("/api/admin/users/revoke-authority")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(assignment))
+            )
+            .andExpect(status().isOk())
+            .andExpect(content().string(String.valueOf(adminUsers)));
+
+        assertThat(((Number) adminUsersQuery.getSingleResult()).intValue()).isZero();
+        assertThat(authorityNames(user)).containsExactly(AuthoritiesConstants.USER);
+        assertThat(authorityNames(admin)).containsExactly(AuthoritiesConstants.ADMIN);
+        assertThat(revokedLoginRepository.existsById(user.getLogin())).isFalse();
+        assertThat(revokedLoginRepository.existsById(admin.getLogin())).isTrue();
+    }
+
+    @Test
+    @Transactional
+    void revokeAuthorityFromTheLastAdministrators() throws Exception {
+        List<String> administrators = em
+            .createQuery("select user.login from User user join user.authorities authority where authority.name = :authority", String.class)
+            .setParameter("authority", AuthoritiesConstants.ADMIN)
+            .getResultList();
+        AuthorityAssignmentDTO assignment = new AuthorityAssignmentDTO();
+        assignment.setAuthority(AuthoritiesConstants.ADMIN);
+        assignment.setLogins(new HashSet<>(administrators));
+
+        restUserMockMvc
+            .perform(
+                post("/api/admin/users/revoke-authority")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(assignment))
+            )
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("error.lastadmin"));
+    }
+
+    @Test
+    @Transactional
+    void grantAuthorityWithInvalidAssignment() throws Exception {
+        userRepository.saveAndFlush(user);
+
+        AuthorityAssignmentDTO unknownAuthority = new AuthorityAssignmentDTO();
+        unknownAuthority.setAuthority("ROLE_UNKNOWN");
+        unknownAuthority.setLogins(Set.of(user.getLogin()));
+        AuthorityAssignmentDTO bothCriteria = new AuthorityAssignmentDTO();
+        bothCriteria.setAuthority(AuthoritiesConstants.ADMIN);
+        bothCriteria.setLogins(Set.of(user.getLogin()));
+        bothCriteria.setHoldersOf(AuthoritiesConstants.USER);
+        AuthorityAssignmentDTO noCriteria = new AuthorityAssignmentDTO();
+        noCriteria.setAuthority(AuthoritiesConstants.ADMIN);
+        AuthorityAssignmentDTO sameAuthority = new AuthorityAssignmentDTO();
+        sameAuthority.setAuthority(AuthoritiesConstants.USER);
+        sameAuthority.setHoldersOf(AuthoritiesConstants.USER);
+
+        for (AuthorityAssignmentDTO assignment : List.of(unknownAuthority, bothCriteria, noCriteria, sameAuthority)) {
+            restUserMockMvc
+                .perform(
+                    post("/api/admin/users/grant-authority")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(TestUtil.convertObjectToJsonBytes(assignment))
+                )
+                .andExpect(status().isBadRequest());
+        }
+
+        assertThat(authorityNames(user)).isEmpty();
+    }
+
     @Test
     @Transactional
     void getAllUsers() throws Exception {
@@ -249,6 +454,32 @@ class UserResourceIT {
             .andExpect(jsonPath("$.[*].langKey").value(hasItem(DEFAULT_LANGKEY)));
     }
 
+    @Test
+    @Transactional
+    void getAllUsersStaysWithinStatementBudget() throws Exception {
+        // Initialize the database with users which all have authorities
+        Authority authority = new Authority();
+        authority.setName(AuthoritiesConstants.USER);
+        for (int i = 0; i < 3; i++) {
+            User other = createEntity(em);
+            other.setAuthorities(Set.of(authority));
+            em.persist(other);
+        }
+
+        // The page and the authorities of its users are read with one statement each, plus the count of a full page
+        assertThat(countStatements(get("/api/admin/users?sort=id,desc"))).isEqualTo(2);
+        assertThat(countStatements(get("/api/admin/users?sort=id,desc&size=2"))).isEqualTo(3);
+        restUserMockMvc
+            .perform(get("/api/admin/users?sort=id,desc&size=2"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].authorities").value(hasItem(AuthoritiesConstants.USER)))
+            .andExpect(jsonPath("$.[1].authorities").value(hasItem(AuthoritiesConstants.USER)));
+    }
+
+    private long countStatements(MockHttpServletRequestBuilder request) throws Exception {
+        return TestUtil.countStatements(em, () -> restUserMockMvc.perform(request).andExpect(status().isOk()));
+    }
+
     @Test
     @Transactional
     void getUser() throws Exception {
@@ -316,6 +547,8 @@ class UserResourceIT {
             assertThat(testUser.getImageUrl()).isEqualTo(UPDATED_IMAGEURL);
             assertThat(testUser.getLangKey()).isEqualTo(UPDATED_LANGKEY);
         });
+        // The tokens of the user hold the authorities it had before
+        assertThat(revokedLoginRepository.existsById(updatedUser.getLogin())).isTrue();
     }
 
     @Test
@@ -561,6 +794,20 @@ class UserResourceIT {
         assertThat(authorityA).isEqualTo(authorityB).hasSameHashCodeAs(authorityB);
     }
 
+    private static Authority authority(String name) {
+        Authority authority = new Authority();
+        authority.setName(name);
+        return authority;
+    }
+
+    private List<String> authorityNames(User user) {
+        List<String> names = new ArrayList<>();
+        for (Object[] authority : userRepository.findAuthorityNamesByUserIdIn(Set.of(user.getId()))) {
+            names.add((String) authority[1]);
+        }
+        return names;
+    }
+
     private void assertPersistedUsers(Consumer<List<User>> userAssertion) {
         userAssertion.accept(userRepository.findAll());
     }
@@ -1,5 +1,8 @@
 package com.mycompany.myapp.web.rest.errors;
 
+import com.mycompany.myapp.security.PasswordHashingUnavailableException;
+import com.mycompany.myapp.security.RateLimitExceededException;
+import java.time.Duration;
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
 import org.springframework.dao.ConcurrencyFailureException;
@@ -17,6 +20,16 @@ public class ExceptionTranslatorTestController {
         throw new ConcurrencyFailureException("test concurrency failure");
     }
 
+    @GetMapping("/password-hashing-unavailable")
+    public void passwordHashingUnavailable() {
+        throw new PasswordHashingUnavailableException("test password hashing unavailable", Duration.ofSeconds(3));
+    }
+
+    @GetMapping("/rate-limit-exceeded")
+    public void rateLimitExceeded() {
+        throw new RateLimitExceededException("test rate limit exceeded", Duration.ofMillis(2500));
+    }
+
     @PostMapping("/method-argument")
     public void methodArgument(@Valid @RequestBody TestDTO testDTO) {}
 